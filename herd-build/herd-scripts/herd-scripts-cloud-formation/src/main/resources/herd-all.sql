@@ -836,6 +836,8 @@ CREATE INDEX scrty_role_fn_ix1 ON scrty_role_fn USING btree (scrty_fn_cd);
 
 CREATE INDEX stge_file_ix1 ON strge_file USING btree (fully_qlfd_file_nm);
 
+CREATE INDEX strge_file_ix2 ON strge_file USING btree (fully_qlfd_file_nm text_pattern_ops);
+
 CREATE UNIQUE INDEX strge_atrbt_ak ON strge_atrbt USING btree (strge_cd, atrbt_nm);
 
 CREATE INDEX strge_atrbt_ix1 ON strge_atrbt USING btree (strge_cd);
@@ -848,6 +850,8 @@ CREATE UNIQUE INDEX strge_unit_ak ON strge_unit USING btree (strge_cd, bus_objct
 
 CREATE INDEX strge_unit_ix2 ON strge_unit USING btree (bus_objct_data_id);
 
+CREATE INDEX strge_unit_ix3 ON strge_unit USING btree (strge_cd, drcty_path_tx);
+
 CREATE UNIQUE INDEX xpctd_prtn_value_ak ON xpctd_prtn_value USING btree (prtn_key_group_tx, prtn_value_tx);
 
 CREATE INDEX xpctd_prtn_value_ix1 ON xpctd_prtn_value USING btree (prtn_key_group_tx);
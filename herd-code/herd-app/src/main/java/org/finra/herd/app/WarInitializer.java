@@ -38,6 +38,7 @@ import org.finra.herd.rest.config.RestSpringModuleConfig;
 import org.finra.herd.service.config.ServiceEnvSpringModuleConfig;
 import org.finra.herd.service.config.ServiceSpringModuleConfig;
 import org.finra.herd.ui.RequestLoggingFilter;
+import org.finra.herd.ui.ResponseCompressionFilter;
 import org.finra.herd.ui.config.UiEnvSpringModuleConfig;
 import org.finra.herd.ui.config.UiSpringModuleConfig;
 
@@ -47,6 +48,16 @@ import org.finra.herd.ui.config.UiSpringModuleConfig;
  */
 public class WarInitializer implements WebApplicationInitializer
 {
+    /**
+     * The maximum number of request payload bytes captured and logged by the request logging filter.
+     */
+    private static final int REQUEST_LOGGING_MAX_PAYLOAD_LENGTH = 64 * 1024;
+
+    /**
+     * The minimum number of response bytes for a REST response to get compressed by the response compression filter.
+     */
+    private static final int RESPONSE_COMPRESSION_MIN_SIZE = 2 * 1024;
+
     @Override
     public void onStartup(ServletContext servletContext) throws ServletException
     {
@@ -57,6 +68,7 @@ public class WarInitializer implements WebApplicationInitializer
         initLog4JMdcLoggingFilter(servletContext);
         initCharacterEncodingFilter(servletContext);
         initRequestLoggingFilter(servletContext);
+        initResponseCompressionFilter(servletContext);
         initServletMapping(servletContext);
     }
 
@@ -142,7 +154,22 @@ public class WarInitializer implements WebApplicationInitializer
     protected void initRequestLoggingFilter(ServletContext servletContext)
     {
         // Add a filter that logs incoming HTTP request and configure flags to enable more detailed logging.
+        // Bound the captured request payload so large request bodies (e.g. bulk registrations) don't get copied in full when request logging is enabled.
         FilterRegistration.Dynamic filterRegistration = servletContext.addFilter("requestLoggingFilter", new RequestLoggingFilter());
+        filterRegistration.setInitParameter("maxPayloadLength", String.valueOf(REQUEST_LOGGING_MAX_PAYLOAD_LENGTH));
+        filterRegistration.addMappingForUrlPatterns(null, true, "/rest/*");
+    }
+
+    /**
+     * Initializes the response compression filter that compresses the REST responses for the clients that accept a compressed response.
+     *
+     * @param servletContext the servlet context.
+     */
+    protected void initResponseCompressionFilter(ServletContext servletContext)
+    {
+        // Add a filter that compresses large REST responses (e.g. business object data with many storage files, DDL and job listings) as they are written.
+        FilterRegistration.Dynamic filterRegistration = servletContext.addFilter("responseCompressionFilter", new ResponseCompressionFilter());
+        filterRegistration.setInitParameter("minCompressionSize", String.valueOf(RESPONSE_COMPRESSION_MIN_SIZE));
         filterRegistration.addMappingForUrlPatterns(null, true, "/rest/*");
     }
 
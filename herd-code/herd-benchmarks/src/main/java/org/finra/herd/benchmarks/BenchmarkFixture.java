@@ -0,0 +1,317 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.finra.herd.core.ApplicationContextHolder;
+import org.finra.herd.dao.HerdDao;
+import org.finra.herd.dao.config.DaoSpringModuleConfig;
+import org.finra.herd.model.api.xml.BusinessObjectData;
+import org.finra.herd.model.api.xml.BusinessObjectDataDdlRequest;
+import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.api.xml.Storage;
+import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.api.xml.StorageUnit;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.BusinessObjectDataEntity;
+import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
+import org.finra.herd.model.jpa.StorageFileEntity;
+import org.finra.herd.model.jpa.StorageUnitEntity;
+import org.finra.herd.model.jpa.StorageUnitStatusEntity;
+import org.finra.herd.service.BusinessObjectDataSeeder;
+import org.finra.herd.service.config.ServiceTestSpringModuleConfig;
+
+/**
+ * The fixture shared by the benchmarks. It starts the same Spring context as the service unit tests, i.e. an embedded database with mock AWS operations, and
+ * seeds the database with the business object data seeder shared with the load test. Unlike the unit tests, the seeded data is committed, so it is visible to
+ * all the benchmark threads and iterations.
+ */
+public class BenchmarkFixture
+{
+    private final AnnotationConfigApplicationContext applicationContext;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BusinessObjectDataSeeder businessObjectDataSeeder;
+
+    private final HerdDao herdDao;
+
+    /**
+     * The configuration values overridden by the benchmarks. They take precedence over all the other property sources of the environment.
+     */
+    private final Map<String, Object> overriddenProperties = new HashMap<>();
+
+    private BenchmarkFixture(AnnotationConfigApplicationContext applicationContext)
+    {
+        this.applicationContext = applicationContext;
+        transactionTemplate = new TransactionTemplate(
+            applicationContext.getBean(DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME, PlatformTransactionManager.class));
+        applicationContext.getEnvironment().getPropertySources()
+            .addFirst(new MapPropertySource(BenchmarkFixture.class.getSimpleName(), overriddenProperties));
+
+        businessObjectDataSeeder = new BusinessObjectDataSeeder();
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(businessObjectDataSeeder);
+        herdDao = applicationContext.getBean(HerdDao.class);
+    }
+
+    /**
+     * Starts the Spring context and creates a fixture wired to it.
+     *
+     * @return the fixture
+     */
+    public static BenchmarkFixture start()
+    {
+        // Set the application context in the context holder before it is refreshed, so the static @Bean methods have access to it, the same way the
+        // context loader of the unit tests does.
+        AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
+        ApplicationContextHolder.setApplicationContext(applicationContext);
+        applicationContext.register(ServiceTestSpringModuleConfig.class);
+        applicationContext.refresh();
+
+        return new BenchmarkFixture(applicationContext);
+    }
+
+    /**
+     * Stops the Spring context, which also drops the embedded database.
+     */
+    public void stop()
+    {
+        applicationContext.close();
+    }
+
+    /**
+     * Gets a bean from the Spring context.
+     *
+     * @param beanClass the bean class
+     * @param <T> the type of the bean
+     *
+     * @return the bean
+     */
+    public <T> T getBean(Class<T> beanClass)
+    {
+        return applicationContext.getBean(beanClass);
+    }
+
+    /**
+     * Overrides a configuration value for the rest of the benchmark trial.
+     *
+     * @param configurationValue the configuration value
+     * @param value the value to use instead of the configured one
+     */
+    public void overrideProperty(ConfigurationValue configurationValue, Object value)
+    {
+        overriddenProperties.put(configurationValue.getKey(), value);
+    }
+
+    /**
+     * Executes the specified callback within a read-only transaction, the same way the read-only service methods are executed.
+     *
+     * @param transactionCallback the callback
+     * @param <T> the type of the result
+     *
+     * @return the result of the callback
+     */
+    public <T> T executeReadOnly(TransactionCallback<T> transactionCallback)
+    {
+        TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+        return readOnlyTransactionTemplate.execute(transactionCallback);
+    }
+
+    /**
+     * Gets the specified number of consecutive daily partition values.
+     *
+     * @param partitionCount the number of partition values
+     *
+     * @return the list of partition values in ascending order
+     */
+    public List<String> getPartitionValues(int partitionCount)
+    {
+        return businessObjectDataSeeder.getPartitionValues(partitionCount);
+    }
+
+    /**
+     * Creates and commits a business object format with a schema and the specified number of business object data instances registered in S3 storage, each
+     * with its own storage files.
+     *
+     * @param partitionCount the number of business object data instances
+     *
+     * @return the business object format key of the seeded business object data
+     */
+    public BusinessObjectFormatKey seedBusinessObjectData(final int partitionCount)
+    {
+        return transactionTemplate.execute(new TransactionCallback<BusinessObjectFormatKey>()
+        {
+            @Override
+            public BusinessObjectFormatKey doInTransaction(TransactionStatus status)
+            {
+                return businessObjectDataSeeder.seedBusinessObjectData(partitionCount);
+            }
+        });
+    }
+
+    /**
+     * Gets the key of the seeded business object format.
+     *
+     * @return the business object format key
+     */
+    public BusinessObjectFormatKey getBusinessObjectFormatKey()
+    {
+        return businessObjectDataSeeder.getBusinessObjectFormatKey();
+    }
+
+    /**
+     * Gets the seeded business object format entity. It must be called within a transaction if the lazily loaded associations of the entity are used.
+     *
+     * @return the business object format entity
+     */
+    public BusinessObjectFormatEntity getBusinessObjectFormatEntity()
+    {
+        return businessObjectDataSeeder.getBusinessObjectFormatEntity();
+    }
+
+    /**
+     * Gets the version of the seeded business object data.
+     *
+     * @return the business object data version
+     */
+    public Integer getBusinessObjectDataVersion()
+    {
+        return businessObjectDataSeeder.getBusinessObjectDataVersion();
+    }
+
+    /**
+     * Gets the names of the storages the seeded business object data is registered in.
+     *
+     * @return the list of storage names
+     */
+    public List<String> getStorageNames()
+    {
+        return businessObjectDataSeeder.getStorageNames();
+    }
+
+    /**
+     * Creates a Hive 13 DDL request for the specified partition values of the seeded business object data.
+     *
+     * @param partitionValues the list of partition values
+     *
+     * @return the business object data DDL request
+     */
+    public BusinessObjectDataDdlRequest createBusinessObjectDataDdlRequest(List<String> partitionValues)
+    {
+        return businessObjectDataSeeder.createBusinessObjectDataDdlRequest(partitionValues);
+    }
+
+    /**
+     * Registers business object data with a storage unit that has the specified number of storage files in a transaction that is rolled back, so it can be
+     * called repeatedly with the same partition value. The storage files are persisted by cascade when the storage unit is saved.
+     *
+     * @param partitionValue the partition value of the business object data
+     * @param fileCount the number of storage files
+     *
+     * @return the saved storage unit entity
+     */
+    public StorageUnitEntity saveStorageUnitWithStorageFiles(final String partitionValue, final int fileCount)
+    {
+        return transactionTemplate.execute(new TransactionCallback<StorageUnitEntity>()
+        {
+            @Override
+            public StorageUnitEntity doInTransaction(TransactionStatus status)
+            {
+                status.setRollbackOnly();
+
+                BusinessObjectDataEntity businessObjectDataEntity = businessObjectDataSeeder.createBusinessObjectDataEntity(partitionValue);
+
+                StorageUnitEntity storageUnitEntity = new StorageUnitEntity();
+                storageUnitEntity.setStorage(herdDao.getStorageByName(businessObjectDataSeeder.getStorageName()));
+                storageUnitEntity.setBusinessObjectData(businessObjectDataEntity);
+                storageUnitEntity.setStatus(herdDao.getStorageUnitStatusByCode(StorageUnitStatusEntity.ENABLED));
+
+                List<StorageFileEntity> storageFileEntities = new ArrayList<>(fileCount);
+                for (StorageFile storageFile : createStorageFiles(partitionValue, fileCount))
+                {
+                    StorageFileEntity storageFileEntity = new StorageFileEntity();
+                    storageFileEntity.setStorageUnit(storageUnitEntity);
+                    storageFileEntity.setPath(storageFile.getFilePath());
+                    storageFileEntity.setFileSizeBytes(storageFile.getFileSizeBytes());
+                    storageFileEntity.setRowCount(storageFile.getRowCount());
+                    storageFileEntities.add(storageFileEntity);
+                }
+                storageUnitEntity.setStorageFiles(storageFileEntities);
+
+                return herdDao.saveAndRefresh(storageUnitEntity);
+            }
+        });
+    }
+
+    /**
+     * Creates the specified number of storage files located under the specified S3 key prefix.
+     *
+     * @param s3KeyPrefix the S3 key prefix
+     * @param fileCount the number of storage files
+     *
+     * @return the list of storage files
+     */
+    public List<StorageFile> createStorageFiles(String s3KeyPrefix, int fileCount)
+    {
+        return businessObjectDataSeeder.createStorageFiles(s3KeyPrefix, fileCount);
+    }
+
+    /**
+     * Creates a business object data with a single S3 storage unit that has the specified number of storage files, the biggest payload the REST API commonly
+     * returns.
+     *
+     * @param fileCount the number of storage files
+     *
+     * @return the business object data
+     */
+    public BusinessObjectData createBusinessObjectData(int fileCount)
+    {
+        StorageUnit storageUnit = new StorageUnit();
+        Storage storage = new Storage();
+        storage.setName("S3_MANAGED");
+        storage.setStoragePlatformName("S3");
+        storageUnit.setStorage(storage);
+        storageUnit.setStorageFiles(createStorageFiles("ns/bdef/usage/txt/schm-v0/data-v0/prtn=2015-01-01", fileCount));
+
+        BusinessObjectData businessObjectData = new BusinessObjectData();
+        businessObjectData.setId(1);
+        businessObjectData.setNamespace("NAMESPACE");
+        businessObjectData.setBusinessObjectDefinitionName("BDEF");
+        businessObjectData.setBusinessObjectFormatUsage("PRC");
+        businessObjectData.setBusinessObjectFormatFileType("TXT");
+        businessObjectData.setBusinessObjectFormatVersion(0);
+        businessObjectData.setPartitionKey("date");
+        businessObjectData.setPartitionValue("2015-01-01");
+        businessObjectData.setVersion(0);
+        businessObjectData.setLatestVersion(true);
+        businessObjectData.setStatus("VALID");
+        businessObjectData.setStorageUnits(Arrays.asList(storageUnit));
+        return businessObjectData;
+    }
+}
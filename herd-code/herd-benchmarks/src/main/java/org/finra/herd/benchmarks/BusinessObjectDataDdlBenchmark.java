@@ -0,0 +1,100 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import org.finra.herd.model.api.xml.BusinessObjectDataDdl;
+import org.finra.herd.model.api.xml.BusinessObjectDataDdlRequest;
+import org.finra.herd.service.BusinessObjectDataService;
+import org.finra.herd.service.helper.BusinessObjectDataHelper;
+
+/**
+ * Benchmarks the generation of Hive 13 business object data DDL, including the partition filters it is built from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BusinessObjectDataDdlBenchmark
+{
+    /**
+     * The number of business object data instances registered with the business object format and selected by the DDL request.
+     */
+    @Param({"100", "1000"})
+    public int partitionCount;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private BusinessObjectDataService businessObjectDataService;
+
+    private BusinessObjectDataHelper businessObjectDataHelper;
+
+    private List<String> partitionValues;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        businessObjectDataService = benchmarkFixture.getBean(BusinessObjectDataService.class);
+        businessObjectDataHelper = benchmarkFixture.getBean(BusinessObjectDataHelper.class);
+        benchmarkFixture.seedBusinessObjectData(partitionCount);
+        partitionValues = benchmarkFixture.getPartitionValues(partitionCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public BusinessObjectDataDdl generateBusinessObjectDataDdl()
+    {
+        return businessObjectDataService.generateBusinessObjectDataDdl(benchmarkFixture.createBusinessObjectDataDdlRequest(partitionValues));
+    }
+
+    @Benchmark
+    public List<List<String>> buildPartitionFilters()
+    {
+        final BusinessObjectDataDdlRequest request = benchmarkFixture.createBusinessObjectDataDdlRequest(partitionValues);
+
+        // The business object format is looked up within the transaction, since its schema columns are loaded lazily.
+        return benchmarkFixture.executeReadOnly(new TransactionCallback<List<List<String>>>()
+        {
+            @Override
+            public List<List<String>> doInTransaction(TransactionStatus status)
+            {
+                return businessObjectDataHelper
+                    .buildPartitionFilters(request.getPartitionValueFilters(), request.getPartitionValueFilter(), benchmarkFixture.getBusinessObjectFormatKey(),
+                        request.getBusinessObjectDataVersion(), benchmarkFixture.getStorageNames(), benchmarkFixture.getBusinessObjectFormatEntity());
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the herd benchmarks JAR. It accepts the standard JMH command line options, e.g. a regular expression selecting the benchmarks to run,
+ * and always records the GC profiler output, i.e. the allocation rate and the garbage collections per benchmark. Unless specified otherwise on the command
+ * line, the results are written as JSON to "herd-benchmarks.json", so they can be compared across builds.
+ */
+public class HerdBenchmarks
+{
+    private static final String DEFAULT_RESULT_FILE_NAME = "herd-benchmarks.json";
+
+    private HerdBenchmarks()
+    {
+        // Prevent instantiation of this class.
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line options
+     *
+     * @throws CommandLineOptionException if the command line options are not valid
+     * @throws RunnerException if the benchmarks could not be run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException
+    {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class);
+
+        // Run all the herd benchmarks when no benchmarks are selected on the command line.
+        if (commandLineOptions.getIncludes().isEmpty())
+        {
+            optionsBuilder.include(HerdBenchmarks.class.getPackage().getName() + ".*Benchmark");
+        }
+
+        // Use a single fork with a moderate number of iterations by default, since every benchmark seeds its own embedded database.
+        if (!commandLineOptions.getForkCount().hasValue())
+        {
+            optionsBuilder.forks(1);
+        }
+        if (!commandLineOptions.getWarmupIterations().hasValue())
+        {
+            optionsBuilder.warmupIterations(5);
+        }
+        if (!commandLineOptions.getMeasurementIterations().hasValue())
+        {
+            optionsBuilder.measurementIterations(10);
+        }
+
+        // Write machine-readable results by default.
+        if (!commandLineOptions.getResultFormat().hasValue())
+        {
+            optionsBuilder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue())
+        {
+            optionsBuilder.result(DEFAULT_RESULT_FILE_NAME);
+        }
+
+        new Runner(optionsBuilder.build()).run();
+    }
+}
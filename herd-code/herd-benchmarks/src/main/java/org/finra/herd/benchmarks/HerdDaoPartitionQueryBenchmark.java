@@ -0,0 +1,121 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import org.finra.herd.dao.HerdDao;
+import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
+import org.finra.herd.model.jpa.StorageUnitEntity;
+
+/**
+ * Benchmarks the business object data partition queries of the herd DAO against the embedded database. The minimum and maximum partition value lookups
+ * are benchmarked by {@link PartitionValueBoundsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HerdDaoPartitionQueryBenchmark
+{
+    /**
+     * The number of business object data instances registered with the business object format.
+     */
+    @Param({"1000", "10000"})
+    public int partitionCount;
+
+    /**
+     * The number of partition values selected by each query.
+     */
+    @Param({"100"})
+    public int selectedPartitionCount;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private HerdDao herdDao;
+
+    private BusinessObjectFormatKey businessObjectFormatKey;
+
+    private List<List<String>> partitionFilters;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        herdDao = benchmarkFixture.getBean(HerdDao.class);
+        businessObjectFormatKey = benchmarkFixture.seedBusinessObjectData(partitionCount);
+
+        // Select the partition values in the middle of the registered ones, so the queries do not benefit from hitting either end of the indexes.
+        List<String> partitionValues = benchmarkFixture.getPartitionValues(partitionCount);
+        int fromIndex = (partitionCount - selectedPartitionCount) / 2;
+        partitionFilters = new ArrayList<>();
+        for (String partitionValue : partitionValues.subList(fromIndex, fromIndex + selectedPartitionCount))
+        {
+            partitionFilters.add(Arrays.asList(partitionValue, null, null, null, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages()
+    {
+        return benchmarkFixture.executeReadOnly(new TransactionCallback<List<StorageUnitEntity>>()
+        {
+            @Override
+            public List<StorageUnitEntity> doInTransaction(TransactionStatus status)
+            {
+                return herdDao.getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters,
+                    benchmarkFixture.getBusinessObjectDataVersion(), null, benchmarkFixture.getStorageNames(), null, null, true);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<StorageUnitAvailabilityDto> getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages()
+    {
+        return benchmarkFixture.executeReadOnly(new TransactionCallback<List<StorageUnitAvailabilityDto>>()
+        {
+            @Override
+            public List<StorageUnitAvailabilityDto> doInTransaction(TransactionStatus status)
+            {
+                return herdDao.getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, null,
+                    BusinessObjectDataStatusEntity.VALID, benchmarkFixture.getStorageNames(), null, null, true);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.service.helper.HerdHelper;
+
+/**
+ * Benchmarks the validation of the registered storage files against the files actually found in S3.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HerdHelperBenchmark
+{
+    private static final String S3_KEY_PREFIX = "ns/bdef/usage/txt/schm-v0/data-v0/prtn=2015-01-01";
+
+    /**
+     * The number of storage files registered with the storage unit.
+     */
+    @Param({"1000", "10000"})
+    public int fileCount;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private HerdHelper herdHelper;
+
+    private List<StorageFile> storageFiles;
+
+    private List<String> actualS3Files;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        herdHelper = benchmarkFixture.getBean(HerdHelper.class);
+        storageFiles = benchmarkFixture.createStorageFiles(S3_KEY_PREFIX, fileCount);
+
+        // List the actual S3 files in reverse order, the same way they are not guaranteed to be in the registration order.
+        actualS3Files = new ArrayList<>(fileCount);
+        for (int i = storageFiles.size() - 1; i >= 0; i--)
+        {
+            actualS3Files.add(storageFiles.get(i).getFilePath());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public void validateS3Files()
+    {
+        herdHelper.validateS3Files("S3_MANAGED", storageFiles, actualS3Files, S3_KEY_PREFIX);
+    }
+}
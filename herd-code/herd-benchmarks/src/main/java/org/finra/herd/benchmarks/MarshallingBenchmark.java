@@ -0,0 +1,106 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.finra.herd.dao.helper.JsonHelper;
+import org.finra.herd.dao.helper.XmlHelper;
+import org.finra.herd.model.api.xml.BusinessObjectData;
+
+/**
+ * Benchmarks the XML and JSON marshalling of a business object data with a large storage unit, the biggest payload the REST API commonly returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MarshallingBenchmark
+{
+    /**
+     * The number of storage files registered with the storage unit.
+     */
+    @Param({"100", "10000"})
+    public int fileCount;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private XmlHelper xmlHelper;
+
+    private JsonHelper jsonHelper;
+
+    private BusinessObjectData businessObjectData;
+
+    private String businessObjectDataXml;
+
+    private String businessObjectDataJson;
+
+    @Setup(Level.Trial)
+    public void setup() throws JAXBException, IOException
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        xmlHelper = benchmarkFixture.getBean(XmlHelper.class);
+        jsonHelper = benchmarkFixture.getBean(JsonHelper.class);
+
+        businessObjectData = benchmarkFixture.createBusinessObjectData(fileCount);
+
+        businessObjectDataXml = xmlHelper.objectToXml(businessObjectData);
+        businessObjectDataJson = jsonHelper.objectToJson(businessObjectData);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public String objectToXml() throws JAXBException
+    {
+        return xmlHelper.objectToXml(businessObjectData);
+    }
+
+    @Benchmark
+    public BusinessObjectData unmarshallXmlToObject() throws JAXBException
+    {
+        return xmlHelper.unmarshallXmlToObject(BusinessObjectData.class, businessObjectDataXml);
+    }
+
+    @Benchmark
+    public String objectToJson() throws IOException
+    {
+        return jsonHelper.objectToJson(businessObjectData);
+    }
+
+    @Benchmark
+    public BusinessObjectData unmarshallJsonToObject() throws IOException
+    {
+        return jsonHelper.unmarshallJsonToObject(BusinessObjectData.class, businessObjectDataJson);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import org.finra.herd.dao.HerdDao;
+import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.BusinessObjectDataEntity;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
+
+/**
+ * Benchmarks the minimum and maximum partition value lookups of the herd DAO against the embedded database, with and without the in-memory partition value
+ * bounds index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionValueBoundsBenchmark
+{
+    /**
+     * The number of business object data instances registered with the business object format.
+     */
+    @Param({"1000", "10000"})
+    public int partitionCount;
+
+    /**
+     * Specifies whether the lookups are served from the partition value bounds index. When it is disabled, every lookup runs the aggregate query against the
+     * database.
+     */
+    @Param({"false", "true"})
+    public boolean boundsIndexEnabled;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private HerdDao herdDao;
+
+    private BusinessObjectFormatKey businessObjectFormatKey;
+
+    private String upperBoundPartitionValue;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        benchmarkFixture.overrideProperty(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS, boundsIndexEnabled ? 3600 : 0);
+        herdDao = benchmarkFixture.getBean(HerdDao.class);
+        businessObjectFormatKey = benchmarkFixture.seedBusinessObjectData(partitionCount);
+
+        // Bound the maximum partition value by the partition value in the middle of the registered ones, so the query does not benefit from hitting the end
+        // of the index.
+        List<String> partitionValues = benchmarkFixture.getPartitionValues(partitionCount);
+        upperBoundPartitionValue = partitionValues.get(partitionCount / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public String getBusinessObjectDataMaxPartitionValue()
+    {
+        return benchmarkFixture.executeReadOnly(new TransactionCallback<String>()
+        {
+            @Override
+            public String doInTransaction(TransactionStatus status)
+            {
+                return herdDao.getBusinessObjectDataMaxPartitionValue(BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, businessObjectFormatKey, null,
+                    BusinessObjectDataStatusEntity.VALID, benchmarkFixture.getStorageNames(), upperBoundPartitionValue, null);
+            }
+        });
+    }
+
+    @Benchmark
+    public String getBusinessObjectDataMinPartitionValue()
+    {
+        return benchmarkFixture.executeReadOnly(new TransactionCallback<String>()
+        {
+            @Override
+            public String doInTransaction(TransactionStatus status)
+            {
+                return herdDao.getBusinessObjectDataMinPartitionValue(BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, businessObjectFormatKey, null,
+                    BusinessObjectDataStatusEntity.VALID, benchmarkFixture.getStorageNames());
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xml.sax.SAXException;
+
+import org.finra.herd.model.api.xml.BusinessObjectData;
+
+/**
+ * Benchmarks the work done to write a business object data XML REST response, i.e. marshalling it with or without validating it against the XSD, the way the
+ * REST marshaller does depending on "jaxb.response.schema.validation.enabled", and with or without gzip compressing it, the way the response compression
+ * filter does. The number of bytes that would be sent on the wire is logged once per trial, since it does not vary across the iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResponseSerializationBenchmark
+{
+    private static final Logger LOGGER = Logger.getLogger(ResponseSerializationBenchmark.class);
+
+    /**
+     * The number of storage files registered with the storage unit.
+     */
+    @Param({"100", "10000"})
+    public int fileCount;
+
+    /**
+     * Specifies whether the response is validated against the XSD as it is marshalled.
+     */
+    @Param({"false", "true"})
+    public boolean schemaValidationEnabled;
+
+    /**
+     * Specifies whether the response is gzip compressed.
+     */
+    @Param({"false", "true"})
+    public boolean compressionEnabled;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private Marshaller marshaller;
+
+    private BusinessObjectData businessObjectData;
+
+    @Setup(Level.Trial)
+    public void setup() throws JAXBException, SAXException, IOException
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        businessObjectData = benchmarkFixture.createBusinessObjectData(fileCount);
+
+        marshaller = JAXBContext.newInstance(BusinessObjectData.class).createMarshaller();
+        if (schemaValidationEnabled)
+        {
+            Schema schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(getClass().getResource("/herd.xsd"));
+            marshaller.setSchema(schema);
+        }
+
+        LOGGER.info(String.format("Business object data with %d storage file(s) is %d byte(s) on the wire with compression %s.", fileCount, writeResponse(),
+            compressionEnabled ? "enabled" : "disabled"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    /**
+     * Writes the response and returns the number of bytes written.
+     *
+     * @return the number of bytes that would be sent on the wire
+     *
+     * @throws JAXBException if the business object data could not be marshalled
+     * @throws IOException if the response could not be compressed
+     */
+    @Benchmark
+    public int writeResponse() throws JAXBException, IOException
+    {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        OutputStream outputStream = compressionEnabled ? new GZIPOutputStream(byteArrayOutputStream) : byteArrayOutputStream;
+        marshaller.marshal(businessObjectData, outputStream);
+        outputStream.close();
+        return byteArrayOutputStream.size();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.test.util.AopTestUtils;
+
+import org.finra.herd.dao.S3Dao;
+import org.finra.herd.dao.S3Operations;
+import org.finra.herd.dao.impl.MockS3OperationsImpl;
+import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
+
+/**
+ * Benchmarks the listing of an S3 key prefix, with and without the concurrent listing of its "sub-directories". The mock S3 operations return up to 1000 keys
+ * per list request and wait for the simulated round trip time of every request, so the results reflect the number of list requests and how many of them
+ * are sent concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class S3ListingBenchmark
+{
+    private static final String S3_BUCKET_NAME = "herd-benchmarks";
+
+    private static final String S3_KEY_PREFIX = "ns/bdef/usage/txt/schm-v0/data-v0/";
+
+    /**
+     * The simulated round trip time of a list request in milliseconds.
+     */
+    private static final long LIST_OBJECTS_LATENCY_MILLIS = 20;
+
+    /**
+     * The total number of S3 objects under the S3 key prefix.
+     */
+    @Param({"10000"})
+    public int fileCount;
+
+    /**
+     * The number of "sub-directories" the S3 objects are spread across. Zero puts all the S3 objects right under the S3 key prefix.
+     */
+    @Param({"0", "10", "100"})
+    public int subdirectoryCount;
+
+    /**
+     * Specifies whether the sub-directories are listed concurrently.
+     */
+    @Param({"false", "true"})
+    public boolean concurrentListingEnabled;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    private S3Dao s3Dao;
+
+    private S3FileTransferRequestParamsDto params;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        benchmarkFixture.overrideProperty(ConfigurationValue.AWS_S3_LISTING_CONCURRENT_ENABLED, concurrentListingEnabled);
+        s3Dao = benchmarkFixture.getBean(S3Dao.class);
+
+        // Put the S3 objects, spreading them evenly across the sub-directories.
+        S3Operations s3Operations = benchmarkFixture.getBean(S3Operations.class);
+        for (int i = 0; i < fileCount; i++)
+        {
+            String subdirectory = subdirectoryCount == 0 ? "" : String.format("prtn=%04d/", i % subdirectoryCount);
+            s3Operations.putObject(new PutObjectRequest(S3_BUCKET_NAME, String.format("%s%s%06d.dat", S3_KEY_PREFIX, subdirectory, i),
+                new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+        }
+
+        MockS3OperationsImpl mockS3Operations = AopTestUtils.getUltimateTargetObject(s3Operations);
+        mockS3Operations.setListObjectsLatencyMillis(LIST_OBJECTS_LATENCY_MILLIS);
+
+        params = S3FileTransferRequestParamsDto.builder().s3BucketName(S3_BUCKET_NAME).s3KeyPrefix(S3_KEY_PREFIX).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public List<StorageFile> listDirectory()
+    {
+        return s3Dao.listDirectory(params);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.finra.herd.model.jpa.StorageUnitEntity;
+
+/**
+ * Benchmarks saving a storage unit with a large number of storage files, which stamps the audit fields of the whole entity graph and persists the storage
+ * files by cascade.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageUnitSaveBenchmark
+{
+    /**
+     * The partition value of the business object data registered by the benchmark. It is not used by the seeded business object data.
+     */
+    private static final String PARTITION_VALUE = "2099-12-31";
+
+    /**
+     * The number of storage files registered with the storage unit.
+     */
+    @Param({"1000", "10000"})
+    public int fileCount;
+
+    private BenchmarkFixture benchmarkFixture;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        benchmarkFixture = BenchmarkFixture.start();
+        benchmarkFixture.seedBusinessObjectData(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        benchmarkFixture.stop();
+    }
+
+    @Benchmark
+    public StorageUnitEntity saveStorageUnitWithStorageFiles()
+    {
+        return benchmarkFixture.saveStorageUnitWithStorageFiles(PARTITION_VALUE, fileCount);
+    }
+}
@@ -16,6 +16,7 @@
 package org.finra.herd.dao;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +40,7 @@ import org.finra.herd.model.api.xml.StoragePolicyKey;
 import org.finra.herd.model.dto.DateRangeDto;
 import org.finra.herd.model.dto.StorageAlternateKeyDto;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectDefinitionEntity;
@@ -294,6 +296,39 @@ public interface HerdDao extends BaseJpaDao
      */
     public List<ExpectedPartitionValueEntity> getExpectedPartitionValuesByGroupAndRange(String partitionKeyGroupName, PartitionValueRange partitionValueRange);
 
+    /**
+     * Gets a sorted list of expected partition values by group. In read-only transactions, the range is resolved using the in-memory index of the partition
+     * key group when it is available.
+     *
+     * @param partitionKeyGroupName the partition key group name (case-insensitive)
+     * @param partitionValueRange the optional partition value range
+     *
+     * @return the sorted list of expected partition values
+     */
+    public List<String> getExpectedPartitionValueStringsByGroupAndRange(String partitionKeyGroupName, PartitionValueRange partitionValueRange);
+
+    /**
+     * Creates and persists expected partition values in the specified partition key group. All the values are flushed at once, so they are inserted in JDBC
+     * batches.
+     *
+     * @param partitionKeyGroupEntity the partition key group entity
+     * @param expectedPartitionValues the list of expected partition values to create
+     *
+     * @return the list of created expected partition value entities
+     */
+    public List<ExpectedPartitionValueEntity> createExpectedPartitionValues(PartitionKeyGroupEntity partitionKeyGroupEntity,
+        List<String> expectedPartitionValues);
+
+    /**
+     * Deletes expected partition values from the specified partition key group. All the values are flushed at once, so they are deleted in JDBC batches when
+     * the Hibernate JDBC batch size is configured.
+     *
+     * @param partitionKeyGroupEntity the partition key group entity
+     * @param expectedPartitionValueEntities the expected partition value entities to delete
+     */
+    public void deleteExpectedPartitionValues(PartitionKeyGroupEntity partitionKeyGroupEntity,
+        Collection<ExpectedPartitionValueEntity> expectedPartitionValueEntities);
+
     // CustomDdl
 
     /**
@@ -394,6 +429,16 @@ public interface HerdDao extends BaseJpaDao
     public String getBusinessObjectDataMinPartitionValue(int partitionColumnPosition, BusinessObjectFormatKey businessObjectFormatKey,
         Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames);
 
+    /**
+     * Rebuilds the in-memory partition value bounds used to serve the minimum and maximum partition value lookups on this node. Every lookup held for the
+     * business object format is run against the database again and the reloaded bounds replace the existing ones. The bounds are dropped instead if business
+     * object data is changed while they are being reloaded.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive) identifying the business object format whose bounds are rebuilt. The
+     * business object format version is ignored. If null, the bounds of all business object formats are rebuilt.
+     */
+    public void rebuildBusinessObjectDataPartitionValueBoundsIndex(BusinessObjectFormatKey businessObjectFormatKey);
+
     /**
      * Returns a number of business object data instances registered with this business object format.
      *
@@ -560,6 +605,33 @@ public interface HerdDao extends BaseJpaDao
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
         String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits);
 
+    /**
+     * Retrieves a list of read-only storage unit availability DTOs per specified parameters. This method selects the same storage units as {@link
+     * #getStorageUnitsByPartitionFiltersAndStorages}, but it only selects the flat list of values needed by business object data availability checks, so no
+     * entities are loaded into the persistence context.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the latest
+     * available format version for each partition value will be used.
+     * @param partitionFilters the list of partition filter to be used to select business object data instances. Each partition filter contains a list of
+     * primary and sub-partition values in the right order up to the maximum partition levels allowed by business object data registration - with partition
+     * values for the relative partitions not to be used for selection passed as nulls.
+     * @param businessObjectDataVersion the business object data version. If a business object data version isn't specified, the latest data version based on
+     * the specified business object data status is returned.
+     * @param businessObjectDataStatus the business object data status. This parameter is ignored when the business object data version is specified. When
+     * business object data version and business object data status both are not specified, the latest data version for each set of partition values will be
+     * used regardless of the status.
+     * @param storageNames the optional list of storage names where the business object data storage units should be looked for (case-insensitive)
+     * @param storagePlatformType the optional storage platform type, e.g. S3 for Hive DDL. It is ignored when the list of storages is not empty
+     * @param excludedStoragePlatformType the optional storage platform type to be excluded from search. It is ignored when the list of storages is not empty or
+     * the storage platform type is specified
+     * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
+     *
+     * @return the list of storage unit availability DTOs sorted by partition values and storage names
+     */
+    public List<StorageUnitAvailabilityDto> getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits);
+
     // StorageFile
 
     /**
@@ -727,6 +799,15 @@ public interface HerdDao extends BaseJpaDao
      */
     public JmsMessageEntity getOldestJmsMessage();
 
+    /**
+     * Selects the oldest JMS messages (the messages with the lowest sequence generated ids) from the queue.
+     *
+     * @param maxResults the maximum number of messages to return
+     *
+     * @return the list of JMS messages ordered from the oldest to the newest
+     */
+    public List<JmsMessageEntity> getOldestJmsMessages(int maxResults);
+
     // OnDemandPricing
 
     /**
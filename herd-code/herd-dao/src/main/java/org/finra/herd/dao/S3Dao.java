@@ -83,6 +83,32 @@ public interface S3Dao
      */
     public List<StorageFile> listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers);
 
+    /**
+     * Lists all S3 objects matching the S3 key prefix in the given bucket (S3 bucket name) and passes them to the handler a page at a time, so the S3 objects
+     * can be processed while they are being listed without holding all of them in memory. When the concurrent listing is enabled, the "sub-directories"
+     * right under the S3 key prefix are listed concurrently, so the pages are not passed in S3 key order. The handler is never called by more than one thread
+     * at a time.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters. The S3 bucket name and S3 key prefix identify the S3 objects to get
+     * listed.
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories.
+     * @param storageFilesHandler the handler of the listed S3 objects represented as storage files.
+     */
+    public void listDirectory(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, boolean ignoreZeroByteDirectoryMarkers,
+        StorageFilesHandler storageFilesHandler);
+
+    /**
+     * Lists the common prefixes of all S3 objects matching the S3 key prefix in the given bucket (S3 bucket name), rolled up at the first occurrence of the
+     * delimiter after the S3 key prefix. This lets all the "sub-directories" of a prefix be discovered without listing the S3 objects stored under them.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters. The S3 bucket name and S3 key prefix identify the S3 objects to get
+     * listed.
+     * @param delimiter the delimiter used to roll up the S3 object keys
+     *
+     * @return the list of common prefixes, each ending with the delimiter.
+     */
+    public List<String> listCommonPrefixes(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto, String delimiter);
+
     /**
      * Uploads a local file into S3.
      *
@@ -216,4 +242,17 @@ public interface S3Dao
      * @return a pre-signed URL
      */
     public String generateGetObjectPresignedUrl(String bucketName, String key, Date expiration, S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto);
+
+    /**
+     * A handler of the S3 objects listed by a streaming directory listing.
+     */
+    public interface StorageFilesHandler
+    {
+        /**
+         * Handles a page of listed S3 objects.
+         *
+         * @param storageFiles the listed S3 objects represented as storage files
+         */
+        public void handle(List<StorageFile> storageFiles);
+    }
 }
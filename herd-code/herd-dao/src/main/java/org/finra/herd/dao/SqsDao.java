@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao;
 
+import java.util.List;
+
 import org.finra.herd.model.dto.AwsParamsDto;
 
 /**
@@ -23,4 +25,15 @@ import org.finra.herd.model.dto.AwsParamsDto;
 public interface SqsDao
 {
     public void sendSqsTextMessage(AwsParamsDto awsParamsDto, String queueName, String messageText);
+
+    /**
+     * Sends text messages to the specified AWS SQS queue in batches.
+     *
+     * @param awsParamsDto the AWS related parameters
+     * @param queueName the queue name
+     * @param messageTexts the message texts
+     *
+     * @return the positions of the messages that could not be sent, empty if all the messages were sent
+     */
+    public List<Integer> sendSqsTextMessages(AwsParamsDto awsParamsDto, String queueName, List<String> messageTexts);
 }
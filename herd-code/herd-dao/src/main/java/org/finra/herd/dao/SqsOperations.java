@@ -15,6 +15,8 @@
 */
 package org.finra.herd.dao;
 
+import java.util.List;
+
 import com.amazonaws.ClientConfiguration;
 
 /**
@@ -26,4 +28,12 @@ public interface SqsOperations
      * Sends a text message to the specified AWS SQS queue.
      */
     public void sendSqsTextMessage(ClientConfiguration client, String queueName, String messageText);
+
+    /**
+     * Sends text messages to the specified AWS SQS queue using as few batch requests as possible. Sending stops after the first batch with a failed message,
+     * and the messages of the following batches are reported as failed as well.
+     *
+     * @return the positions of the messages that could not be sent, empty if all the messages were sent.
+     */
+    public List<Integer> sendSqsTextMessages(ClientConfiguration client, String queueName, List<String> messageTexts);
 }
@@ -27,4 +27,7 @@ public interface StsDao
 {
     public Credentials getTemporarySecurityCredentials(AwsParamsDto awsParamsDto, String sessionName, String awsRoleArn, int awsRoleDurationSeconds, 
         Policy policy);
+
+    public Credentials getCachedTemporarySecurityCredentials(AwsParamsDto awsParamsDto, String sessionName, String awsRoleArn, int awsRoleDurationSeconds,
+        Policy policy);
 }
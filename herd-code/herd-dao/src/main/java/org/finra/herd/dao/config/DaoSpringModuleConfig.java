@@ -165,6 +165,8 @@ public class DaoSpringModuleConfig implements CachingConfigurer
         properties.setProperty("hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.EhCacheRegionFactory");
         properties.setProperty("hibernate.cache.use_query_cache", "true");
         properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        // Set the optional JDBC batch size.
+        properties.setProperty(ConfigurationValue.HIBERNATE_JDBC_BATCH_SIZE.getKey(), configurationHelper.getProperty(ConfigurationValue.HIBERNATE_JDBC_BATCH_SIZE));
         // Set the "show sql" flag.
         properties.setProperty(ConfigurationValue.SHOW_SQL.getKey(), configurationHelper.getProperty(ConfigurationValue.SHOW_SQL));
         LOGGER.info("Show SQL: " + properties.getProperty(ConfigurationValue.SHOW_SQL.getKey()));
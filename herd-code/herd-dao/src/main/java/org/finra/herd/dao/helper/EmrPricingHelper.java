@@ -26,18 +26,28 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.services.ec2.model.AvailabilityZone;
 import com.amazonaws.services.ec2.model.SpotPrice;
 import com.amazonaws.services.ec2.model.Subnet;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.Ec2Dao;
 import org.finra.herd.model.ObjectNotFoundException;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.Ec2PriceDto;
 import org.finra.herd.model.dto.EmrClusterPriceDto;
 import org.finra.herd.model.jpa.OnDemandPriceEntity;
@@ -49,10 +59,15 @@ import org.finra.herd.model.api.xml.MasterInstanceDefinition;
  * Encapsulates logic for calculating the best price for EMR cluster.
  */
 @Component
-public class EmrPricingHelper extends AwsHelper
+public class EmrPricingHelper extends AwsHelper implements DisposableBean
 {
     private static final Logger LOGGER = Logger.getLogger(EmrPricingHelper.class);
 
+    /**
+     * The maximum number of pricing snapshots to keep. When exceeded, the expired snapshots are evicted first, then the oldest ones.
+     */
+    private static final int MAX_PRICING_SNAPSHOTS = 1000;
+
     @Autowired
     private Ec2Dao ec2Dao;
 
@@ -62,6 +77,29 @@ public class EmrPricingHelper extends AwsHelper
     @Autowired
     private HerdStringHelper herdStringHelper;
 
+    /**
+     * The recently looked up subnets, availability zones, spot prices and on-demand prices keyed by the kind of the lookup and its parameters, so bursts of
+     * cluster creates with the same definition share a single EC2 or database call for each of them within the time to live.
+     */
+    private final SingleFlightCache<String, Object> pricingSnapshots = new SingleFlightCache<>("EMR pricing snapshot", MAX_PRICING_SNAPSHOTS);
+
+    /**
+     * The executor service shared by all the concurrent spot price lookups. It is created on first use.
+     */
+    private ThreadPoolExecutor spotPriceExecutorService;
+
+    @Override
+    public void destroy() throws Exception
+    {
+        synchronized (this)
+        {
+            if (spotPriceExecutorService != null)
+            {
+                spotPriceExecutorService.shutdownNow();
+            }
+        }
+    }
+
     /**
      * Finds the best price for each master and core instances based on the subnets and master and core instance search parameters given in the definition.
      * <p/>
@@ -81,8 +119,8 @@ public class EmrPricingHelper extends AwsHelper
         // Get total count of instances this definition will attempt to create
         int totalInstanceCount = getTotalInstanceCount(emrClusterDefinition);
 
-        // Get the subnet information
-        List<Subnet> subnets = getSubnets(emrClusterDefinition);
+        // Get the subnet information. The subnets are copied, since the list is shared with the other callers within the time to live.
+        List<Subnet> subnets = new ArrayList<>(getSubnets(emrClusterDefinition));
         // Filter out subnets with not enough available IPs
         removeSubnetsWithAvailableIpsLessThan(subnets, totalInstanceCount);
 
@@ -115,6 +153,10 @@ public class EmrPricingHelper extends AwsHelper
 
         // Get AZs for the subnets
         List<AvailabilityZone> availabilityZones = getAvailabilityZones(subnets);
+
+        // Look up the spot prices that are not current yet for all the AZs at once, so the prices are compared below without waiting on EC2 for each AZ.
+        loadInstanceTypeSpotPrices(availabilityZones, requestedInstanceTypes);
+
         for (AvailabilityZone availabilityZone : availabilityZones)
         {
             // Create a mapping of instance types to prices for more efficient, in-memory lookup
@@ -504,7 +546,7 @@ public class EmrPricingHelper extends AwsHelper
 
     /**
      * Returns a mapping of instance types to on-demand prices for the given AZ and instance types. The on-demand prices are retrieved from database
-     * configurations. The on-demand prices are looked up by the AZ's region name.
+     * configurations. The on-demand prices are looked up by the AZ's region name and reused for the configured time to live.
      *
      * @param availabilityZone The availability zone of the on-demand instances.
      * @param instanceTypes The sizes of the on-demand instances.
@@ -514,25 +556,38 @@ public class EmrPricingHelper extends AwsHelper
      */
     private Map<String, BigDecimal> getInstanceTypeOnDemandPrices(AvailabilityZone availabilityZone, Set<String> instanceTypes)
     {
+        final String regionName = availabilityZone.getRegionName();
+
         Map<String, BigDecimal> instanceTypeOnDemandPrices = new HashMap<>();
-        for (String instanceType : instanceTypes)
+        for (final String instanceType : instanceTypes)
         {
-            OnDemandPriceEntity onDemandPrice = herdDao.getOnDemandPrice(availabilityZone.getRegionName(), instanceType);
-
-            if (onDemandPrice == null)
-            {
-                throw new ObjectNotFoundException(
-                    "On-demand price for region '" + availabilityZone.getRegionName() + "' and instance type '" + instanceType + "' not found.");
-            }
-
-            instanceTypeOnDemandPrices.put(instanceType, onDemandPrice.getValue());
+            BigDecimal onDemandPrice = getPricingSnapshot("onDemandPrice|" + regionName + "|" + instanceType,
+                ConfigurationValue.EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS, new Callable<BigDecimal>()
+                {
+                    @Override
+                    public BigDecimal call()
+                    {
+                        OnDemandPriceEntity onDemandPriceEntity = herdDao.getOnDemandPrice(regionName, instanceType);
+
+                        if (onDemandPriceEntity == null)
+                        {
+                            throw new ObjectNotFoundException(
+                                "On-demand price for region '" + regionName + "' and instance type '" + instanceType + "' not found.");
+                        }
+
+                        return onDemandPriceEntity.getValue();
+                    }
+                });
+
+            instanceTypeOnDemandPrices.put(instanceType, onDemandPrice);
         }
 
         return instanceTypeOnDemandPrices;
     }
 
     /**
-     * Returns a mapping of instance types to spot prices for the given AZ and instance types. The spot prices are retrieved from EC2 API.
+     * Returns a mapping of instance types to spot prices for the given AZ and instance types. The spot prices are retrieved from EC2 API and reused for the
+     * configured time to live.
      * <p/>
      * This method also validates that the given instance types are real instance types supported by AWS.
      *
@@ -542,15 +597,27 @@ public class EmrPricingHelper extends AwsHelper
      * @return A mapping of instance type to spot prices.
      * @throws ObjectNotFoundException when any of the instance type does not exist in AWS
      */
-    private Map<String, BigDecimal> getInstanceTypeSpotPrices(AvailabilityZone availabilityZone, Set<String> instanceTypes)
+    private Map<String, BigDecimal> getInstanceTypeSpotPrices(AvailabilityZone availabilityZone, final Set<String> instanceTypes)
     {
-        List<SpotPrice> spotPrices = ec2Dao.getLatestSpotPrices(availabilityZone.getZoneName(), instanceTypes, getAwsParamsDto());
-
-        Map<String, BigDecimal> instanceTypeSpotPrices = new HashMap<>();
-        for (SpotPrice spotPrice : spotPrices)
-        {
-            instanceTypeSpotPrices.put(spotPrice.getInstanceType(), new BigDecimal(spotPrice.getSpotPrice()));
-        }
+        final String zoneName = availabilityZone.getZoneName();
+
+        Map<String, BigDecimal> instanceTypeSpotPrices =
+            getPricingSnapshot(getSpotPricesSnapshotKey(zoneName, instanceTypes), ConfigurationValue.EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS,
+                new Callable<Map<String, BigDecimal>>()
+                {
+                    @Override
+                    public Map<String, BigDecimal> call()
+                    {
+                        List<SpotPrice> spotPrices = ec2Dao.getLatestSpotPrices(zoneName, instanceTypes, getAwsParamsDto());
+
+                        Map<String, BigDecimal> spotPricesByInstanceType = new HashMap<>();
+                        for (SpotPrice spotPrice : spotPrices)
+                        {
+                            spotPricesByInstanceType.put(spotPrice.getInstanceType(), new BigDecimal(spotPrice.getSpotPrice()));
+                        }
+                        return Collections.unmodifiableMap(spotPricesByInstanceType);
+                    }
+                });
 
         // Ensure that all of the specified instance types were found.
         // If not found, it probably means user tried to lookup non-existent types.
@@ -566,21 +633,147 @@ public class EmrPricingHelper extends AwsHelper
     }
 
     /**
-     * Returns a list of AZ's which the given list of subnets belong to.
+     * Looks up the spot prices for the given AZs and instance types that are not current, so the following calls to {@link #getInstanceTypeSpotPrices} are
+     * served from memory. The AZs are looked up concurrently on the shared spot price executor service.
+     *
+     * @param availabilityZones The AZs of the spot instances.
+     * @param instanceTypes The size of the spot instances.
+     *
+     * @throws ObjectNotFoundException when any of the instance type does not exist in AWS
+     */
+    private void loadInstanceTypeSpotPrices(List<AvailabilityZone> availabilityZones, final Set<String> instanceTypes)
+    {
+        long timeToLiveMillis = getTimeToLiveMillis(ConfigurationValue.EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS);
+
+        List<AvailabilityZone> availabilityZonesToLoad = new ArrayList<>();
+        for (AvailabilityZone availabilityZone : availabilityZones)
+        {
+            if (!pricingSnapshots.contains(getSpotPricesSnapshotKey(availabilityZone.getZoneName(), instanceTypes)))
+            {
+                availabilityZonesToLoad.add(availabilityZone);
+            }
+        }
+
+        // A single AZ is left to be looked up along with the prices comparison. Without a time to live, the prices would be looked up twice.
+        int maxThreads = Math.min(configurationHelper.getProperty(ConfigurationValue.EMR_PRICING_MAX_THREADS, Integer.class), availabilityZonesToLoad.size());
+        if (timeToLiveMillis <= 0 || maxThreads <= 1)
+        {
+            return;
+        }
+
+        ExecutorService executorService = getSpotPriceExecutorService();
+        List<Future<Map<String, BigDecimal>>> futures = new ArrayList<>();
+        try
+        {
+            for (final AvailabilityZone availabilityZone : availabilityZonesToLoad)
+            {
+                futures.add(executorService.submit(new Callable<Map<String, BigDecimal>>()
+                {
+                    @Override
+                    public Map<String, BigDecimal> call()
+                    {
+                        return getInstanceTypeSpotPrices(availabilityZone, instanceTypes);
+                    }
+                }));
+            }
+
+            for (Future<Map<String, BigDecimal>> future : futures)
+            {
+                future.get();
+            }
+
+            LOGGER.debug(String.format("Looked up spot prices for instance types %s in %d AZ(s) using up to %d thread(s).", instanceTypes,
+                availabilityZonesToLoad.size(), maxThreads));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up the spot prices.", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            // Stop looking up the spot prices of the remaining AZs if one of them failed. The completed lookups are not affected.
+            for (Future<Map<String, BigDecimal>> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Gets the executor service shared by all the concurrent spot price lookups. It is bounded by the configured maximum number of threads and a queue of the
+     * same size. When both are full, the thread that submits an AZ looks up its spot prices itself.
+     *
+     * @return the executor service
+     */
+    private synchronized ExecutorService getSpotPriceExecutorService()
+    {
+        if (spotPriceExecutorService == null)
+        {
+            int maxThreads = configurationHelper.getProperty(ConfigurationValue.EMR_PRICING_MAX_THREADS, Integer.class);
+            spotPriceExecutorService = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(maxThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+            spotPriceExecutorService.allowCoreThreadTimeOut(true);
+        }
+
+        return spotPriceExecutorService;
+    }
+
+    /**
+     * Returns the key of the spot prices snapshot for the given AZ and instance types. The instance types are sorted, so the key does not depend on their
+     * order.
+     *
+     * @param zoneName The AZ name
+     * @param instanceTypes The instance types
+     *
+     * @return the pricing snapshot key
+     */
+    private String getSpotPricesSnapshotKey(String zoneName, Set<String> instanceTypes)
+    {
+        return "spotPrices|" + zoneName + "|" + StringUtils.join(new TreeSet<>(instanceTypes), ",");
+    }
+
+    /**
+     * Returns a list of AZ's which the given list of subnets belong to. The AZ's are reused for the configured subnet time to live.
      *
      * @param subnets List of subnets in the AZ
      *
      * @return A list of AZ's
      */
-    private List<AvailabilityZone> getAvailabilityZones(List<Subnet> subnets)
+    private List<AvailabilityZone> getAvailabilityZones(final List<Subnet> subnets)
     {
-        return ec2Dao.getAvailabilityZonesForSubnetIds(subnets, getAwsParamsDto());
+        Set<String> zoneNames = new TreeSet<>();
+        for (Subnet subnet : subnets)
+        {
+            zoneNames.add(subnet.getAvailabilityZone());
+        }
+
+        return getPricingSnapshot("availabilityZones|" + StringUtils.join(zoneNames, ","), ConfigurationValue.EMR_PRICING_SUBNET_CACHE_TIME_TO_LIVE_SECS,
+            new Callable<List<AvailabilityZone>>()
+            {
+                @Override
+                public List<AvailabilityZone> call()
+                {
+                    return Collections.unmodifiableList(ec2Dao.getAvailabilityZonesForSubnetIds(subnets, getAwsParamsDto()));
+                }
+            });
     }
 
     /**
      * Returns a list of subnets specified in the definition. The definition specifies a comma-separated list of subnet IDs. This method parses it, looks up the
      * subnet from AWS, and returns the list. If the subnet is not specified or empty, all subnets in the current VPC is returned. This is AWS's default
      * behavior. All subnet IDs will be trimmed, and ignored if empty.
+     * <p/>
+     * The subnets, including their available IP address counts, are reused for the configured subnet time to live. The returned list is shared and must not
+     * be modified.
      *
      * @param emrClusterDefinition The definition specifying the subnet IDs
      *
@@ -596,7 +789,52 @@ public class EmrPricingHelper extends AwsHelper
             subnetIds = herdStringHelper.splitAndTrim(definitionSubnetId, ",");
         }
 
-        return ec2Dao.getSubnets(subnetIds, getAwsParamsDto());
+        final Set<String> sortedSubnetIds = new TreeSet<>(subnetIds);
+        return getPricingSnapshot("subnets|" + StringUtils.join(sortedSubnetIds, ","), ConfigurationValue.EMR_PRICING_SUBNET_CACHE_TIME_TO_LIVE_SECS,
+            new Callable<List<Subnet>>()
+            {
+                @Override
+                public List<Subnet> call()
+                {
+                    return Collections.unmodifiableList(ec2Dao.getSubnets(sortedSubnetIds, getAwsParamsDto()));
+                }
+            });
+    }
+
+    /**
+     * Gets a pricing snapshot, reusing the result looked up for the same key within the time to live. Concurrent requests for the same snapshot result in a
+     * single lookup. Failed lookups are not cached. When the time to live is 0, the lookup is always performed.
+     *
+     * @param snapshotKey the key identifying the kind of the lookup and its parameters
+     * @param timeToLive the configuration value of the time to live in seconds
+     * @param lookup the EC2 or database lookup
+     *
+     * @return the pricing snapshot
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getPricingSnapshot(String snapshotKey, ConfigurationValue timeToLive, Callable<T> lookup)
+    {
+        return (T) pricingSnapshots.get(snapshotKey, getTimeToLiveMillis(timeToLive), (Callable<Object>) lookup);
+    }
+
+    /**
+     * Returns the time to live of the pricing snapshots in milliseconds.
+     *
+     * @param timeToLive the configuration value of the time to live in seconds
+     *
+     * @return the time to live in milliseconds
+     */
+    private long getTimeToLiveMillis(ConfigurationValue timeToLive)
+    {
+        return 1000L * configurationHelper.getProperty(timeToLive, Integer.class);
+    }
+
+    /**
+     * Removes all the pricing snapshots, so the following lookups are performed again regardless of the time to live.
+     */
+    void clearPricingSnapshots()
+    {
+        pricingSnapshots.clear();
     }
 
     /**
@@ -16,7 +16,6 @@
 package org.finra.herd.dao.helper;
 
 import java.io.IOException;
-import java.io.StringWriter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
@@ -27,6 +26,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class JsonHelper
 {
+    /**
+     * The object mapper shared by all calls. An object mapper is thread safe once configured and is expensive to create, since it caches serializers and
+     * deserializers per type.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     /**
      * Serializes any Java value as JSON output.
      *
@@ -37,12 +42,7 @@ public class JsonHelper
      */
     public String objectToJson(Object object) throws IOException
     {
-        ObjectMapper mapper = new ObjectMapper();
-
-        StringWriter sw = new StringWriter();
-        mapper.writeValue(sw, object);
-
-        return sw.toString();
+        return OBJECT_MAPPER.writeValueAsString(object);
     }
 
     /**
@@ -56,6 +56,6 @@ public class JsonHelper
      */
     public <T> T unmarshallJsonToObject(Class<T> classType, String jsonContent) throws IOException
     {
-        return new ObjectMapper().readValue(jsonContent, classType);
+        return OBJECT_MAPPER.readValue(jsonContent, classType);
     }
 }
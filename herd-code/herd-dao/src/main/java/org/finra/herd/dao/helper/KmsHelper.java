@@ -15,7 +15,13 @@
 */
 package org.finra.herd.dao.helper;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -29,6 +35,13 @@ import org.finra.herd.model.dto.ConfigurationValue;
 @Component
 public class KmsHelper
 {
+    private static final Logger LOGGER = Logger.getLogger(KmsHelper.class);
+
+    /**
+     * The maximum number of decrypted values to keep. When exceeded, the expired values are evicted first, then the oldest ones.
+     */
+    private static final int MAX_DECRYPTED_VALUES = 1000;
+
     @Autowired
     private ConfigurationHelper configurationHelper;
 
@@ -39,21 +52,71 @@ public class KmsHelper
     private KmsDao kmsDao;
 
     /**
-     * Gets the decrypted value for the given configuration option.
+     * The cached decrypted values keyed by the SHA-256 hash of their cipher text, so the cipher text itself is not kept around as a key.
+     */
+    private final SingleFlightCache<String, String> decryptedValueCache = new SingleFlightCache<>("KMS decrypted value", MAX_DECRYPTED_VALUES);
+
+    /**
+     * The cipher text hash last seen for each configuration value. It is used to evict the cached decrypted value once the configuration value is reloaded
+     * with a different cipher text.
+     */
+    private final ConcurrentMap<ConfigurationValue, String> cipherTextHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the decrypted value for the given configuration option. The decrypted value is cached for the configured time to live, so repeated calls for the
+     * same cipher text do not result in a KMS call each time. The configuration value is read on every call, so a cipher text that gets changed by a reload
+     * of the property source is picked up right away and the value decrypted from the old cipher text is evicted.
      *
      * @param configurationValue - The configuration which contains the encrypted value.
      *
      * @return decrypted value
      */
-    public String getDecryptedConfigurationValue(ConfigurationValue configurationValue)
+    public String getDecryptedConfigurationValue(final ConfigurationValue configurationValue)
     {
-        String encryptedValue = configurationHelper.getProperty(configurationValue);
+        final String encryptedValue = configurationHelper.getProperty(configurationValue);
 
         if (StringUtils.isBlank(encryptedValue))
         {
             throw new IllegalStateException("Unable to decrypt configuration value \"" + configurationValue.getKey() + "\" since it is not configured.");
         }
 
+        final int timeToLiveSecs = configurationHelper.getProperty(ConfigurationValue.KMS_DECRYPTED_VALUE_CACHE_TIME_TO_LIVE_SECS, Integer.class);
+        if (timeToLiveSecs <= 0)
+        {
+            return decrypt(configurationValue, encryptedValue);
+        }
+
+        final String cacheKey = DigestUtils.sha256Hex(encryptedValue);
+
+        // Evict the value decrypted from the previous cipher text when the configuration value has changed.
+        String previousCacheKey = cipherTextHashes.put(configurationValue, cacheKey);
+        if (previousCacheKey != null && !previousCacheKey.equals(cacheKey))
+        {
+            LOGGER.debug(String.format("Encrypted configuration value \"%s\" has changed. Evicting its previously decrypted value.", configurationValue.getKey()));
+            decryptedValueCache.remove(previousCacheKey);
+        }
+
+        // Decrypt the value unless it is cached, sharing the KMS call with any other thread that is already decrypting the same cipher text.
+        return decryptedValueCache.get(cacheKey, 1000L * timeToLiveSecs, new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return decrypt(configurationValue, encryptedValue);
+            }
+        });
+    }
+
+    /**
+     * Decrypts the specified encrypted value using KMS.
+     *
+     * @param configurationValue the configuration which contains the encrypted value
+     * @param encryptedValue the encrypted value
+     *
+     * @return the decrypted value
+     */
+    private String decrypt(ConfigurationValue configurationValue, String encryptedValue)
+    {
         try
         {
             return kmsDao.decrypt(awsHelper.getAwsParamsDto(), encryptedValue);
@@ -0,0 +1,312 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An in-memory cache of values that are loaded on demand and kept for a time to live. Concurrent requests for a value that is not cached yet share a single
+ * load. A failed load is not cached, so the next request loads the value again. When the cache is full, the expired values are evicted first and, if that is
+ * not enough, the values cached the longest ago are evicted.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class SingleFlightCache<K, V>
+{
+    private static final Logger LOGGER = Logger.getLogger(SingleFlightCache.class);
+
+    private final String name;
+
+    private final int maxEntries;
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The sequence the entries are numbered with, so the entries cached the longest ago can be evicted first.
+     */
+    private final AtomicLong entrySequence = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     *
+     * @param name the name of the cache, used in the log messages
+     * @param maxEntries the maximum number of values to keep
+     */
+    public SingleFlightCache(String name, int maxEntries)
+    {
+        this.name = name;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the value for the specified key, loading it unless a value loaded within the time to live is cached or is being loaded. When the time to live is
+     * 0, the value is always loaded and not cached.
+     *
+     * @param key the key
+     * @param timeToLiveMillis the time to live of a newly loaded value in milliseconds
+     * @param loader the loader of the value
+     *
+     * @return the value
+     */
+    public V get(K key, long timeToLiveMillis, Callable<V> loader)
+    {
+        Entry<V> entry;
+        boolean cached = timeToLiveMillis > 0;
+        boolean loadedByThisThread = false;
+
+        if (cached)
+        {
+            // Reuse the value that is already loaded or being loaded, unless it has expired.
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry))
+            {
+                entries.remove(key, entry);
+                entry = null;
+            }
+            if (entry == null)
+            {
+                if (entries.size() >= getMaxEntries())
+                {
+                    evictEntries();
+                }
+                Entry<V> newEntry = new Entry<>(loader, timeToLiveMillis, entrySequence.incrementAndGet());
+                entry = entries.putIfAbsent(key, newEntry);
+                if (entry == null)
+                {
+                    entry = newEntry;
+                    loadedByThisThread = true;
+                }
+            }
+        }
+        else
+        {
+            entry = new Entry<>(loader, timeToLiveMillis, 0);
+            loadedByThisThread = true;
+        }
+
+        if (loadedByThisThread)
+        {
+            long loads = loadCount.incrementAndGet();
+            LOGGER.debug(String.format("Loading \"%s\" into the %s cache. loadCount=%d hitCount=%d", key, name, loads, hitCount.get()));
+            entry.request.run();
+        }
+        else
+        {
+            hitCount.incrementAndGet();
+        }
+
+        try
+        {
+            return entry.request.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for \"" + key + "\" to get loaded into the " + name + " cache.", e);
+        }
+        catch (ExecutionException e)
+        {
+            // Do not keep the failed load, so the next request loads the value again.
+            if (cached)
+            {
+                entries.remove(key, entry);
+            }
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns true if a value that has not expired is cached or is being loaded for the specified key.
+     *
+     * @param key the key
+     *
+     * @return true if the next request for the key does not load the value, false otherwise
+     */
+    public boolean contains(K key)
+    {
+        Entry<V> entry = entries.get(key);
+        return entry != null && !isExpired(entry);
+    }
+
+    /**
+     * Removes the value of the specified key, so the next request for it loads the value again.
+     *
+     * @param key the key
+     */
+    public void remove(K key)
+    {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the values of the keys that match the specified predicate.
+     *
+     * @param predicate the predicate of the keys to remove
+     */
+    public void removeIf(Predicate<? super K> predicate)
+    {
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of requests that reused a cached value or a value that was being loaded.
+     *
+     * @return the hit count
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of times a value was loaded.
+     *
+     * @return the load count
+     */
+    public long getLoadCount()
+    {
+        return loadCount.get();
+    }
+
+    /**
+     * Gets the maximum number of values to keep. It can be overridden to read the maximum number of values from the configuration.
+     *
+     * @return the maximum number of values
+     */
+    protected int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * Returns true if the specified loaded value can still be handed out. It can be overridden for values that expire on their own before their time to live.
+     *
+     * @param value the loaded value
+     *
+     * @return true if the value can be handed out, false otherwise
+     */
+    protected boolean isUsable(V value)
+    {
+        return true;
+    }
+
+    /**
+     * Returns true if the specified entry has outlived its time to live, or if it was loaded and its value can not be handed out anymore.
+     *
+     * @param entry the entry
+     *
+     * @return true if the entry has expired, false otherwise
+     */
+    private boolean isExpired(Entry<V> entry)
+    {
+        if (System.currentTimeMillis() - entry.loadTimeMillis >= entry.timeToLiveMillis)
+        {
+            return true;
+        }
+        if (!entry.request.isDone())
+        {
+            return false;
+        }
+
+        try
+        {
+            return !isUsable(entry.request.get());
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            // The load failed, so the entry is about to be removed by the thread that waits for it.
+            return true;
+        }
+    }
+
+    /**
+     * Evicts the expired entries and, if the cache is still full, the entries cached the longest ago until there is room for a new entry.
+     */
+    private void evictEntries()
+    {
+        for (Iterator<Entry<V>> iterator = entries.values().iterator(); iterator.hasNext(); )
+        {
+            if (isExpired(iterator.next()))
+            {
+                iterator.remove();
+            }
+        }
+
+        while (entries.size() >= getMaxEntries() && !entries.isEmpty())
+        {
+            Map.Entry<K, Entry<V>> oldestEntry = null;
+            for (Map.Entry<K, Entry<V>> entry : entries.entrySet())
+            {
+                if (oldestEntry == null || entry.getValue().sequenceNumber < oldestEntry.getValue().sequenceNumber)
+                {
+                    oldestEntry = entry;
+                }
+            }
+            if (oldestEntry != null)
+            {
+                entries.remove(oldestEntry.getKey(), oldestEntry.getValue());
+            }
+        }
+    }
+
+    /**
+     * A value that is loaded or being loaded, along with the time it started to get loaded at.
+     */
+    private static class Entry<V>
+    {
+        private final long loadTimeMillis = System.currentTimeMillis();
+
+        private final FutureTask<V> request;
+
+        private final long timeToLiveMillis;
+
+        private final long sequenceNumber;
+
+        private Entry(Callable<V> loader, long timeToLiveMillis, long sequenceNumber)
+        {
+            this.request = new FutureTask<>(loader);
+            this.timeToLiveMillis = timeToLiveMillis;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+}
@@ -15,15 +15,17 @@
 */
 package org.finra.herd.dao.helper;
 
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.persistence.jaxb.MarshallerProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -37,6 +39,11 @@ public class XmlHelper
     @Autowired
     private HerdCharacterEscapeHandler herdCharacterEscapeHandler;
 
+    /**
+     * The JAXB contexts per class. JAXB contexts are thread safe and expensive to create, so they are created once per class and then reused.
+     */
+    private final ConcurrentMap<Class<?>, JAXBContext> jaxbContexts = new ConcurrentHashMap<>();
+
     /**
      * Returns XML representation of the object.
      *
@@ -62,8 +69,7 @@ public class XmlHelper
      */
     public String objectToXml(Object obj, boolean formatted) throws JAXBException
     {
-        JAXBContext requestContext = JAXBContext.newInstance(obj.getClass());
-        Marshaller requestMarshaller = requestContext.createMarshaller();
+        Marshaller requestMarshaller = getJaxbContext(obj.getClass()).createMarshaller();
 
         if (formatted)
         {
@@ -93,8 +99,31 @@ public class XmlHelper
     @SuppressWarnings("unchecked")
     public <T> T unmarshallXmlToObject(Class<T> classType, String xmlString) throws JAXBException
     {
-        JAXBContext context = JAXBContext.newInstance(classType);
-        Unmarshaller un = context.createUnmarshaller();
-        return (T) un.unmarshal(IOUtils.toInputStream(xmlString));
+        Unmarshaller un = getJaxbContext(classType).createUnmarshaller();
+        return (T) un.unmarshal(new StringReader(xmlString));
+    }
+
+    /**
+     * Gets the JAXB context for the specified class, creating and caching it on first use. Marshallers and unmarshallers are not thread safe, but are cheap to
+     * create from an existing context, so a new one is still created for each call.
+     *
+     * @param classType the class type of JAXB element
+     *
+     * @return the JAXB context
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    private JAXBContext getJaxbContext(Class<?> classType) throws JAXBException
+    {
+        JAXBContext jaxbContext = jaxbContexts.get(classType);
+        if (jaxbContext == null)
+        {
+            jaxbContext = JAXBContext.newInstance(classType);
+            JAXBContext existingJaxbContext = jaxbContexts.putIfAbsent(classType, jaxbContext);
+            if (existingJaxbContext != null)
+            {
+                jaxbContext = existingJaxbContext;
+            }
+        }
+        return jaxbContext;
     }
 }
@@ -15,12 +15,15 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.elasticmapreduce.AmazonElasticMapReduceClient;
@@ -53,7 +56,9 @@ import com.amazonaws.services.elasticmapreduce.model.StepState;
 import com.amazonaws.services.elasticmapreduce.model.StepSummary;
 import com.amazonaws.services.elasticmapreduce.model.Tag;
 import com.amazonaws.services.elasticmapreduce.util.StepFactory;
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
@@ -64,6 +69,7 @@ import org.finra.herd.dao.EmrDao;
 import org.finra.herd.dao.EmrOperations;
 import org.finra.herd.dao.helper.EmrHelper;
 import org.finra.herd.dao.helper.HerdStringHelper;
+import org.finra.herd.dao.helper.SingleFlightCache;
 import org.finra.herd.model.api.xml.ConfigurationFile;
 import org.finra.herd.model.api.xml.ConfigurationFiles;
 import org.finra.herd.model.api.xml.EmrClusterDefinition;
@@ -84,6 +90,13 @@ import org.finra.herd.model.dto.ConfigurationValue;
 @Repository
 public class EmrDaoImpl implements EmrDao
 {
+    private static final Logger LOGGER = Logger.getLogger(EmrDaoImpl.class);
+
+    /**
+     * The maximum number of pieces of polled cluster state to keep. When exceeded, the expired state is evicted first, then the state polled the longest ago.
+     */
+    private static final int MAX_POLLED_CLUSTER_STATES = 1000;
+
     // Environment for accessing DB properties
     @Autowired
     private ConfigurationHelper configurationHelper;
@@ -100,6 +113,12 @@ public class EmrDaoImpl implements EmrDao
     @Autowired
     private EmrHelper emrHelper;
 
+    /**
+     * The recently polled cluster state keyed by the cluster id and the kind of the request (e.g. the cluster itself, its active step or one of its steps), so
+     * all the workflows polling the same cluster within the time to live share a single AWS call.
+     */
+    private final SingleFlightCache<String, Object> clusterStateCache = new SingleFlightCache<>("EMR cluster state", MAX_POLLED_CLUSTER_STATES);
+
     /**
      * Add an EMR Step. This method adds the step to EMR cluster based on the input.
      *
@@ -126,6 +145,9 @@ public class EmrDaoImpl implements EmrDao
         AddJobFlowStepsRequest jobFlowStepRequest = new AddJobFlowStepsRequest(clusterId, steps);
         List<String> emrStepIds = emrOperations.addJobFlowStepsRequest(getEmrClient(awsParamsDto), jobFlowStepRequest);
 
+        // The cluster steps have changed, so its polled state is no longer current.
+        evictClusterState(clusterId);
+
         return emrStepIds.get(0);
     }
 
@@ -172,7 +194,28 @@ public class EmrDaoImpl implements EmrDao
      * @return the master instance of the cluster.
      */
     @Override
-    public Instance getEmrMasterInstance(String clusterId, AwsParamsDto awsParams) throws Exception
+    public Instance getEmrMasterInstance(final String clusterId, final AwsParamsDto awsParams) throws Exception
+    {
+        // The master instance does not change for the life of the cluster, so it is looked up along with the rest of the polled cluster state.
+        return getPolledClusterState(clusterId, "masterInstance", new Callable<Instance>()
+        {
+            @Override
+            public Instance call() throws Exception
+            {
+                return getEmrMasterInstanceImpl(clusterId, awsParams);
+            }
+        });
+    }
+
+    /**
+     * Gets the master instance of the EMR cluster from AWS.
+     *
+     * @param clusterId EMR cluster id.
+     * @param awsParams the proxy details.
+     *
+     * @return the master instance of the cluster.
+     */
+    private Instance getEmrMasterInstanceImpl(String clusterId, AwsParamsDto awsParams)
     {
         // Get the master EC2 instance
         ListInstancesRequest listInstancesRequest = new ListInstancesRequest().withClusterId(clusterId).withInstanceGroupTypes(InstanceGroupType.MASTER);
@@ -201,7 +244,12 @@ public class EmrDaoImpl implements EmrDao
     @Override
     public String createEmrCluster(String clusterName, EmrClusterDefinition emrClusterDefinition, AwsParamsDto awsParams)
     {
-        return emrOperations.runEmrJobFlow(getEmrClient(awsParams), getRunJobFlowRequest(clusterName, emrClusterDefinition));
+        String clusterId = emrOperations.runEmrJobFlow(getEmrClient(awsParams), getRunJobFlowRequest(clusterName, emrClusterDefinition));
+
+        // Make sure no state polled for a previous cluster with the same id is returned for the new cluster.
+        evictClusterState(clusterId);
+
+        return clusterId;
     }
 
     /**
@@ -220,6 +268,9 @@ public class EmrDaoImpl implements EmrDao
 
         emrOperations.terminateEmrCluster(getEmrClient(awsParams), clusterId, overrideTerminationProtection);
 
+        // The cluster state has changed, so its polled state is no longer current.
+        evictClusterState(clusterId);
+
         return clusterId;
     }
 
@@ -232,17 +283,21 @@ public class EmrDaoImpl implements EmrDao
      * @return the cluster status.
      */
     @Override
-    public Cluster getEmrClusterById(String clusterId, AwsParamsDto awsParams)
+    public Cluster getEmrClusterById(final String clusterId, final AwsParamsDto awsParams)
     {
         Cluster cluster = null;
         if (StringUtils.isNotBlank(clusterId))
         {
-            DescribeClusterResult describeClusterResult =
-                emrOperations.describeClusterRequest(getEmrClient(awsParams), new DescribeClusterRequest().withClusterId(clusterId));
-            if (describeClusterResult != null && describeClusterResult.getCluster() != null)
+            cluster = getPolledClusterState(clusterId, "cluster", new Callable<Cluster>()
             {
-                cluster = describeClusterResult.getCluster();
-            }
+                @Override
+                public Cluster call() throws Exception
+                {
+                    DescribeClusterResult describeClusterResult =
+                        emrOperations.describeClusterRequest(getEmrClient(awsParams), new DescribeClusterRequest().withClusterId(clusterId));
+                    return describeClusterResult == null ? null : describeClusterResult.getCluster();
+                }
+            });
         }
 
         return cluster;
@@ -366,12 +421,19 @@ public class EmrDaoImpl implements EmrDao
      * @return the step summary object.
      */
     @Override
-    public StepSummary getClusterActiveStep(String clusterId, AwsParamsDto awsParamsDto)
+    public StepSummary getClusterActiveStep(final String clusterId, final AwsParamsDto awsParamsDto)
     {
-        ListStepsRequest listStepsRequest = new ListStepsRequest().withClusterId(clusterId).withStepStates(StepState.RUNNING);
-        List<StepSummary> stepSummaryList = emrOperations.listStepsRequest(getEmrClient(awsParamsDto), listStepsRequest).getSteps();
+        return getPolledClusterState(clusterId, "activeStep", new Callable<StepSummary>()
+        {
+            @Override
+            public StepSummary call() throws Exception
+            {
+                ListStepsRequest listStepsRequest = new ListStepsRequest().withClusterId(clusterId).withStepStates(StepState.RUNNING);
+                List<StepSummary> stepSummaryList = emrOperations.listStepsRequest(getEmrClient(awsParamsDto), listStepsRequest).getSteps();
 
-        return (stepSummaryList != null && stepSummaryList.size() > 0) ? stepSummaryList.get(0) : null;
+                return (stepSummaryList != null && stepSummaryList.size() > 0) ? stepSummaryList.get(0) : null;
+            }
+        });
     }
 
     /**
@@ -384,10 +446,67 @@ public class EmrDaoImpl implements EmrDao
      * @return the step object.
      */
     @Override
-    public Step getClusterStep(String clusterId, String stepId, AwsParamsDto awsParamsDto)
+    public Step getClusterStep(final String clusterId, final String stepId, final AwsParamsDto awsParamsDto)
+    {
+        return getPolledClusterState(clusterId, "step|" + stepId, new Callable<Step>()
+        {
+            @Override
+            public Step call() throws Exception
+            {
+                DescribeStepRequest describeStepRequest = new DescribeStepRequest().withClusterId(clusterId).withStepId(stepId);
+                return emrOperations.describeStepRequest(getEmrClient(awsParamsDto), describeStepRequest).getStep();
+            }
+        });
+    }
+
+    /**
+     * Gets a piece of the cluster state, reusing the result polled for the same cluster and request within the configured time to live. Concurrent requests
+     * for the same cluster state result in a single AWS call. Failed AWS calls are not cached. When the time to live is 0, AWS is always called. The polled
+     * AWS model objects are mutable, so each caller gets its own deep copy of the cached state.
+     *
+     * @param clusterId the cluster id
+     * @param requestKey the key identifying the requested piece of the cluster state
+     * @param awsCall the AWS call that polls the requested piece of the cluster state
+     *
+     * @return the polled cluster state
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Serializable> T getPolledClusterState(String clusterId, String requestKey, Callable<T> awsCall)
+    {
+        long timeToLiveMillis = 1000L * configurationHelper.getProperty(ConfigurationValue.EMR_CLUSTER_STATE_CACHE_TIME_TO_LIVE_SECS, Integer.class);
+
+        T polledState = (T) clusterStateCache.get(getClusterStateKeyPrefix(clusterId) + requestKey, timeToLiveMillis, (Callable<Object>) awsCall);
+        return timeToLiveMillis <= 0 || polledState == null ? polledState : SerializationUtils.clone(polledState);
+    }
+
+    /**
+     * Removes the polled state of the specified cluster, so the next request for the cluster state calls AWS.
+     *
+     * @param clusterId the cluster id
+     */
+    private void evictClusterState(String clusterId)
+    {
+        final String keyPrefix = getClusterStateKeyPrefix(clusterId);
+        clusterStateCache.removeIf(new Predicate<String>()
+        {
+            @Override
+            public boolean test(String key)
+            {
+                return key.startsWith(keyPrefix);
+            }
+        });
+    }
+
+    /**
+     * Returns the prefix of the keys of the polled state of the specified cluster.
+     *
+     * @param clusterId the cluster id
+     *
+     * @return the key prefix
+     */
+    private String getClusterStateKeyPrefix(String clusterId)
     {
-        DescribeStepRequest describeStepRequest = new DescribeStepRequest().withClusterId(clusterId).withStepId(stepId);
-        return emrOperations.describeStepRequest(getEmrClient(awsParamsDto), describeStepRequest).getStep();
+        return clusterId + "|";
     }
 
     /**
@@ -1060,4 +1179,4 @@ public class EmrDaoImpl implements EmrDao
         }
         return result;
     }
-}
\ No newline at end of file
+}
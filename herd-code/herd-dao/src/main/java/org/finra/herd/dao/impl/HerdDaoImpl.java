@@ -15,17 +15,22 @@
 */
 package org.finra.herd.dao.impl;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.CascadeType;
 import javax.persistence.OneToMany;
@@ -39,16 +44,22 @@ import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 import javax.persistence.metamodel.SingularAttribute;
 
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.hibernate.collection.spi.PersistentCollection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.orm.jpa.vendor.Database;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 
 import org.finra.herd.core.HerdDateUtils;
@@ -77,6 +88,7 @@ import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.DateRangeDto;
 import org.finra.herd.model.dto.StorageAlternateKeyDto;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
 import org.finra.herd.model.jpa.AuditableEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity_;
@@ -141,6 +153,8 @@ import org.finra.herd.model.jpa.StorageUnitStatusEntity_;
 @Repository
 public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
 {
+    private static final Logger LOGGER = Logger.getLogger(HerdDaoImpl.class);
+
     public static final int MAX_PARTITION_FILTERS_PER_REQUEST = 100;
 
     private static final List<SingularAttribute<BusinessObjectDataEntity, String>> BUSINESS_OBJECT_DATA_PARTITIONS = Arrays
@@ -150,6 +164,40 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
     private static final List<SingularAttribute<BusinessObjectDataEntity, String>> BUSINESS_OBJECT_DATA_SUBPARTITIONS =
         BUSINESS_OBJECT_DATA_PARTITIONS.subList(1, 1 + BusinessObjectDataEntity.MAX_SUBPARTITIONS);
 
+    /**
+     * The tuple element aliases used when selecting storage units along with their relative values.
+     */
+    private static final String STORAGE_UNIT_ALIAS = "storageUnit";
+
+    private static final String BUSINESS_OBJECT_DATA_ALIAS = "businessObjectData";
+
+    private static final String NAMESPACE_ALIAS = "namespace";
+
+    private static final String BUSINESS_OBJECT_DEFINITION_NAME_ALIAS = "businessObjectDefinitionName";
+
+    private static final String BUSINESS_OBJECT_FORMAT_USAGE_ALIAS = "businessObjectFormatUsage";
+
+    private static final String BUSINESS_OBJECT_FORMAT_FILE_TYPE_ALIAS = "businessObjectFormatFileType";
+
+    private static final String BUSINESS_OBJECT_FORMAT_VERSION_ALIAS = "businessObjectFormatVersion";
+
+    private static final String BUSINESS_OBJECT_DATA_VERSION_ALIAS = "businessObjectDataVersion";
+
+    private static final String BUSINESS_OBJECT_DATA_STATUS_ALIAS = "businessObjectDataStatus";
+
+    private static final String STORAGE_NAME_ALIAS = "storageName";
+
+    private static final String STORAGE_PLATFORM_TYPE_ALIAS = "storagePlatformType";
+
+    private static final String STORAGE_DIRECTORY_PATH_ALIAS = "storageDirectoryPath";
+
+    private static final String STORAGE_UNIT_AVAILABLE_ALIAS = "storageUnitAvailable";
+
+    /**
+     * The escape character used by the "like" predicates built against a literal prefix.
+     */
+    private static final char LIKE_ESCAPE_CHARACTER = '\\';
+
     /**
      * Represents aggregate function.
      */
@@ -165,6 +213,45 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
     @Autowired
     private HerdDaoSecurityHelper herdDaoSecurityHelper;
 
+    /**
+     * The in-memory indexes of the expected partition values keyed by the upper-cased partition key group name.
+     */
+    private final ConcurrentMap<String, ExpectedPartitionValuesIndex> expectedPartitionValuesIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * The number of times the expected partition values indexes were invalidated. It lets an index that was loaded while the expected partition values were
+     * being changed be discarded instead of cached.
+     */
+    private final AtomicLong expectedPartitionValuesIndexInvalidationCount = new AtomicLong();
+
+    /**
+     * The in-memory partition value bounds indexes keyed by the upper-cased namespace, business object definition name, business object format usage and
+     * file type of the business object format they were looked up for.
+     */
+    private final ConcurrentMap<String, PartitionValueBoundsIndex> partitionValueBoundsIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * The number of times the partition value bounds indexes were invalidated. It lets a bound that was looked up while business object data was being
+     * changed be discarded instead of cached.
+     */
+    private final AtomicLong partitionValueBoundsIndexInvalidationCount = new AtomicLong();
+
+    /**
+     * The number of partition value bounds indexes loaded so far. It orders the indexes by age, so the oldest one is evicted when the maximum number of
+     * indexes is reached.
+     */
+    private final AtomicLong partitionValueBoundsIndexLoadCount = new AtomicLong();
+
+    /**
+     * The number of minimum and maximum partition value lookups run against the database.
+     */
+    private final AtomicLong partitionValueDatabaseLookupCount = new AtomicLong();
+
+    /**
+     * The fields annotated with a cascading OneToMany keyed by the entity class they are declared in.
+     */
+    private final ConcurrentMap<Class<?>, List<Field>> cascadingOneToManyFields = new ConcurrentHashMap<>();
+
     // System
 
     /**
@@ -839,6 +926,28 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         }
         else
         {
+            // Resolve the offset using the in-memory index of the partition key group, when the index is available and the start value is in it.
+            ExpectedPartitionValuesIndex expectedPartitionValuesIndex = getExpectedPartitionValuesIndex(expectedPartitionValueKey.getPartitionKeyGroupName());
+            Integer position = expectedPartitionValuesIndex == null ? null :
+                expectedPartitionValuesIndex.positions.get(expectedPartitionValueKey.getExpectedPartitionValue());
+            if (position != null)
+            {
+                int offsetPosition = position + offset;
+                if (offsetPosition < 0 || offsetPosition >= expectedPartitionValuesIndex.partitionValues.size())
+                {
+                    return null;
+                }
+                ExpectedPartitionValueEntity offsetExpectedPartitionValueEntity = getExpectedPartitionValue(
+                    new ExpectedPartitionValueKey(expectedPartitionValueKey.getPartitionKeyGroupName(),
+                        expectedPartitionValuesIndex.partitionValues.get(offsetPosition)), 0);
+
+                // The value might have been deleted by another node since the index was loaded, in which case fall back to the query below.
+                if (offsetExpectedPartitionValueEntity != null)
+                {
+                    return offsetExpectedPartitionValueEntity;
+                }
+            }
+
             criteria.select(expectedPartitionValueEntity).where(whereRestriction).orderBy(orderByExpectedPartitionValue);
 
             List<ExpectedPartitionValueEntity> resultList =
@@ -899,6 +1008,190 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         return entityManager.createQuery(criteria).getResultList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getExpectedPartitionValueStringsByGroupAndRange(String partitionKeyGroupName, PartitionValueRange partitionValueRange)
+    {
+        // Resolve the range using the in-memory index of the partition key group, when the index is available and its order matches the range comparisons.
+        ExpectedPartitionValuesIndex expectedPartitionValuesIndex = getExpectedPartitionValuesIndex(partitionKeyGroupName);
+        if (expectedPartitionValuesIndex != null && expectedPartitionValuesIndex.sortedByStringOrder)
+        {
+            List<String> partitionValues = expectedPartitionValuesIndex.partitionValues;
+            int fromPosition = 0;
+            int toPosition = partitionValues.size();
+            if (partitionValueRange != null)
+            {
+                if (StringUtils.isNotBlank(partitionValueRange.getStartPartitionValue()))
+                {
+                    fromPosition = getFirstPosition(partitionValues, partitionValueRange.getStartPartitionValue(), false);
+                }
+                if (StringUtils.isNotBlank(partitionValueRange.getEndPartitionValue()))
+                {
+                    toPosition = getFirstPosition(partitionValues, partitionValueRange.getEndPartitionValue(), true);
+                }
+            }
+
+            return fromPosition < toPosition ? new ArrayList<>(partitionValues.subList(fromPosition, toPosition)) : new ArrayList<String>();
+        }
+
+        List<String> partitionValues = new ArrayList<>();
+        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : getExpectedPartitionValuesByGroupAndRange(partitionKeyGroupName, partitionValueRange))
+        {
+            partitionValues.add(expectedPartitionValueEntity.getPartitionValue());
+        }
+        return partitionValues;
+    }
+
+    /**
+     * Gets the position of the first partition value that is greater than or equal to the specified partition value, or strictly greater than it when
+     * requested, using a binary search.
+     *
+     * @param partitionValues the partition values sorted in the string order
+     * @param partitionValue the partition value to search for
+     * @param skipEqualValue specifies whether a partition value equal to the specified one is skipped
+     *
+     * @return the position
+     */
+    private int getFirstPosition(List<String> partitionValues, String partitionValue, boolean skipEqualValue)
+    {
+        int position = Collections.binarySearch(partitionValues, partitionValue);
+        if (position < 0)
+        {
+            return -position - 1;
+        }
+        return skipEqualValue ? position + 1 : position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ExpectedPartitionValueEntity> createExpectedPartitionValues(PartitionKeyGroupEntity partitionKeyGroupEntity,
+        List<String> expectedPartitionValues)
+    {
+        List<ExpectedPartitionValueEntity> expectedPartitionValueEntities = new ArrayList<>();
+        for (String expectedPartitionValue : expectedPartitionValues)
+        {
+            ExpectedPartitionValueEntity expectedPartitionValueEntity = new ExpectedPartitionValueEntity();
+            expectedPartitionValueEntity.setPartitionKeyGroup(partitionKeyGroupEntity);
+            expectedPartitionValueEntity.setPartitionValue(expectedPartitionValue);
+            save(expectedPartitionValueEntity);
+            expectedPartitionValueEntities.add(expectedPartitionValueEntity);
+        }
+
+        // Keep the partition key group in sync with the database. The partition key group itself is not saved, since that would also update the audit fields
+        // of all its existing expected partition values.
+        if (partitionKeyGroupEntity.getExpectedPartitionValues() != null)
+        {
+            partitionKeyGroupEntity.getExpectedPartitionValues().addAll(expectedPartitionValueEntities);
+        }
+
+        // Flush all the inserts at once.
+        entityManager.flush();
+
+        return expectedPartitionValueEntities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteExpectedPartitionValues(PartitionKeyGroupEntity partitionKeyGroupEntity,
+        Collection<ExpectedPartitionValueEntity> expectedPartitionValueEntities)
+    {
+        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : expectedPartitionValueEntities)
+        {
+            partitionKeyGroupEntity.getExpectedPartitionValues().remove(expectedPartitionValueEntity);
+            entityManager.remove(expectedPartitionValueEntity);
+        }
+
+        // Flush all the deletes at once.
+        entityManager.flush();
+
+        invalidateExpectedPartitionValuesIndex(partitionKeyGroupEntity.getPartitionKeyGroupName());
+    }
+
+    /**
+     * Gets the in-memory index of the expected partition values of the specified partition key group, loading it if needed. The index only holds committed
+     * expected partition values, so it is only used in read-only transactions. Other transactions might have changed the expected partition values
+     * themselves and need to see their own changes.
+     *
+     * @param partitionKeyGroupName the partition key group name (case-insensitive)
+     *
+     * @return the index, or null if the index can not be used in the current transaction or is disabled
+     */
+    private ExpectedPartitionValuesIndex getExpectedPartitionValuesIndex(String partitionKeyGroupName)
+    {
+        long timeToLiveMillis = 1000L * configurationHelper.getProperty(ConfigurationValue.EXPECTED_PARTITION_VALUES_INDEX_TIME_TO_LIVE_SECS, Integer.class);
+        if (timeToLiveMillis <= 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+        {
+            return null;
+        }
+
+        String indexKey = partitionKeyGroupName.toUpperCase();
+        ExpectedPartitionValuesIndex expectedPartitionValuesIndex = expectedPartitionValuesIndexes.get(indexKey);
+        if (expectedPartitionValuesIndex == null || System.currentTimeMillis() - expectedPartitionValuesIndex.loadedTimeMillis >= timeToLiveMillis)
+        {
+            long invalidationCount = expectedPartitionValuesIndexInvalidationCount.get();
+
+            // Load all the expected partition values of the group in the same order the offset queries use.
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<String> criteria = builder.createQuery(String.class);
+            Root<ExpectedPartitionValueEntity> expectedPartitionValueEntity = criteria.from(ExpectedPartitionValueEntity.class);
+            Join<ExpectedPartitionValueEntity, PartitionKeyGroupEntity> partitionKeyGroupEntity =
+                expectedPartitionValueEntity.join(ExpectedPartitionValueEntity_.partitionKeyGroup);
+            Path<String> partitionValue = expectedPartitionValueEntity.get(ExpectedPartitionValueEntity_.partitionValue);
+            criteria.select(partitionValue)
+                .where(builder.equal(builder.upper(partitionKeyGroupEntity.get(PartitionKeyGroupEntity_.partitionKeyGroupName)), indexKey))
+                .orderBy(builder.asc(partitionValue));
+
+            expectedPartitionValuesIndex = new ExpectedPartitionValuesIndex(entityManager.createQuery(criteria).getResultList());
+
+            // Only keep the index if the expected partition values were not changed while it was being loaded.
+            if (expectedPartitionValuesIndexInvalidationCount.get() == invalidationCount)
+            {
+                expectedPartitionValuesIndexes.put(indexKey, expectedPartitionValuesIndex);
+            }
+        }
+
+        return expectedPartitionValuesIndex;
+    }
+
+    /**
+     * Drops the in-memory index of the expected partition values of the specified partition key group. The index is dropped right away and again once the
+     * current transaction completes, so an index loaded before the changes are committed is not kept either.
+     *
+     * @param partitionKeyGroupName the partition key group name (case-insensitive)
+     */
+    private void invalidateExpectedPartitionValuesIndex(String partitionKeyGroupName)
+    {
+        String indexKey = partitionKeyGroupName.toUpperCase();
+
+        expectedPartitionValuesIndexInvalidationCount.incrementAndGet();
+        expectedPartitionValuesIndexes.remove(indexKey);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            // Register a single synchronization per transaction that drops all the indexes invalidated by the transaction.
+            ExpectedPartitionValuesIndexInvalidation expectedPartitionValuesIndexInvalidation = null;
+            for (TransactionSynchronization transactionSynchronization : TransactionSynchronizationManager.getSynchronizations())
+            {
+                if (transactionSynchronization instanceof ExpectedPartitionValuesIndexInvalidation)
+                {
+                    expectedPartitionValuesIndexInvalidation = (ExpectedPartitionValuesIndexInvalidation) transactionSynchronization;
+                }
+            }
+            if (expectedPartitionValuesIndexInvalidation == null)
+            {
+                expectedPartitionValuesIndexInvalidation = new ExpectedPartitionValuesIndexInvalidation();
+                TransactionSynchronizationManager.registerSynchronization(expectedPartitionValuesIndexInvalidation);
+            }
+            expectedPartitionValuesIndexInvalidation.indexKeys.add(indexKey);
+        }
+    }
+
     // CustomDdl
 
     /**
@@ -1232,7 +1525,7 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames, String upperBoundPartitionValue,
         String lowerBoundPartitionValue)
     {
-        return getBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
+        return getCachedBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
             storageNames, AggregateFunction.GREATEST, upperBoundPartitionValue, lowerBoundPartitionValue);
     }
 
@@ -1243,10 +1536,299 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
     public String getBusinessObjectDataMinPartitionValue(int partitionColumnPosition, BusinessObjectFormatKey businessObjectFormatKey,
         Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames)
     {
-        return getBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
+        return getCachedBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
             storageNames, AggregateFunction.LEAST, null, null);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuildBusinessObjectDataPartitionValueBoundsIndex(BusinessObjectFormatKey businessObjectFormatKey)
+    {
+        List<String> indexKeys = new ArrayList<>();
+        if (businessObjectFormatKey == null)
+        {
+            indexKeys.addAll(partitionValueBoundsIndexes.keySet());
+        }
+        else
+        {
+            indexKeys.add(getPartitionValueBoundsIndexKey(businessObjectFormatKey.getNamespace(), businessObjectFormatKey.getBusinessObjectDefinitionName(),
+                businessObjectFormatKey.getBusinessObjectFormatUsage(), businessObjectFormatKey.getBusinessObjectFormatFileType()));
+        }
+
+        int reloadedBoundCount = 0;
+        for (String indexKey : indexKeys)
+        {
+            PartitionValueBoundsIndex partitionValueBoundsIndex = partitionValueBoundsIndexes.get(indexKey);
+            if (partitionValueBoundsIndex == null)
+            {
+                continue;
+            }
+
+            // Bounds reloaded by a transaction that has changed business object data of the format would include its uncommitted changes.
+            if (isPartitionValueBoundsIndexInvalidatedByCurrentTransaction(indexKey))
+            {
+                partitionValueBoundsIndexes.remove(indexKey, partitionValueBoundsIndex);
+                continue;
+            }
+
+            // Run every lookup held by the index again and replace the index with the reloaded bounds.
+            long invalidationCount = partitionValueBoundsIndexInvalidationCount.get();
+            PartitionValueBoundsIndex reloadedPartitionValueBoundsIndex =
+                new PartitionValueBoundsIndex(partitionValueBoundsIndexLoadCount.incrementAndGet());
+            for (Map.Entry<String, PartitionValueBound> entry : partitionValueBoundsIndex.bounds.entrySet())
+            {
+                PartitionValueBound partitionValueBound = entry.getValue();
+                reloadedPartitionValueBoundsIndex.bounds.put(entry.getKey(), new PartitionValueBound(partitionValueBound.partitionColumnPosition,
+                    partitionValueBound.businessObjectFormatKey, partitionValueBound.businessObjectDataVersion, partitionValueBound.businessObjectDataStatus,
+                    partitionValueBound.storageNames, partitionValueBound.aggregateFunction, partitionValueBound.upperBoundPartitionValue,
+                    partitionValueBound.lowerBoundPartitionValue,
+                    getBusinessObjectDataPartitionValue(partitionValueBound.partitionColumnPosition, partitionValueBound.businessObjectFormatKey,
+                        partitionValueBound.businessObjectDataVersion, partitionValueBound.businessObjectDataStatus, partitionValueBound.storageNames,
+                        partitionValueBound.aggregateFunction, partitionValueBound.upperBoundPartitionValue,
+                        partitionValueBound.lowerBoundPartitionValue)));
+            }
+
+            // Only keep the reloaded bounds if no business object data was changed while they were being reloaded.
+            if (partitionValueBoundsIndexInvalidationCount.get() == invalidationCount &&
+                partitionValueBoundsIndexes.replace(indexKey, partitionValueBoundsIndex, reloadedPartitionValueBoundsIndex))
+            {
+                reloadedBoundCount += reloadedPartitionValueBoundsIndex.bounds.size();
+            }
+            else
+            {
+                partitionValueBoundsIndexes.remove(indexKey, partitionValueBoundsIndex);
+            }
+        }
+
+        LOGGER.info(String.format("Reloaded %d partition value bound(s) of %s.", reloadedBoundCount,
+            businessObjectFormatKey == null ? "all business object formats" : String
+                .format("business object format {namespace: \"%s\", businessObjectDefinitionName: \"%s\", businessObjectFormatUsage: \"%s\", " +
+                    "businessObjectFormatFileType: \"%s\"}", businessObjectFormatKey.getNamespace(),
+                    businessObjectFormatKey.getBusinessObjectDefinitionName(), businessObjectFormatKey.getBusinessObjectFormatUsage(),
+                    businessObjectFormatKey.getBusinessObjectFormatFileType())));
+    }
+
+    /**
+     * Returns the number of minimum and maximum partition value lookups run against the database so far, including the ones run to load or reload the
+     * partition value bounds indexes.
+     *
+     * @return the number of database lookups
+     */
+    long getPartitionValueDatabaseLookupCount()
+    {
+        return partitionValueDatabaseLookupCount.get();
+    }
+
+    /**
+     * Retrieves partition value per specified parameters that includes the aggregate function, serving it from the in-memory partition value bounds index of
+     * the business object format when possible. Each distinct lookup is run against the database once and its result is kept with the bounds of its format
+     * until business object data of the format is registered, changes status or is deleted, or the bounds expire. The index is not used by a transaction that
+     * has changed business object data of the format itself, since it needs to see its own changes.
+     *
+     * @param partitionColumnPosition the partition column position (1-based numbering)
+     * @param businessObjectFormatKey the business object format key (case-insensitive)
+     * @param businessObjectDataVersion the business object data version
+     * @param businessObjectDataStatus the business object data status
+     * @param storageNames the list of storages (case-insensitive)
+     * @param aggregateFunction the aggregate function to use against partition values
+     * @param upperBoundPartitionValue the optional inclusive upper bound for the maximum available partition value
+     * @param lowerBoundPartitionValue the optional inclusive lower bound for the maximum available partition value
+     *
+     * @return the partition value
+     */
+    private String getCachedBusinessObjectDataPartitionValue(int partitionColumnPosition, BusinessObjectFormatKey businessObjectFormatKey,
+        Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames, AggregateFunction aggregateFunction,
+        String upperBoundPartitionValue, String lowerBoundPartitionValue)
+    {
+        long timeToLiveMillis =
+            1000L * configurationHelper.getProperty(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS, Integer.class);
+        String indexKey = getPartitionValueBoundsIndexKey(businessObjectFormatKey.getNamespace(), businessObjectFormatKey.getBusinessObjectDefinitionName(),
+            businessObjectFormatKey.getBusinessObjectFormatUsage(), businessObjectFormatKey.getBusinessObjectFormatFileType());
+        if (timeToLiveMillis <= 0 || isPartitionValueBoundsIndexInvalidatedByCurrentTransaction(indexKey))
+        {
+            return getBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
+                storageNames, aggregateFunction, upperBoundPartitionValue, lowerBoundPartitionValue);
+        }
+
+        // Build the key of the bound from all the lookup parameters that are not part of the index key.
+        List<String> uppercaseStorageNames = new ArrayList<>();
+        for (String storageName : storageNames)
+        {
+            uppercaseStorageNames.add(storageName.toUpperCase());
+        }
+        Collections.sort(uppercaseStorageNames);
+        String boundKey = aggregateFunction.name() + '|' + partitionColumnPosition + '|' + businessObjectFormatKey.getBusinessObjectFormatVersion() + '|' +
+            businessObjectDataVersion + '|' + (businessObjectDataStatus == null ? null : businessObjectDataStatus.toUpperCase()) + '|' + uppercaseStorageNames +
+            '|' + upperBoundPartitionValue + '|' + lowerBoundPartitionValue;
+
+        PartitionValueBoundsIndex partitionValueBoundsIndex = partitionValueBoundsIndexes.get(indexKey);
+        if (partitionValueBoundsIndex != null && System.currentTimeMillis() - partitionValueBoundsIndex.loadedTimeMillis < timeToLiveMillis)
+        {
+            PartitionValueBound partitionValueBound = partitionValueBoundsIndex.bounds.get(boundKey);
+            if (partitionValueBound != null)
+            {
+                return partitionValueBound.partitionValue;
+            }
+        }
+        else
+        {
+            partitionValueBoundsIndex = null;
+        }
+
+        long invalidationCount = partitionValueBoundsIndexInvalidationCount.get();
+
+        String partitionValue =
+            getBusinessObjectDataPartitionValue(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
+                storageNames, aggregateFunction, upperBoundPartitionValue, lowerBoundPartitionValue);
+
+        // Only keep the bound if no business object data was changed while it was being looked up.
+        if (partitionValueBoundsIndexInvalidationCount.get() == invalidationCount)
+        {
+            if (partitionValueBoundsIndex == null)
+            {
+                int maxIndexCount =
+                    configurationHelper.getProperty(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_MAX_ENTRIES, Integer.class);
+                while (!partitionValueBoundsIndexes.isEmpty() && partitionValueBoundsIndexes.size() >= maxIndexCount)
+                {
+                    evictOldestPartitionValueBoundsIndex();
+                }
+                partitionValueBoundsIndex = new PartitionValueBoundsIndex(partitionValueBoundsIndexLoadCount.incrementAndGet());
+                PartitionValueBoundsIndex existingPartitionValueBoundsIndex = partitionValueBoundsIndexes.putIfAbsent(indexKey, partitionValueBoundsIndex);
+                if (existingPartitionValueBoundsIndex != null &&
+                    System.currentTimeMillis() - existingPartitionValueBoundsIndex.loadedTimeMillis < timeToLiveMillis)
+                {
+                    partitionValueBoundsIndex = existingPartitionValueBoundsIndex;
+                }
+                else if (existingPartitionValueBoundsIndex != null)
+                {
+                    partitionValueBoundsIndexes.replace(indexKey, existingPartitionValueBoundsIndex, partitionValueBoundsIndex);
+                }
+            }
+            if (partitionValueBoundsIndex.bounds.size() <
+                configurationHelper.getProperty(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_MAX_ENTRIES, Integer.class))
+            {
+                partitionValueBoundsIndex.bounds.put(boundKey,
+                    new PartitionValueBound(partitionColumnPosition, businessObjectFormatKey, businessObjectDataVersion, businessObjectDataStatus,
+                        storageNames, aggregateFunction, upperBoundPartitionValue, lowerBoundPartitionValue, partitionValue));
+            }
+        }
+
+        return partitionValue;
+    }
+
+    /**
+     * Evicts the partition value bounds index that was loaded first, so the bounds of the other business object formats are kept.
+     */
+    private void evictOldestPartitionValueBoundsIndex()
+    {
+        Map.Entry<String, PartitionValueBoundsIndex> oldestEntry = null;
+        for (Map.Entry<String, PartitionValueBoundsIndex> entry : partitionValueBoundsIndexes.entrySet())
+        {
+            if (oldestEntry == null || entry.getValue().loadSequence < oldestEntry.getValue().loadSequence)
+            {
+                oldestEntry = entry;
+            }
+        }
+
+        if (oldestEntry != null)
+        {
+            partitionValueBoundsIndexes.remove(oldestEntry.getKey(), oldestEntry.getValue());
+        }
+    }
+
+    /**
+     * Builds the key of the partition value bounds index of a business object format, which covers all the versions of the format.
+     *
+     * @param namespace the namespace
+     * @param businessObjectDefinitionName the business object definition name
+     * @param businessObjectFormatUsage the business object format usage
+     * @param businessObjectFormatFileType the business object format file type
+     *
+     * @return the upper-cased index key
+     */
+    private String getPartitionValueBoundsIndexKey(String namespace, String businessObjectDefinitionName, String businessObjectFormatUsage,
+        String businessObjectFormatFileType)
+    {
+        return (namespace + '|' + businessObjectDefinitionName + '|' + businessObjectFormatUsage + '|' + businessObjectFormatFileType).toUpperCase();
+    }
+
+    /**
+     * Drops the partition value bounds of the specified business object format. The bounds are dropped right away and again once the current transaction
+     * completes, so bounds looked up before the changes are committed are not kept either.
+     *
+     * @param businessObjectFormatEntity the business object format entity
+     */
+    private void invalidatePartitionValueBoundsIndex(BusinessObjectFormatEntity businessObjectFormatEntity)
+    {
+        partitionValueBoundsIndexInvalidationCount.incrementAndGet();
+
+        if (businessObjectFormatEntity == null || businessObjectFormatEntity.getBusinessObjectDefinition() == null ||
+            businessObjectFormatEntity.getBusinessObjectDefinition().getNamespace() == null || businessObjectFormatEntity.getFileType() == null)
+        {
+            // The business object format can not be identified, so drop the bounds of all the formats.
+            partitionValueBoundsIndexes.clear();
+            return;
+        }
+
+        String indexKey = getPartitionValueBoundsIndexKey(businessObjectFormatEntity.getBusinessObjectDefinition().getNamespace().getCode(),
+            businessObjectFormatEntity.getBusinessObjectDefinition().getName(), businessObjectFormatEntity.getUsage(),
+            businessObjectFormatEntity.getFileType().getCode());
+        partitionValueBoundsIndexes.remove(indexKey);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            getPartitionValueBoundsIndexInvalidation(true).indexKeys.add(indexKey);
+        }
+    }
+
+    /**
+     * Returns true if the current transaction has changed business object data of the business object format identified by the specified index key.
+     *
+     * @param indexKey the partition value bounds index key
+     *
+     * @return true if the partition value bounds index can not be used by the current transaction
+     */
+    private boolean isPartitionValueBoundsIndexInvalidatedByCurrentTransaction(String indexKey)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            return false;
+        }
+
+        PartitionValueBoundsIndexInvalidation partitionValueBoundsIndexInvalidation = getPartitionValueBoundsIndexInvalidation(false);
+        return partitionValueBoundsIndexInvalidation != null && partitionValueBoundsIndexInvalidation.indexKeys.contains(indexKey);
+    }
+
+    /**
+     * Gets the synchronization that drops the partition value bounds invalidated by the current transaction once it completes. There is at most one such
+     * synchronization per transaction.
+     *
+     * @param create specifies whether to register the synchronization when the current transaction does not have one yet
+     *
+     * @return the synchronization, or null if the current transaction does not have one and it is not to be created
+     */
+    private PartitionValueBoundsIndexInvalidation getPartitionValueBoundsIndexInvalidation(boolean create)
+    {
+        for (TransactionSynchronization transactionSynchronization : TransactionSynchronizationManager.getSynchronizations())
+        {
+            if (transactionSynchronization instanceof PartitionValueBoundsIndexInvalidation)
+            {
+                return (PartitionValueBoundsIndexInvalidation) transactionSynchronization;
+            }
+        }
+
+        PartitionValueBoundsIndexInvalidation partitionValueBoundsIndexInvalidation = null;
+        if (create)
+        {
+            partitionValueBoundsIndexInvalidation = new PartitionValueBoundsIndexInvalidation();
+            TransactionSynchronizationManager.registerSynchronization(partitionValueBoundsIndexInvalidation);
+        }
+
+        return partitionValueBoundsIndexInvalidation;
+    }
+
     /**
      * Retrieves partition value per specified parameters that includes the aggregate function.
      *
@@ -1267,6 +1849,8 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames, AggregateFunction aggregateFunction,
         String upperBoundPartitionValue, String lowerBoundPartitionValue)
     {
+        partitionValueDatabaseLookupCount.incrementAndGet();
+
         // Create the criteria builder and the criteria.
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
         CriteriaQuery<String> criteria = builder.createQuery(String.class);
@@ -2137,26 +2721,108 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
         String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits)
     {
-        List<StorageUnitEntity> resultStorageUnitEntities = new ArrayList<>();
+        // Run the query to get a list of tuples back.
+        List<Tuple> tuples =
+            getStorageUnitTuplesByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
+                storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, false);
+
+        // Build a list of storage unit entities to return.
+        List<StorageUnitEntity> storageUnitEntities = new ArrayList<>();
+        for (Tuple tuple : tuples)
+        {
+            storageUnitEntities.add(tuple.get(STORAGE_UNIT_ALIAS, StorageUnitEntity.class));
+        }
+
+        return storageUnitEntities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StorageUnitAvailabilityDto> getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits)
+    {
+        // Run the query to get a list of tuples back.
+        List<Tuple> tuples =
+            getStorageUnitTuplesByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
+                storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, true);
+
+        // Build a list of storage unit availability DTOs to return.
+        List<StorageUnitAvailabilityDto> storageUnitAvailabilityDtos = new ArrayList<>();
+        for (Tuple tuple : tuples)
+        {
+            // Collect the sub-partition values up to the first one that is not specified.
+            List<String> subPartitionValues = new ArrayList<>();
+            for (SingularAttribute<BusinessObjectDataEntity, String> businessObjectDataSubPartition : BUSINESS_OBJECT_DATA_SUBPARTITIONS)
+            {
+                String subPartitionValue = tuple.get(businessObjectDataSubPartition.getName(), String.class);
+                if (subPartitionValue == null)
+                {
+                    break;
+                }
+                subPartitionValues.add(subPartitionValue);
+            }
+
+            storageUnitAvailabilityDtos.add(StorageUnitAvailabilityDto.builder().storageUnitId(tuple.get(STORAGE_UNIT_ALIAS, Integer.class))
+                .businessObjectDataId(tuple.get(BUSINESS_OBJECT_DATA_ALIAS, Integer.class)).namespace(tuple.get(NAMESPACE_ALIAS, String.class))
+                .businessObjectDefinitionName(tuple.get(BUSINESS_OBJECT_DEFINITION_NAME_ALIAS, String.class))
+                .businessObjectFormatUsage(tuple.get(BUSINESS_OBJECT_FORMAT_USAGE_ALIAS, String.class))
+                .businessObjectFormatFileType(tuple.get(BUSINESS_OBJECT_FORMAT_FILE_TYPE_ALIAS, String.class))
+                .businessObjectFormatVersion(tuple.get(BUSINESS_OBJECT_FORMAT_VERSION_ALIAS, Integer.class))
+                .partitionValue(tuple.get(BusinessObjectDataEntity_.partitionValue.getName(), String.class)).subPartitionValues(subPartitionValues)
+                .businessObjectDataVersion(tuple.get(BUSINESS_OBJECT_DATA_VERSION_ALIAS, Integer.class))
+                .businessObjectDataStatus(tuple.get(BUSINESS_OBJECT_DATA_STATUS_ALIAS, String.class)).storageName(tuple.get(STORAGE_NAME_ALIAS, String.class))
+                .storagePlatformType(tuple.get(STORAGE_PLATFORM_TYPE_ALIAS, String.class))
+                .storageDirectoryPath(tuple.get(STORAGE_DIRECTORY_PATH_ALIAS, String.class))
+                .storageUnitAvailable(Boolean.TRUE.equals(tuple.get(STORAGE_UNIT_AVAILABLE_ALIAS, Boolean.class))).build());
+        }
+
+        return storageUnitAvailabilityDtos;
+    }
+
+    /**
+     * Retrieves a list of storage unit tuples per specified parameters. The partition filters are processed in chunks of {@link
+     * #MAX_PARTITION_FILTERS_PER_REQUEST} elements.
+     *
+     * @param businessObjectFormatKey the business object format key (case-insensitive)
+     * @param partitionFilters the list of partition filter to be used to select business object data instances
+     * @param businessObjectDataVersion the business object data version
+     * @param businessObjectDataStatus the business object data status
+     * @param storageNames the list of storage names where the business object data storage units should be looked for (case-insensitive)
+     * @param storagePlatformType the optional storage platform type
+     * @param excludedStoragePlatformType the optional storage platform type to be excluded from search
+     * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
+     * @param selectStorageUnitAvailabilityColumns specifies whether to select flat storage unit availability columns instead of entities
+     *
+     * @return the list of tuples sorted by partition values and storage names
+     */
+    private List<Tuple> getStorageUnitTuplesByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+        List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits,
+        boolean selectStorageUnitAvailabilityColumns)
+    {
+        List<Tuple> resultTuples = new ArrayList<>();
 
         // Loop through each chunk of partition filters until we have reached the end of the list.
         for (int i = 0; i < partitionFilters.size(); i += MAX_PARTITION_FILTERS_PER_REQUEST)
         {
             // Get a sub-list for the current chunk of partition filters.
-            List<StorageUnitEntity> storageUnitEntitiesSubset =
-                getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
-                    storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, i,
+            List<Tuple> tuplesSubset =
+                getStorageUnitTuplesByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, businessObjectDataVersion, businessObjectDataStatus,
+                    storageNames, storagePlatformType, excludedStoragePlatformType, selectOnlyAvailableStorageUnits, selectStorageUnitAvailabilityColumns, i,
                     (i + MAX_PARTITION_FILTERS_PER_REQUEST) > partitionFilters.size() ? partitionFilters.size() - i : MAX_PARTITION_FILTERS_PER_REQUEST);
 
             // Add the sub-list to the result.
-            resultStorageUnitEntities.addAll(storageUnitEntitiesSubset);
+            resultTuples.addAll(tuplesSubset);
         }
 
-        return resultStorageUnitEntities;
+        return resultTuples;
     }
 
     /**
-     * Retrieves a list of storage unit entities per specified parameters. This method processes a sublist of partition filters specified by
+     * Retrieves a list of storage unit tuples per specified parameters. This method processes a sublist of partition filters specified by
      * partitionFilterSubListFromIndex and partitionFilterSubListSize parameters.
      *
      * @param businessObjectFormatKey the business object format key (case-insensitive). If a business object format version isn't specified, the latest
@@ -2173,16 +2839,17 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
      * @param storagePlatformType the optional storage platform type, e.g. S3 for Hive DDL. It is ignored when the list of storages is not empty
      * @param excludedStoragePlatformType the optional storage platform type to be excluded from search. It is ignored when the list of storages is not empty or
      * the storage platform type is specified
+     * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
+     * @param selectStorageUnitAvailabilityColumns specifies whether to select flat storage unit availability columns instead of entities
      * @param partitionFilterSubListFromIndex the index of the first element in the partition filter sublist
      * @param partitionFilterSubListSize the size of the partition filter sublist
-     * @param selectOnlyAvailableStorageUnits specifies if only available storage units will be selected or any storage units regardless of their status
      *
-     * @return the list of storage unit entities sorted by partition values
+     * @return the list of tuples sorted by partition values and storage names
      */
-    private List<StorageUnitEntity> getStorageUnitsByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
+    private List<Tuple> getStorageUnitTuplesByPartitionFiltersAndStorages(BusinessObjectFormatKey businessObjectFormatKey,
         List<List<String>> partitionFilters, Integer businessObjectDataVersion, String businessObjectDataStatus, List<String> storageNames,
-        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, int partitionFilterSubListFromIndex,
-        int partitionFilterSubListSize)
+        String storagePlatformType, String excludedStoragePlatformType, boolean selectOnlyAvailableStorageUnits, boolean selectStorageUnitAvailabilityColumns,
+        int partitionFilterSubListFromIndex, int partitionFilterSubListSize)
     {
         // Create the criteria builder and the criteria.
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
@@ -2283,24 +2950,43 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         orderBy.add(builder.asc(storageEntity.get(StorageEntity_.name)));
 
         // Add the clauses for the query.
-        // Please note that we use multiselect here in order to eliminate the Hibernate N+1 SELECT's problem,
-        // happening when we select storage unit entities and access their relative business object data entities.
-        // This is an alternative approach, since adding @Fetch(FetchMode.JOIN) failed to address the issue.
-        criteria
-            .multiselect(storageUnitEntity, storageUnitStatusEntity, storageEntity, storagePlatformEntity, businessObjectDataEntity, businessObjectFormatEntity)
-            .where(mainQueryRestriction).orderBy(orderBy);
-
-        // Run the query to get a list of tuples back.
-        List<Tuple> tuples = entityManager.createQuery(criteria).getResultList();
-
-        // Build a list of storage unit entities to return.
-        List<StorageUnitEntity> storageUnitEntities = new ArrayList<>();
-        for (Tuple tuple : tuples)
+        if (selectStorageUnitAvailabilityColumns)
+        {
+            // Select only the flat list of columns, so no entities get loaded into (and tracked by) the persistence context.
+            List<Selection<?>> selections = new ArrayList<>();
+            selections.add(storageUnitEntity.get(StorageUnitEntity_.id).alias(STORAGE_UNIT_ALIAS));
+            selections.add(businessObjectDataEntity.get(BusinessObjectDataEntity_.id).alias(BUSINESS_OBJECT_DATA_ALIAS));
+            selections.add(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.namespace).get(NamespaceEntity_.code).alias(NAMESPACE_ALIAS));
+            selections.add(businessObjectDefinitionEntity.get(BusinessObjectDefinitionEntity_.name).alias(BUSINESS_OBJECT_DEFINITION_NAME_ALIAS));
+            selections.add(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.usage).alias(BUSINESS_OBJECT_FORMAT_USAGE_ALIAS));
+            selections.add(fileTypeEntity.get(FileTypeEntity_.code).alias(BUSINESS_OBJECT_FORMAT_FILE_TYPE_ALIAS));
+            selections
+                .add(businessObjectFormatEntity.get(BusinessObjectFormatEntity_.businessObjectFormatVersion).alias(BUSINESS_OBJECT_FORMAT_VERSION_ALIAS));
+            for (SingularAttribute<BusinessObjectDataEntity, String> businessObjectDataPartition : BUSINESS_OBJECT_DATA_PARTITIONS)
+            {
+                selections.add(businessObjectDataEntity.get(businessObjectDataPartition).alias(businessObjectDataPartition.getName()));
+            }
+            selections.add(businessObjectDataEntity.get(BusinessObjectDataEntity_.version).alias(BUSINESS_OBJECT_DATA_VERSION_ALIAS));
+            selections.add(businessObjectDataEntity.get(BusinessObjectDataEntity_.status).get(BusinessObjectDataStatusEntity_.code)
+                .alias(BUSINESS_OBJECT_DATA_STATUS_ALIAS));
+            selections.add(storageEntity.get(StorageEntity_.name).alias(STORAGE_NAME_ALIAS));
+            selections.add(storagePlatformEntity.get(StoragePlatformEntity_.name).alias(STORAGE_PLATFORM_TYPE_ALIAS));
+            selections.add(storageUnitEntity.get(StorageUnitEntity_.directoryPath).alias(STORAGE_DIRECTORY_PATH_ALIAS));
+            selections.add(storageUnitStatusEntity.get(StorageUnitStatusEntity_.available).alias(STORAGE_UNIT_AVAILABLE_ALIAS));
+
+            criteria.multiselect(selections).where(mainQueryRestriction).orderBy(orderBy);
+        }
+        else
         {
-            storageUnitEntities.add(tuple.get(storageUnitEntity));
+            // Please note that we use multiselect here in order to eliminate the Hibernate N+1 SELECT's problem,
+            // happening when we select storage unit entities and access their relative business object data entities.
+            // This is an alternative approach, since adding @Fetch(FetchMode.JOIN) failed to address the issue.
+            criteria.multiselect(storageUnitEntity.alias(STORAGE_UNIT_ALIAS), storageUnitStatusEntity, storageEntity, storagePlatformEntity,
+                businessObjectDataEntity, businessObjectFormatEntity).where(mainQueryRestriction).orderBy(orderBy);
         }
 
-        return storageUnitEntities;
+        // Run the query to get a list of tuples back.
+        return entityManager.createQuery(criteria).getResultList();
     }
 
     /**
@@ -2430,7 +3116,7 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
 
         // Create the standard restrictions (i.e. the standard where clauses).
         Predicate storageNameRestriction = builder.equal(builder.upper(storageEntity.get(StorageEntity_.name)), storageName.toUpperCase());
-        Predicate filePathRestriction = builder.like(storageFileEntity.get(StorageFileEntity_.path), String.format("%s%%", filePathPrefix));
+        Predicate filePathRestriction = getFilePathPrefixRestriction(builder, storageFileEntity.get(StorageFileEntity_.path), filePathPrefix);
 
         // Add the clauses for the query.
         criteria.select(storageFileCount).where(builder.and(storageNameRestriction, filePathRestriction));
@@ -2456,7 +3142,7 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         Join<StorageUnitEntity, StorageEntity> storageEntity = storageUnitEntity.join(StorageUnitEntity_.storage);
 
         // Create the standard restrictions (i.e. the standard where clauses).
-        Predicate filePathRestriction = builder.like(storageFileEntity.get(StorageFileEntity_.path), String.format("%s%%", filePathPrefix));
+        Predicate filePathRestriction = getFilePathPrefixRestriction(builder, storageFileEntity.get(StorageFileEntity_.path), filePathPrefix);
         Predicate storageNameRestriction = builder.equal(builder.upper(storageEntity.get(StorageEntity_.name)), storageName.toUpperCase());
 
         // Order the results by file path.
@@ -2467,6 +3153,25 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         return entityManager.createQuery(criteria).getResultList();
     }
 
+    /**
+     * Builds a "starts with" restriction on the storage file path. The prefix is escaped, so any "%" or "_" characters in it are matched literally. This keeps
+     * the whole prefix usable as an index range scan (e.g. via the "text_pattern_ops" index on the storage file path column in PostgreSQL) instead of letting
+     * wildcards in S3 key prefixes widen the scan and match unrelated files.
+     *
+     * @param builder the criteria builder
+     * @param filePath the storage file path column
+     * @param filePathPrefix the file path prefix
+     *
+     * @return the file path prefix restriction
+     */
+    private Predicate getFilePathPrefixRestriction(CriteriaBuilder builder, Path<String> filePath, String filePathPrefix)
+    {
+        String escapedFilePathPrefix = filePathPrefix.replace(String.valueOf(LIKE_ESCAPE_CHARACTER), StringUtils.repeat(LIKE_ESCAPE_CHARACTER, 2))
+            .replace("%", LIKE_ESCAPE_CHARACTER + "%").replace("_", LIKE_ESCAPE_CHARACTER + "_");
+
+        return builder.like(filePath, String.format("%s%%", escapedFilePathPrefix), LIKE_ESCAPE_CHARACTER);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -3069,6 +3774,19 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
      */
     @Override
     public JmsMessageEntity getOldestJmsMessage()
+    {
+        // Ask to return only the first row.
+        List<JmsMessageEntity> resultList = getOldestJmsMessages(1);
+
+        // Return the result.
+        return resultList.size() > 0 ? resultList.get(0) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JmsMessageEntity> getOldestJmsMessages(int maxResults)
     {
         // Create the criteria builder and the criteria.
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
@@ -3080,14 +3798,11 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         // Add the select clause.
         criteria.select(jmsMessageEntity);
 
-        // Add the order by clause, since we want to return only the oldest JMS message (a message with the smallest sequence generated id).
+        // Add the order by clause, since we want to return the oldest JMS messages (messages with the smallest sequence generated ids).
         criteria.orderBy(builder.asc(jmsMessageEntity.get(JmsMessageEntity_.id)));
 
-        // Execute the query and ask it to return only the first row.
-        List<JmsMessageEntity> resultList = entityManager.createQuery(criteria).setMaxResults(1).getResultList();
-
-        // Return the result.
-        return resultList.size() > 0 ? resultList.get(0) : null;
+        // Execute the query and ask it to return only the requested number of rows.
+        return entityManager.createQuery(criteria).setMaxResults(maxResults).getResultList();
     }
 
     // OnDemandPricing
@@ -3127,25 +3842,92 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
     public <T> T save(T entity)
     {
         updateAuditFields(entity);
+        invalidateExpectedPartitionValuesIndex(entity);
+        invalidatePartitionValueBoundsIndex(entity);
         return super.save(entity);
     }
 
     /**
-     * Updates the audit fields if the entity is of type AuditableEntity.
+     * {@inheritDoc}
+     * <p/>
+     * This method overwrites the base class method by also dropping the expected partition values index and the partition value bounds index the entity might
+     * be part of.
+     */
+    @Override
+    public <T> void delete(T entity)
+    {
+        invalidateExpectedPartitionValuesIndex(entity);
+        invalidatePartitionValueBoundsIndex(entity);
+        super.delete(entity);
+    }
+
+    /**
+     * Drops the partition value bounds of the business object format if the entity is a business object format, business object data or storage unit.
+     *
+     * @param entity the entity
+     * @param <T> the type of entity
+     */
+    private <T> void invalidatePartitionValueBoundsIndex(T entity)
+    {
+        if (entity instanceof BusinessObjectDataEntity)
+        {
+            invalidatePartitionValueBoundsIndex(((BusinessObjectDataEntity) entity).getBusinessObjectFormat());
+        }
+        else if (entity instanceof StorageUnitEntity)
+        {
+            BusinessObjectDataEntity businessObjectDataEntity = ((StorageUnitEntity) entity).getBusinessObjectData();
+            invalidatePartitionValueBoundsIndex(businessObjectDataEntity == null ? null : businessObjectDataEntity.getBusinessObjectFormat());
+        }
+        else if (entity instanceof BusinessObjectFormatEntity)
+        {
+            invalidatePartitionValueBoundsIndex((BusinessObjectFormatEntity) entity);
+        }
+    }
+
+    /**
+     * Drops the in-memory index of the expected partition values if the entity is an expected partition value or a partition key group.
+     *
+     * @param entity the entity
+     * @param <T> the type of entity
+     */
+    private <T> void invalidateExpectedPartitionValuesIndex(T entity)
+    {
+        if (entity instanceof ExpectedPartitionValueEntity && ((ExpectedPartitionValueEntity) entity).getPartitionKeyGroup() != null)
+        {
+            invalidateExpectedPartitionValuesIndex(((ExpectedPartitionValueEntity) entity).getPartitionKeyGroup().getPartitionKeyGroupName());
+        }
+        else if (entity instanceof PartitionKeyGroupEntity)
+        {
+            invalidateExpectedPartitionValuesIndex(((PartitionKeyGroupEntity) entity).getPartitionKeyGroupName());
+        }
+    }
+
+    /**
+     * Updates the audit fields if the entity is of type AuditableEntity, along with the audit fields of its children one-to-many cascadable auditable
+     * entities. The current username and time are resolved once, so the whole entity graph is stamped with the same values.
      *
      * @param entity the entity
      * @param <T> the type of entity
      */
-    @SuppressWarnings("rawtypes")
     private <T> void updateAuditFields(T entity)
+    {
+        updateAuditFields(entity, herdDaoSecurityHelper.getCurrentUsername(), new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Updates the audit fields if the entity is of type AuditableEntity and recurses into its children one-to-many cascadable auditable entities.
+     *
+     * @param entity the entity
+     * @param username the currently logged in username
+     * @param currentTime the current time
+     */
+    @SuppressWarnings("rawtypes")
+    private void updateAuditFields(Object entity, String username, Timestamp currentTime)
     {
         if (entity instanceof AuditableEntity)
         {
             AuditableEntity auditableEntity = (AuditableEntity) entity;
 
-            // Get the currently logged in username.
-            String username = herdDaoSecurityHelper.getCurrentUsername();
-
             // Always set the updated by field, but only set the created by field when it is null (i.e. this is a new record).
             if (auditableEntity.getCreatedBy() == null)
             {
@@ -3154,7 +3936,6 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
             auditableEntity.setUpdatedBy(username);
 
             // Always set the updated on field to the current time, but only update the created on field when it is null (i.e. the first time).
-            Timestamp currentTime = new Timestamp(System.currentTimeMillis());
             auditableEntity.setUpdatedOn(currentTime);
             if (auditableEntity.getCreatedOn() == null)
             {
@@ -3166,50 +3947,79 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
         // Note that this assumes that OneToMany annotations are done on the field (as opposed to the method) and that all OneToMany fields are collections.
         // This approach also assumes that there are loops where children refer back to our entity (i.e. an infinite loop).
         // If there are other scenarios, we should modify this code to handle them.
+        for (Field field : getCascadingOneToManyFields(entity.getClass()))
+        {
+            Object fieldValue;
+            try
+            {
+                fieldValue = field.get(entity);
+            }
+            catch (IllegalAccessException ex)
+            {
+                // Because the fields are made accessible when they are looked up, we shouldn't get here.
+                throw new IllegalStateException("Unable to get field value for field \"" + field.getName() + "\" due to access restriction.", ex);
+            }
 
-        // Loop through all the fields of this entity.
-        for (Field field : entity.getClass().getDeclaredFields())
+            // Skip the collections that were never loaded from the database and have no pending additions, since they can only hold already persisted
+            // children and iterating over them would load all of them just to stamp them.
+            if (fieldValue instanceof PersistentCollection && !((PersistentCollection) fieldValue).wasInitialized() &&
+                !((PersistentCollection) fieldValue).hasQueuedOperations())
+            {
+                continue;
+            }
+
+            // If the field is a collection (which OneToMany annotated fields should be), then iterate through the collection and look for
+            // child auditable entities.
+            if (fieldValue instanceof Collection)
+            {
+                for (Object object : (Collection) fieldValue)
+                {
+                    if (object instanceof AuditableEntity)
+                    {
+                        // We found a child auditable entity so recurse to update it's audit fields as well.
+                        updateAuditFields(object, username, currentTime);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the fields of the specified entity class that are annotated with a OneToMany that cascades with "persist" or "merge". The fields are looked up
+     * once per entity class and made accessible, so saving an entity does not inspect the annotations of all its fields each time.
+     *
+     * @param entityClass the entity class
+     *
+     * @return the accessible cascading one-to-many fields
+     */
+    private List<Field> getCascadingOneToManyFields(Class<?> entityClass)
+    {
+        List<Field> fields = cascadingOneToManyFields.get(entityClass);
+        if (fields == null)
         {
-            // Get all the annotations for the field.
-            for (Annotation annotation : field.getDeclaredAnnotations())
+            fields = new ArrayList<>();
+
+            // Loop through all the fields of this entity class.
+            for (Field field : entityClass.getDeclaredFields())
             {
                 // Only look for OneToMany that cascade with "persist" or "merge".
-                if (annotation instanceof OneToMany)
+                OneToMany oneToManyAnnotation = field.getAnnotation(OneToMany.class);
+                if (oneToManyAnnotation != null)
                 {
-                    OneToMany oneToManyAnnotation = (OneToMany) annotation;
-                    List<CascadeType> cascadeTypes = new ArrayList<>(Arrays.asList(oneToManyAnnotation.cascade()));
+                    List<CascadeType> cascadeTypes = Arrays.asList(oneToManyAnnotation.cascade());
                     if ((cascadeTypes.contains(CascadeType.ALL)) || (cascadeTypes.contains(CascadeType.PERSIST)) || cascadeTypes.contains(CascadeType.MERGE))
                     {
-                        try
-                        {
-                            // Modify the accessibility to true so we can get the field (even if it's private) and get the value of the field for our entity.
-                            field.setAccessible(true);
-                            Object fieldValue = field.get(entity);
-
-                            // If the field is a collection (which OneToMany annotated fields should be), then iterate through the collection and look for
-                            // child auditable entities.
-                            if (fieldValue instanceof Collection)
-                            {
-                                Collection collection = (Collection) fieldValue;
-                                for (Object object : collection)
-                                {
-                                    if (object instanceof AuditableEntity)
-                                    {
-                                        // We found a child auditable entity so recurse to update it's audit fields as well.
-                                        updateAuditFields(object);
-                                    }
-                                }
-                            }
-                        }
-                        catch (IllegalAccessException ex)
-                        {
-                            // Because we're setting accessible to true above, we shouldn't get here.
-                            throw new IllegalStateException("Unable to get field value for field \"" + field.getName() + "\" due to access restriction.", ex);
-                        }
+                        // Modify the accessibility to true so we can get the field value (even if it's private).
+                        field.setAccessible(true);
+                        fields.add(field);
                     }
                 }
             }
+
+            cascadingOneToManyFields.putIfAbsent(entityClass, fields);
         }
+
+        return fields;
     }
 
     /**
@@ -3237,4 +4047,121 @@ public class HerdDaoImpl extends BaseJpaDaoImpl implements HerdDao
     {
         return businessObjectDataKey.getSubPartitionValues() == null ? 0 : businessObjectDataKey.getSubPartitionValues().size();
     }
+
+    /**
+     * Drops the expected partition values indexes invalidated by a transaction once the transaction completes.
+     */
+    private class ExpectedPartitionValuesIndexInvalidation extends TransactionSynchronizationAdapter
+    {
+        private final Set<String> indexKeys = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status)
+        {
+            expectedPartitionValuesIndexInvalidationCount.incrementAndGet();
+            expectedPartitionValuesIndexes.keySet().removeAll(indexKeys);
+        }
+    }
+
+    /**
+     * Drops the partition value bounds indexes invalidated by a transaction once the transaction completes.
+     */
+    private class PartitionValueBoundsIndexInvalidation extends TransactionSynchronizationAdapter
+    {
+        private final Set<String> indexKeys = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status)
+        {
+            partitionValueBoundsIndexInvalidationCount.incrementAndGet();
+            partitionValueBoundsIndexes.keySet().removeAll(indexKeys);
+        }
+    }
+
+    /**
+     * The partition value bounds looked up for a business object format, keyed by the lookup parameters.
+     */
+    private static class PartitionValueBoundsIndex
+    {
+        private final long loadedTimeMillis = System.currentTimeMillis();
+
+        private final long loadSequence;
+
+        private final ConcurrentMap<String, PartitionValueBound> bounds = new ConcurrentHashMap<>();
+
+        private PartitionValueBoundsIndex(long loadSequence)
+        {
+            this.loadSequence = loadSequence;
+        }
+    }
+
+    /**
+     * A partition value bound along with the lookup it was loaded by, so it can be reloaded. The partition value is null when no business object data matched
+     * the lookup.
+     */
+    private static class PartitionValueBound
+    {
+        private final int partitionColumnPosition;
+
+        private final BusinessObjectFormatKey businessObjectFormatKey;
+
+        private final Integer businessObjectDataVersion;
+
+        private final String businessObjectDataStatus;
+
+        private final List<String> storageNames;
+
+        private final AggregateFunction aggregateFunction;
+
+        private final String upperBoundPartitionValue;
+
+        private final String lowerBoundPartitionValue;
+
+        private final String partitionValue;
+
+        private PartitionValueBound(int partitionColumnPosition, BusinessObjectFormatKey businessObjectFormatKey, Integer businessObjectDataVersion,
+            String businessObjectDataStatus, List<String> storageNames, AggregateFunction aggregateFunction, String upperBoundPartitionValue,
+            String lowerBoundPartitionValue, String partitionValue)
+        {
+            this.partitionColumnPosition = partitionColumnPosition;
+            this.businessObjectFormatKey = new BusinessObjectFormatKey(businessObjectFormatKey.getNamespace(),
+                businessObjectFormatKey.getBusinessObjectDefinitionName(), businessObjectFormatKey.getBusinessObjectFormatUsage(),
+                businessObjectFormatKey.getBusinessObjectFormatFileType(), businessObjectFormatKey.getBusinessObjectFormatVersion());
+            this.businessObjectDataVersion = businessObjectDataVersion;
+            this.businessObjectDataStatus = businessObjectDataStatus;
+            this.storageNames = new ArrayList<>(storageNames);
+            this.aggregateFunction = aggregateFunction;
+            this.upperBoundPartitionValue = upperBoundPartitionValue;
+            this.lowerBoundPartitionValue = lowerBoundPartitionValue;
+            this.partitionValue = partitionValue;
+        }
+    }
+
+    /**
+     * An in-memory index of the expected partition values of a partition key group, in the order of the partition values. Offsets are resolved using the
+     * positions of the values. Ranges are resolved using a binary search, as long as the database order of the values matches their string order.
+     */
+    private static class ExpectedPartitionValuesIndex
+    {
+        private final long loadedTimeMillis = System.currentTimeMillis();
+
+        private final List<String> partitionValues;
+
+        private final Map<String, Integer> positions;
+
+        private final boolean sortedByStringOrder;
+
+        private ExpectedPartitionValuesIndex(List<String> partitionValues)
+        {
+            this.partitionValues = partitionValues;
+            positions = new HashMap<>(partitionValues.size() * 2);
+            boolean sorted = true;
+            for (int position = 0; position < partitionValues.size(); position++)
+            {
+                positions.put(partitionValues.get(position), position);
+                sorted &= position == 0 || partitionValues.get(position - 1).compareTo(partitionValues.get(position)) < 0;
+            }
+            sortedByStringOrder = sorted;
+        }
+    }
 }
@@ -20,10 +20,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -46,6 +58,7 @@ import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.MultipartUpload;
 import com.amazonaws.services.s3.model.MultipartUploadListing;
 import com.amazonaws.services.s3.model.ObjectListing;
@@ -69,11 +82,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.apache.http.HttpStatus;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import org.finra.herd.core.HerdDateUtils;
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.S3Dao;
 import org.finra.herd.dao.S3Operations;
 import org.finra.herd.dao.helper.AwsHelper;
@@ -81,16 +96,18 @@ import org.finra.herd.dao.helper.JavaPropertiesHelper;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.AwsCredential;
 import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.HerdAWSCredentialsProvider;
 import org.finra.herd.model.dto.S3FileCopyRequestParamsDto;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.model.dto.S3FileTransferResultsDto;
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
 
 /**
  * The S3 DAO implementation.
  */
 @Repository
-public class S3DaoImpl implements S3Dao
+public class S3DaoImpl implements S3Dao, DisposableBean
 {
     /**
      * A {@link AWSCredentialsProvider} which delegates to its wrapped {@link HerdAWSCredentialsProvider}
@@ -131,9 +148,48 @@ public class S3DaoImpl implements S3Dao
 
     private static final long SLEEP_INTERVAL_MILLIS = 100;
 
+    /**
+     * The number of transfer progress checks between the statistics passed to the transfer listeners, i.e. every second.
+     */
+    private static final long STATISTICS_INTERVAL_STEPS = 10;
+
     @Autowired
     private JavaPropertiesHelper javaPropertiesHelper;
 
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The executor service shared by all the concurrent listings of S3 key prefix "sub-directories". It is created on first use.
+     */
+    private ThreadPoolExecutor listingExecutorService;
+
+    /**
+     * The executor service shared by all the multi-object delete requests. It is created on first use.
+     */
+    private ThreadPoolExecutor deleteExecutorService;
+
+    /**
+     * The statistics of all the transfers performed by this S3 DAO. They are logged after each transfer.
+     */
+    private final S3TransferStatistics transferStatistics = new S3TransferStatistics();
+
+    @Override
+    public void destroy() throws Exception
+    {
+        synchronized (this)
+        {
+            if (listingExecutorService != null)
+            {
+                listingExecutorService.shutdownNow();
+            }
+            if (deleteExecutorService != null)
+            {
+                deleteExecutorService.shutdownNow();
+            }
+        }
+    }
+
     @Override
     public ObjectMetadata getObjectMetadata(final S3FileTransferRequestParamsDto params)
     {
@@ -233,6 +289,40 @@ public class S3DaoImpl implements S3Dao
         return listObjectsMatchingKeyPrefix(params, ignoreZeroByteDirectoryMarkers);
     }
 
+    @Override
+    public void listDirectory(final S3FileTransferRequestParamsDto params, boolean ignoreZeroByteDirectoryMarkers, StorageFilesHandler storageFilesHandler)
+    {
+        listObjectsMatchingKeyPrefix(params, ignoreZeroByteDirectoryMarkers, storageFilesHandler);
+    }
+
+    @Override
+    public List<String> listCommonPrefixes(final S3FileTransferRequestParamsDto params, String delimiter)
+    {
+        AmazonS3Client s3Client = null;
+
+        try
+        {
+            s3Client = getAmazonS3(params);
+
+            // Only the common prefixes are needed, so the S3 objects right under the S3 key prefix are discarded.
+            return listObjectsMatchingKeyPrefix(s3Client, params, params.getS3KeyPrefix(), delimiter, false, new StorageFilesHandler()
+            {
+                @Override
+                public void handle(List<StorageFile> storageFiles)
+                {
+                }
+            });
+        }
+        finally
+        {
+            // Shutdown the AmazonS3Client instance to release resources.
+            if (s3Client != null)
+            {
+                s3Client.shutdown();
+            }
+        }
+    }
+
     @Override
     public S3FileTransferResultsDto uploadFile(final S3FileTransferRequestParamsDto params) throws InterruptedException
     {
@@ -412,24 +502,25 @@ public class S3DaoImpl implements S3Dao
                     keys.add(new DeleteObjectsRequest.KeyVersion(file.getPath().replaceAll("\\\\", "/")));
                 }
 
-                DeleteObjectsRequest multiObjectDeleteRequest = new DeleteObjectsRequest(params.getS3BucketName());
                 s3Client = getAmazonS3(params);
 
                 // The Multi-Object Delete request can contain a list of up to 1000 keys.
-                for (int i = 0; i < keys.size() / MAX_KEYS_PER_DELETE_REQUEST + 1; i++)
+                List<Future<Integer>> futures = new ArrayList<>();
+                AtomicBoolean cancelled = new AtomicBoolean();
+                try
                 {
-                    List<DeleteObjectsRequest.KeyVersion> keysSubList =
-                        keys.subList(i * MAX_KEYS_PER_DELETE_REQUEST, Math.min(keys.size(), (i + 1) * MAX_KEYS_PER_DELETE_REQUEST));
-                    multiObjectDeleteRequest.setKeys(keysSubList);
-                    s3Operations.deleteObjects(multiObjectDeleteRequest, s3Client);
-
-                    LOGGER.info(String.format("Successfully requested the deletion of the following %d keys/objects from bucket \"%s\":", keysSubList.size(),
-                        params.getS3BucketName()));
-
-                    for (DeleteObjectsRequest.KeyVersion keyVersion : keysSubList)
+                    for (int i = 0; i < keys.size(); i += MAX_KEYS_PER_DELETE_REQUEST)
                     {
-                        LOGGER.info(String.format("    s3://%s/%s", params.getS3BucketName(), keyVersion.getKey()));
+                        futures.add(submitDeleteObjects(s3Client, params,
+                            new ArrayList<>(keys.subList(i, Math.min(keys.size(), i + MAX_KEYS_PER_DELETE_REQUEST))), cancelled));
                     }
+
+                    waitForDeleteObjects(futures);
+                }
+                finally
+                {
+                    // Make sure no submitted request is still using the S3 client when it gets shut down.
+                    cancelDeleteObjects(futures, cancelled);
                 }
             }
         }
@@ -459,39 +550,50 @@ public class S3DaoImpl implements S3Dao
 
         try
         {
-            // List S3 object including any 0 byte objects that represent S3 directories.
-            List<StorageFile> storageFiles = listObjectsMatchingKeyPrefix(params, false);
-            LOGGER.info(String.format("Found %d keys/objects in s3://%s/%s ...", storageFiles.size(), params.getS3BucketName(), params.getS3KeyPrefix()));
+            s3Client = getAmazonS3(params);
 
-            // In order to avoid a MalformedXML AWS exception, we send delete request only when we have any keys to delete.
-            if (!storageFiles.isEmpty())
-            {
-                DeleteObjectsRequest multiObjectDeleteRequest = new DeleteObjectsRequest(params.getS3BucketName());
-                s3Client = getAmazonS3(params);
+            // Delete the S3 objects while they are still being listed. The S3 objects are listed in key order within each sub-directory, so deleting the
+            // already listed S3 objects does not affect the listing of the rest of them.
+            final AmazonS3Client sharedS3Client = s3Client;
+            final List<Future<Integer>> futures = new ArrayList<>();
+            final AtomicBoolean cancelled = new AtomicBoolean();
+            final List<DeleteObjectsRequest.KeyVersion> keys = new ArrayList<>();
 
-                // The Multi-Object Delete request can contain a list of up to 1000 keys.
-                for (int i = 0; i < storageFiles.size() / MAX_KEYS_PER_DELETE_REQUEST + 1; i++)
+            try
+            {
+                // List S3 object including any 0 byte objects that represent S3 directories.
+                listObjectsMatchingKeyPrefix(params, false, new StorageFilesHandler()
                 {
-                    // Prepare a list of S3 object keys to be deleted.
-                    List<DeleteObjectsRequest.KeyVersion> keys = new ArrayList<>();
-                    for (StorageFile storageFile : storageFiles
-                        .subList(i * MAX_KEYS_PER_DELETE_REQUEST, Math.min(storageFiles.size(), (i + 1) * MAX_KEYS_PER_DELETE_REQUEST)))
+                    @Override
+                    public void handle(List<StorageFile> storageFiles)
                     {
-                        keys.add(new DeleteObjectsRequest.KeyVersion(storageFile.getFilePath()));
+                        for (StorageFile storageFile : storageFiles)
+                        {
+                            keys.add(new DeleteObjectsRequest.KeyVersion(storageFile.getFilePath()));
+
+                            // The Multi-Object Delete request can contain a list of up to 1000 keys.
+                            if (keys.size() == MAX_KEYS_PER_DELETE_REQUEST)
+                            {
+                                futures.add(submitDeleteObjects(sharedS3Client, params, new ArrayList<>(keys), cancelled));
+                                keys.clear();
+                            }
+                        }
                     }
+                });
 
-                    // Delete the S3 objects.
-                    multiObjectDeleteRequest.setKeys(keys);
-                    s3Operations.deleteObjects(multiObjectDeleteRequest, s3Client);
-
-                    LOGGER.info(String.format("Successfully deleted the following %d keys/objects with prefix \"%s\" from bucket \"%s\":", keys.size(),
-                        params.getS3KeyPrefix(), params.getS3BucketName()));
-
-                    for (DeleteObjectsRequest.KeyVersion keyVersion : keys)
-                    {
-                        LOGGER.info(String.format("    s3://%s/%s", params.getS3BucketName(), keyVersion.getKey()));
-                    }
+                // In order to avoid a MalformedXML AWS exception, we send delete request only when we have any keys to delete.
+                if (!keys.isEmpty())
+                {
+                    futures.add(submitDeleteObjects(s3Client, params, keys, cancelled));
                 }
+
+                int deletedKeyCount = waitForDeleteObjects(futures);
+                LOGGER.info(String.format("Deleted %d keys/objects from s3://%s/%s", deletedKeyCount, params.getS3BucketName(), params.getS3KeyPrefix()));
+            }
+            finally
+            {
+                // Make sure no submitted request is still using the S3 client when it gets shut down, including when the listing fails partway through.
+                cancelDeleteObjects(futures, cancelled);
             }
         }
         catch (AmazonClientException e)
@@ -510,6 +612,195 @@ public class S3DaoImpl implements S3Dao
         }
     }
 
+    /**
+     * Gets the executor service shared by all the multi-object delete requests. It is bounded by the configured maximum number of threads and a queue of the
+     * same size. When both are full, the submitting thread waits for room in the queue, so the S3 objects are never listed much faster than they are deleted,
+     * while the requests themselves are always sent by the executor threads.
+     *
+     * @return the executor service
+     */
+    private synchronized ExecutorService getDeleteExecutorService()
+    {
+        if (deleteExecutorService == null)
+        {
+            int maxThreads = configurationHelper.getProperty(ConfigurationValue.AWS_S3_DELETE_MAX_THREADS, Integer.class);
+            deleteExecutorService = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(maxThreads),
+                new RejectedExecutionHandler()
+                {
+                    @Override
+                    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor)
+                    {
+                        if (executor.isShutdown())
+                        {
+                            throw new RejectedExecutionException("The executor of the multi-object delete requests is shut down.");
+                        }
+
+                        try
+                        {
+                            executor.getQueue().put(runnable);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while submitting a multi-object delete request.", e);
+                        }
+                    }
+                });
+            deleteExecutorService.allowCoreThreadTimeOut(true);
+        }
+
+        return deleteExecutorService;
+    }
+
+    /**
+     * Submits a multi-object delete request for the specified keys to the shared executor service.
+     *
+     * @param s3Client the S3 client
+     * @param params the S3 file transfer request parameters that specify the bucket
+     * @param keys the keys to delete, up to 1000 of them
+     * @param cancelled the flag that is set when the request should not be sent anymore
+     *
+     * @return the future number of deleted keys
+     */
+    private Future<Integer> submitDeleteObjects(final AmazonS3Client s3Client, final S3FileTransferRequestParamsDto params,
+        final List<DeleteObjectsRequest.KeyVersion> keys, final AtomicBoolean cancelled)
+    {
+        return getDeleteExecutorService().submit(new Callable<Integer>()
+        {
+            @Override
+            public Integer call() throws InterruptedException
+            {
+                return cancelled.get() ? 0 : deleteObjects(s3Client, params, keys);
+            }
+        });
+    }
+
+    /**
+     * Cancels the submitted multi-object delete requests that have not been sent yet and waits for the ones being sent to complete, so none of them is still
+     * using the S3 client once this method returns. The outcome of the requests is ignored, since it is only called once the deletion either completed or
+     * already failed. If interrupted while waiting, the requests being sent are interrupted instead.
+     *
+     * @param futures the futures of the submitted requests
+     * @param cancelled the flag checked by the submitted requests before they are sent
+     */
+    private void cancelDeleteObjects(List<Future<Integer>> futures, AtomicBoolean cancelled)
+    {
+        cancelled.set(true);
+
+        for (Future<Integer> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                for (Future<Integer> runningFuture : futures)
+                {
+                    runningFuture.cancel(true);
+                }
+                return;
+            }
+            catch (ExecutionException | CancellationException e)
+            {
+                // The failure of the request, if any, was already reported by waitForDeleteObjects().
+                LOGGER.debug("Ignoring the outcome of a multi-object delete request of a cancelled deletion.", e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the submitted multi-object delete requests to complete. It stops at the first request that fails, leaving the rest of them to
+     * cancelDeleteObjects().
+     *
+     * @param futures the futures of the submitted requests
+     *
+     * @return the total number of deleted keys
+     */
+    private int waitForDeleteObjects(List<Future<Integer>> futures)
+    {
+        int deletedKeyCount = 0;
+
+        try
+        {
+            for (Future<Integer> future : futures)
+            {
+                deletedKeyCount += future.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting keys/objects.", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return deletedKeyCount;
+    }
+
+    /**
+     * Deletes the specified keys using a multi-object delete request. If some of the keys fail to get deleted, only those keys are sent again, up to the
+     * configured maximum number of attempts.
+     *
+     * @param s3Client the S3 client
+     * @param params the S3 file transfer request parameters that specify the bucket
+     * @param keys the keys to delete, up to 1000 of them
+     *
+     * @return the number of deleted keys
+     * @throws InterruptedException if interrupted while waiting to retry
+     */
+    private int deleteObjects(AmazonS3Client s3Client, S3FileTransferRequestParamsDto params, List<DeleteObjectsRequest.KeyVersion> keys)
+        throws InterruptedException
+    {
+        int maxAttempts = configurationHelper.getProperty(ConfigurationValue.AWS_S3_DELETE_MAX_ATTEMPTS, Integer.class);
+
+        List<DeleteObjectsRequest.KeyVersion> remainingKeys = keys;
+        for (int attempt = 1; ; attempt++)
+        {
+            try
+            {
+                s3Operations.deleteObjects(new DeleteObjectsRequest(params.getS3BucketName()).withKeys(remainingKeys), s3Client);
+                break;
+            }
+            catch (MultiObjectDeleteException e)
+            {
+                if (attempt >= maxAttempts)
+                {
+                    throw e;
+                }
+
+                // Only retry the keys that failed to get deleted.
+                remainingKeys = new ArrayList<>();
+                for (MultiObjectDeleteException.DeleteError deleteError : e.getErrors())
+                {
+                    remainingKeys.add(new DeleteObjectsRequest.KeyVersion(deleteError.getKey(), deleteError.getVersionId()));
+                }
+
+                LOGGER.warn(String.format("Failed to delete %d of %d keys/objects from bucket \"%s\" on attempt %d. Retrying the failed keys/objects...",
+                    remainingKeys.size(), keys.size(), params.getS3BucketName(), attempt));
+
+                Thread.sleep(SLEEP_INTERVAL_MILLIS * attempt);
+            }
+        }
+
+        LOGGER.info(String.format("Successfully deleted the following %d keys/objects from bucket \"%s\":", keys.size(), params.getS3BucketName()));
+
+        for (DeleteObjectsRequest.KeyVersion keyVersion : keys)
+        {
+            LOGGER.info(String.format("    s3://%s/%s", params.getS3BucketName(), keyVersion.getKey()));
+        }
+
+        return keys.size();
+    }
+
     @Override
     public S3FileTransferResultsDto downloadFile(final S3FileTransferRequestParamsDto params) throws InterruptedException
     {
@@ -670,28 +961,65 @@ public class S3DaoImpl implements S3Dao
     }
 
     /**
-     * Gets a transfer manager with the specified parameters including proxy host, proxy port, S3 access key, S3 secret key, and max threads.
+     * Gets a transfer manager with the specified parameters including proxy host, proxy port, S3 access key, and S3 secret key.
      *
      * @param params the parameters.
+     * @param executor the executor the transfer manager sends its S3 requests with. It is shut down along with the transfer manager.
+     * @param telemetry the telemetry collecting the S3 requests of the transfer.
      *
      * @return a newly created transfer manager.
      */
-    private TransferManager getTransferManager(final S3FileTransferRequestParamsDto params)
+    private TransferManager getTransferManager(final S3FileTransferRequestParamsDto params, ThreadPoolExecutor executor, S3TransferTelemetry telemetry)
     {
         // We are returning a new transfer manager each time it is called. Although the Javadocs of TransferManager say to share a single instance
         // if possible, this could potentially be a problem if TransferManager.shutdown(true) is called and underlying resources are not present when needed
         // for subsequent transfers.
-        if (params.getMaxThreads() == null)
-        {
-            // Create a transfer manager that will internally use an appropriate number of threads.
-            return new TransferManager(getAmazonS3(params));
-        }
-        else
+        LOGGER.info("Creating a transfer manager with threads: " + executor.getMaximumPoolSize());
+        return new TransferManager(getAmazonS3(params, telemetry), executor);
+    }
+
+    /**
+     * Gets the executor of a transfer. It uses the max threads of the parameters, or the configured max threads when the parameters do not specify them. When
+     * the adaptive concurrency is enabled and the parameters do not specify the max threads, the executor starts with the configured initial threads instead.
+     * Its queue holds as many tasks as the max threads, and the tasks submitted while it is full run in the submitting thread.
+     *
+     * @param params the parameters.
+     *
+     * @return a newly created executor having the same core and maximum pool sizes.
+     */
+    private ThreadPoolExecutor getTransferExecutor(final S3FileTransferRequestParamsDto params)
+    {
+        int maxThreads = getTransferMaxThreads(params);
+        int threads = maxThreads;
+        if (params.getMaxThreads() == null && configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_ENABLED, Boolean.class))
         {
-            // Create a transfer manager with our own executor configured with the specified total threads.
-            LOGGER.info("Creating a transfer manager with max threads: " + params.getMaxThreads());
-            return new TransferManager(getAmazonS3(params), Executors.newFixedThreadPool(params.getMaxThreads()));
+            threads = Math.min(threads, configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_INITIAL_THREADS, Integer.class));
         }
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(maxThreads),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Gets the statistics of all the transfers performed by this S3 DAO.
+     *
+     * @return the transfer statistics
+     */
+    S3TransferStatistics getTransferStatistics()
+    {
+        return transferStatistics;
+    }
+
+    /**
+     * Gets the maximum number of threads of a transfer.
+     *
+     * @param params the parameters.
+     *
+     * @return the max threads of the parameters, or the configured max threads when the parameters do not specify them.
+     */
+    private int getTransferMaxThreads(final S3FileTransferRequestParamsDto params)
+    {
+        return params.getMaxThreads() != null ? params.getMaxThreads() :
+            configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_MAX_THREADS, Integer.class);
     }
 
     /**
@@ -702,6 +1030,19 @@ public class S3DaoImpl implements S3Dao
      * @return the Amazon S3 client.
      */
     private AmazonS3Client getAmazonS3(S3FileTransferRequestParamsDto params)
+    {
+        return getAmazonS3(params, null);
+    }
+
+    /**
+     * Gets a new S3 client based on the specified parameters. The HTTP proxy information will be added if the host and port are specified in the parameters.
+     *
+     * @param params the parameters.
+     * @param telemetry the optional telemetry to collect the latency, failures, and retries of the S3 requests sent by the client.
+     *
+     * @return the Amazon S3 client.
+     */
+    private AmazonS3Client getAmazonS3(S3FileTransferRequestParamsDto params, S3TransferTelemetry telemetry)
     {
         AmazonS3Client amazonS3Client;
 
@@ -726,6 +1067,17 @@ public class S3DaoImpl implements S3Dao
             clientConfiguration.setSignerOverride(params.getSignerOverride());
         }
 
+        // Counts the retries through the telemetry if specified.
+        if (telemetry != null)
+        {
+            if (clientConfiguration == null)
+            {
+                clientConfiguration = new ClientConfiguration();
+            }
+
+            clientConfiguration.setRetryPolicy(telemetry.getRetryPolicy());
+        }
+
         AWSCredentialsProvider awsCredentialsProvider = getAWSCredentialsProvider(params);
         if (clientConfiguration != null)
         {
@@ -745,6 +1097,12 @@ public class S3DaoImpl implements S3Dao
             amazonS3Client.setEndpoint(params.getS3Endpoint());
         }
 
+        // Times the S3 requests through the telemetry if specified.
+        if (telemetry != null)
+        {
+            amazonS3Client.addRequestHandler(telemetry);
+        }
+
         // Return the newly created client.
         return amazonS3Client;
     }
@@ -775,7 +1133,8 @@ public class S3DaoImpl implements S3Dao
     }
 
     /**
-     * Performs a file/directory transfer.
+     * Performs a file/directory transfer. While the transfer is in progress, its statistics are passed to the transfer listeners of the parameters and, when
+     * the adaptive concurrency is enabled, the number of threads of the transfer is adjusted based on its throughput and errors.
      *
      * @param params the parameters.
      * @param transferer a transferer that knows how to perform the transfer.
@@ -788,17 +1147,35 @@ public class S3DaoImpl implements S3Dao
         // Create a transfer manager.
         TransferManager transferManager = null;
 
+        // Create the executor of the transfer and the telemetry collecting its statistics.
+        ThreadPoolExecutor executor = getTransferExecutor(params);
+        S3TransferTelemetry telemetry = new S3TransferTelemetry(params.getTransferListeners(), transferStatistics);
+        Transfer transfer = null;
+
         try
         {
             // Create a transfer manager.
-            transferManager = getTransferManager(params);
+            transferManager = getTransferManager(params, executor, telemetry);
+
+            // Create the controller of the transfer threads if the adaptive concurrency is enabled.
+            S3TransferConcurrencyController concurrencyController = null;
+            long adjustmentIntervalSteps = 0;
+            if (configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_ENABLED, Boolean.class))
+            {
+                concurrencyController = new S3TransferConcurrencyController(executor,
+                    configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_MIN_THREADS, Integer.class), getTransferMaxThreads(params),
+                    System.currentTimeMillis());
+                adjustmentIntervalSteps = Math.max(1, TimeUnit.SECONDS.toMillis(
+                    configurationHelper.getProperty(ConfigurationValue.AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_INTERVAL_SECS, Integer.class)) /
+                    SLEEP_INTERVAL_MILLIS);
+            }
 
             // Start a stop watch to keep track of how long the transfer takes.
             StopWatch stopWatch = new StopWatch();
             stopWatch.start();
 
             // Perform the transfer.
-            Transfer transfer = transferer.performTransfer(transferManager);
+            transfer = transferer.performTransfer(transferManager);
             TransferProgress transferProgress = transfer.getProgress();
 
             LOGGER.info(String
@@ -813,6 +1190,18 @@ public class S3DaoImpl implements S3Dao
                 Thread.sleep(SLEEP_INTERVAL_MILLIS);
                 stepCount++;
 
+                // Pass the statistics to the transfer listeners every second.
+                if (!transfer.isDone() && stepCount % STATISTICS_INTERVAL_STEPS == 0)
+                {
+                    telemetry.transferProgressed(transfer.getDescription(), transferProgress, executor.getMaximumPoolSize());
+                }
+
+                // Adjust the number of threads every adjustment interval.
+                if (concurrencyController != null && !transfer.isDone() && stepCount % adjustmentIntervalSteps == 0)
+                {
+                    concurrencyController.adjust(transferProgress.getBytesTransferred(), telemetry.getErrorCount(), System.currentTimeMillis());
+                }
+
                 // Log progress status every 30 seconds and when transfer is complete.
                 if (transfer.isDone() || stepCount % 300 == 0)
                 {
@@ -883,11 +1272,38 @@ public class S3DaoImpl implements S3Dao
         }
         finally
         {
+            // Pass the final statistics to the transfer listeners.
+            if (transfer != null)
+            {
+                S3FileTransferStatisticsDto statistics = telemetry
+                    .transferDone(transfer.getDescription(), transfer.getProgress(), executor.getMaximumPoolSize(),
+                        transfer.getState() == TransferState.Completed);
+                LOGGER.info(String.format("S3 transfer statistics: requestCount=%d failedRequestCount=%d retryCount=%d averageRequestLatencyMillis=%d " +
+                    "maxRequestLatencyMillis=%d threadCount=%d", statistics.getRequestCount(), statistics.getFailedRequestCount(),
+                    statistics.getRetryCount(), statistics.getAverageRequestLatencyMillis(), statistics.getMaxRequestLatencyMillis(),
+                    statistics.getThreadCount()));
+            }
+            else
+            {
+                // The transfer failed to start.
+                transferStatistics.transferDone(telemetry, false);
+            }
+            LOGGER.info(String.format("S3 transfer totals: activeTransferCount=%d completedTransferCount=%d failedTransferCount=%d transferredBytes=%d " +
+                "currentBytesPerSecond=%d currentThreadCount=%d requestCount=%d failedRequestCount=%d retryCount=%d averageRequestLatencyMillis=%d",
+                transferStatistics.getActiveTransferCount(), transferStatistics.getCompletedTransferCount(), transferStatistics.getFailedTransferCount(),
+                transferStatistics.getTransferredBytes(), transferStatistics.getCurrentBytesPerSecond(), transferStatistics.getCurrentThreadCount(),
+                transferStatistics.getRequestCount(), transferStatistics.getFailedRequestCount(), transferStatistics.getRetryCount(),
+                transferStatistics.getAverageRequestLatencyMillis()));
+
             // Shutdown the transfer manager to release resources. If this isn't done, the JVM may delay upon exiting.
             if (transferManager != null)
             {
                 transferManager.shutdownNow();
             }
+            else
+            {
+                executor.shutdownNow();
+            }
         }
     }
 
@@ -916,20 +1332,176 @@ public class S3DaoImpl implements S3Dao
      * @return the list of all S3 objects represented as storage files that match the prefix in the given bucket
      */
     private List<StorageFile> listObjectsMatchingKeyPrefix(final S3FileTransferRequestParamsDto params, boolean ignoreZeroByteDirectoryMarkers)
+    {
+        final List<StorageFile> storageFiles = new ArrayList<>();
+
+        listObjectsMatchingKeyPrefix(params, ignoreZeroByteDirectoryMarkers, new StorageFilesHandler()
+        {
+            @Override
+            public void handle(List<StorageFile> listedStorageFiles)
+            {
+                storageFiles.addAll(listedStorageFiles);
+            }
+        });
+
+        // The "sub-directories" might have been listed concurrently, so restore the S3 key order.
+        Collections.sort(storageFiles, new Comparator<StorageFile>()
+        {
+            @Override
+            public int compare(StorageFile storageFile1, StorageFile storageFile2)
+            {
+                return storageFile1.getFilePath().compareTo(storageFile2.getFilePath());
+            }
+        });
+
+        return storageFiles;
+    }
+
+    /**
+     * Lists all S3 objects matching the S3 key prefix in the given bucket (S3 bucket name) and passes them to the handler a page at a time. Unless the
+     * concurrent listing is enabled, the S3 objects are paged through one page after another, the same way S3 returns them. Otherwise, the S3 objects right
+     * under the S3 key prefix are listed first along with the "sub-directories" that hold the rest of them, and the sub-directories are then listed
+     * concurrently by the shared listing executor service.
+     *
+     * @param params the S3 file transfer request parameters
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories
+     * @param storageFilesHandler the handler of the listed S3 objects
+     */
+    private void listObjectsMatchingKeyPrefix(final S3FileTransferRequestParamsDto params, final boolean ignoreZeroByteDirectoryMarkers,
+        final StorageFilesHandler storageFilesHandler)
     {
         AmazonS3Client s3Client = null;
-        List<StorageFile> storageFiles = new ArrayList<>();
+        List<Future<List<String>>> futures = new ArrayList<>();
 
         try
         {
             s3Client = getAmazonS3(params);
-            ListObjectsRequest listObjectsRequest = new ListObjectsRequest().withBucketName(params.getS3BucketName()).withPrefix(params.getS3KeyPrefix());
+
+            if (!configurationHelper.getProperty(ConfigurationValue.AWS_S3_LISTING_CONCURRENT_ENABLED, Boolean.class))
+            {
+                listObjectsMatchingKeyPrefix(s3Client, params, params.getS3KeyPrefix(), null, ignoreZeroByteDirectoryMarkers, storageFilesHandler);
+                return;
+            }
+
+            // Make sure the handler is never called by more than one thread at a time.
+            final StorageFilesHandler synchronizedStorageFilesHandler = new StorageFilesHandler()
+            {
+                @Override
+                public synchronized void handle(List<StorageFile> storageFiles)
+                {
+                    storageFilesHandler.handle(storageFiles);
+                }
+            };
+
+            List<String> subdirectoryPrefixes =
+                listObjectsMatchingKeyPrefix(s3Client, params, params.getS3KeyPrefix(), "/", ignoreZeroByteDirectoryMarkers, synchronizedStorageFilesHandler);
+
+            ExecutorService executorService = getListingExecutorService();
+            final AmazonS3Client sharedS3Client = s3Client;
+            for (final String subdirectoryPrefix : subdirectoryPrefixes)
+            {
+                futures.add(executorService.submit(new Callable<List<String>>()
+                {
+                    @Override
+                    public List<String> call()
+                    {
+                        return listObjectsMatchingKeyPrefix(sharedS3Client, params, subdirectoryPrefix, null, ignoreZeroByteDirectoryMarkers,
+                            synchronizedStorageFilesHandler);
+                    }
+                }));
+            }
+
+            for (Future<List<String>> future : futures)
+            {
+                future.get();
+            }
+
+            LOGGER.debug(String.format("Listed keys/objects with prefix \"%s\" from bucket \"%s\" in %d sub-directories.", params.getS3KeyPrefix(),
+                params.getS3BucketName(), subdirectoryPrefixes.size()));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                String.format("Interrupted while listing keys/objects with prefix \"%s\" from bucket \"%s\".", params.getS3KeyPrefix(), params.getS3BucketName()),
+                e);
+        }
+        catch (ExecutionException e)
+        {
+            // The listing of a sub-directory failed, so rethrow its exception, which is already translated.
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(String
+                .format("Failed to list keys/objects with prefix \"%s\" from bucket \"%s\". Reason: %s", params.getS3KeyPrefix(), params.getS3BucketName(),
+                    e.getCause().getMessage()), e.getCause());
+        }
+        finally
+        {
+            // Stop listing the remaining sub-directories if one of them failed. The completed listings are not affected.
+            for (Future<List<String>> future : futures)
+            {
+                future.cancel(true);
+            }
+
+            // Shutdown the AmazonS3Client instance to release resources.
+            if (s3Client != null)
+            {
+                s3Client.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Gets the executor service shared by all the concurrent listings of S3 key prefix "sub-directories". It is bounded by the configured maximum number of
+     * threads and a queue of the same size. When both are full, the thread that submits a sub-directory lists it itself, which also slows down the submission
+     * of the rest of them.
+     *
+     * @return the executor service
+     */
+    private synchronized ExecutorService getListingExecutorService()
+    {
+        if (listingExecutorService == null)
+        {
+            int maxThreads = configurationHelper.getProperty(ConfigurationValue.AWS_S3_LISTING_MAX_THREADS, Integer.class);
+            listingExecutorService = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(maxThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+            listingExecutorService.allowCoreThreadTimeOut(true);
+        }
+
+        return listingExecutorService;
+    }
+
+    /**
+     * Pages through all S3 objects matching the S3 key prefix in the given bucket and passes each page to the handler. When a delimiter is specified, the S3
+     * objects that contain the delimiter after the S3 key prefix are not listed, but returned as common prefixes.
+     *
+     * @param s3Client the S3 client
+     * @param params the S3 file transfer request parameters that specify the bucket
+     * @param s3KeyPrefix the S3 key prefix
+     * @param delimiter the optional delimiter
+     * @param ignoreZeroByteDirectoryMarkers specifies whether to ignore 0 byte objects that represent S3 directories
+     * @param storageFilesHandler the handler of the listed S3 objects
+     *
+     * @return the list of common prefixes, empty when no delimiter is specified
+     */
+    private List<String> listObjectsMatchingKeyPrefix(AmazonS3Client s3Client, S3FileTransferRequestParamsDto params, String s3KeyPrefix, String delimiter,
+        boolean ignoreZeroByteDirectoryMarkers, StorageFilesHandler storageFilesHandler)
+    {
+        List<String> commonPrefixes = new ArrayList<>();
+
+        try
+        {
+            ListObjectsRequest listObjectsRequest =
+                new ListObjectsRequest().withBucketName(params.getS3BucketName()).withPrefix(s3KeyPrefix).withDelimiter(delimiter);
             ObjectListing objectListing;
 
             do
             {
                 objectListing = s3Operations.listObjects(listObjectsRequest, s3Client);
 
+                List<StorageFile> storageFiles = new ArrayList<>();
                 for (S3ObjectSummary objectSummary : objectListing.getObjectSummaries())
                 {
                     // Ignore 0 byte objects that represent S3 directories.
@@ -938,6 +1510,12 @@ public class S3DaoImpl implements S3Dao
                         storageFiles.add(new StorageFile(objectSummary.getKey(), objectSummary.getSize(), null, null));
                     }
                 }
+                if (!storageFiles.isEmpty())
+                {
+                    storageFilesHandler.handle(storageFiles);
+                }
+
+                commonPrefixes.addAll(objectListing.getCommonPrefixes());
 
                 listObjectsRequest.setMarker(objectListing.getNextMarker());
             }
@@ -954,19 +1532,11 @@ public class S3DaoImpl implements S3Dao
         catch (AmazonClientException e)
         {
             throw new IllegalStateException(String
-                .format("Failed to list keys/objects with prefix \"%s\" from bucket \"%s\". Reason: %s", params.getS3KeyPrefix(), params.getS3BucketName(),
+                .format("Failed to list keys/objects with prefix \"%s\" from bucket \"%s\". Reason: %s", s3KeyPrefix, params.getS3BucketName(),
                     e.getMessage()), e);
         }
-        finally
-        {
-            // Shutdown the AmazonS3Client instance to release resources.
-            if (s3Client != null)
-            {
-                s3Client.shutdown();
-            }
-        }
 
-        return storageFiles;
+        return commonPrefixes;
     }
 
     @Override
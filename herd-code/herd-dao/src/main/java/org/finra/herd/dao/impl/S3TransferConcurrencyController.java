@@ -0,0 +1,139 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Adjusts the number of threads of the executor of an S3 file transfer while the transfer is in progress. The number of threads keeps growing while the
+ * throughput improves, steps back for good when the added threads made the throughput drop, and is halved as soon as S3 requests get retried or fail, since this is
+ * usually how S3 throttles too many concurrent requests.
+ */
+class S3TransferConcurrencyController
+{
+    private static final Logger LOGGER = Logger.getLogger(S3TransferConcurrencyController.class);
+
+    /**
+     * The relative change of the throughput that is considered an improvement or a drop rather than noise.
+     */
+    private static final double THROUGHPUT_CHANGE_THRESHOLD = 0.05;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int minThreads;
+
+    // The number of threads the transfer can grow to, lowered when more threads turn out to make the throughput drop.
+    private int ceilingThreads;
+
+    private long previousBytesTransferred;
+
+    private long previousErrorCount;
+
+    private long previousTimeMillis;
+
+    private long previousBytesPerSecond;
+
+    private int previousThreads;
+
+    /**
+     * Creates a controller of the specified executor.
+     *
+     * @param executor the executor of the transfer, having the same core and maximum pool sizes
+     * @param minThreads the minimum number of threads
+     * @param maxThreads the maximum number of threads
+     * @param startTimeMillis the time the transfer started in milliseconds
+     */
+    S3TransferConcurrencyController(ThreadPoolExecutor executor, int minThreads, int maxThreads, long startTimeMillis)
+    {
+        this.executor = executor;
+        this.minThreads = Math.min(minThreads, maxThreads);
+        this.ceilingThreads = maxThreads;
+        this.previousTimeMillis = startTimeMillis;
+        this.previousThreads = executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Adjusts the number of threads of the executor based on the progress of the transfer since the previous adjustment.
+     *
+     * @param bytesTransferred the number of bytes transferred so far
+     * @param errorCount the number of S3 requests retried or failed so far
+     * @param timeMillis the current time in milliseconds
+     *
+     * @return the new number of threads
+     */
+    int adjust(long bytesTransferred, long errorCount, long timeMillis)
+    {
+        int threads = executor.getMaximumPoolSize();
+        long bytesPerSecond = timeMillis > previousTimeMillis ? (bytesTransferred - previousBytesTransferred) * 1000 / (timeMillis - previousTimeMillis) : 0;
+        int newThreads = threads;
+
+        if (errorCount > previousErrorCount)
+        {
+            // Back off quickly when S3 pushes back.
+            newThreads = Math.max(minThreads, threads / 2);
+        }
+        else if (bytesPerSecond > 0)
+        {
+            if (previousBytesPerSecond == 0 || bytesPerSecond > previousBytesPerSecond * (1 + THROUGHPUT_CHANGE_THRESHOLD))
+            {
+                // The throughput improved, so try more threads.
+                newThreads = Math.max(threads, Math.min(ceilingThreads, threads + Math.max(1, threads / 4)));
+            }
+            else if (bytesPerSecond < previousBytesPerSecond * (1 - THROUGHPUT_CHANGE_THRESHOLD) && previousThreads < threads)
+            {
+                // The threads added last made the throughput drop, so step back and do not try that many threads again.
+                newThreads = previousThreads;
+                ceilingThreads = threads - 1;
+            }
+        }
+
+        if (newThreads != threads)
+        {
+            LOGGER.debug(String.format("Adjusting S3 transfer threads from %d to %d. bytesPerSecond=%d previousBytesPerSecond=%d errorCount=%d", threads,
+                newThreads, bytesPerSecond, previousBytesPerSecond, errorCount - previousErrorCount));
+            setThreads(newThreads);
+        }
+
+        previousBytesTransferred = bytesTransferred;
+        previousErrorCount = errorCount;
+        previousTimeMillis = timeMillis;
+        previousBytesPerSecond = bytesPerSecond;
+        previousThreads = threads;
+
+        return newThreads;
+    }
+
+    /**
+     * Sets the number of threads of the executor. The core pool size never exceeds the maximum pool size while they are changed.
+     *
+     * @param threads the number of threads
+     */
+    private void setThreads(int threads)
+    {
+        if (threads > executor.getMaximumPoolSize())
+        {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+        else
+        {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+}
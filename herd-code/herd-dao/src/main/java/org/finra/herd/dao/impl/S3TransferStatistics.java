@@ -0,0 +1,174 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
+
+/**
+ * The statistics of all the S3 file transfers performed by an S3 DAO. The S3 DAO logs them after each transfer.
+ */
+class S3TransferStatistics
+{
+    private final Set<S3TransferTelemetry> activeTransfers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong completedTransferCount = new AtomicLong();
+
+    private final AtomicLong failedTransferCount = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong failedRequestCount = new AtomicLong();
+
+    private final AtomicLong retryCount = new AtomicLong();
+
+    private final AtomicLong totalRequestLatencyNanos = new AtomicLong();
+
+    /**
+     * Records that a transfer started.
+     *
+     * @param telemetry the telemetry of the transfer
+     */
+    void transferStarted(S3TransferTelemetry telemetry)
+    {
+        activeTransfers.add(telemetry);
+    }
+
+    /**
+     * Records that a transfer is done.
+     *
+     * @param telemetry the telemetry of the transfer
+     * @param succeeded specifies whether the transfer completed successfully
+     */
+    void transferDone(S3TransferTelemetry telemetry, boolean succeeded)
+    {
+        if (activeTransfers.remove(telemetry))
+        {
+            (succeeded ? completedTransferCount : failedTransferCount).incrementAndGet();
+        }
+    }
+
+    /**
+     * Records bytes transferred by a transfer.
+     *
+     * @param bytes the number of bytes transferred
+     */
+    void addTransferredBytes(long bytes)
+    {
+        transferredBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Records a completed S3 request.
+     *
+     * @param latencyNanos the time the request took in nanoseconds
+     */
+    void addRequest(long latencyNanos)
+    {
+        requestCount.incrementAndGet();
+        totalRequestLatencyNanos.addAndGet(latencyNanos);
+    }
+
+    /**
+     * Records an S3 request that failed after all its retries.
+     */
+    void addFailedRequest()
+    {
+        failedRequestCount.incrementAndGet();
+    }
+
+    /**
+     * Records a retried S3 request.
+     */
+    void addRetry()
+    {
+        retryCount.incrementAndGet();
+    }
+
+    long getActiveTransferCount()
+    {
+        return activeTransfers.size();
+    }
+
+    long getCompletedTransferCount()
+    {
+        return completedTransferCount.get();
+    }
+
+    long getFailedTransferCount()
+    {
+        return failedTransferCount.get();
+    }
+
+    long getTransferredBytes()
+    {
+        return transferredBytes.get();
+    }
+
+    long getCurrentBytesPerSecond()
+    {
+        long bytesPerSecond = 0;
+        for (S3TransferTelemetry telemetry : activeTransfers)
+        {
+            S3FileTransferStatisticsDto statistics = telemetry.getLastStatistics();
+            if (statistics != null)
+            {
+                bytesPerSecond += statistics.getBytesPerSecond();
+            }
+        }
+        return bytesPerSecond;
+    }
+
+    int getCurrentThreadCount()
+    {
+        int threadCount = 0;
+        for (S3TransferTelemetry telemetry : activeTransfers)
+        {
+            S3FileTransferStatisticsDto statistics = telemetry.getLastStatistics();
+            if (statistics != null)
+            {
+                threadCount += statistics.getThreadCount();
+            }
+        }
+        return threadCount;
+    }
+
+    long getRequestCount()
+    {
+        return requestCount.get();
+    }
+
+    long getFailedRequestCount()
+    {
+        return failedRequestCount.get();
+    }
+
+    long getRetryCount()
+    {
+        return retryCount.get();
+    }
+
+    long getAverageRequestLatencyMillis()
+    {
+        long requests = requestCount.get();
+        return requests == 0 ? 0 : totalRequestLatencyNanos.get() / requests / 1000000;
+    }
+}
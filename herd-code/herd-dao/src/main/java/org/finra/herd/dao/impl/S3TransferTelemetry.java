@@ -0,0 +1,273 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+import org.apache.log4j.Logger;
+
+import org.finra.herd.model.dto.S3FileTransferListener;
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
+
+/**
+ * Collects the telemetry of a single S3 file transfer. The throughput is sampled from the progress of the transfer, while the latency, failures, and retries
+ * of the S3 requests (e.g. the part uploads) are collected from the S3 client of the transfer, which this telemetry is registered with as a request handler
+ * and as the retry condition of its retry policy.
+ */
+class S3TransferTelemetry extends RequestHandler2 implements RetryPolicy.RetryCondition
+{
+    private static final Logger LOGGER = Logger.getLogger(S3TransferTelemetry.class);
+
+    private final List<S3FileTransferListener> transferListeners;
+
+    private final S3TransferStatistics transferStatistics;
+
+    private final long startTimeNanos = System.nanoTime();
+
+    private final ConcurrentMap<Request<?>, Long> requestStartTimes = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong failedRequestCount = new AtomicLong();
+
+    private final AtomicLong retryCount = new AtomicLong();
+
+    private final AtomicLong totalRequestLatencyNanos = new AtomicLong();
+
+    private final LongAccumulator maxRequestLatencyNanos = new LongAccumulator(Long::max, 0);
+
+    // The progress of the transfer when the previous statistics were taken. It is only accessed by the thread that performs the transfer.
+    private long sampleBytesTransferred;
+
+    private long sampleTimeNanos = startTimeNanos;
+
+    private volatile S3FileTransferStatisticsDto lastStatistics;
+
+    /**
+     * Creates the telemetry of a transfer and records the transfer as started.
+     *
+     * @param transferListeners the listeners to notify of the progress of the transfer
+     * @param transferStatistics the statistics of all the transfers performed by the S3 DAO
+     */
+    S3TransferTelemetry(List<S3FileTransferListener> transferListeners, S3TransferStatistics transferStatistics)
+    {
+        this.transferListeners = transferListeners;
+        this.transferStatistics = transferStatistics;
+        transferStatistics.transferStarted(this);
+    }
+
+    /**
+     * Creates a retry policy that behaves like the default retry policy of the S3 client, but counts the retries through this telemetry.
+     *
+     * @return the retry policy
+     */
+    RetryPolicy getRetryPolicy()
+    {
+        return new RetryPolicy(this, PredefinedRetryPolicies.DEFAULT_BACKOFF_STRATEGY, PredefinedRetryPolicies.DEFAULT_MAX_ERROR_RETRY, true);
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request)
+    {
+        requestStartTimes.put(request, System.nanoTime());
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response)
+    {
+        requestDone(request);
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e)
+    {
+        requestDone(request);
+        failedRequestCount.incrementAndGet();
+        transferStatistics.addFailedRequest();
+    }
+
+    @Override
+    public boolean shouldRetry(AmazonWebServiceRequest originalRequest, AmazonClientException exception, int retriesAttempted)
+    {
+        boolean shouldRetry = PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION.shouldRetry(originalRequest, exception, retriesAttempted);
+        if (shouldRetry)
+        {
+            retryCount.incrementAndGet();
+            transferStatistics.addRetry();
+        }
+        return shouldRetry;
+    }
+
+    /**
+     * Records the latency of a completed S3 request.
+     *
+     * @param request the request
+     */
+    private void requestDone(Request<?> request)
+    {
+        Long requestStartTimeNanos = requestStartTimes.remove(request);
+        if (requestStartTimeNanos != null)
+        {
+            long latencyNanos = System.nanoTime() - requestStartTimeNanos;
+            requestCount.incrementAndGet();
+            totalRequestLatencyNanos.addAndGet(latencyNanos);
+            maxRequestLatencyNanos.accumulate(latencyNanos);
+            transferStatistics.addRequest(latencyNanos);
+        }
+    }
+
+    /**
+     * Gets the number of S3 requests that were retried or failed so far.
+     *
+     * @return the number of retried and failed requests
+     */
+    long getErrorCount()
+    {
+        return retryCount.get() + failedRequestCount.get();
+    }
+
+    /**
+     * Gets the statistics taken most recently, if any.
+     *
+     * @return the statistics or null if no statistics were taken yet
+     */
+    S3FileTransferStatisticsDto getLastStatistics()
+    {
+        return lastStatistics;
+    }
+
+    /**
+     * Takes the statistics of the transfer in progress and passes them to the transfer listeners.
+     *
+     * @param description the description of the transfer
+     * @param transferProgress the progress of the transfer
+     * @param threadCount the number of threads the transfer currently uses
+     *
+     * @return the statistics
+     */
+    S3FileTransferStatisticsDto transferProgressed(String description, TransferProgress transferProgress, int threadCount)
+    {
+        S3FileTransferStatisticsDto statistics = takeStatistics(description, transferProgress, threadCount);
+
+        for (S3FileTransferListener transferListener : transferListeners)
+        {
+            try
+            {
+                transferListener.transferProgressed(statistics);
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.warn("S3 file transfer listener failed to handle the progress of the transfer \"" + description + "\".", e);
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Takes the final statistics of the transfer, records the transfer as done, and passes the statistics to the transfer listeners.
+     *
+     * @param description the description of the transfer
+     * @param transferProgress the progress of the transfer
+     * @param threadCount the number of threads the transfer used last
+     * @param succeeded specifies whether the transfer completed successfully
+     *
+     * @return the statistics
+     */
+    S3FileTransferStatisticsDto transferDone(String description, TransferProgress transferProgress, int threadCount, boolean succeeded)
+    {
+        S3FileTransferStatisticsDto statistics = takeStatistics(description, transferProgress, threadCount);
+        transferStatistics.transferDone(this, succeeded);
+
+        for (S3FileTransferListener transferListener : transferListeners)
+        {
+            try
+            {
+                transferListener.transferDone(statistics);
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.warn("S3 file transfer listener failed to handle the end of the transfer \"" + description + "\".", e);
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Takes the statistics of the transfer. The throughput is calculated since the previous statistics were taken.
+     *
+     * @param description the description of the transfer
+     * @param transferProgress the progress of the transfer
+     * @param threadCount the number of threads the transfer currently uses
+     *
+     * @return the statistics
+     */
+    private S3FileTransferStatisticsDto takeStatistics(String description, TransferProgress transferProgress, int threadCount)
+    {
+        long timeNanos = System.nanoTime();
+        long bytesTransferred = transferProgress.getBytesTransferred();
+
+        S3FileTransferStatisticsDto statistics = new S3FileTransferStatisticsDto();
+        statistics.setTransferDescription(description);
+        statistics.setBytesTransferred(bytesTransferred);
+        statistics.setTotalBytesToTransfer(transferProgress.getTotalBytesToTransfer());
+        statistics.setElapsedTimeMillis(TimeUnit.NANOSECONDS.toMillis(timeNanos - startTimeNanos));
+        statistics.setBytesPerSecond(getBytesPerSecond(bytesTransferred - sampleBytesTransferred, timeNanos - sampleTimeNanos));
+        statistics.setAverageBytesPerSecond(getBytesPerSecond(bytesTransferred, timeNanos - startTimeNanos));
+
+        long requests = requestCount.get();
+        statistics.setRequestCount(requests);
+        statistics.setFailedRequestCount(failedRequestCount.get());
+        statistics.setRetryCount(retryCount.get());
+        statistics.setAverageRequestLatencyMillis(requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRequestLatencyNanos.get() / requests));
+        statistics.setMaxRequestLatencyMillis(TimeUnit.NANOSECONDS.toMillis(maxRequestLatencyNanos.get()));
+        statistics.setThreadCount(threadCount);
+
+        transferStatistics.addTransferredBytes(bytesTransferred - sampleBytesTransferred);
+        sampleBytesTransferred = bytesTransferred;
+        sampleTimeNanos = timeNanos;
+        lastStatistics = statistics;
+
+        return statistics;
+    }
+
+    /**
+     * Calculates a transfer rate.
+     *
+     * @param bytes the number of bytes transferred
+     * @param nanos the time it took to transfer them in nanoseconds
+     *
+     * @return the number of bytes transferred per second
+     */
+    private long getBytesPerSecond(long bytes, long nanos)
+    {
+        return nanos <= 0 ? 0 : (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+}
@@ -15,8 +15,16 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import com.amazonaws.ClientConfiguration;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -30,29 +38,183 @@ import org.finra.herd.model.dto.AwsParamsDto;
 @Repository
 public class SqsDaoImpl implements SqsDao
 {
+    private static final Logger LOGGER = Logger.getLogger(SqsDaoImpl.class);
+
+    /**
+     * The statistics of the messages sent to an AWS SQS queue by this node. The counters are updated without locking, so the logged values of concurrent
+     * sends might not be a consistent snapshot.
+     */
+    private static class SqsQueueStatistics
+    {
+        /**
+         * The number of send requests, each sending a single message or a list of messages.
+         */
+        private final LongAdder sendCount = new LongAdder();
+
+        /**
+         * The number of send requests that failed with an exception.
+         */
+        private final LongAdder sendErrorCount = new LongAdder();
+
+        /**
+         * The number of messages that were sent.
+         */
+        private final LongAdder messageCount = new LongAdder();
+
+        /**
+         * The number of messages that AWS SQS did not accept.
+         */
+        private final LongAdder failedMessageCount = new LongAdder();
+
+        /**
+         * The total time spent in send requests, in milliseconds.
+         */
+        private final LongAdder totalSendTimeMillis = new LongAdder();
+
+        /**
+         * The longest time spent in a single send request, in milliseconds.
+         */
+        private final AtomicLong maxSendTimeMillis = new AtomicLong();
+    }
+
     @Autowired
     private SqsOperations sqsOperations;
 
+    /**
+     * The client configurations keyed by their proxy configuration.
+     */
+    private final ConcurrentMap<String, ClientConfiguration> clientConfigurations = new ConcurrentHashMap<>();
+
+    /**
+     * The statistics of the messages sent by this node keyed by the queue name.
+     */
+    private final ConcurrentMap<String, SqsQueueStatistics> sqsQueueStatistics = new ConcurrentHashMap<>();
+
     /**
      * Sends a text message to the specified AWS SQS queue.
      */
     @Override
     public void sendSqsTextMessage(AwsParamsDto awsParamsDto, String queueName, String messageText)
     {
-        // Create the connection factory based on the specified proxy configuration.
-        ClientConfiguration clientConfiguration = new ClientConfiguration();
+        long startTimeMillis = System.currentTimeMillis();
+        boolean success = false;
+        try
+        {
+            // Send the message.
+            sqsOperations.sendSqsTextMessage(getClientConfiguration(awsParamsDto), queueName, messageText);
+            success = true;
+        }
+        finally
+        {
+            updateSqsQueueStatistics(queueName, 1, Collections.<Integer>emptyList(), success, System.currentTimeMillis() - startTimeMillis);
+        }
+    }
 
-        // Only set the proxy hostname and/or port if they're configured.
-        if (StringUtils.isNotBlank(awsParamsDto.getHttpProxyHost()))
+    /**
+     * Sends text messages to the specified AWS SQS queue in batches.
+     */
+    @Override
+    public List<Integer> sendSqsTextMessages(AwsParamsDto awsParamsDto, String queueName, List<String> messageTexts)
+    {
+        long startTimeMillis = System.currentTimeMillis();
+        List<Integer> failedMessagePositions = null;
+        try
         {
-            clientConfiguration.setProxyHost(awsParamsDto.getHttpProxyHost());
+            // Send the messages.
+            failedMessagePositions = sqsOperations.sendSqsTextMessages(getClientConfiguration(awsParamsDto), queueName, messageTexts);
+            return failedMessagePositions;
         }
-        if (awsParamsDto.getHttpProxyPort() != null)
+        finally
         {
-            clientConfiguration.setProxyPort(awsParamsDto.getHttpProxyPort());
+            updateSqsQueueStatistics(queueName, messageTexts.size(),
+                failedMessagePositions == null ? Collections.<Integer>emptyList() : failedMessagePositions, failedMessagePositions != null,
+                System.currentTimeMillis() - startTimeMillis);
+        }
+    }
+
+    /**
+     * Records a send request in the statistics of the specified queue and logs them.
+     *
+     * @param queueName the queue name
+     * @param messageCount the number of messages in the send request
+     * @param failedMessagePositions the positions of the messages that AWS SQS did not accept
+     * @param success true if the send request completed, false if it failed with an exception
+     * @param sendTimeMillis the time spent in the send request, in milliseconds
+     */
+    private void updateSqsQueueStatistics(String queueName, int messageCount, List<Integer> failedMessagePositions, boolean success, long sendTimeMillis)
+    {
+        SqsQueueStatistics statistics = sqsQueueStatistics.get(queueName);
+        if (statistics == null)
+        {
+            statistics = new SqsQueueStatistics();
+            SqsQueueStatistics existingStatistics = sqsQueueStatistics.putIfAbsent(queueName, statistics);
+            if (existingStatistics != null)
+            {
+                statistics = existingStatistics;
+            }
+        }
+
+        statistics.sendCount.increment();
+        if (success)
+        {
+            statistics.messageCount.add(messageCount - failedMessagePositions.size());
+            statistics.failedMessageCount.add(failedMessagePositions.size());
+        }
+        else
+        {
+            statistics.sendErrorCount.increment();
+            statistics.failedMessageCount.add(messageCount);
+        }
+        statistics.totalSendTimeMillis.add(sendTimeMillis);
+
+        long maxSendTimeMillis = statistics.maxSendTimeMillis.get();
+        while (sendTimeMillis > maxSendTimeMillis && !statistics.maxSendTimeMillis.compareAndSet(maxSendTimeMillis, sendTimeMillis))
+        {
+            maxSendTimeMillis = statistics.maxSendTimeMillis.get();
         }
 
-        // Send the message.
-        sqsOperations.sendSqsTextMessage(clientConfiguration, queueName, messageText);
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug(String.format(
+                "Sent %d message(s) to \"%s\" AWS SQS queue in %d ms. success=%b sendCount=%d sendErrorCount=%d messageCount=%d failedMessageCount=%d " +
+                    "totalSendTimeMillis=%d maxSendTimeMillis=%d", success ? messageCount - failedMessagePositions.size() : 0, queueName, sendTimeMillis,
+                success, statistics.sendCount.sum(), statistics.sendErrorCount.sum(), statistics.messageCount.sum(), statistics.failedMessageCount.sum(),
+                statistics.totalSendTimeMillis.sum(), statistics.maxSendTimeMillis.get()));
+        }
+    }
+
+    /**
+     * Gets the client configuration based on the specified proxy configuration. The client configuration is created once per proxy configuration.
+     *
+     * @param awsParamsDto the AWS related parameters
+     *
+     * @return the client configuration
+     */
+    private ClientConfiguration getClientConfiguration(AwsParamsDto awsParamsDto)
+    {
+        String clientConfigurationKey = awsParamsDto.getHttpProxyHost() + ":" + awsParamsDto.getHttpProxyPort();
+        ClientConfiguration clientConfiguration = clientConfigurations.get(clientConfigurationKey);
+        if (clientConfiguration == null)
+        {
+            clientConfiguration = new ClientConfiguration();
+
+            // Only set the proxy hostname and/or port if they're configured.
+            if (StringUtils.isNotBlank(awsParamsDto.getHttpProxyHost()))
+            {
+                clientConfiguration.setProxyHost(awsParamsDto.getHttpProxyHost());
+            }
+            if (awsParamsDto.getHttpProxyPort() != null)
+            {
+                clientConfiguration.setProxyPort(awsParamsDto.getHttpProxyPort());
+            }
+
+            // Another thread might have created the client configuration in the meantime, in which case that one is used.
+            ClientConfiguration existingClientConfiguration = clientConfigurations.putIfAbsent(clientConfigurationKey, clientConfiguration);
+            if (existingClientConfiguration != null)
+            {
+                clientConfiguration = existingClientConfiguration;
+            }
+        }
+        return clientConfiguration;
     }
 }
@@ -15,27 +15,216 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.sqs.AmazonSQSClient;
-import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
 
 import org.finra.herd.dao.SqsOperations;
 
-public class SqsOperationsImpl implements SqsOperations
+public class SqsOperationsImpl implements SqsOperations, DisposableBean
 {
+    private static final Logger LOGGER = Logger.getLogger(SqsOperationsImpl.class);
+
+    /**
+     * The maximum number of messages in a single AWS SQS send message batch request.
+     */
+    private static final int MAX_MESSAGES_PER_BATCH = 10;
+
+    /**
+     * The maximum total payload size, in bytes, of a single AWS SQS send message batch request.
+     */
+    private static final int MAX_BATCH_PAYLOAD_BYTES = 256 * 1024;
+
+    /**
+     * The AWS SQS clients keyed by their proxy configuration. The clients are thread safe, so one client is shared by all the senders that use the same proxy.
+     */
+    private final ConcurrentMap<String, AmazonSQSClient> amazonSQSClients = new ConcurrentHashMap<>();
+
+    /**
+     * The AWS SQS queue URLs keyed by the proxy configuration and the queue name.
+     */
+    private final ConcurrentMap<String, String> queueUrls = new ConcurrentHashMap<>();
+
+    @Override
+    public void destroy() throws Exception
+    {
+        for (AmazonSQSClient amazonSQSClient : amazonSQSClients.values())
+        {
+            amazonSQSClient.shutdown();
+        }
+    }
+
     @Override
     public void sendSqsTextMessage(ClientConfiguration clientConfiguration, String queueName, String messageText)
     {
         try
         {
-            AmazonSQSClient amazonSQSClient = new AmazonSQSClient(clientConfiguration);
-            GetQueueUrlResult queueUrlResult = amazonSQSClient.getQueueUrl(queueName);
-            amazonSQSClient.sendMessage(queueUrlResult.getQueueUrl(), messageText);
+            AmazonSQSClient amazonSQSClient = getAmazonSQSClient(clientConfiguration);
+            try
+            {
+                amazonSQSClient.sendMessage(getQueueUrl(amazonSQSClient, clientConfiguration, queueName), messageText);
+            }
+            catch (QueueDoesNotExistException ex)
+            {
+                // The cached queue URL might be stale (e.g. the queue got re-created), so look it up again and retry once.
+                removeQueueUrl(clientConfiguration, queueName);
+                amazonSQSClient.sendMessage(getQueueUrl(amazonSQSClient, clientConfiguration, queueName), messageText);
+            }
+        }
+        catch (QueueDoesNotExistException ex)
+        {
+            removeQueueUrl(clientConfiguration, queueName);
+            throw new IllegalStateException(String.format("AWS SQS queue with \"%s\" name not found.", queueName), ex);
+        }
+    }
+
+    @Override
+    public List<Integer> sendSqsTextMessages(ClientConfiguration clientConfiguration, String queueName, List<String> messageTexts)
+    {
+        List<Integer> failedMessagePositions = new ArrayList<>();
+
+        try
+        {
+            AmazonSQSClient amazonSQSClient = getAmazonSQSClient(clientConfiguration);
+            String queueUrl = getQueueUrl(amazonSQSClient, clientConfiguration, queueName);
+
+            // Group the messages into batches that stay within both the message count and the total payload size limits.
+            List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+            int batchPayloadBytes = 0;
+            for (int position = 0; position < messageTexts.size(); position++)
+            {
+                String messageText = messageTexts.get(position);
+                int messageBytes = messageText.getBytes(StandardCharsets.UTF_8).length;
+
+                if (!entries.isEmpty() && (entries.size() == MAX_MESSAGES_PER_BATCH || batchPayloadBytes + messageBytes > MAX_BATCH_PAYLOAD_BYTES))
+                {
+                    // Stop at the first batch with a failed message, so the messages after it are not sent ahead of it. They are reported as failed.
+                    if (!sendMessageBatch(amazonSQSClient, queueUrl, entries, failedMessagePositions))
+                    {
+                        for (int remainingPosition = position; remainingPosition < messageTexts.size(); remainingPosition++)
+                        {
+                            failedMessagePositions.add(remainingPosition);
+                        }
+                        break;
+                    }
+                    entries.clear();
+                    batchPayloadBytes = 0;
+                }
+
+                // The position of the message is used as the batch entry id, so failed entries can be mapped back to the messages.
+                entries.add(new SendMessageBatchRequestEntry(String.valueOf(position), messageText));
+                batchPayloadBytes += messageBytes;
+            }
+
+            if (!entries.isEmpty() && failedMessagePositions.isEmpty())
+            {
+                sendMessageBatch(amazonSQSClient, queueUrl, entries, failedMessagePositions);
+            }
         }
         catch (QueueDoesNotExistException ex)
         {
+            // Some of the batches might have been sent already, so the messages are not retried here. Drop the cached queue URL, so the next call looks
+            // it up again.
+            removeQueueUrl(clientConfiguration, queueName);
             throw new IllegalStateException(String.format("AWS SQS queue with \"%s\" name not found.", queueName), ex);
         }
+
+        return failedMessagePositions;
+    }
+
+    /**
+     * Gets the shared AWS SQS client for the proxy configuration of the specified client configuration, creating it if needed.
+     *
+     * @param clientConfiguration the client configuration
+     *
+     * @return the AWS SQS client
+     */
+    private synchronized AmazonSQSClient getAmazonSQSClient(ClientConfiguration clientConfiguration)
+    {
+        String clientConfigurationKey = getClientConfigurationKey(clientConfiguration);
+        AmazonSQSClient amazonSQSClient = amazonSQSClients.get(clientConfigurationKey);
+        if (amazonSQSClient == null)
+        {
+            amazonSQSClient = new AmazonSQSClient(clientConfiguration);
+            amazonSQSClients.put(clientConfigurationKey, amazonSQSClient);
+        }
+        return amazonSQSClient;
+    }
+
+    /**
+     * Gets the URL of the specified queue, looking it up only if it is not cached yet.
+     *
+     * @param amazonSQSClient the AWS SQS client
+     * @param clientConfiguration the client configuration
+     * @param queueName the queue name
+     *
+     * @return the queue URL
+     */
+    private String getQueueUrl(AmazonSQSClient amazonSQSClient, ClientConfiguration clientConfiguration, String queueName)
+    {
+        String queueUrlKey = getClientConfigurationKey(clientConfiguration) + "|" + queueName;
+        String queueUrl = queueUrls.get(queueUrlKey);
+        if (queueUrl == null)
+        {
+            queueUrl = amazonSQSClient.getQueueUrl(queueName).getQueueUrl();
+            queueUrls.put(queueUrlKey, queueUrl);
+            LOGGER.debug(String.format("Resolved AWS SQS queue \"%s\" to \"%s\" URL.", queueName, queueUrl));
+        }
+        return queueUrl;
+    }
+
+    /**
+     * Removes the cached URL of the specified queue.
+     *
+     * @param clientConfiguration the client configuration
+     * @param queueName the queue name
+     */
+    private void removeQueueUrl(ClientConfiguration clientConfiguration, String queueName)
+    {
+        queueUrls.remove(getClientConfigurationKey(clientConfiguration) + "|" + queueName);
+    }
+
+    /**
+     * Gets the key that identifies the proxy configuration of the specified client configuration.
+     *
+     * @param clientConfiguration the client configuration
+     *
+     * @return the key
+     */
+    private String getClientConfigurationKey(ClientConfiguration clientConfiguration)
+    {
+        return clientConfiguration.getProxyHost() + ":" + clientConfiguration.getProxyPort();
+    }
+
+    /**
+     * Sends a single batch of messages and collects the positions of the messages that failed.
+     *
+     * @param amazonSQSClient the AWS SQS client
+     * @param queueUrl the AWS SQS queue URL
+     * @param entries the batch entries, with the message positions as the entry ids
+     * @param failedMessagePositions the list to add the positions of the failed messages to
+     *
+     * @return true if all the messages of the batch were sent, false otherwise
+     */
+    private boolean sendMessageBatch(AmazonSQSClient amazonSQSClient, String queueUrl, List<SendMessageBatchRequestEntry> entries,
+        List<Integer> failedMessagePositions)
+    {
+        SendMessageBatchResult sendMessageBatchResult = amazonSQSClient.sendMessageBatch(queueUrl, entries);
+        for (BatchResultErrorEntry batchResultErrorEntry : sendMessageBatchResult.getFailed())
+        {
+            failedMessagePositions.add(Integer.valueOf(batchResultErrorEntry.getId()));
+        }
+        return sendMessageBatchResult.getFailed().isEmpty();
     }
 }
@@ -15,6 +15,10 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.policy.Policy;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
@@ -22,12 +26,16 @@ import com.amazonaws.services.securitytoken.model.AssumeRoleRequest;
 import com.amazonaws.services.securitytoken.model.AssumeRoleResult;
 import com.amazonaws.services.securitytoken.model.Credentials;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.StsDao;
 import org.finra.herd.dao.StsOperations;
+import org.finra.herd.dao.helper.SingleFlightCache;
 import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.model.dto.ConfigurationValue;
 
 /**
  * The STS DAO implementation.
@@ -35,13 +43,45 @@ import org.finra.herd.model.dto.AwsParamsDto;
 @Repository
 public class StsDaoImpl implements StsDao
 {
+    private static final Logger LOGGER = Logger.getLogger(StsDaoImpl.class);
+
     @Autowired
     private StsOperations stsOperations;
 
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The cached temporary security credentials keyed by the request parameters they were vended for. The credentials are kept until they get within the
+     * configured safety margin of their expiration.
+     */
+    private final SingleFlightCache<String, Credentials> credentialsCache = new SingleFlightCache<String, Credentials>("STS credentials", 0)
+    {
+        @Override
+        protected int getMaxEntries()
+        {
+            return configurationHelper.getProperty(ConfigurationValue.AWS_STS_CREDENTIALS_CACHE_MAX_ENTRIES, Integer.class);
+        }
+
+        @Override
+        protected boolean isUsable(Credentials credentials)
+        {
+            long safetyMarginMillis =
+                1000L * configurationHelper.getProperty(ConfigurationValue.AWS_STS_CREDENTIALS_CACHE_EXPIRATION_SAFETY_MARGIN_SECS, Integer.class);
+            return credentials != null && credentials.getExpiration() != null &&
+                credentials.getExpiration().getTime() - safetyMarginMillis > System.currentTimeMillis();
+        }
+    };
+
+    private final AtomicLong assumeRoleCount = new AtomicLong();
+
+    private final AtomicLong assumeRoleTotalTimeMillis = new AtomicLong();
+
     /**
      * Returns a set of temporary security credentials (consisting of an access key ID, a secret access key, and a security token) that can be used to access
      * the specified AWS resource.
      *
+     * @param awsParamsDto the AWS related parameters that contain optional proxy information
      * @param sessionName the session name that will be associated with the temporary credentials. The session name must be the same for an initial set of
      * credentials and an extended set of credentials if credentials are to be refreshed. The session name also is used to identify the user in AWS logs so it
      * should be something unique and useful to identify the caller/use.
@@ -83,7 +123,83 @@ public class StsDaoImpl implements StsDao
         assumeRoleRequest.setPolicy(policy.toJson());
 
         // Get the temporary security credentials.
+        long startTimeMillis = System.currentTimeMillis();
         AssumeRoleResult assumeRoleResult = stsOperations.assumeRole(awsSecurityTokenServiceClient, assumeRoleRequest);
+        long elapsedTimeMillis = System.currentTimeMillis() - startTimeMillis;
+
+        long totalAssumeRoleCount = assumeRoleCount.incrementAndGet();
+        long totalAssumeRoleTimeMillis = assumeRoleTotalTimeMillis.addAndGet(elapsedTimeMillis);
+        LOGGER.debug(String.format("Assumed role \"%s\" for session \"%s\" in %d ms. totalAssumeRoleCount=%d averageAssumeRoleTimeMillis=%d", awsRoleArn,
+            sessionName, elapsedTimeMillis, totalAssumeRoleCount, totalAssumeRoleTimeMillis / totalAssumeRoleCount));
+
         return assumeRoleResult.getCredentials();
     }
+
+    /**
+     * Returns a set of temporary security credentials for the specified parameters, reusing previously vended credentials when they were requested with the
+     * same parameters and are not within the configured safety margin of their expiration. Concurrent requests for the same parameters result in a single STS
+     * call. Each caller gets its own copy of the credentials. When the credentials cache is disabled, this method behaves the same as
+     * getTemporarySecurityCredentials().
+     *
+     * @param awsParamsDto the AWS related parameters that contain optional proxy information
+     * @param sessionName the session name that will be associated with the temporary credentials
+     * @param awsRoleArn the AWS ARN for the role required to provide access to the specified AWS resource
+     * @param awsRoleDurationSeconds the duration, in seconds, of the role session
+     * @param policy the temporary policy to apply to this request
+     *
+     * @return the assumed session credentials
+     */
+    @Override
+    public Credentials getCachedTemporarySecurityCredentials(final AwsParamsDto awsParamsDto, final String sessionName, final String awsRoleArn,
+        final int awsRoleDurationSeconds, final Policy policy)
+    {
+        if (!configurationHelper.getProperty(ConfigurationValue.AWS_STS_CREDENTIALS_CACHE_ENABLED, Boolean.class))
+        {
+            return getTemporarySecurityCredentials(awsParamsDto, sessionName, awsRoleArn, awsRoleDurationSeconds, policy);
+        }
+
+        // Get the cached credentials, sharing the STS call with any other thread that is already requesting credentials for the same key.
+        Credentials credentials = credentialsCache
+            .get(getCredentialsCacheKey(awsParamsDto, sessionName, awsRoleArn, awsRoleDurationSeconds, policy), Long.MAX_VALUE, new Callable<Credentials>()
+            {
+                @Override
+                public Credentials call()
+                {
+                    return getTemporarySecurityCredentials(awsParamsDto, sessionName, awsRoleArn, awsRoleDurationSeconds, policy);
+                }
+            });
+
+        return copyCredentials(credentials);
+    }
+
+    /**
+     * Returns a copy of the specified credentials, so the callers never share a mutable credentials instance with the cache or with each other.
+     *
+     * @param credentials the credentials
+     *
+     * @return the copy of the credentials
+     */
+    private Credentials copyCredentials(Credentials credentials)
+    {
+        return new Credentials().withAccessKeyId(credentials.getAccessKeyId()).withSecretAccessKey(credentials.getSecretAccessKey())
+            .withSessionToken(credentials.getSessionToken())
+            .withExpiration(credentials.getExpiration() == null ? null : new Date(credentials.getExpiration().getTime()));
+    }
+
+    /**
+     * Builds the credentials cache key from all the parameters that affect the vended credentials.
+     *
+     * @param awsParamsDto the AWS related parameters that contain optional proxy information
+     * @param sessionName the session name that will be associated with the temporary credentials
+     * @param awsRoleArn the AWS ARN for the role required to provide access to the specified AWS resource
+     * @param awsRoleDurationSeconds the duration, in seconds, of the role session
+     * @param policy the temporary policy to apply to this request
+     *
+     * @return the cache key
+     */
+    private String getCredentialsCacheKey(AwsParamsDto awsParamsDto, String sessionName, String awsRoleArn, int awsRoleDurationSeconds, Policy policy)
+    {
+        return awsRoleArn + '|' + sessionName + '|' + awsRoleDurationSeconds + '|' + awsParamsDto.getHttpProxyHost() + '|' + awsParamsDto.getHttpProxyPort() +
+            '|' + policy.toJson();
+    }
 }
@@ -17,13 +17,18 @@ package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.amazonaws.services.elasticmapreduce.model.Cluster;
+import com.amazonaws.services.elasticmapreduce.model.ClusterState;
 import com.amazonaws.services.elasticmapreduce.model.ClusterSummary;
 import com.amazonaws.services.elasticmapreduce.model.HadoopJarStepConfig;
 import com.amazonaws.services.elasticmapreduce.model.Instance;
@@ -33,14 +38,17 @@ import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
 
 import org.finra.herd.dao.helper.AwsHelper;
 import org.finra.herd.dao.helper.XmlHelper;
-import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.dao.impl.MockEmrOperationsImpl;
 import org.finra.herd.model.api.xml.EmrClusterDefinition;
 import org.finra.herd.model.api.xml.EmrClusterDefinitionApplication;
 import org.finra.herd.model.api.xml.EmrClusterDefinitionConfiguration;
 import org.finra.herd.model.api.xml.Parameter;
+import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.model.dto.ConfigurationValue;
 
 /**
  * This class tests functionality within the EmrDao.
@@ -53,6 +61,9 @@ public class EmrDaoTest extends AbstractDaoTest
     @Autowired
     private XmlHelper xmlHelper;
 
+    @Autowired
+    private EmrOperations emrOperations;
+
     @After
     public void cleanUp()
     {
@@ -208,6 +219,49 @@ public class EmrDaoTest extends AbstractDaoTest
         assertNull(clusterSummary);
     }
 
+    @Test
+    public void testGetEmrClusterStatusByIdPolledStateReused() throws Exception
+    {
+        // Create a test cluster and poll its status.
+        AwsParamsDto awsParamsDto = awsHelper.getAwsParamsDto();
+        String clusterId = emrDao.createEmrCluster(EMR_CLUSTER_NAME, getTestEmrClusterDefinition(), awsParamsDto);
+        int describeClusterCallCount = getMockEmrOperations().getDescribeClusterCallCount();
+        String clusterStatus = emrDao.getEmrClusterStatusById(clusterId, awsParamsDto);
+        assertNotNull(clusterStatus);
+
+        // Terminate the cluster bypassing the DAO, so the DAO does not know the cluster state has changed.
+        emrOperations.terminateEmrCluster(emrDao.getEmrClient(awsParamsDto), clusterId, true);
+
+        // The previously polled status is returned within the time to live.
+        assertEquals(clusterStatus, emrDao.getEmrClusterStatusById(clusterId, awsParamsDto));
+
+        // Each caller gets its own copy of the polled cluster, so changing it does not affect the polled state seen by the other callers.
+        Cluster cluster = emrDao.getEmrClusterById(clusterId, awsParamsDto);
+        assertNotSame(cluster, emrDao.getEmrClusterById(clusterId, awsParamsDto));
+        cluster.getStatus().setState(ClusterState.TERMINATED);
+        assertEquals(clusterStatus, emrDao.getEmrClusterStatusById(clusterId, awsParamsDto));
+
+        // The cluster was described only once within the time to live.
+        assertEquals(describeClusterCallCount + 1, getMockEmrOperations().getDescribeClusterCallCount());
+
+        // Override the configuration to disable the reuse of the polled cluster state.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.EMR_CLUSTER_STATE_CACHE_TIME_TO_LIVE_SECS.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // The current status is returned by describing the cluster again.
+            assertEquals(ClusterState.TERMINATED.toString(), emrDao.getEmrClusterStatusById(clusterId, awsParamsDto));
+            assertEquals(describeClusterCallCount + 2, getMockEmrOperations().getDescribeClusterCallCount());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     /**
      * Gets an EMR cluster definition object.
      *
@@ -219,4 +273,9 @@ public class EmrDaoTest extends AbstractDaoTest
         String configXml = IOUtils.toString(resourceLoader.getResource(AbstractDaoTest.EMR_CLUSTER_DEFINITION_XML_FILE_WITH_CLASSPATH).getInputStream());
         return xmlHelper.unmarshallXmlToObject(EmrClusterDefinition.class, configXml);
     }
+
+    private MockEmrOperationsImpl getMockEmrOperations()
+    {
+        return AopTestUtils.getUltimateTargetObject(emrOperations);
+    }
 }
@@ -16,6 +16,7 @@
 package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -39,6 +40,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.finra.herd.dao.config.DaoSpringModuleConfig;
 import org.finra.herd.dao.impl.HerdDaoImpl;
@@ -57,6 +60,7 @@ import org.finra.herd.model.api.xml.StorageKey;
 import org.finra.herd.model.api.xml.StoragePolicyKey;
 import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.StoragePolicyPriorityLevel;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectDefinitionEntity;
@@ -663,6 +667,131 @@ public class HerdDaoTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME, readOnly = true)
+    public void testGetExpectedPartitionValueWithOffsetReadOnlyTransaction() throws Exception
+    {
+        // The test runs in a read-only transaction with the index enabled, so the offsets are resolved using the in-memory index of the partition key group.
+        assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.EXPECTED_PARTITION_VALUES_INDEX_TIME_TO_LIVE_SECS.getKey(), 60);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            // Create and persist a partition key group entity.
+            PartitionKeyGroupEntity partitionKeyGroupEntity = createPartitionKeyGroupEntity(PARTITION_KEY_GROUP);
+
+            // Create and persist a list of test expected partition values.
+            createExpectedPartitionValueEntities(partitionKeyGroupEntity, getTestUnsortedExpectedPartitionValues());
+
+            // Get expected partition value for all the offsets within the list and just outside of it.
+            List<String> testSortedExpectedPartitionValues = getTestSortedExpectedPartitionValues();
+            int testExpectedPartitionValueIndex = 3;
+            int maxOffset = testSortedExpectedPartitionValues.size() - testExpectedPartitionValueIndex;
+            for (int offset = -testExpectedPartitionValueIndex - 1; offset <= maxOffset; offset++)
+            {
+                ExpectedPartitionValueEntity resultExpectedPartitionValueEntity = herdDao.getExpectedPartitionValue(
+                    new ExpectedPartitionValueKey(PARTITION_KEY_GROUP.toLowerCase(), testSortedExpectedPartitionValues.get(testExpectedPartitionValueIndex)),
+                    offset);
+
+                // Validate the returned object.
+                int offsetIndex = testExpectedPartitionValueIndex + offset;
+                if (offsetIndex < 0 || offsetIndex >= testSortedExpectedPartitionValues.size())
+                {
+                    assertNull(resultExpectedPartitionValueEntity);
+                }
+                else
+                {
+                    assertEquals(testSortedExpectedPartitionValues.get(offsetIndex), resultExpectedPartitionValueEntity.getPartitionValue());
+                }
+            }
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME, readOnly = true)
+    public void testGetExpectedPartitionValueStringsByGroupAndRangeReadOnlyTransaction() throws Exception
+    {
+        // The test runs in a read-only transaction with the index enabled, so the ranges are resolved using the in-memory index of the partition key group.
+        assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.EXPECTED_PARTITION_VALUES_INDEX_TIME_TO_LIVE_SECS.getKey(), 60);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            createExpectedPartitionValueProcessDatesForApril2014(PARTITION_KEY_GROUP);
+
+            // Range with bounds that are expected partition values.
+            PartitionValueRange partitionValueRange = new PartitionValueRange();
+            partitionValueRange.setStartPartitionValue(getDateAsString(2014, 3, 11));
+            partitionValueRange.setEndPartitionValue(getDateAsString(2014, 3, 17));
+            assertEquals(Arrays.asList(getDateAsString(2014, 3, 11), getDateAsString(2014, 3, 14), getDateAsString(2014, 3, 15), getDateAsString(2014, 3, 16),
+                getDateAsString(2014, 3, 17)), herdDao.getExpectedPartitionValueStringsByGroupAndRange(PARTITION_KEY_GROUP.toLowerCase(), partitionValueRange));
+
+            // Range with bounds that fall on a weekend, so they are not expected partition values.
+            partitionValueRange.setStartPartitionValue(getDateAsString(2014, 3, 12));
+            partitionValueRange.setEndPartitionValue(getDateAsString(2014, 3, 20));
+            assertEquals(Arrays.asList(getDateAsString(2014, 3, 14), getDateAsString(2014, 3, 15), getDateAsString(2014, 3, 16), getDateAsString(2014, 3, 17),
+                getDateAsString(2014, 3, 18)), herdDao.getExpectedPartitionValueStringsByGroupAndRange(PARTITION_KEY_GROUP, partitionValueRange));
+
+            // Range with no expected partition values.
+            partitionValueRange.setStartPartitionValue(getDateAsString(2014, 3, 12));
+            partitionValueRange.setEndPartitionValue(getDateAsString(2014, 3, 13));
+            assertTrue(herdDao.getExpectedPartitionValueStringsByGroupAndRange(PARTITION_KEY_GROUP, partitionValueRange).isEmpty());
+
+            // No range.
+            assertEquals(22, herdDao.getExpectedPartitionValueStringsByGroupAndRange(PARTITION_KEY_GROUP, null).size());
+
+            // Delete an expected partition value, which drops the index, so the next range lookup no longer returns it.
+            PartitionKeyGroupEntity partitionKeyGroupEntity = herdDao.getPartitionKeyGroupByName(PARTITION_KEY_GROUP);
+            herdDao.deleteExpectedPartitionValues(partitionKeyGroupEntity, Arrays.asList(
+                herdDao.getExpectedPartitionValue(new ExpectedPartitionValueKey(PARTITION_KEY_GROUP, getDateAsString(2014, 3, 14)), 0)));
+            partitionValueRange.setStartPartitionValue(getDateAsString(2014, 3, 11));
+            partitionValueRange.setEndPartitionValue(getDateAsString(2014, 3, 15));
+            assertEquals(Arrays.asList(getDateAsString(2014, 3, 11), getDateAsString(2014, 3, 15)),
+                herdDao.getExpectedPartitionValueStringsByGroupAndRange(PARTITION_KEY_GROUP, partitionValueRange));
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testCreateAndDeleteExpectedPartitionValues()
+    {
+        // Create and persist a partition key group entity.
+        PartitionKeyGroupEntity partitionKeyGroupEntity = createPartitionKeyGroupEntity(PARTITION_KEY_GROUP);
+
+        // Create the expected partition values in bulk.
+        List<ExpectedPartitionValueEntity> expectedPartitionValueEntities =
+            herdDao.createExpectedPartitionValues(partitionKeyGroupEntity, getTestUnsortedExpectedPartitionValues());
+
+        // Validate the results.
+        assertEquals(getTestUnsortedExpectedPartitionValues().size(), expectedPartitionValueEntities.size());
+        List<ExpectedPartitionValueEntity> resultExpectedPartitionValueEntities = herdDao.getExpectedPartitionValuesByGroupAndRange(PARTITION_KEY_GROUP, null);
+        assertEquals(getTestSortedExpectedPartitionValues().size(), resultExpectedPartitionValueEntities.size());
+        for (int i = 0; i < resultExpectedPartitionValueEntities.size(); i++)
+        {
+            assertEquals(getTestSortedExpectedPartitionValues().get(i), resultExpectedPartitionValueEntities.get(i).getPartitionValue());
+            assertNotNull(resultExpectedPartitionValueEntities.get(i).getCreatedOn());
+        }
+
+        // Delete all but the first expected partition value in bulk.
+        herdDao.deleteExpectedPartitionValues(partitionKeyGroupEntity, resultExpectedPartitionValueEntities.subList(1, resultExpectedPartitionValueEntities.size()));
+
+        // Validate that only the first expected partition value is left.
+        resultExpectedPartitionValueEntities = herdDao.getExpectedPartitionValuesByGroupAndRange(PARTITION_KEY_GROUP, null);
+        assertEquals(1, resultExpectedPartitionValueEntities.size());
+        assertEquals(getTestSortedExpectedPartitionValues().get(0), resultExpectedPartitionValueEntities.get(0).getPartitionValue());
+    }
+
     /**
      * Test DAO method to retrieve expected partition values by range.
      */
@@ -1693,6 +1822,66 @@ public class HerdDaoTest extends AbstractDaoTest
         assertTrue(resultStorageUnitEntities8.isEmpty());
     }
 
+    @Test
+    public void testGetStorageUnitAvailabilityDtosByPartitionFiltersAndStorages()
+    {
+        // Create enabled and disabled storage units for different partition values.
+        StorageUnitEntity enabledStorageUnitEntity =
+            createStorageUnitEntity(STORAGE_NAME, BOD_NAMESPACE, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                SUBPARTITION_VALUES, DATA_VERSION, true, BDATA_STATUS, StorageUnitStatusEntity.ENABLED, STORAGE_DIRECTORY_PATH);
+        StorageUnitEntity disabledStorageUnitEntity =
+            createStorageUnitEntity(STORAGE_NAME, BOD_NAMESPACE, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE_2,
+                NO_SUBPARTITION_VALUES, DATA_VERSION, true, BDATA_STATUS, StorageUnitStatusEntity.DISABLED, NO_STORAGE_DIRECTORY_PATH);
+
+        // Build a list of partition filters to select business object data.
+        List<List<String>> partitionFilters = new ArrayList<>();
+        for (String partitionValue : Arrays.asList(PARTITION_VALUE, PARTITION_VALUE_2))
+        {
+            partitionFilters.add(Arrays.asList(partitionValue, null, null, null, null));
+        }
+
+        // Retrieve storage unit availability DTOs regardless of storage unit status per specified parameters.
+        List<StorageUnitAvailabilityDto> resultStorageUnitAvailabilityDtos = herdDao.getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(
+            new BusinessObjectFormatKey(BOD_NAMESPACE, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, null), partitionFilters, DATA_VERSION, null,
+            Arrays.asList(STORAGE_NAME), null, null, NO_SELECT_ONLY_AVAILABLE_STORAGE_UNITS);
+
+        // Validate the results.
+        assertEquals(2, resultStorageUnitAvailabilityDtos.size());
+
+        StorageUnitAvailabilityDto enabledStorageUnitAvailabilityDto = resultStorageUnitAvailabilityDtos.get(0);
+        assertEquals(enabledStorageUnitEntity.getId(), enabledStorageUnitAvailabilityDto.getStorageUnitId());
+        assertEquals(enabledStorageUnitEntity.getBusinessObjectData().getId(), enabledStorageUnitAvailabilityDto.getBusinessObjectDataId());
+        assertEquals(BOD_NAMESPACE, enabledStorageUnitAvailabilityDto.getNamespace());
+        assertEquals(BOD_NAME, enabledStorageUnitAvailabilityDto.getBusinessObjectDefinitionName());
+        assertEquals(FORMAT_USAGE_CODE, enabledStorageUnitAvailabilityDto.getBusinessObjectFormatUsage());
+        assertEquals(FORMAT_FILE_TYPE_CODE, enabledStorageUnitAvailabilityDto.getBusinessObjectFormatFileType());
+        assertEquals(FORMAT_VERSION, enabledStorageUnitAvailabilityDto.getBusinessObjectFormatVersion());
+        assertEquals(PARTITION_VALUE, enabledStorageUnitAvailabilityDto.getPartitionValue());
+        assertEquals(SUBPARTITION_VALUES, enabledStorageUnitAvailabilityDto.getSubPartitionValues());
+        assertEquals(DATA_VERSION, enabledStorageUnitAvailabilityDto.getBusinessObjectDataVersion());
+        assertEquals(BDATA_STATUS, enabledStorageUnitAvailabilityDto.getBusinessObjectDataStatus());
+        assertEquals(STORAGE_NAME, enabledStorageUnitAvailabilityDto.getStorageName());
+        assertEquals(StoragePlatformEntity.S3, enabledStorageUnitAvailabilityDto.getStoragePlatformType());
+        assertEquals(STORAGE_DIRECTORY_PATH, enabledStorageUnitAvailabilityDto.getStorageDirectoryPath());
+        assertTrue(enabledStorageUnitAvailabilityDto.isStorageUnitAvailable());
+
+        StorageUnitAvailabilityDto disabledStorageUnitAvailabilityDto = resultStorageUnitAvailabilityDtos.get(1);
+        assertEquals(disabledStorageUnitEntity.getId(), disabledStorageUnitAvailabilityDto.getStorageUnitId());
+        assertEquals(PARTITION_VALUE_2, disabledStorageUnitAvailabilityDto.getPartitionValue());
+        assertTrue(disabledStorageUnitAvailabilityDto.getSubPartitionValues().isEmpty());
+        assertNull(disabledStorageUnitAvailabilityDto.getStorageDirectoryPath());
+        assertFalse(disabledStorageUnitAvailabilityDto.isStorageUnitAvailable());
+
+        // Retrieve only "available" storage unit availability DTOs.
+        resultStorageUnitAvailabilityDtos = herdDao.getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(
+            new BusinessObjectFormatKey(BOD_NAMESPACE, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION), partitionFilters, DATA_VERSION,
+            null, Arrays.asList(STORAGE_NAME), null, null, SELECT_ONLY_AVAILABLE_STORAGE_UNITS);
+
+        // Validate the results.
+        assertEquals(1, resultStorageUnitAvailabilityDtos.size());
+        assertEquals(enabledStorageUnitEntity.getId(), resultStorageUnitAvailabilityDtos.get(0).getStorageUnitId());
+    }
+
     @Test
     public void testGetStorageUnitsByPartitionFiltersAndStoragesNotEnabledStorageUnitStatus()
     {
@@ -1834,6 +2023,19 @@ public class HerdDaoTest extends AbstractDaoTest
         assertEquals(Long.valueOf(3L), herdDao.getStorageFileCount(StorageEntity.MANAGED_STORAGE, "folder"));
     }
 
+    @Test
+    public void testGetStorageFileCountFilePathPrefixWithLikeWildcards()
+    {
+        // Create relative database entities.
+        createDatabaseEntitiesForStorageFilesTesting();
+
+        // Validate that "like" wildcard characters in the file path prefix are matched literally.
+        assertEquals(Long.valueOf(0L), herdDao.getStorageFileCount(StorageEntity.MANAGED_STORAGE, "folder_"));
+        assertEquals(Long.valueOf(0L), herdDao.getStorageFileCount(StorageEntity.MANAGED_STORAGE, "%foo"));
+        assertEquals(Long.valueOf(0L), herdDao.getStorageFileCount(StorageEntity.MANAGED_STORAGE, "folder\\"));
+        assertEquals(0, herdDao.getStorageFilesByStorageAndFilePathPrefix(StorageEntity.MANAGED_STORAGE, "fo_der").size());
+    }
+
     @Test
     public void testGetStorageFilesByStorageAndFilePathPrefix()
     {
@@ -2239,6 +2441,19 @@ public class HerdDaoTest extends AbstractDaoTest
         assertNull(oldestJmsMessageEntity);
     }
 
+    @Test
+    public void testGetOldestJmsMessages() throws Exception
+    {
+        // Prepare database entities required for testing.
+        List<JmsMessageEntity> jmsMessageEntities = Arrays
+            .asList(createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT), createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT_2),
+                createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2));
+
+        // Retrieve and validate the oldest JMS messages.
+        assertEquals(jmsMessageEntities.subList(0, 2), herdDao.getOldestJmsMessages(2));
+        assertEquals(jmsMessageEntities, herdDao.getOldestJmsMessages(10));
+    }
+
     // OnDemandPricing
 
     @Test
@@ -2261,6 +2476,41 @@ public class HerdDaoTest extends AbstractDaoTest
         assertNull(herdDao.getOnDemandPrice(AWS_REGION, "I_DO_NOT_EXIST"));
     }
 
+    // Other methods
+
+    @Test
+    public void testSaveUpdatesAuditFieldsOfCascadedChildren()
+    {
+        // Create a storage unit.
+        StorageUnitEntity storageUnitEntity =
+            createStorageUnitEntity(STORAGE_NAME, NAMESPACE_CD, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                SUBPARTITION_VALUES, DATA_VERSION, true, BDATA_STATUS, STORAGE_UNIT_STATUS, NO_STORAGE_DIRECTORY_PATH);
+
+        // Add a large number of storage files to the storage unit, relying on the cascade to persist them.
+        List<StorageFileEntity> storageFileEntities = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            StorageFileEntity storageFileEntity = new StorageFileEntity();
+            storageFileEntity.setStorageUnit(storageUnitEntity);
+            storageFileEntity.setPath(String.format("%s/file%04d", LOCAL_FILE, i));
+            storageFileEntity.setFileSizeBytes(FILE_SIZE_1_KB);
+            storageFileEntities.add(storageFileEntity);
+        }
+        storageUnitEntity.setStorageFiles(storageFileEntities);
+
+        // Save the storage unit.
+        herdDao.saveAndRefresh(storageUnitEntity);
+
+        // Validate that all the storage files were stamped with the same audit values as the storage unit itself.
+        for (StorageFileEntity storageFileEntity : storageFileEntities)
+        {
+            assertEquals(storageUnitEntity.getUpdatedBy(), storageFileEntity.getCreatedBy());
+            assertEquals(storageUnitEntity.getUpdatedBy(), storageFileEntity.getUpdatedBy());
+            assertEquals(storageUnitEntity.getUpdatedOn(), storageFileEntity.getCreatedOn());
+            assertEquals(storageUnitEntity.getUpdatedOn(), storageFileEntity.getUpdatedOn());
+        }
+    }
+
     // Helper methods.
 
     /**
@@ -25,12 +25,16 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
@@ -45,14 +49,18 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.test.util.AopTestUtils;
 
 import org.finra.herd.dao.impl.MockS3OperationsImpl;
 import org.finra.herd.dao.impl.S3DaoImpl;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.S3FileCopyRequestParamsDto;
+import org.finra.herd.model.dto.S3FileTransferListener;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.model.dto.S3FileTransferResultsDto;
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
 
 /**
  * This class tests various functionality within the S3Dao class.
@@ -236,6 +244,80 @@ public class S3DaoTest extends AbstractDaoTest
         s3Dao.listDirectory(null);
     }
 
+    @Test
+    public void testListDirectoryNestedDirectories()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+        List<String> expectedS3Keys = putNestedDirectoryS3Objects(s3FileTransferRequestParamsDto);
+
+        // List the S3 objects using the streaming API.
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+        int listObjectsCallCount = getMockS3Operations().getListObjectsCallCount();
+        List<String> actualS3Keys = listDirectoryS3Keys(s3FileTransferRequestParamsDto);
+
+        // Validate that all the S3 objects were listed using a single list request, since the concurrent listing is disabled by default.
+        assertEquals(expectedS3Keys.size(), actualS3Keys.size());
+        Assert.assertTrue(actualS3Keys.containsAll(expectedS3Keys));
+        assertEquals(listObjectsCallCount + 1, getMockS3Operations().getListObjectsCallCount());
+
+        // Validate that the list API returns the S3 objects in S3 key order.
+        assertEquals(getSortedS3Keys(expectedS3Keys), getS3Keys(s3Dao.listDirectory(s3FileTransferRequestParamsDto)));
+    }
+
+    @Test
+    public void testListDirectoryNestedDirectoriesConcurrentListing() throws Exception
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+        List<String> expectedS3Keys = putNestedDirectoryS3Objects(s3FileTransferRequestParamsDto);
+
+        // Enable the concurrent listing of the sub-directories.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.AWS_S3_LISTING_CONCURRENT_ENABLED.getKey(), true);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // List the S3 objects using the streaming API.
+            s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+            int listObjectsCallCount = getMockS3Operations().getListObjectsCallCount();
+            List<String> actualS3Keys = listDirectoryS3Keys(s3FileTransferRequestParamsDto);
+
+            // Validate that all the S3 objects were listed using one list request for the S3 key prefix and one for each of its 3 sub-directories.
+            assertEquals(expectedS3Keys.size(), actualS3Keys.size());
+            Assert.assertTrue(actualS3Keys.containsAll(expectedS3Keys));
+            assertEquals(listObjectsCallCount + 4, getMockS3Operations().getListObjectsCallCount());
+
+            // Validate that the list API returns the S3 objects in S3 key order.
+            assertEquals(getSortedS3Keys(expectedS3Keys), getS3Keys(s3Dao.listDirectory(s3FileTransferRequestParamsDto)));
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testListCommonPrefixes()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+
+        // Create S3 objects under two sub-directories and directly under the test key prefix.
+        for (String s3Key : Arrays.asList("data-v0/file1.txt", "data-v0/file2.txt", "data-v1/sub/file3.txt", "file4.txt"))
+        {
+            s3Operations.putObject(new PutObjectRequest(s3FileTransferRequestParamsDto.getS3BucketName(), TEST_S3_KEY_PREFIX + "/" + s3Key,
+                new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+        }
+
+        // List the common prefixes.
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+        List<String> commonPrefixes = s3Dao.listCommonPrefixes(s3FileTransferRequestParamsDto, "/");
+
+        // Validate the results.
+        assertEquals(2, commonPrefixes.size());
+        Assert.assertTrue(commonPrefixes.contains(TEST_S3_KEY_PREFIX + "/data-v0/"));
+        Assert.assertTrue(commonPrefixes.contains(TEST_S3_KEY_PREFIX + "/data-v1/"));
+    }
+
     /**
      * Test that we are able to perform the uploadFile S3Dao operation on S3 using our DAO tier.
      */
@@ -260,6 +342,43 @@ public class S3DaoTest extends AbstractDaoTest
         validateS3FileUpload(s3FileTransferRequestParamsDto, Arrays.asList(TARGET_S3_KEY));
     }
 
+    /**
+     * Test that the transfer listeners get the statistics of an upload.
+     */
+    @Test
+    public void testUploadFileTransferListeners() throws IOException, InterruptedException
+    {
+        // Create local test file.
+        File targetFile = createLocalFile(localTempPath.toString(), LOCAL_FILE, FILE_SIZE_1_KB);
+
+        // Upload test file to s3Dao with a listener that keeps the final statistics.
+        final List<S3FileTransferStatisticsDto> doneStatistics = new ArrayList<>();
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TARGET_S3_KEY);
+        s3FileTransferRequestParamsDto.setLocalPath(targetFile.getPath());
+        s3FileTransferRequestParamsDto.getTransferListeners().add(new S3FileTransferListener()
+        {
+            @Override
+            public void transferProgressed(S3FileTransferStatisticsDto statistics)
+            {
+                // Only the final statistics are validated.
+            }
+
+            @Override
+            public void transferDone(S3FileTransferStatisticsDto statistics)
+            {
+                doneStatistics.add(statistics);
+            }
+        });
+        s3Dao.uploadFile(s3FileTransferRequestParamsDto);
+
+        // Validate the final statistics.
+        assertEquals(1, doneStatistics.size());
+        assertEquals(FILE_SIZE_1_KB, doneStatistics.get(0).getBytesTransferred());
+        assertEquals(FILE_SIZE_1_KB, doneStatistics.get(0).getTotalBytesToTransfer());
+        Assert.assertTrue(doneStatistics.get(0).getThreadCount() > 0);
+    }
+
     /**
      * Test that we are able to upload a zero byte file to S3 using our DAO tier.
      */
@@ -555,6 +674,91 @@ public class S3DaoTest extends AbstractDaoTest
         Assert.assertTrue(storageFiles.size() == 0);
     }
 
+    @Test
+    public void testDeleteDirectoryMultipleDeleteRequests()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+
+        // Create more S3 objects than fit in a single multi-object delete request, spread across several sub-directories.
+        for (int i = 0; i < 2500; i++)
+        {
+            s3Operations.putObject(new PutObjectRequest(s3FileTransferRequestParamsDto.getS3BucketName(),
+                String.format("%s/dir%d/file%d.txt", TEST_S3_KEY_PREFIX, i % 3, i), new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+        }
+
+        // Validate that S3 directory is not empty.
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+        assertEquals(2500, s3Dao.listDirectory(s3FileTransferRequestParamsDto).size());
+
+        // Delete directory from S3 using s3Dao.
+        s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+
+        // Validate that S3 directory got deleted.
+        assertEquals(0, s3Dao.listDirectory(s3FileTransferRequestParamsDto).size());
+    }
+
+    @Test
+    public void testDeleteDirectoryRetryFailedKeys()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+
+        // Create S3 objects where one of them fails to get deleted on the first attempt.
+        for (String s3Key : Arrays.asList("file1.txt", "file2.txt", MockS3OperationsImpl.MOCK_S3_FILE_NAME_DELETE_FAILED_ONCE))
+        {
+            s3Operations.putObject(new PutObjectRequest(s3FileTransferRequestParamsDto.getS3BucketName(), TEST_S3_KEY_PREFIX + "/" + s3Key,
+                new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+        }
+
+        // Delete directory from S3 using s3Dao.
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+        int deleteObjectsCallCount = getMockS3Operations().getDeleteObjectsCallCount();
+        int deleteObjectsKeyCount = getMockS3Operations().getDeleteObjectsKeyCount();
+        s3Dao.deleteDirectory(s3FileTransferRequestParamsDto);
+
+        // Validate that S3 directory got deleted and that only the failed key was sent again.
+        assertEquals(0, s3Dao.listDirectory(s3FileTransferRequestParamsDto).size());
+        assertEquals(deleteObjectsCallCount + 2, getMockS3Operations().getDeleteObjectsCallCount());
+        assertEquals(deleteObjectsKeyCount + 3 + 1, getMockS3Operations().getDeleteObjectsKeyCount());
+    }
+
+    @Test
+    public void testDeleteFileListMaxAttemptsExceeded()
+    {
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+
+        // Create S3 objects where one of them always fails to get deleted.
+        List<File> files = new ArrayList<>();
+        for (String s3Key : Arrays.asList("file1.txt", MockS3OperationsImpl.MOCK_S3_FILE_NAME_DELETE_FAILED))
+        {
+            s3Operations.putObject(new PutObjectRequest(s3FileTransferRequestParamsDto.getS3BucketName(), TEST_S3_KEY_PREFIX + "/" + s3Key,
+                new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+            files.add(new File(TEST_S3_KEY_PREFIX + "/" + s3Key));
+        }
+
+        // Try to delete the S3 objects.
+        s3FileTransferRequestParamsDto.setFiles(files);
+        int deleteObjectsCallCount = getMockS3Operations().getDeleteObjectsCallCount();
+        int deleteObjectsKeyCount = getMockS3Operations().getDeleteObjectsKeyCount();
+        try
+        {
+            s3Dao.deleteFileList(s3FileTransferRequestParamsDto);
+            fail("Should throw an IllegalStateException when an S3 object fails to get deleted on every attempt.");
+        }
+        catch (IllegalStateException e)
+        {
+            Assert.assertTrue(e.getMessage()
+                .startsWith(String.format("Failed to delete a list of keys/objects from bucket \"%s\".", s3FileTransferRequestParamsDto.getS3BucketName())));
+            Assert.assertTrue(e.getCause() instanceof MultiObjectDeleteException);
+        }
+
+        // Validate that the failed key was sent again until the default maximum number of attempts was reached and that the other key got deleted.
+        assertEquals(deleteObjectsCallCount + 3, getMockS3Operations().getDeleteObjectsCallCount());
+        assertEquals(deleteObjectsKeyCount + 2 + 1 + 1, getMockS3Operations().getDeleteObjectsKeyCount());
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TEST_S3_KEY_PREFIX + "/");
+        assertEquals(Arrays.asList(TEST_S3_KEY_PREFIX + "/" + MockS3OperationsImpl.MOCK_S3_FILE_NAME_DELETE_FAILED),
+            getS3Keys(s3Dao.listDirectory(s3FileTransferRequestParamsDto)));
+    }
+
     @Test
     public void testDeleteDirectoryNullParamsDto()
     {
@@ -797,4 +1001,85 @@ public class S3DaoTest extends AbstractDaoTest
 
         Assert.assertEquals("result", "https://" + bucketName + "/" + key + "?method=GET&expiration=" + expiration.getTime(), result);
     }
+
+    /**
+     * Puts S3 objects directly under the test key prefix and under its nested sub-directories.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters that specify the bucket
+     *
+     * @return the list of the S3 keys
+     */
+    private List<String> putNestedDirectoryS3Objects(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto)
+    {
+        List<String> s3Keys = new ArrayList<>();
+        for (String s3Key : Arrays.asList("a/file1.txt", "a/b/file2.txt", "c/", "c/file3.txt", "d/file4.txt", "file5.txt"))
+        {
+            s3Keys.add(TEST_S3_KEY_PREFIX + "/" + s3Key);
+            s3Operations.putObject(new PutObjectRequest(s3FileTransferRequestParamsDto.getS3BucketName(), TEST_S3_KEY_PREFIX + "/" + s3Key,
+                new ByteArrayInputStream(new byte[1]), new ObjectMetadata()), null);
+        }
+        return s3Keys;
+    }
+
+    /**
+     * Lists the S3 keys using the streaming directory listing.
+     *
+     * @param s3FileTransferRequestParamsDto the S3 file transfer request parameters
+     *
+     * @return the list of the S3 keys in the order they were listed
+     */
+    private List<String> listDirectoryS3Keys(S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto)
+    {
+        final List<String> s3Keys = new ArrayList<>();
+        s3Dao.listDirectory(s3FileTransferRequestParamsDto, false, new S3Dao.StorageFilesHandler()
+        {
+            @Override
+            public void handle(List<StorageFile> storageFiles)
+            {
+                s3Keys.addAll(getS3Keys(storageFiles));
+            }
+        });
+        return s3Keys;
+    }
+
+    /**
+     * Gets the S3 keys of the storage files.
+     *
+     * @param storageFiles the list of storage files
+     *
+     * @return the list of the S3 keys
+     */
+    private List<String> getS3Keys(List<StorageFile> storageFiles)
+    {
+        List<String> s3Keys = new ArrayList<>();
+        for (StorageFile storageFile : storageFiles)
+        {
+            s3Keys.add(storageFile.getFilePath());
+        }
+        return s3Keys;
+    }
+
+    /**
+     * Gets a sorted copy of the S3 keys.
+     *
+     * @param s3Keys the list of the S3 keys
+     *
+     * @return the sorted list of the S3 keys
+     */
+    private List<String> getSortedS3Keys(List<String> s3Keys)
+    {
+        List<String> sortedS3Keys = new ArrayList<>(s3Keys);
+        Collections.sort(sortedS3Keys);
+        return sortedS3Keys;
+    }
+
+    /**
+     * Gets the mock S3 operations behind the AOP proxy of the S3 operations.
+     *
+     * @return the mock S3 operations
+     */
+    private MockS3OperationsImpl getMockS3Operations()
+    {
+        return AopTestUtils.getUltimateTargetObject(s3Operations);
+    }
 }
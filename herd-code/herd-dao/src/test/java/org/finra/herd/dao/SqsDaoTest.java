@@ -15,8 +15,14 @@
 */
 package org.finra.herd.dao;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import org.finra.herd.dao.impl.MockSqsOperationsImpl;
 import org.finra.herd.model.dto.AwsParamsDto;
 
 /**
@@ -34,4 +40,35 @@ public class SqsDaoTest extends AbstractDaoTest
         testAwsParamsDto.setHttpProxyPort(HTTP_PROXY_PORT);
         sqsDao.sendSqsTextMessage(testAwsParamsDto, JMS_QUEUE_NAME, MESSAGE_TEXT);
     }
+
+    @Test
+    public void testSendSqsTextMessages() throws Exception
+    {
+        AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+        testAwsParamsDto.setHttpProxyHost(HTTP_PROXY_HOST);
+        testAwsParamsDto.setHttpProxyPort(HTTP_PROXY_PORT);
+
+        // Send a batch of messages where the second message is not accepted.
+        assertEquals(Arrays.asList(1),
+            sqsDao.sendSqsTextMessages(testAwsParamsDto, JMS_QUEUE_NAME, Arrays.asList(MESSAGE_TEXT, MockSqsOperationsImpl.MOCK_SQS_MESSAGE_TEXT_FAILED)));
+    }
+
+    @Test
+    public void testSendSqsTextMessageQueueNotFound() throws Exception
+    {
+        AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+        testAwsParamsDto.setHttpProxyHost(HTTP_PROXY_HOST);
+        testAwsParamsDto.setHttpProxyPort(HTTP_PROXY_PORT);
+
+        // Try to send a message to a queue that does not exist.
+        try
+        {
+            sqsDao.sendSqsTextMessage(testAwsParamsDto, MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, MESSAGE_TEXT);
+            fail("Should throw an IllegalStateException when the queue does not exist.");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals(String.format("AWS SQS queue with \"%s\" name not found.", MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME), e.getMessage());
+        }
+    }
 }
@@ -17,21 +17,32 @@ package org.finra.herd.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.amazonaws.auth.policy.Policy;
+import com.amazonaws.auth.policy.Statement;
 import com.amazonaws.services.securitytoken.model.Credentials;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
 
 import org.finra.herd.dao.impl.MockStsOperationsImpl;
 import org.finra.herd.model.dto.AwsParamsDto;
+import org.finra.herd.model.dto.ConfigurationValue;
 
 /**
  * This class tests the functionality of StsDao.
  */
 public class StsDaoTest extends AbstractDaoTest
 {
+    @Autowired
+    private StsOperations stsOperations;
+
     /**
      * Tests the scenario where the job is run.
      */
@@ -55,4 +66,122 @@ public class StsDaoTest extends AbstractDaoTest
         // Using >= here just to avoid a race condition.
         assertTrue((System.currentTimeMillis() + 1000 * testAwsRoleDurationSeconds) >= resultCredentials.getExpiration().getTime());
     }
+
+    @Test
+    public void testGetCachedTemporarySecurityCredentials()
+    {
+        MockStsOperationsImpl mockStsOperations = getMockStsOperations();
+        AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+        String testSessionName = SESSION_NAME + "_cached";
+
+        // Retrieve the credentials twice for the same parameters. STS is called only once, and each caller gets its own copy of the credentials.
+        int assumeRoleCallCount = mockStsOperations.getAssumeRoleCallCount();
+        Credentials resultCredentials = stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, new Policy());
+        assertNotNull(resultCredentials);
+        assertEquals(MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_ACCESS_KEY, resultCredentials.getAccessKeyId());
+        Credentials cachedCredentials = stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, new Policy());
+        assertEquals(resultCredentials, cachedCredentials);
+        assertNotSame(resultCredentials, cachedCredentials);
+        assertEquals(assumeRoleCallCount + 1, mockStsOperations.getAssumeRoleCallCount());
+
+        // Changing the returned credentials must not affect the cached credentials.
+        resultCredentials.setSessionToken("changed_session_token");
+        assertEquals(MockStsOperationsImpl.MOCK_AWS_ASSUMED_ROLE_SESSION_TOKEN,
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, new Policy()).getSessionToken());
+        assertEquals(assumeRoleCallCount + 1, mockStsOperations.getAssumeRoleCallCount());
+
+        // A different policy must not reuse the cached credentials.
+        Policy otherPolicy = new Policy().withStatements(new Statement(Statement.Effect.Deny));
+        stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, otherPolicy);
+        assertEquals(assumeRoleCallCount + 2, mockStsOperations.getAssumeRoleCallCount());
+
+        // A different session name must not reuse the cached credentials either.
+        stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_other", AWS_ROLE_ARN, 3600, new Policy());
+        assertEquals(assumeRoleCallCount + 3, mockStsOperations.getAssumeRoleCallCount());
+    }
+
+    @Test
+    public void testGetCachedTemporarySecurityCredentialsNearExpiration()
+    {
+        MockStsOperationsImpl mockStsOperations = getMockStsOperations();
+        AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+        String testSessionName = SESSION_NAME + "_near_expiration";
+
+        // The session duration is shorter than the default safety margin, so cached credentials are never handed out again.
+        int assumeRoleCallCount = mockStsOperations.getAssumeRoleCallCount();
+        assertNotNull(stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 300, new Policy()));
+        assertNotNull(stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 300, new Policy()));
+        assertEquals(assumeRoleCallCount + 2, mockStsOperations.getAssumeRoleCallCount());
+    }
+
+    @Test
+    public void testGetCachedTemporarySecurityCredentialsMaxEntries() throws Exception
+    {
+        MockStsOperationsImpl mockStsOperations = getMockStsOperations();
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.AWS_STS_CREDENTIALS_CACHE_MAX_ENTRIES.getKey(), "2");
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+            String testSessionName = SESSION_NAME + "_max_entries";
+
+            // Cache the credentials of three sessions, so the credentials of the first session are evicted.
+            int assumeRoleCallCount = mockStsOperations.getAssumeRoleCallCount();
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_1", AWS_ROLE_ARN, 3600, new Policy());
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_2", AWS_ROLE_ARN, 3600, new Policy());
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_3", AWS_ROLE_ARN, 3600, new Policy());
+            assertEquals(assumeRoleCallCount + 3, mockStsOperations.getAssumeRoleCallCount());
+
+            // The credentials of the last two sessions are still cached.
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_2", AWS_ROLE_ARN, 3600, new Policy());
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_3", AWS_ROLE_ARN, 3600, new Policy());
+            assertEquals(assumeRoleCallCount + 3, mockStsOperations.getAssumeRoleCallCount());
+
+            // The credentials of the first session were evicted.
+            stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName + "_1", AWS_ROLE_ARN, 3600, new Policy());
+            assertEquals(assumeRoleCallCount + 4, mockStsOperations.getAssumeRoleCallCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetCachedTemporarySecurityCredentialsCacheDisabled() throws Exception
+    {
+        MockStsOperationsImpl mockStsOperations = getMockStsOperations();
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.AWS_STS_CREDENTIALS_CACHE_ENABLED.getKey(), "false");
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            AwsParamsDto testAwsParamsDto = new AwsParamsDto();
+            String testSessionName = SESSION_NAME + "_cache_disabled";
+
+            int assumeRoleCallCount = mockStsOperations.getAssumeRoleCallCount();
+            assertNotNull(stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, new Policy()));
+            assertNotNull(stsDao.getCachedTemporarySecurityCredentials(testAwsParamsDto, testSessionName, AWS_ROLE_ARN, 3600, new Policy()));
+            assertEquals(assumeRoleCallCount + 2, mockStsOperations.getAssumeRoleCallCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Gets the mock STS operations behind the AOP proxy of the STS operations.
+     *
+     * @return the mock STS operations
+     */
+    private MockStsOperationsImpl getMockStsOperations()
+    {
+        return AopTestUtils.getUltimateTargetObject(stsOperations);
+    }
 }
@@ -28,8 +28,10 @@ import com.amazonaws.AmazonServiceException;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
 
 import org.finra.herd.dao.AbstractDaoTest;
+import org.finra.herd.dao.Ec2Operations;
 import org.finra.herd.dao.impl.MockEc2OperationsImpl;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.dto.ConfigurationValue;
@@ -54,6 +56,9 @@ public class EmrPricingHelperTest extends AbstractDaoTest
     @Autowired
     private EmrPricingHelper emrPricingHelper;
 
+    @Autowired
+    private Ec2Operations ec2Operations;
+
     /**
      * Tests algorithmic cases:
      * <p/>
@@ -814,6 +819,98 @@ public class EmrPricingHelperTest extends AbstractDaoTest
         assertEquals("selected subnet", MockEc2OperationsImpl.SUBNET_2, emrClusterDefinition.getSubnetId());
     }
 
+    /**
+     * Tests that the subnets, availability zones and spot prices looked up for a best price search are reused by the following searches within the time to
+     * live, that the spot prices of multiple AZs are looked up with one EC2 call per AZ when they are not reused, and that EC2 is called on every search
+     * without a time to live.
+     */
+    @Test
+    public void testBestPricePricingSnapshotsReused() throws Exception
+    {
+        MockEc2OperationsImpl mockEc2Operations = AopTestUtils.getUltimateTargetObject(ec2Operations);
+        String subnetId = MockEc2OperationsImpl.SUBNET_1 + "," + MockEc2OperationsImpl.SUBNET_3;
+
+        // Override configuration properties to reuse the pricing snapshots for longer than the test runs.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.EMR_PRICING_SUBNET_CACHE_TIME_TO_LIVE_SECS.getKey(), 60);
+        overrideMap.put(ConfigurationValue.EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS.getKey(), 60);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Remove the pricing snapshots left by the other tests.
+            EmrPricingHelper emrPricingHelperTarget = AopTestUtils.getUltimateTargetObject(emrPricingHelper);
+            emrPricingHelperTarget.clearPricingSnapshots();
+
+            int describeSubnetsCallCount = mockEc2Operations.getDescribeSubnetsCallCount();
+            int describeAvailabilityZonesCallCount = mockEc2Operations.getDescribeAvailabilityZonesCallCount();
+            int describeSpotPriceHistoryCallCount = mockEc2Operations.getDescribeSpotPriceHistoryCallCount();
+
+            // The first search looks up the subnets, their AZs and the spot prices of both AZs.
+            EmrClusterDefinition emrClusterDefinition = updateEmrClusterDefinitionWithBestPrice(subnetId, getPickBestAzMasterInstanceDefinition(),
+                getPickBestAzCoreInstanceDefinition(), null);
+            assertEquals("selected subnet", MockEc2OperationsImpl.SUBNET_1, emrClusterDefinition.getSubnetId());
+            assertEquals(describeSubnetsCallCount + 1, mockEc2Operations.getDescribeSubnetsCallCount());
+            assertEquals(describeAvailabilityZonesCallCount + 1, mockEc2Operations.getDescribeAvailabilityZonesCallCount());
+            assertEquals(describeSpotPriceHistoryCallCount + 2, mockEc2Operations.getDescribeSpotPriceHistoryCallCount());
+
+            // The following search within the time to live is served from memory.
+            emrClusterDefinition = updateEmrClusterDefinitionWithBestPrice(subnetId, getPickBestAzMasterInstanceDefinition(),
+                getPickBestAzCoreInstanceDefinition(), null);
+            assertEquals("selected subnet", MockEc2OperationsImpl.SUBNET_1, emrClusterDefinition.getSubnetId());
+            assertEquals(describeSubnetsCallCount + 1, mockEc2Operations.getDescribeSubnetsCallCount());
+            assertEquals(describeAvailabilityZonesCallCount + 1, mockEc2Operations.getDescribeAvailabilityZonesCallCount());
+            assertEquals(describeSpotPriceHistoryCallCount + 2, mockEc2Operations.getDescribeSpotPriceHistoryCallCount());
+
+            // Disable the reuse of the pricing snapshots.
+            overrideMap.put(ConfigurationValue.EMR_PRICING_SUBNET_CACHE_TIME_TO_LIVE_SECS.getKey(), 0);
+            overrideMap.put(ConfigurationValue.EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS.getKey(), 0);
+            restorePropertySourceInEnvironment();
+            modifyPropertySourceInEnvironment(overrideMap);
+
+            // EC2 is called again.
+            emrClusterDefinition = updateEmrClusterDefinitionWithBestPrice(subnetId, getPickBestAzMasterInstanceDefinition(),
+                getPickBestAzCoreInstanceDefinition(), null);
+            assertEquals("selected subnet", MockEc2OperationsImpl.SUBNET_1, emrClusterDefinition.getSubnetId());
+            assertEquals(describeSubnetsCallCount + 2, mockEc2Operations.getDescribeSubnetsCallCount());
+            assertEquals(describeAvailabilityZonesCallCount + 2, mockEc2Operations.getDescribeAvailabilityZonesCallCount());
+            assertEquals(describeSpotPriceHistoryCallCount + 4, mockEc2Operations.getDescribeSpotPriceHistoryCallCount());
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Gets the master instance definition of the {@link #testBestPricePickBestAz} search.
+     *
+     * @return the master instance definition
+     */
+    private MasterInstanceDefinition getPickBestAzMasterInstanceDefinition()
+    {
+        MasterInstanceDefinition masterInstanceDefinition = new MasterInstanceDefinition();
+        masterInstanceDefinition.setInstanceCount(4);
+        masterInstanceDefinition.setInstanceType(MockEc2OperationsImpl.INSTANCE_TYPE_1);
+        masterInstanceDefinition.setInstanceMaxSearchPrice(ON_DEMAND);
+        return masterInstanceDefinition;
+    }
+
+    /**
+     * Gets the core instance definition of the {@link #testBestPricePickBestAz} search.
+     *
+     * @return the core instance definition
+     */
+    private InstanceDefinition getPickBestAzCoreInstanceDefinition()
+    {
+        InstanceDefinition coreInstanceDefinition = new InstanceDefinition();
+        coreInstanceDefinition.setInstanceCount(5);
+        coreInstanceDefinition.setInstanceType(MockEc2OperationsImpl.INSTANCE_TYPE_1);
+        coreInstanceDefinition.setInstanceMaxSearchPrice(ON_DEMAND);
+        return coreInstanceDefinition;
+    }
+
     /**
      * The definition will have it's best price search criteria information removed after being updated by the algorithm. This method asserts that is the case.
      * The task instance information is optional. Task instances will only be validated if it was given in the original definition.
@@ -18,13 +18,22 @@ package org.finra.herd.dao.helper;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
 
 import org.finra.herd.dao.AbstractDaoTest;
+import org.finra.herd.dao.KmsOperations;
 import org.finra.herd.dao.impl.MockKmsOperationsImpl;
 import org.finra.herd.model.dto.ConfigurationValue;
 
@@ -33,9 +42,14 @@ import org.finra.herd.model.dto.ConfigurationValue;
  */
 public class KmsHelperTest extends AbstractDaoTest
 {
+    private static final int THREAD_COUNT = 10;
+
     @Autowired
     private KmsHelper kmsHelper;
 
+    @Autowired
+    private KmsOperations kmsOperations;
+
     @Test
     public void testGetDecryptedConfigurationValue() throws Exception
     {
@@ -54,6 +68,120 @@ public class KmsHelperTest extends AbstractDaoTest
         }
     }
 
+    @Test
+    public void testGetDecryptedConfigurationValueCached() throws Exception
+    {
+        // Use a cipher text that no other test has decrypted, so it is not cached yet.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE.getKey(), MockKmsOperationsImpl.MOCK_CIPHER_TEXT + getRandomSuffix());
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Get the decrypted value three times and validate that only the first call was sent to KMS.
+            int decryptCallCount = getMockKmsOperations().getDecryptCallCount();
+            for (int i = 0; i < 3; i++)
+            {
+                assertEquals(MockKmsOperationsImpl.MOCK_PLAIN_TEXT, kmsHelper.getDecryptedConfigurationValue(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE));
+            }
+            assertEquals(decryptCallCount + 1, getMockKmsOperations().getDecryptCallCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetDecryptedConfigurationValueCacheDisabled() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE.getKey(), MockKmsOperationsImpl.MOCK_CIPHER_TEXT + getRandomSuffix());
+        overrideMap.put(ConfigurationValue.KMS_DECRYPTED_VALUE_CACHE_TIME_TO_LIVE_SECS.getKey(), 0);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Get the decrypted value twice and validate that both calls were sent to KMS.
+            int decryptCallCount = getMockKmsOperations().getDecryptCallCount();
+            assertEquals(MockKmsOperationsImpl.MOCK_PLAIN_TEXT, kmsHelper.getDecryptedConfigurationValue(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE));
+            assertEquals(MockKmsOperationsImpl.MOCK_PLAIN_TEXT, kmsHelper.getDecryptedConfigurationValue(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE));
+            assertEquals(decryptCallCount + 2, getMockKmsOperations().getDecryptCallCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetDecryptedConfigurationValueCipherTextChanged() throws Exception
+    {
+        String cipherText = MockKmsOperationsImpl.MOCK_CIPHER_TEXT + getRandomSuffix();
+        String changedCipherText = MockKmsOperationsImpl.MOCK_CIPHER_TEXT + getRandomSuffix();
+        int decryptCallCount = getMockKmsOperations().getDecryptCallCount();
+
+        // Get the decrypted value, so it gets cached.
+        getDecryptedConfigurationValue(cipherText);
+        getDecryptedConfigurationValue(cipherText);
+        assertEquals(decryptCallCount + 1, getMockKmsOperations().getDecryptCallCount());
+
+        // Change the cipher text and validate that the changed cipher text gets decrypted and cached.
+        getDecryptedConfigurationValue(changedCipherText);
+        getDecryptedConfigurationValue(changedCipherText);
+        assertEquals(decryptCallCount + 2, getMockKmsOperations().getDecryptCallCount());
+
+        // Change the cipher text back and validate that it gets decrypted again, since its decrypted value was evicted when the cipher text changed.
+        getDecryptedConfigurationValue(cipherText);
+        assertEquals(decryptCallCount + 3, getMockKmsOperations().getDecryptCallCount());
+    }
+
+    @Test
+    public void testGetDecryptedConfigurationValueConcurrentCacheMisses() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE.getKey(), MockKmsOperationsImpl.MOCK_CIPHER_TEXT + getRandomSuffix());
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        // Make the KMS call slow enough for all the threads to miss the cache while it is in progress.
+        getMockKmsOperations().setDecryptLatencyMillis(500);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        try
+        {
+            // Get the decrypted value from several threads at once.
+            int decryptCallCount = getMockKmsOperations().getDecryptCallCount();
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++)
+            {
+                futures.add(executorService.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call() throws Exception
+                    {
+                        startLatch.await();
+                        return kmsHelper.getDecryptedConfigurationValue(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE);
+                    }
+                }));
+            }
+            startLatch.countDown();
+
+            // Validate that all the threads got the decrypted value from a single KMS call.
+            for (Future<String> future : futures)
+            {
+                assertEquals(MockKmsOperationsImpl.MOCK_PLAIN_TEXT, future.get());
+            }
+            assertEquals(decryptCallCount + 1, getMockKmsOperations().getDecryptCallCount());
+        }
+        finally
+        {
+            executorService.shutdownNow();
+            getMockKmsOperations().setDecryptLatencyMillis(0);
+            restorePropertySourceInEnvironment();
+        }
+    }
+
     @Test
     public void testGetDecryptedConfigurationValueBlank() throws Exception
     {
@@ -99,4 +227,37 @@ public class KmsHelperTest extends AbstractDaoTest
             restorePropertySourceInEnvironment();
         }
     }
+
+    /**
+     * Gets the decrypted value of the specified cipher text configured as a configuration value.
+     *
+     * @param cipherText the cipher text
+     *
+     * @throws Exception if the property source of the environment could not be modified
+     */
+    private void getDecryptedConfigurationValue(String cipherText) throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE.getKey(), cipherText);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            assertEquals(MockKmsOperationsImpl.MOCK_PLAIN_TEXT, kmsHelper.getDecryptedConfigurationValue(ConfigurationValue.ACTIVITI_JOB_DEFINITION_ID_TEMPLATE));
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Gets the mock KMS operations behind the AOP proxy of the KMS operations.
+     *
+     * @return the mock KMS operations
+     */
+    private MockKmsOperationsImpl getMockKmsOperations()
+    {
+        return AopTestUtils.getUltimateTargetObject(kmsOperations);
+    }
 }
@@ -0,0 +1,224 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+/**
+ * This class tests the loading, expiration and eviction of the values of a single flight cache.
+ */
+public class SingleFlightCacheTest
+{
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Test
+    public void testGet()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+
+        // The value is loaded once and reused within the time to live.
+        assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+        assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+        assertEquals("B_2", cache.get("B", 60000, getLoader("B")));
+        assertEquals(2, cache.getLoadCount());
+        assertEquals(1, cache.getHitCount());
+        assertTrue(cache.contains("A"));
+
+        // A removed value is loaded again.
+        cache.remove("A");
+        assertFalse(cache.contains("A"));
+        assertEquals("A_3", cache.get("A", 60000, getLoader("A")));
+    }
+
+    @Test
+    public void testGetTimeToLiveZero()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+
+        assertEquals("A_1", cache.get("A", 0, getLoader("A")));
+        assertEquals("A_2", cache.get("A", 0, getLoader("A")));
+        assertFalse(cache.contains("A"));
+    }
+
+    @Test
+    public void testGetExpired() throws Exception
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+
+        assertEquals("A_1", cache.get("A", 1, getLoader("A")));
+        Thread.sleep(10);
+        assertFalse(cache.contains("A"));
+        assertEquals("A_2", cache.get("A", 1, getLoader("A")));
+    }
+
+    @Test
+    public void testGetNotUsable()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<String, String>("test", 10)
+        {
+            @Override
+            protected boolean isUsable(String value)
+            {
+                return !value.startsWith("B");
+            }
+        };
+
+        // The values that are not usable are handed out to the requests that loaded them, but not reused.
+        assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+        assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+        assertEquals("B_2", cache.get("B", 60000, getLoader("B")));
+        assertEquals("B_3", cache.get("B", 60000, getLoader("B")));
+    }
+
+    @Test
+    public void testGetLoadFailed()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+
+        try
+        {
+            cache.get("A", 60000, new Callable<String>()
+            {
+                @Override
+                public String call()
+                {
+                    throw new IllegalArgumentException("load failed");
+                }
+            });
+            fail("Should throw an IllegalArgumentException when the load fails.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("load failed", e.getMessage());
+        }
+
+        // The failed load is not cached.
+        assertFalse(cache.contains("A"));
+        assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+    }
+
+    @Test
+    public void testGetMaxEntries()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 2);
+
+        // Load three values, so the value loaded first is evicted.
+        cache.get("A", 60000, getLoader("A"));
+        cache.get("B", 60000, getLoader("B"));
+        cache.get("C", 60000, getLoader("C"));
+        assertFalse(cache.contains("A"));
+        assertTrue(cache.contains("B"));
+        assertTrue(cache.contains("C"));
+    }
+
+    @Test
+    public void testGetConcurrentRequests() throws Exception
+    {
+        final SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch loadReleased = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            // Start loading the value in another thread and hold the load until the value is requested again.
+            Future<String> future = executorService.submit(new Callable<String>()
+            {
+                @Override
+                public String call()
+                {
+                    return cache.get("A", 60000, new Callable<String>()
+                    {
+                        @Override
+                        public String call() throws InterruptedException
+                        {
+                            loadStarted.countDown();
+                            loadReleased.await();
+                            return "A_" + loadCount.incrementAndGet();
+                        }
+                    });
+                }
+            });
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+            assertTrue(cache.contains("A"));
+            loadReleased.countDown();
+
+            // The second request shares the load of the first one.
+            assertEquals("A_1", cache.get("A", 60000, getLoader("A")));
+            assertEquals("A_1", future.get(10, TimeUnit.SECONDS));
+            assertEquals(1, cache.getLoadCount());
+            assertEquals(1, cache.getHitCount());
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRemoveIf()
+    {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>("test", 10);
+
+        cache.get("A|1", 60000, getLoader("A|1"));
+        cache.get("A|2", 60000, getLoader("A|2"));
+        cache.get("B|1", 60000, getLoader("B|1"));
+        cache.removeIf(new Predicate<String>()
+        {
+            @Override
+            public boolean test(String key)
+            {
+                return key.startsWith("A|");
+            }
+        });
+        assertFalse(cache.contains("A|1"));
+        assertFalse(cache.contains("A|2"));
+        assertTrue(cache.contains("B|1"));
+    }
+
+    /**
+     * Gets a loader that returns the specified key suffixed with the number of values loaded by the test so far.
+     *
+     * @param key the key
+     *
+     * @return the loader
+     */
+    private Callable<String> getLoader(final String key)
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return key + "_" + loadCount.incrementAndGet();
+            }
+        };
+    }
+}
@@ -49,6 +49,18 @@ public class XmlHelperTest extends AbstractDaoTest
         assertEquals(getTestBuildInformation(), xmlHelper.unmarshallXmlToObject(BuildInformation.class, getTestXml()));
     }
 
+    @Test
+    public void testUnmarshallXmlToObjectNonAsciiCharacters() throws Exception
+    {
+        BuildInformation buildInformation = new BuildInformation("caf\u00e9", STRING_VALUE, "\u65e5\u672c", STRING_VALUE);
+
+        // Marshall and unmarshall the object twice to also go through the cached JAXB context.
+        for (int i = 0; i < 2; i++)
+        {
+            assertEquals(buildInformation, xmlHelper.unmarshallXmlToObject(BuildInformation.class, xmlHelper.objectToXml(buildInformation)));
+        }
+    }
+
     private BuildInformation getTestBuildInformation()
     {
         return new BuildInformation(STRING_VALUE, STRING_VALUE, STRING_VALUE, STRING_VALUE);
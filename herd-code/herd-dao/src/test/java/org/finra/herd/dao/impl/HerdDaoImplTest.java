@@ -0,0 +1,191 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.test.util.AopTestUtils;
+
+import org.finra.herd.dao.AbstractDaoTest;
+import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.BusinessObjectDataEntity;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
+
+/**
+ * Tests the in-memory partition value bounds index of the HerdDaoImpl class, which isn't visible through the interface.
+ */
+public class HerdDaoImplTest extends AbstractDaoTest
+{
+    /**
+     * The namespace of the business object formats looked up by a test, so the partition value bounds it loads are not shared with the other tests.
+     */
+    private final String namespace = NAMESPACE_CD + getRandomSuffix();
+
+    @Test
+    public void testGetBusinessObjectDataPartitionValueBoundsIndexDisabled()
+    {
+        BusinessObjectFormatKey businessObjectFormatKey = getBusinessObjectFormatKey(BOD_NAME);
+        long databaseLookupCount = getHerdDaoImpl().getPartitionValueDatabaseLookupCount();
+
+        // The index is disabled by default, so every lookup is run against the database.
+        assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+        assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+        assertEquals(databaseLookupCount + 2, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+    }
+
+    @Test
+    public void testGetBusinessObjectDataPartitionValueBoundsIndex() throws Exception
+    {
+        BusinessObjectFormatKey businessObjectFormatKey = getBusinessObjectFormatKey(BOD_NAME);
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS.getKey(), 60);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            long databaseLookupCount = getHerdDaoImpl().getPartitionValueDatabaseLookupCount();
+
+            // Look up the maximum and minimum partition values twice. Only the first lookups are run against the database.
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertNull(getBusinessObjectDataMinPartitionValue(businessObjectFormatKey));
+            assertEquals(databaseLookupCount + 2, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertNull(getBusinessObjectDataMinPartitionValue(businessObjectFormatKey));
+            assertEquals(databaseLookupCount + 2, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+
+            // Rebuild the index of the business object format, which runs both lookups against the database again.
+            herdDao.rebuildBusinessObjectDataPartitionValueBoundsIndex(businessObjectFormatKey);
+            assertEquals(databaseLookupCount + 4, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+
+            // Validate that the lookups are served from the rebuilt index.
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertNull(getBusinessObjectDataMinPartitionValue(businessObjectFormatKey));
+            assertEquals(databaseLookupCount + 4, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetBusinessObjectDataPartitionValueBoundsIndexInvalidation() throws Exception
+    {
+        BusinessObjectFormatKey businessObjectFormatKey = getBusinessObjectFormatKey(BOD_NAME);
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS.getKey(), 60);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            long databaseLookupCount = getHerdDaoImpl().getPartitionValueDatabaseLookupCount();
+
+            // Look up the maximum partition value before any business object data is registered and validate that it is kept in the index.
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertEquals(databaseLookupCount + 1, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+
+            // Register business object data, which drops the partition value bounds of its business object format.
+            createStorageUnitEntity(STORAGE_NAME, businessObjectFormatKey.getNamespace(), businessObjectFormatKey.getBusinessObjectDefinitionName(),
+                businessObjectFormatKey.getBusinessObjectFormatUsage(), businessObjectFormatKey.getBusinessObjectFormatFileType(), FORMAT_VERSION,
+                PARTITION_VALUE_2, SUBPARTITION_VALUES, DATA_VERSION, true, BusinessObjectDataStatusEntity.VALID, STORAGE_UNIT_STATUS,
+                NO_STORAGE_DIRECTORY_PATH);
+
+            // Validate that the registered business object data is seen and that, until the transaction completes, the lookups bypass the index.
+            assertEquals(PARTITION_VALUE_2, getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertEquals(PARTITION_VALUE_2, getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey));
+            assertEquals(databaseLookupCount + 3, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+
+            // Rebuilding the index within the transaction does not reload the bounds that include its uncommitted changes.
+            herdDao.rebuildBusinessObjectDataPartitionValueBoundsIndex(businessObjectFormatKey);
+            assertEquals(databaseLookupCount + 3, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testGetBusinessObjectDataPartitionValueBoundsIndexEviction() throws Exception
+    {
+        BusinessObjectFormatKey businessObjectFormatKey1 = getBusinessObjectFormatKey(BOD_NAME);
+        BusinessObjectFormatKey businessObjectFormatKey2 = getBusinessObjectFormatKey(BOD_NAME_2);
+        BusinessObjectFormatKey businessObjectFormatKey3 = getBusinessObjectFormatKey(BOD_NAME + "_3");
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS.getKey(), 60);
+        overrideMap.put(ConfigurationValue.BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_MAX_ENTRIES.getKey(), 2);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            long databaseLookupCount = getHerdDaoImpl().getPartitionValueDatabaseLookupCount();
+
+            // Look up the bounds of three business object formats, while the index only holds two.
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey1));
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey2));
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey3));
+            assertEquals(databaseLookupCount + 3, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+
+            // Validate that only the bounds of the format that was loaded first were evicted.
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey2));
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey3));
+            assertEquals(databaseLookupCount + 3, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+            assertNull(getBusinessObjectDataMaxPartitionValue(businessObjectFormatKey1));
+            assertEquals(databaseLookupCount + 4, getHerdDaoImpl().getPartitionValueDatabaseLookupCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Returns a business object format key in the namespace of the test.
+     *
+     * @param businessObjectDefinitionName the business object definition name
+     *
+     * @return the business object format key
+     */
+    private BusinessObjectFormatKey getBusinessObjectFormatKey(String businessObjectDefinitionName)
+    {
+        return new BusinessObjectFormatKey(namespace, businessObjectDefinitionName, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, null);
+    }
+
+    private String getBusinessObjectDataMaxPartitionValue(BusinessObjectFormatKey businessObjectFormatKey)
+    {
+        return herdDao.getBusinessObjectDataMaxPartitionValue(BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, businessObjectFormatKey, null,
+            BusinessObjectDataStatusEntity.VALID, Arrays.asList(STORAGE_NAME), null, null);
+    }
+
+    private String getBusinessObjectDataMinPartitionValue(BusinessObjectFormatKey businessObjectFormatKey)
+    {
+        return herdDao.getBusinessObjectDataMinPartitionValue(BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, businessObjectFormatKey, null,
+            BusinessObjectDataStatusEntity.VALID, Arrays.asList(STORAGE_NAME));
+    }
+
+    private HerdDaoImpl getHerdDaoImpl()
+    {
+        return AopTestUtils.getUltimateTargetObject(herdDao);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.finra.herd.dao.Ec2Operations;
 
@@ -84,6 +85,13 @@ public class MockEc2OperationsImpl implements Ec2Operations
     private Map<String, MockAvailabilityZone> mockAvailabilityZones = new HashMap<>();
     private Set<String> mockInstanceTypes = new HashSet<>();
 
+    /*
+     * The number of calls made to the EC2 describe operations, so the tests can verify how many EC2 calls were made.
+     */
+    private final AtomicInteger describeSubnetsCallCount = new AtomicInteger();
+    private final AtomicInteger describeAvailabilityZonesCallCount = new AtomicInteger();
+    private final AtomicInteger describeSpotPriceHistoryCallCount = new AtomicInteger();
+
     public MockEc2OperationsImpl()
     {
         Map<String, MockEc2Region> mockEc2Regions = new HashMap<>();
@@ -300,6 +308,8 @@ public class MockEc2OperationsImpl implements Ec2Operations
     @Override
     public DescribeSubnetsResult describeSubnets(AmazonEC2Client ec2Client, DescribeSubnetsRequest describeSubnetsRequest)
     {
+        describeSubnetsCallCount.incrementAndGet();
+
         List<Subnet> subnets = new ArrayList<>();
 
         List<String> requestedSubnetIds = describeSubnetsRequest.getSubnetIds();
@@ -349,6 +359,8 @@ public class MockEc2OperationsImpl implements Ec2Operations
     public DescribeAvailabilityZonesResult describeAvailabilityZones(AmazonEC2Client ec2Client,
         DescribeAvailabilityZonesRequest describeAvailabilityZonesRequest)
     {
+        describeAvailabilityZonesCallCount.incrementAndGet();
+
         List<AvailabilityZone> availabilityZones = new ArrayList<>();
 
         List<String> requestedZoneNames = describeAvailabilityZonesRequest.getZoneNames();
@@ -378,6 +390,8 @@ public class MockEc2OperationsImpl implements Ec2Operations
     @Override
     public DescribeSpotPriceHistoryResult describeSpotPriceHistory(AmazonEC2Client ec2Client, DescribeSpotPriceHistoryRequest describeSpotPriceHistoryRequest)
     {
+        describeSpotPriceHistoryCallCount.incrementAndGet();
+
         List<SpotPrice> spotPriceHistories = new ArrayList<>();
 
         String requestedAvailabilityZone = describeSpotPriceHistoryRequest.getAvailabilityZone();
@@ -421,4 +435,19 @@ public class MockEc2OperationsImpl implements Ec2Operations
         describeSpotPriceHistoryResult.setSpotPriceHistory(spotPriceHistories);
         return describeSpotPriceHistoryResult;
     }
+
+    public int getDescribeSubnetsCallCount()
+    {
+        return describeSubnetsCallCount.get();
+    }
+
+    public int getDescribeAvailabilityZonesCallCount()
+    {
+        return describeAvailabilityZonesCallCount.get();
+    }
+
+    public int getDescribeSpotPriceHistoryCallCount()
+    {
+        return describeSpotPriceHistoryCallCount.get();
+    }
 }
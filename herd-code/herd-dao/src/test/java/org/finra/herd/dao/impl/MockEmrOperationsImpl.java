@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.elasticmapreduce.AmazonElasticMapReduceClient;
@@ -72,6 +73,11 @@ public class MockEmrOperationsImpl implements EmrOperations
     // Created clusters
     private Map<String, MockEmrJobFlow> emrClusters = new HashMap<>();
 
+    /*
+     * The number of calls made to the describe cluster operation, so the tests can verify how many EMR calls were made.
+     */
+    private final AtomicInteger describeClusterCallCount = new AtomicInteger();
+
 
     @Override
     public String runEmrJobFlow(AmazonElasticMapReduceClient emrClient, RunJobFlowRequest jobFlowRequest)
@@ -160,6 +166,8 @@ public class MockEmrOperationsImpl implements EmrOperations
     @Override
     public DescribeClusterResult describeClusterRequest(AmazonElasticMapReduceClient emrClient, DescribeClusterRequest describeClusterRequest)
     {
+        describeClusterCallCount.incrementAndGet();
+
         if (describeClusterRequest.getClusterId().equalsIgnoreCase(MockAwsOperationsHelper.AMAZON_SERVICE_EXCEPTION))
         {
             throw new AmazonServiceException(MockAwsOperationsHelper.AMAZON_SERVICE_EXCEPTION);
@@ -403,4 +411,9 @@ public class MockEmrOperationsImpl implements EmrOperations
 
         return emrClusterName;
     }
+
+    public int getDescribeClusterCallCount()
+    {
+        return describeClusterCallCount.get();
+    }
 }
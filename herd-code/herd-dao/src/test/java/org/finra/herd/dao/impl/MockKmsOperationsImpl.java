@@ -16,6 +16,7 @@
 package org.finra.herd.dao.impl;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.services.kms.AWSKMSClient;
 import com.amazonaws.services.kms.model.DecryptRequest;
@@ -40,9 +41,33 @@ public class MockKmsOperationsImpl implements KmsOperations
 
     public static final String MOCK_CIPHER_TEXT_INVALID = "mock_invalid_cipher_text";
 
+    /**
+     * The number of calls made to the decrypt operation, so the tests can verify how many KMS calls were made.
+     */
+    private final AtomicInteger decryptCallCount = new AtomicInteger();
+
+    /**
+     * The simulated time a decrypt call takes in milliseconds, so the tests can make concurrent calls overlap.
+     */
+    private volatile long decryptLatencyMillis;
+
     @Override
     public DecryptResult decrypt(AWSKMSClient awsKmsClient, DecryptRequest decryptRequest)
     {
+        decryptCallCount.incrementAndGet();
+        if (decryptLatencyMillis > 0)
+        {
+            try
+            {
+                Thread.sleep(decryptLatencyMillis);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
         // Check the cipher text.
         if (decryptRequest.getCiphertextBlob().equals(ByteBuffer.wrap(Base64.decodeBase64(MOCK_CIPHER_TEXT_INVALID))))
         {
@@ -56,4 +81,14 @@ public class MockKmsOperationsImpl implements KmsOperations
 
         return decryptResult;
     }
+
+    public int getDecryptCallCount()
+    {
+        return decryptCallCount.get();
+    }
+
+    public void setDecryptLatencyMillis(long decryptLatencyMillis)
+    {
+        this.decryptLatencyMillis = decryptLatencyMillis;
+    }
 }
@@ -25,11 +25,16 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
@@ -47,6 +52,7 @@ import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.MultipartUpload;
 import com.amazonaws.services.s3.model.MultipartUploadListing;
 import com.amazonaws.services.s3.model.ObjectListing;
@@ -101,6 +107,16 @@ public class MockS3OperationsImpl implements S3Operations
      */
     public static final String MOCK_S3_FILE_NAME_NOT_FOUND = "mock_s3_file_name_not_found";
 
+    /**
+     * Suffix to hint the multi-object delete operation to fail to delete the object the first time it is requested.
+     */
+    public static final String MOCK_S3_FILE_NAME_DELETE_FAILED_ONCE = "mock_s3_file_name_delete_failed_once";
+
+    /**
+     * Suffix to hint the multi-object delete operation to always fail to delete the object.
+     */
+    public static final String MOCK_S3_FILE_NAME_DELETE_FAILED = "mock_s3_file_name_delete_failed";
+
     /**
      * Suffix to hint operation to use object content length of 0 bytes.
      */
@@ -150,11 +166,38 @@ public class MockS3OperationsImpl implements S3Operations
 
     public static final String MOCK_S3_BUCKET_NAME_INTERNAL_ERROR = "MOCK_S3_BUCKET_NAME_INTERNAL_ERROR";
 
+    /**
+     * The maximum number of keys and common prefixes returned by a single list objects request, the same as S3 returns by default.
+     */
+    private static final int MAX_KEYS_PER_LISTING = 1000;
+
     /**
      * The buckets that are available in-memory.
      */
     private Map<String, MockS3Bucket> mockS3Buckets = new HashMap<>();
 
+    /**
+     * The number of calls made to the list objects operation, so the tests can verify how many S3 list requests were made.
+     */
+    private final AtomicInteger listObjectsCallCount = new AtomicInteger();
+
+    /**
+     * The simulated round trip time of a list objects request in milliseconds, so the benchmarks can list S3 objects the way S3 responds to them.
+     */
+    private volatile long listObjectsLatencyMillis;
+
+    /**
+     * The number of calls made to the multi-object delete operation and the total number of keys they requested to delete, so the tests can verify which keys
+     * were retried.
+     */
+    private final AtomicInteger deleteObjectsCallCount = new AtomicInteger();
+    private final AtomicInteger deleteObjectsKeyCount = new AtomicInteger();
+
+    /**
+     * The keys that already failed to get deleted once.
+     */
+    private final Set<String> failedDeleteKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     /**
      * <p>
      * Creates and returns a new {@link ObjectMetadata} with the given parameters. Content length is defaulted to 1 bytes unless a hint is provided.
@@ -472,6 +515,15 @@ public class MockS3OperationsImpl implements S3Operations
 
     /**
      * Deletes a list of objects from a bucket.
+     * <p/>
+     * Takes the following hints when the key is suffixed:
+     * <dl>
+     * <dt>MOCK_S3_FILE_NAME_DELETE_FAILED_ONCE</dt>
+     * <dd>Fails to delete the object the first time it is requested, then deletes it</dd>
+     * <dt>MOCK_S3_FILE_NAME_DELETE_FAILED</dt>
+     * <dd>Always fails to delete the object</dd>
+     * </dl>
+     * The objects that fail to get deleted are reported by a MultiObjectDeleteException, which also reports the objects that were deleted.
      */
     @Override
     public DeleteObjectsResult deleteObjects(DeleteObjectsRequest deleteObjectRequest, AmazonS3Client s3Client)
@@ -479,7 +531,11 @@ public class MockS3OperationsImpl implements S3Operations
         LOGGER.debug("deleteObjects(): deleteObjectRequest.getBucketName() = " + deleteObjectRequest.getBucketName() + ", deleteObjectRequest.getKeys() = " +
             deleteObjectRequest.getKeys());
 
+        deleteObjectsCallCount.incrementAndGet();
+        deleteObjectsKeyCount.addAndGet(deleteObjectRequest.getKeys().size());
+
         List<DeletedObject> deletedObjects = new ArrayList<>();
+        List<MultiObjectDeleteException.DeleteError> deleteErrors = new ArrayList<>();
 
         MockS3Bucket mockS3Bucket = mockS3Buckets.get(deleteObjectRequest.getBucketName());
 
@@ -487,7 +543,16 @@ public class MockS3OperationsImpl implements S3Operations
         {
             String s3ObjectKey = keyVersion.getKey();
 
-            if (mockS3Bucket.getObjects().remove(s3ObjectKey) != null)
+            if (s3ObjectKey.endsWith(MOCK_S3_FILE_NAME_DELETE_FAILED) ||
+                (s3ObjectKey.endsWith(MOCK_S3_FILE_NAME_DELETE_FAILED_ONCE) && failedDeleteKeys.add(s3ObjectKey)))
+            {
+                MultiObjectDeleteException.DeleteError deleteError = new MultiObjectDeleteException.DeleteError();
+                deleteError.setKey(s3ObjectKey);
+                deleteError.setCode("InternalError");
+                deleteError.setMessage("We encountered an internal error. Please try again.");
+                deleteErrors.add(deleteError);
+            }
+            else if (mockS3Bucket.getObjects().remove(s3ObjectKey) != null)
             {
                 DeletedObject deletedObject = new DeletedObject();
                 deletedObject.setKey(s3ObjectKey);
@@ -495,18 +560,39 @@ public class MockS3OperationsImpl implements S3Operations
             }
         }
 
+        if (!deleteErrors.isEmpty())
+        {
+            throw new MultiObjectDeleteException(deleteErrors, deletedObjects);
+        }
+
         return new DeleteObjectsResult(deletedObjects);
     }
 
     /**
      * Returns a list of objects. If the bucket does not exist, returns a listing with an empty list.
-     * If a prefix is specified in listObjectsRequest, only keys starting with the prefix will be returned.
+     * If a prefix is specified in listObjectsRequest, only keys starting with the prefix will be returned. If a delimiter is specified, the keys that contain
+     * the delimiter after the prefix are returned as common prefixes instead.
+     * The keys and common prefixes are returned in key order, a page of up to 1000 of them at a time, starting after the marker of the request.
      */
     @Override
     public ObjectListing listObjects(ListObjectsRequest listObjectsRequest, AmazonS3Client s3Client)
     {
         LOGGER.debug("listObjects(): listObjectsRequest.getBucketName() = " + listObjectsRequest.getBucketName());
 
+        listObjectsCallCount.incrementAndGet();
+        if (listObjectsLatencyMillis > 0)
+        {
+            try
+            {
+                Thread.sleep(listObjectsLatencyMillis);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException("Interrupted while listing objects.", e);
+            }
+        }
+
         String bucketName = listObjectsRequest.getBucketName();
 
         if (MOCK_S3_BUCKET_NAME_NO_SUCH_BUCKET_EXCEPTION.equals(bucketName))
@@ -522,19 +608,59 @@ public class MockS3OperationsImpl implements S3Operations
         MockS3Bucket mockS3Bucket = mockS3Buckets.get(bucketName);
         if (mockS3Bucket != null)
         {
+            // Collect the matching keys and common prefixes in key order. The common prefixes have no object summaries.
+            TreeMap<String, S3ObjectSummary> listingEntries = new TreeMap<>();
             for (MockS3Object mockS3Object : mockS3Bucket.getObjects().values())
             {
                 String s3ObjectKey = mockS3Object.getKey();
                 if (listObjectsRequest.getPrefix() == null || s3ObjectKey.startsWith(listObjectsRequest.getPrefix()))
                 {
+                    // Roll up the keys that contain the delimiter after the prefix into common prefixes.
+                    String prefix = listObjectsRequest.getPrefix() == null ? "" : listObjectsRequest.getPrefix();
+                    int delimiterIndex = listObjectsRequest.getDelimiter() == null ? -1 :
+                        s3ObjectKey.indexOf(listObjectsRequest.getDelimiter(), prefix.length());
+                    if (delimiterIndex >= 0)
+                    {
+                        listingEntries.put(s3ObjectKey.substring(0, delimiterIndex + listObjectsRequest.getDelimiter().length()), null);
+                        continue;
+                    }
+
                     S3ObjectSummary s3ObjectSummary = new S3ObjectSummary();
                     s3ObjectSummary.setBucketName(bucketName);
                     s3ObjectSummary.setKey(s3ObjectKey);
                     s3ObjectSummary.setSize(mockS3Object.getData().length);
 
-                    objectListing.getObjectSummaries().add(s3ObjectSummary);
+                    listingEntries.put(s3ObjectKey, s3ObjectSummary);
                 }
             }
+
+            // Return the page of keys and common prefixes that follows the marker.
+            String marker = listObjectsRequest.getMarker();
+            int maxKeys = listObjectsRequest.getMaxKeys() == null ? MAX_KEYS_PER_LISTING : listObjectsRequest.getMaxKeys();
+            for (Map.Entry<String, S3ObjectSummary> listingEntry : (marker == null ? listingEntries : listingEntries.tailMap(marker, false)).entrySet())
+            {
+                // Skip the common prefix that the marker points to or falls under, since it has already been returned.
+                if (marker != null && listingEntry.getValue() == null && marker.startsWith(listingEntry.getKey()))
+                {
+                    continue;
+                }
+
+                if (objectListing.getObjectSummaries().size() + objectListing.getCommonPrefixes().size() == maxKeys)
+                {
+                    objectListing.setTruncated(true);
+                    break;
+                }
+
+                if (listingEntry.getValue() == null)
+                {
+                    objectListing.getCommonPrefixes().add(listingEntry.getKey());
+                }
+                else
+                {
+                    objectListing.getObjectSummaries().add(listingEntry.getValue());
+                }
+                objectListing.setNextMarker(listingEntry.getKey());
+            }
         }
 
         return objectListing;
@@ -830,6 +956,7 @@ public class MockS3OperationsImpl implements S3Operations
     public void rollback()
     {
         mockS3Buckets.clear();
+        failedDeleteKeys.clear();
     }
 
     @Override
@@ -913,4 +1040,24 @@ public class MockS3OperationsImpl implements S3Operations
             throw new RuntimeException(e);
         }
     }
+
+    public int getDeleteObjectsCallCount()
+    {
+        return deleteObjectsCallCount.get();
+    }
+
+    public int getDeleteObjectsKeyCount()
+    {
+        return deleteObjectsKeyCount.get();
+    }
+
+    public int getListObjectsCallCount()
+    {
+        return listObjectsCallCount.get();
+    }
+
+    public void setListObjectsLatencyMillis(long listObjectsLatencyMillis)
+    {
+        this.listObjectsLatencyMillis = listObjectsLatencyMillis;
+    }
 }
@@ -15,6 +15,9 @@
 */
 package org.finra.herd.dao.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
 
@@ -27,8 +30,40 @@ public class MockSqsOperationsImpl implements SqsOperations
 {
     public static final String MOCK_SQS_QUEUE_NOT_FOUND_NAME = "mock_sqs_queue_not_found_name";
 
+    public static final String MOCK_SQS_MESSAGE_TEXT_FAILED = "mock_sqs_message_text_failed";
+
     @Override
     public void sendSqsTextMessage(ClientConfiguration client, String queueName, String messageText)
+    {
+        checkQueueName(queueName);
+
+        // Nothing else to do in the normal case since our unit tests aren't reading messages once they have been published.
+    }
+
+    @Override
+    public List<Integer> sendSqsTextMessages(ClientConfiguration client, String queueName, List<String> messageTexts)
+    {
+        checkQueueName(queueName);
+
+        // Fail the first message with a specific message text and all the messages after it for testing purposes.
+        List<Integer> failedMessagePositions = new ArrayList<>();
+        for (int position = 0; position < messageTexts.size(); position++)
+        {
+            if (!failedMessagePositions.isEmpty() || MOCK_SQS_MESSAGE_TEXT_FAILED.equals(messageTexts.get(position)))
+            {
+                failedMessagePositions.add(position);
+            }
+        }
+
+        return failedMessagePositions;
+    }
+
+    /**
+     * Throws the exceptions expected for the specific queue names used for testing purposes.
+     *
+     * @param queueName the queue name
+     */
+    private void checkQueueName(String queueName)
     {
         // Throw a throttling exception for a specific queue name for testing purposes.
         if (queueName.equals(MockAwsOperationsHelper.AMAZON_THROTTLING_EXCEPTION))
@@ -43,7 +78,5 @@ public class MockSqsOperationsImpl implements SqsOperations
         {
             throw new IllegalStateException(String.format("AWS SQS queue with \"%s\" name not found.", queueName));
         }
-
-        // Nothing else to do in the normal case since our unit tests aren't reading messages once they have been published.
     }
 }
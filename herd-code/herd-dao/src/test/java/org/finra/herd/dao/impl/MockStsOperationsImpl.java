@@ -18,6 +18,7 @@ package org.finra.herd.dao.impl;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
@@ -36,11 +37,18 @@ public class MockStsOperationsImpl implements StsOperations
     public static final String MOCK_AWS_ASSUMED_ROLE_SECRET_KEY = "mock_aws_assumed_role_secret_key";
     public static final String MOCK_AWS_ASSUMED_ROLE_SESSION_TOKEN = "mock_aws_assumed_role_session_token";
 
+    /*
+     * The number of calls made to the assume role operation, so the tests can verify how many STS calls were made.
+     */
+    private final AtomicInteger assumeRoleCallCount = new AtomicInteger();
+
     @Override
     public AssumeRoleResult assumeRole(AWSSecurityTokenServiceClient awsSecurityTokenServiceClient, AssumeRoleRequest assumeRoleRequest)
     {
         assertNotNull(assumeRoleRequest);
 
+        assumeRoleCallCount.incrementAndGet();
+
         if (assumeRoleRequest.getPolicy() != null && assumeRoleRequest.getPolicy().equals(MockAwsOperationsHelper.AMAZON_THROTTLING_EXCEPTION))
         {
             AmazonServiceException throttlingException = new AmazonServiceException("test throttling exception");
@@ -56,4 +64,9 @@ public class MockStsOperationsImpl implements StsOperations
 
         return assumeRoleResult;
     }
+
+    public int getAssumeRoleCallCount()
+    {
+        return assumeRoleCallCount.get();
+    }
 }
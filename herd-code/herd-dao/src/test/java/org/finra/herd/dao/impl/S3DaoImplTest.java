@@ -0,0 +1,135 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.AopTestUtils;
+
+import org.finra.herd.dao.AbstractDaoTest;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.S3FileTransferListener;
+import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
+
+/**
+ * Tests the transfer statistics and the transfer threads of the S3DaoImpl class, which aren't visible through the interface.
+ */
+public class S3DaoImplTest extends AbstractDaoTest
+{
+    private Path localTempPath;
+
+    @Before
+    public void setupEnv() throws IOException
+    {
+        localTempPath = Files.createTempDirectory(null);
+    }
+
+    @After
+    public void cleanEnv() throws IOException
+    {
+        FileUtils.deleteDirectory(localTempPath.toFile());
+        s3Dao.deleteDirectory(getTestS3FileTransferRequestParamsDto());
+        s3Operations.rollback();
+    }
+
+    @Test
+    public void testUploadFileTransferStatistics() throws IOException, InterruptedException
+    {
+        S3TransferStatistics transferStatistics = getS3DaoImpl().getTransferStatistics();
+        long completedTransferCount = transferStatistics.getCompletedTransferCount();
+        long transferredBytes = transferStatistics.getTransferredBytes();
+
+        uploadFile(null);
+
+        // Validate the statistics of the S3 DAO counted the upload.
+        assertEquals(0, transferStatistics.getActiveTransferCount());
+        assertEquals(completedTransferCount + 1, transferStatistics.getCompletedTransferCount());
+        assertEquals(transferredBytes + FILE_SIZE_1_KB, transferStatistics.getTransferredBytes());
+    }
+
+    @Test
+    public void testUploadFileMaxThreadsAdaptiveConcurrency() throws Exception
+    {
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_ENABLED.getKey(), true);
+        overrideMap.put(ConfigurationValue.AWS_S3_TRANSFER_INITIAL_THREADS.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            // The upload starts with the max threads of the request rather than the configured initial threads.
+            assertEquals(4, uploadFile(4).getThreadCount());
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Uploads a local test file.
+     *
+     * @param maxThreads the max threads of the upload, or null to use the configured max threads
+     *
+     * @return the final statistics of the upload
+     */
+    private S3FileTransferStatisticsDto uploadFile(Integer maxThreads) throws IOException, InterruptedException
+    {
+        File targetFile = createLocalFile(localTempPath.toString(), LOCAL_FILE, FILE_SIZE_1_KB);
+
+        final List<S3FileTransferStatisticsDto> doneStatistics = new ArrayList<>();
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = getTestS3FileTransferRequestParamsDto();
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(TARGET_S3_KEY);
+        s3FileTransferRequestParamsDto.setLocalPath(targetFile.getPath());
+        s3FileTransferRequestParamsDto.setMaxThreads(maxThreads);
+        s3FileTransferRequestParamsDto.getTransferListeners().add(new S3FileTransferListener()
+        {
+            @Override
+            public void transferProgressed(S3FileTransferStatisticsDto statistics)
+            {
+                // Only the final statistics are returned.
+            }
+
+            @Override
+            public void transferDone(S3FileTransferStatisticsDto statistics)
+            {
+                doneStatistics.add(statistics);
+            }
+        });
+        s3Dao.uploadFile(s3FileTransferRequestParamsDto);
+
+        assertEquals(1, doneStatistics.size());
+        return doneStatistics.get(0);
+    }
+
+    private S3DaoImpl getS3DaoImpl()
+    {
+        return AopTestUtils.getUltimateTargetObject(s3Dao);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.dao.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class tests the adjustments of the number of threads of an S3 file transfer.
+ */
+public class S3TransferConcurrencyControllerTest
+{
+    private ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+
+    @After
+    public void after()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAdjustThroughputImproves()
+    {
+        S3TransferConcurrencyController controller = new S3TransferConcurrencyController(executor, 2, 6, 0);
+
+        // The threads grow while the throughput improves, up to the maximum.
+        assertEquals(5, controller.adjust(1000, 0, 1000));
+        assertEquals(6, controller.adjust(3000, 0, 2000));
+        assertEquals(6, controller.adjust(6000, 0, 3000));
+        assertEquals(6, executor.getCorePoolSize());
+        assertEquals(6, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testAdjustThroughputDrops()
+    {
+        S3TransferConcurrencyController controller = new S3TransferConcurrencyController(executor, 2, 10, 0);
+
+        // The threads added last make the throughput drop, so they are removed and not tried again.
+        assertEquals(5, controller.adjust(1000, 0, 1000));
+        assertEquals(4, controller.adjust(1500, 0, 2000));
+        assertEquals(4, controller.adjust(3000, 0, 3000));
+        assertEquals(4, controller.adjust(5000, 0, 4000));
+    }
+
+    @Test
+    public void testAdjustErrors()
+    {
+        S3TransferConcurrencyController controller = new S3TransferConcurrencyController(executor, 3, 10, 0);
+
+        // The threads are halved when requests get retried, down to the minimum.
+        assertEquals(3, controller.adjust(1000, 1, 1000));
+        assertEquals(3, controller.adjust(2000, 2, 2000));
+        assertEquals(3, executor.getCorePoolSize());
+        assertEquals(3, executor.getMaximumPoolSize());
+    }
+}
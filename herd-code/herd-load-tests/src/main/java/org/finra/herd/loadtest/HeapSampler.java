@@ -0,0 +1,123 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the heap usage at a fixed interval while the load test runs and counts the garbage collections, so the heap behaviour under load can be reported.
+ */
+public class HeapSampler
+{
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private long startHeapUsedBytes;
+
+    private long maxHeapUsedBytes;
+
+    private long heapUsedBytesSum;
+
+    private long sampleCount;
+
+    private long startGcCount;
+
+    private long startGcTimeMillis;
+
+    /**
+     * Starts sampling the heap usage.
+     *
+     * @param intervalMillis the sampling interval in milliseconds
+     */
+    public synchronized void start(long intervalMillis)
+    {
+        startHeapUsedBytes = memoryMXBean.getHeapMemoryUsage().getUsed();
+        startGcCount = getGcCount();
+        startGcTimeMillis = getGcTimeMillis();
+        scheduledExecutorService.scheduleAtFixedRate(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                sample();
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling the heap usage and summarizes the samples.
+     *
+     * @return the heap report
+     */
+    public synchronized LoadTestReport.HeapReport stop()
+    {
+        scheduledExecutorService.shutdownNow();
+
+        LoadTestReport.HeapReport heapReport = new LoadTestReport.HeapReport();
+        heapReport.setStartHeapUsedBytes(startHeapUsedBytes);
+        heapReport.setEndHeapUsedBytes(memoryMXBean.getHeapMemoryUsage().getUsed());
+        heapReport.setMaxHeapUsedBytes(maxHeapUsedBytes);
+        heapReport.setMeanHeapUsedBytes(sampleCount > 0 ? heapUsedBytesSum / sampleCount : 0);
+        heapReport.setHeapMaxBytes(memoryMXBean.getHeapMemoryUsage().getMax());
+        heapReport.setGcCount(getGcCount() - startGcCount);
+        heapReport.setGcTimeMillis(getGcTimeMillis() - startGcTimeMillis);
+        return heapReport;
+    }
+
+    private synchronized void sample()
+    {
+        long heapUsedBytes = memoryMXBean.getHeapMemoryUsage().getUsed();
+        maxHeapUsedBytes = Math.max(maxHeapUsedBytes, heapUsedBytes);
+        heapUsedBytesSum += heapUsedBytes;
+        sampleCount++;
+    }
+
+    private static long getGcCount()
+    {
+        long gcCount = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            gcCount += Math.max(garbageCollectorMXBean.getCollectionCount(), 0);
+        }
+        return gcCount;
+    }
+
+    private static long getGcTimeMillis()
+    {
+        long gcTimeMillis = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            gcTimeMillis += Math.max(garbageCollectorMXBean.getCollectionTime(), 0);
+        }
+        return gcTimeMillis;
+    }
+}
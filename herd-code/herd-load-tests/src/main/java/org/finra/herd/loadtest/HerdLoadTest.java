@@ -0,0 +1,215 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.log4j.Logger;
+
+import org.finra.herd.core.ArgumentParser;
+
+/**
+ * The entry point of the herd load test JAR. It seeds the embedded database, sends a warm-up load followed by the measured load to the web application and
+ * writes the latency percentiles, the throughput, the database queries per request and the heap behaviour as JSON, so they can be compared across builds.
+ */
+public class HerdLoadTest
+{
+    private static final Logger LOGGER = Logger.getLogger(HerdLoadTest.class);
+
+    private static final String DEFAULT_OPERATION_MIX = "registration=1,availability=4,ddl=2,uploadCredential=2,jobCreation=1";
+
+    private static final String DEFAULT_RESULT_FILE_NAME = "herd-load-test.json";
+
+    private static final long HEAP_SAMPLING_INTERVAL_MILLIS = 1000;
+
+    private final ArgumentParser argParser = new ArgumentParser("herd-load-test");
+
+    private final Option durationSecsOpt = argParser.addArgument("d", "durationSecs", true, "The duration of the measured load in seconds.", false);
+
+    private final Option warmupSecsOpt = argParser.addArgument("w", "warmupSecs", true, "The duration of the warm-up load in seconds.", false);
+
+    private final Option rateOpt = argParser.addArgument("r", "rate", true, "The target number of requests per second.", false);
+
+    private final Option threadsOpt = argParser.addArgument("t", "threads", true, "The number of threads sending the requests.", false);
+
+    private final Option mixOpt = argParser.addArgument("m", "mix", true,
+        "The relative weights of the operations, e.g. \"" + DEFAULT_OPERATION_MIX + "\". Operations that are not listed are not sent.", false);
+
+    private final Option partitionCountOpt =
+        argParser.addArgument("p", "partitionCount", true, "The number of business object data instances seeded in the database.", false);
+
+    private final Option queryPartitionCountOpt =
+        argParser.addArgument("q", "queryPartitionCount", true, "The number of partitions selected by every availability and DDL request.", false);
+
+    private final Option resultFileOpt = argParser.addArgument("o", "resultFile", true, "The file the JSON report is written to.", false);
+
+    private final Option helpOpt = argParser.addArgument("h", "help", false, "Display usage information and exit.", false);
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the command line arguments
+     *
+     * @throws Exception if the load test could not be run
+     */
+    public static void main(String[] args) throws Exception
+    {
+        new HerdLoadTest().go(args);
+    }
+
+    /**
+     * Parses the command line arguments and runs the load test.
+     *
+     * @param args the command line arguments
+     *
+     * @throws Exception if the load test could not be run
+     */
+    public void go(String[] args) throws Exception
+    {
+        argParser.parseArguments(args, false);
+
+        // If help option was specified, then display usage information and exit.
+        if (argParser.getBooleanValue(helpOpt))
+        {
+            System.out.println(argParser.getUsageInformation());
+            return;
+        }
+
+        int durationSeconds = argParser.getIntegerValue(durationSecsOpt, 60, 1, Integer.MAX_VALUE);
+        int warmupSeconds = argParser.getIntegerValue(warmupSecsOpt, 10, 0, Integer.MAX_VALUE);
+        int rate = argParser.getIntegerValue(rateOpt, 50, 1, Integer.MAX_VALUE);
+        int threadCount = argParser.getIntegerValue(threadsOpt, 16, 1, Integer.MAX_VALUE);
+        int partitionCount = argParser.getIntegerValue(partitionCountOpt, 1000, 1, Integer.MAX_VALUE);
+        int queryPartitionCount = argParser.getIntegerValue(queryPartitionCountOpt, 10, 1, Integer.MAX_VALUE);
+        Map<LoadTestOperation, Integer> operationWeights = parseOperationMix(argParser.getStringValue(mixOpt, DEFAULT_OPERATION_MIX));
+        File resultFile = argParser.getFileValue(resultFileOpt, new File(DEFAULT_RESULT_FILE_NAME));
+
+        LoadTestFixture loadTestFixture = LoadTestFixture.start();
+        try
+        {
+            LOGGER.info(String.format("Seeding the load test database. partitionCount=%d", partitionCount));
+            loadTestFixture.seed(partitionCount);
+
+            LoadGenerator loadGenerator = new LoadGenerator(loadTestFixture, operationWeights, rate, threadCount, queryPartitionCount);
+
+            if (warmupSeconds > 0)
+            {
+                LOGGER.info(String.format("Running the warm-up load. warmupSecs=%d", warmupSeconds));
+                loadGenerator.run(warmupSeconds);
+            }
+
+            LOGGER.info(String.format("Running the measured load. durationSecs=%d rate=%d threads=%d mix=\"%s\"", durationSeconds, rate, threadCount,
+                operationWeights));
+            Date startTime = new Date();
+            HeapSampler heapSampler = new HeapSampler();
+            heapSampler.start(HEAP_SAMPLING_INTERVAL_MILLIS);
+            long startNanos = System.nanoTime();
+            Map<LoadTestOperation, OperationStatistics> statistics = loadGenerator.run(durationSeconds);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            LoadTestReport.HeapReport heapReport = heapSampler.stop();
+
+            LoadTestReport loadTestReport = new LoadTestReport();
+            loadTestReport.setStartTime(DateFormatUtils.ISO_DATETIME_TIME_ZONE_FORMAT.format(startTime));
+            loadTestReport.setTargetRequestsPerSecond(rate);
+            loadTestReport.setThreadCount(threadCount);
+            loadTestReport.setDurationSeconds(durationSeconds);
+            loadTestReport.setPartitionCount(partitionCount);
+            loadTestReport.setQueryPartitionCount(queryPartitionCount);
+            List<LoadTestReport.OperationReport> operationReports = new ArrayList<>();
+            for (OperationStatistics operationStatistics : statistics.values())
+            {
+                LoadTestReport.OperationReport operationReport = operationStatistics.createReport(elapsedNanos);
+                operationReports.add(operationReport);
+                loadTestReport.setRequestCount(loadTestReport.getRequestCount() + operationReport.getRequestCount());
+                loadTestReport.setErrorCount(loadTestReport.getErrorCount() + operationReport.getErrorCount());
+                loadTestReport.setThroughputPerSecond(loadTestReport.getThroughputPerSecond() + operationReport.getThroughputPerSecond());
+
+                LOGGER.info(String.format("operation=\"%s\" requests=%d errors=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms queriesPerRequest=%.1f",
+                    operationReport.getOperation(), operationReport.getRequestCount(), operationReport.getErrorCount(),
+                    operationReport.getThroughputPerSecond(), operationReport.getLatencyP50Millis(), operationReport.getLatencyP99Millis(),
+                    operationReport.getLatencyMaxMillis(), operationReport.getQueriesPerRequestMean()));
+            }
+            loadTestReport.setOperations(operationReports);
+            loadTestReport.setHeap(heapReport);
+
+            writeReport(loadTestReport, resultFile);
+            LOGGER.info(String.format("Load test report written to \"%s\".", resultFile.getAbsolutePath()));
+        }
+        finally
+        {
+            loadTestFixture.stop();
+        }
+    }
+
+    /**
+     * Parses the operation mix, i.e. a comma separated list of "operation=weight" pairs.
+     *
+     * @param operationMix the operation mix
+     *
+     * @return the weights per operation
+     * @throws ParseException if the operation mix is not valid
+     */
+    private Map<LoadTestOperation, Integer> parseOperationMix(String operationMix) throws ParseException
+    {
+        Map<LoadTestOperation, Integer> operationWeights = new EnumMap<>(LoadTestOperation.class);
+        for (String entry : StringUtils.split(operationMix, ','))
+        {
+            String[] nameAndWeight = StringUtils.split(entry, '=');
+            try
+            {
+                if (nameAndWeight.length != 2)
+                {
+                    throw new IllegalArgumentException(String.format("Operation mix entry \"%s\" is not in \"operation=weight\" format.", entry));
+                }
+                int weight = Integer.parseInt(nameAndWeight[1].trim());
+                if (weight < 0)
+                {
+                    throw new IllegalArgumentException(String.format("Operation weight must not be negative: \"%s\".", entry));
+                }
+                operationWeights.put(LoadTestOperation.fromName(nameAndWeight[0].trim()), weight);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new ParseException(e.getMessage());
+            }
+        }
+        return operationWeights;
+    }
+
+    /**
+     * Writes the report as indented JSON.
+     *
+     * @param loadTestReport the report
+     * @param resultFile the file to write the report to
+     *
+     * @throws IOException if the report could not be written
+     */
+    private void writeReport(LoadTestReport loadTestReport, File resultFile) throws IOException
+    {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(resultFile, loadTestReport);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Sends a weighted mix of requests to the web application at a target rate. The requests are scheduled at fixed intervals independently of how long the
+ * previous requests take, i.e. the load is open loop, and are executed by a fixed pool of threads. When the application can't keep up, the requests queue up
+ * and their waiting time is included in the measured latency.
+ */
+public class LoadGenerator
+{
+    private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class);
+
+    private final LoadTestFixture loadTestFixture;
+
+    private final LoadTestOperation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final double targetRequestsPerSecond;
+
+    private final int threadCount;
+
+    private final int queryPartitionCount;
+
+    /**
+     * Constructs the load generator.
+     *
+     * @param loadTestFixture the load test fixture
+     * @param operationWeights the relative weights of the operations in the mix
+     * @param targetRequestsPerSecond the target rate of all the requests
+     * @param threadCount the number of threads executing the requests
+     * @param queryPartitionCount the number of partitions selected by the availability and DDL requests
+     */
+    public LoadGenerator(LoadTestFixture loadTestFixture, Map<LoadTestOperation, Integer> operationWeights, double targetRequestsPerSecond, int threadCount,
+        int queryPartitionCount)
+    {
+        this.loadTestFixture = loadTestFixture;
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+        this.threadCount = threadCount;
+        this.queryPartitionCount = queryPartitionCount;
+
+        List<LoadTestOperation> weightedOperations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (Map.Entry<LoadTestOperation, Integer> entry : operationWeights.entrySet())
+        {
+            if (entry.getValue() > 0)
+            {
+                weightedOperations.add(entry.getKey());
+                weights.add(entry.getValue());
+            }
+        }
+        if (weightedOperations.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one load test operation must have a positive weight.");
+        }
+
+        operations = weightedOperations.toArray(new LoadTestOperation[weightedOperations.size()]);
+        cumulativeWeights = new int[operations.length];
+        int cumulativeWeight = 0;
+        for (int i = 0; i < operations.length; i++)
+        {
+            cumulativeWeight += weights.get(i);
+            cumulativeWeights[i] = cumulativeWeight;
+        }
+    }
+
+    /**
+     * Sends requests for the specified duration and waits for all of them to complete.
+     *
+     * @param durationSeconds the duration in seconds
+     *
+     * @return the statistics of the requests per operation
+     * @throws InterruptedException if the current thread was interrupted while waiting for the requests to complete
+     */
+    public Map<LoadTestOperation, OperationStatistics> run(int durationSeconds) throws InterruptedException
+    {
+        Map<LoadTestOperation, OperationStatistics> statistics = new EnumMap<>(LoadTestOperation.class);
+        for (LoadTestOperation operation : operations)
+        {
+            statistics.put(operation, new OperationStatistics(operation));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        Random random = new Random();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / targetRequestsPerSecond);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try
+        {
+            for (long scheduledNanos = startNanos; scheduledNanos < endNanos; scheduledNanos += intervalNanos)
+            {
+                long delayNanos = scheduledNanos - System.nanoTime();
+                if (delayNanos > 0)
+                {
+                    LockSupport.parkNanos(delayNanos);
+                }
+
+                final LoadTestOperation operation = selectOperation(random);
+                final long requestScheduledNanos = scheduledNanos;
+                final OperationStatistics operationStatistics = statistics.get(operation);
+                executorService.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        execute(operation, requestScheduledNanos, operationStatistics);
+                    }
+                });
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        // Let the queued requests complete, so they are all accounted for.
+        while (!executorService.awaitTermination(1, TimeUnit.MINUTES))
+        {
+            LOGGER.info("Waiting for the queued load test requests to complete...");
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Executes a request and records its latency and number of database queries.
+     *
+     * @param operation the operation
+     * @param scheduledNanos the time the request was scheduled to be sent
+     * @param operationStatistics the statistics of the operation
+     */
+    private void execute(LoadTestOperation operation, long scheduledNanos, OperationStatistics operationStatistics)
+    {
+        StatementCountingBeanPostProcessor.resetStatementExecutionCount();
+
+        boolean succeeded;
+        try
+        {
+            MvcResult mvcResult = loadTestFixture.getMockMvc().perform(loadTestFixture.createRequest(operation, queryPartitionCount)).andReturn();
+            succeeded = mvcResult.getResponse().getStatus() < 400;
+            if (!succeeded)
+            {
+                LOGGER.debug(String.format("Load test request failed. operation=\"%s\" status=%d response=\"%s\"", operation.getName(),
+                    mvcResult.getResponse().getStatus(), mvcResult.getResponse().getContentAsString()));
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.warn(String.format("Load test request failed. operation=\"%s\"", operation.getName()), e);
+            succeeded = false;
+        }
+
+        operationStatistics.record(System.nanoTime() - scheduledNanos, StatementCountingBeanPostProcessor.getStatementExecutionCount(), succeeded);
+    }
+
+    /**
+     * Selects an operation at random according to the operation weights.
+     *
+     * @param random the random number generator
+     *
+     * @return the operation
+     */
+    private LoadTestOperation selectOperation(Random random)
+    {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+        {
+            if (value < cumulativeWeights[i])
+            {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
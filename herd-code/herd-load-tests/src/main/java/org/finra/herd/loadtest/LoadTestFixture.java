@@ -0,0 +1,244 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.bind.JAXBException;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import org.finra.herd.app.AbstractAppTest;
+import org.finra.herd.core.ApplicationContextHolder;
+import org.finra.herd.dao.config.DaoSpringModuleConfig;
+import org.finra.herd.model.api.xml.Attribute;
+import org.finra.herd.model.api.xml.BusinessObjectDataAvailabilityRequest;
+import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
+import org.finra.herd.model.jpa.FileTypeEntity;
+import org.finra.herd.model.jpa.StoragePlatformEntity;
+import org.finra.herd.service.BusinessObjectDataSeeder;
+import org.finra.herd.ui.constants.UiConstants;
+
+/**
+ * The fixture of the load test. It starts the complete web application context with the same configuration as the web application unit tests, i.e. an
+ * embedded database with mock AWS operations, and sends the requests through the security filters and the Spring MVC dispatcher servlet. The database is
+ * seeded with the business object data seeder shared with the benchmarks, and the entity helpers of the unit tests are reused to build the request
+ * payloads. Unlike the unit tests, the seeded data is committed, so it is visible to all the load test threads.
+ */
+public class LoadTestFixture extends AbstractAppTest
+{
+    /**
+     * The name of the S3 storage that has an upload role configured, so upload credentials can be requested for it.
+     */
+    private static final String UPLOAD_STORAGE_NAME = "LOAD_TEST_UPLOAD_STORAGE";
+
+    private final AnnotationConfigWebApplicationContext applicationContext;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MockMvc mockMvc;
+
+    private final BusinessObjectDataSeeder businessObjectDataSeeder;
+
+    /**
+     * The sequence used to generate unique partition values for the registered business object data.
+     */
+    private final AtomicLong registrationSequence = new AtomicLong();
+
+    private List<String> partitionValues = Collections.emptyList();
+
+    private LoadTestFixture(AnnotationConfigWebApplicationContext applicationContext)
+    {
+        this.applicationContext = applicationContext;
+        transactionTemplate = new TransactionTemplate(
+            applicationContext.getBean(DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME, PlatformTransactionManager.class));
+
+        // Add the same security filter chain the web application initializer maps to all URLs.
+        mockMvc = MockMvcBuilders.webAppContextSetup(applicationContext).addFilters(applicationContext.getBean(FilterChainProxy.class)).build();
+
+        businessObjectDataSeeder = new BusinessObjectDataSeeder();
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(businessObjectDataSeeder);
+    }
+
+    /**
+     * Starts the web application context and creates a fixture wired to it. Security is disabled, so every request is executed as the trusted user that is
+     * granted all the security functions.
+     *
+     * @return the fixture
+     */
+    public static LoadTestFixture start()
+    {
+        // Set the application context in the context holder before it is refreshed, so the static @Bean methods have access to it, the same way the
+        // context loader of the unit tests does.
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        ApplicationContextHolder.setApplicationContext(applicationContext);
+        applicationContext.setServletContext(new MockServletContext());
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("loadTestOverrides",
+            Collections.singletonMap(ConfigurationValue.SECURITY_ENABLED_SPEL_EXPRESSION.getKey(), (Object) "false")));
+        applicationContext.register(LoadTestSpringModuleConfig.class);
+        applicationContext.refresh();
+
+        LoadTestFixture loadTestFixture = new LoadTestFixture(applicationContext);
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(loadTestFixture);
+        return loadTestFixture;
+    }
+
+    /**
+     * Stops the web application context, which also drops the embedded database.
+     */
+    public void stop()
+    {
+        applicationContext.close();
+    }
+
+    /**
+     * Gets the mock MVC that sends the requests to the web application.
+     *
+     * @return the mock MVC
+     */
+    public MockMvc getMockMvc()
+    {
+        return mockMvc;
+    }
+
+    /**
+     * Creates and commits a business object format with a schema, the specified number of business object data instances registered in S3 storage, an S3
+     * storage to request upload credentials for and a job definition.
+     *
+     * @param partitionCount the number of business object data instances
+     */
+    public void seed(final int partitionCount)
+    {
+        transactionTemplate.execute(new TransactionCallback<Void>()
+        {
+            @Override
+            public Void doInTransaction(TransactionStatus status)
+            {
+                // Create the business object format, the storages and the business object data shared with the benchmarks.
+                businessObjectDataSeeder.seedBusinessObjectData(partitionCount);
+
+                // Create an S3 storage with an upload role.
+                createStorageEntity(UPLOAD_STORAGE_NAME, StoragePlatformEntity.S3, Arrays.asList(
+                    new Attribute(configurationHelper.getProperty(ConfigurationValue.S3_ATTRIBUTE_NAME_UPLOAD_ROLE_ARN), "testRole"),
+                    new Attribute(configurationHelper.getProperty(ConfigurationValue.S3_ATTRIBUTE_NAME_BUCKET_NAME), S3_BUCKET_NAME)));
+
+                // Create the job definition of a workflow with a single no-op service task.
+                try
+                {
+                    createJobDefinition(null);
+                }
+                catch (Exception e)
+                {
+                    throw new IllegalStateException("Unable to create the load test job definition.", e);
+                }
+
+                return null;
+            }
+        });
+
+        partitionValues = businessObjectDataSeeder.getPartitionValues(partitionCount);
+    }
+
+    /**
+     * Creates a request of the specified operation. The availability and DDL requests select a random window of consecutive seeded partitions, while the
+     * registration requests register new partitions.
+     *
+     * @param operation the operation
+     * @param queryPartitionCount the number of partitions selected by the availability and DDL requests
+     *
+     * @return the request builder
+     * @throws JAXBException if the request payload could not be marshalled
+     */
+    public MockHttpServletRequestBuilder createRequest(LoadTestOperation operation, int queryPartitionCount) throws JAXBException
+    {
+        switch (operation)
+        {
+            case REGISTRATION:
+                String partitionValue = String.format("load-test-%09d", registrationSequence.incrementAndGet());
+                List<StorageFile> storageFiles =
+                    Arrays.asList(new StorageFile(String.format("load-test/%s/data.dat", partitionValue), FILE_SIZE_1_KB, ROW_COUNT_1000, null));
+                return createXmlRequest("/businessObjectData",
+                    createBusinessObjectDataCreateRequest(NAMESPACE_CD, BOD_NAME, FORMAT_USAGE_CODE, FileTypeEntity.TXT_FILE_TYPE, FORMAT_VERSION,
+                        FIRST_PARTITION_COLUMN_NAME, partitionValue, BusinessObjectDataStatusEntity.VALID, STORAGE_NAME, NO_STORAGE_DIRECTORY_PATH,
+                        storageFiles));
+            case AVAILABILITY:
+                BusinessObjectDataAvailabilityRequest businessObjectDataAvailabilityRequest =
+                    getTestBusinessObjectDataAvailabilityRequest(selectPartitionValues(queryPartitionCount));
+                businessObjectDataAvailabilityRequest.setBusinessObjectFormatFileType(FileTypeEntity.TXT_FILE_TYPE);
+                return createXmlRequest("/businessObjectData/availability", businessObjectDataAvailabilityRequest);
+            case DDL:
+                return createXmlRequest("/businessObjectData/generateDdl", getTestBusinessObjectDataDdlRequest(selectPartitionValues(queryPartitionCount)));
+            case UPLOAD_CREDENTIAL:
+                return MockMvcRequestBuilders.get(UiConstants.REST_URL_BASE + "/businessObjectData/upload/credential/namespaces/{namespace}" +
+                    "/businessObjectDefinitionNames/{businessObjectDefinitionName}/businessObjectFormatUsages/{businessObjectFormatUsage}" +
+                    "/businessObjectFormatFileTypes/{businessObjectFormatFileType}/businessObjectFormatVersions/{businessObjectFormatVersion}" +
+                    "/partitionValues/{partitionValue}", NAMESPACE_CD, BOD_NAME, FORMAT_USAGE_CODE, FileTypeEntity.TXT_FILE_TYPE, FORMAT_VERSION,
+                    PARTITION_VALUE).param("createNewVersion", "true").param("storageName", UPLOAD_STORAGE_NAME).accept(MediaType.APPLICATION_XML);
+            case JOB_CREATION:
+                return createXmlRequest("/jobs", createJobCreateRequest(TEST_ACTIVITI_NAMESPACE_CD, TEST_ACTIVITI_JOB_NAME));
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported load test operation \"%s\".", operation.getName()));
+        }
+    }
+
+    /**
+     * Creates a POST request with the specified XML payload, the same way the herd tools call the REST API.
+     *
+     * @param path the path of the REST endpoint relative to the REST URL base
+     * @param payload the request payload
+     *
+     * @return the request builder
+     * @throws JAXBException if the request payload could not be marshalled
+     */
+    private MockHttpServletRequestBuilder createXmlRequest(String path, Object payload) throws JAXBException
+    {
+        return MockMvcRequestBuilders.post(UiConstants.REST_URL_BASE + path).contentType(MediaType.APPLICATION_XML).accept(MediaType.APPLICATION_XML)
+            .content(xmlHelper.objectToXml(payload));
+    }
+
+    /**
+     * Selects a random window of consecutive seeded partition values.
+     *
+     * @param count the number of partition values to select
+     *
+     * @return the list of partition values
+     */
+    private List<String> selectPartitionValues(int count)
+    {
+        int windowSize = Math.min(count, partitionValues.size());
+        int start = ThreadLocalRandom.current().nextInt(partitionValues.size() - windowSize + 1);
+        return new ArrayList<>(partitionValues.subList(start, start + windowSize));
+    }
+}
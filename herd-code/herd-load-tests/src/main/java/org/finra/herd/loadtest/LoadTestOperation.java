@@ -0,0 +1,85 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+/**
+ * The REST API operations driven by the load test.
+ */
+public enum LoadTestOperation
+{
+    /**
+     * Registers new business object data with a storage file.
+     */
+    REGISTRATION("registration"),
+
+    /**
+     * Checks the availability of a range of registered business object data.
+     */
+    AVAILABILITY("availability"),
+
+    /**
+     * Generates Hive DDL for a range of registered business object data.
+     */
+    DDL("ddl"),
+
+    /**
+     * Gets temporary AWS credentials to upload new business object data.
+     */
+    UPLOAD_CREDENTIAL("uploadCredential"),
+
+    /**
+     * Creates and starts a job.
+     */
+    JOB_CREATION("jobCreation");
+
+    private final String name;
+
+    private LoadTestOperation(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the operation as used in the operation mix option and in the load test report.
+     *
+     * @return the name of the operation
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the operation with the specified name.
+     *
+     * @param name the name of the operation, case-insensitive
+     *
+     * @return the operation
+     * @throws IllegalArgumentException if no operation has the specified name
+     */
+    public static LoadTestOperation fromName(String name) throws IllegalArgumentException
+    {
+        for (LoadTestOperation operation : values())
+        {
+            if (operation.name.equalsIgnoreCase(name))
+            {
+                return operation;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown load test operation \"%s\".", name));
+    }
+}
@@ -0,0 +1,398 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.util.List;
+
+/**
+ * The machine-readable report of a load test run, serialized as JSON so it can be compared across builds. The latencies are measured from the time each
+ * request was scheduled to be sent rather than the time it was actually sent, so the time requests spend waiting for a free load test thread when the
+ * application can't keep up with the target rate is included.
+ */
+public class LoadTestReport
+{
+    private String startTime;
+
+    private double targetRequestsPerSecond;
+
+    private int threadCount;
+
+    private int durationSeconds;
+
+    private int partitionCount;
+
+    private int queryPartitionCount;
+
+    private long requestCount;
+
+    private long errorCount;
+
+    private double throughputPerSecond;
+
+    private List<OperationReport> operations;
+
+    private HeapReport heap;
+
+    public String getStartTime()
+    {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime)
+    {
+        this.startTime = startTime;
+    }
+
+    public double getTargetRequestsPerSecond()
+    {
+        return targetRequestsPerSecond;
+    }
+
+    public void setTargetRequestsPerSecond(double targetRequestsPerSecond)
+    {
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+    }
+
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount)
+    {
+        this.threadCount = threadCount;
+    }
+
+    public int getDurationSeconds()
+    {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds)
+    {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount)
+    {
+        this.partitionCount = partitionCount;
+    }
+
+    public int getQueryPartitionCount()
+    {
+        return queryPartitionCount;
+    }
+
+    public void setQueryPartitionCount(int queryPartitionCount)
+    {
+        this.queryPartitionCount = queryPartitionCount;
+    }
+
+    public long getRequestCount()
+    {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount)
+    {
+        this.requestCount = requestCount;
+    }
+
+    public long getErrorCount()
+    {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount)
+    {
+        this.errorCount = errorCount;
+    }
+
+    public double getThroughputPerSecond()
+    {
+        return throughputPerSecond;
+    }
+
+    public void setThroughputPerSecond(double throughputPerSecond)
+    {
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public List<OperationReport> getOperations()
+    {
+        return operations;
+    }
+
+    public void setOperations(List<OperationReport> operations)
+    {
+        this.operations = operations;
+    }
+
+    public HeapReport getHeap()
+    {
+        return heap;
+    }
+
+    public void setHeap(HeapReport heap)
+    {
+        this.heap = heap;
+    }
+
+    /**
+     * The statistics of the requests of a single operation.
+     */
+    public static class OperationReport
+    {
+        private String operation;
+
+        private long requestCount;
+
+        private long errorCount;
+
+        private double throughputPerSecond;
+
+        private double latencyMeanMillis;
+
+        private double latencyP50Millis;
+
+        private double latencyP90Millis;
+
+        private double latencyP99Millis;
+
+        private double latencyP999Millis;
+
+        private double latencyMaxMillis;
+
+        private double queriesPerRequestMean;
+
+        private long queriesPerRequestMax;
+
+        public String getOperation()
+        {
+            return operation;
+        }
+
+        public void setOperation(String operation)
+        {
+            this.operation = operation;
+        }
+
+        public long getRequestCount()
+        {
+            return requestCount;
+        }
+
+        public void setRequestCount(long requestCount)
+        {
+            this.requestCount = requestCount;
+        }
+
+        public long getErrorCount()
+        {
+            return errorCount;
+        }
+
+        public void setErrorCount(long errorCount)
+        {
+            this.errorCount = errorCount;
+        }
+
+        public double getThroughputPerSecond()
+        {
+            return throughputPerSecond;
+        }
+
+        public void setThroughputPerSecond(double throughputPerSecond)
+        {
+            this.throughputPerSecond = throughputPerSecond;
+        }
+
+        public double getLatencyMeanMillis()
+        {
+            return latencyMeanMillis;
+        }
+
+        public void setLatencyMeanMillis(double latencyMeanMillis)
+        {
+            this.latencyMeanMillis = latencyMeanMillis;
+        }
+
+        public double getLatencyP50Millis()
+        {
+            return latencyP50Millis;
+        }
+
+        public void setLatencyP50Millis(double latencyP50Millis)
+        {
+            this.latencyP50Millis = latencyP50Millis;
+        }
+
+        public double getLatencyP90Millis()
+        {
+            return latencyP90Millis;
+        }
+
+        public void setLatencyP90Millis(double latencyP90Millis)
+        {
+            this.latencyP90Millis = latencyP90Millis;
+        }
+
+        public double getLatencyP99Millis()
+        {
+            return latencyP99Millis;
+        }
+
+        public void setLatencyP99Millis(double latencyP99Millis)
+        {
+            this.latencyP99Millis = latencyP99Millis;
+        }
+
+        public double getLatencyP999Millis()
+        {
+            return latencyP999Millis;
+        }
+
+        public void setLatencyP999Millis(double latencyP999Millis)
+        {
+            this.latencyP999Millis = latencyP999Millis;
+        }
+
+        public double getLatencyMaxMillis()
+        {
+            return latencyMaxMillis;
+        }
+
+        public void setLatencyMaxMillis(double latencyMaxMillis)
+        {
+            this.latencyMaxMillis = latencyMaxMillis;
+        }
+
+        public double getQueriesPerRequestMean()
+        {
+            return queriesPerRequestMean;
+        }
+
+        public void setQueriesPerRequestMean(double queriesPerRequestMean)
+        {
+            this.queriesPerRequestMean = queriesPerRequestMean;
+        }
+
+        public long getQueriesPerRequestMax()
+        {
+            return queriesPerRequestMax;
+        }
+
+        public void setQueriesPerRequestMax(long queriesPerRequestMax)
+        {
+            this.queriesPerRequestMax = queriesPerRequestMax;
+        }
+    }
+
+    /**
+     * The heap usage and the garbage collections during the measured run.
+     */
+    public static class HeapReport
+    {
+        private long startHeapUsedBytes;
+
+        private long endHeapUsedBytes;
+
+        private long maxHeapUsedBytes;
+
+        private long meanHeapUsedBytes;
+
+        private long heapMaxBytes;
+
+        private long gcCount;
+
+        private long gcTimeMillis;
+
+        public long getStartHeapUsedBytes()
+        {
+            return startHeapUsedBytes;
+        }
+
+        public void setStartHeapUsedBytes(long startHeapUsedBytes)
+        {
+            this.startHeapUsedBytes = startHeapUsedBytes;
+        }
+
+        public long getEndHeapUsedBytes()
+        {
+            return endHeapUsedBytes;
+        }
+
+        public void setEndHeapUsedBytes(long endHeapUsedBytes)
+        {
+            this.endHeapUsedBytes = endHeapUsedBytes;
+        }
+
+        public long getMaxHeapUsedBytes()
+        {
+            return maxHeapUsedBytes;
+        }
+
+        public void setMaxHeapUsedBytes(long maxHeapUsedBytes)
+        {
+            this.maxHeapUsedBytes = maxHeapUsedBytes;
+        }
+
+        public long getMeanHeapUsedBytes()
+        {
+            return meanHeapUsedBytes;
+        }
+
+        public void setMeanHeapUsedBytes(long meanHeapUsedBytes)
+        {
+            this.meanHeapUsedBytes = meanHeapUsedBytes;
+        }
+
+        public long getHeapMaxBytes()
+        {
+            return heapMaxBytes;
+        }
+
+        public void setHeapMaxBytes(long heapMaxBytes)
+        {
+            this.heapMaxBytes = heapMaxBytes;
+        }
+
+        public long getGcCount()
+        {
+            return gcCount;
+        }
+
+        public void setGcCount(long gcCount)
+        {
+            this.gcCount = gcCount;
+        }
+
+        public long getGcTimeMillis()
+        {
+            return gcTimeMillis;
+        }
+
+        public void setGcTimeMillis(long gcTimeMillis)
+        {
+            this.gcTimeMillis = gcTimeMillis;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import org.finra.herd.app.config.AppTestSpringModuleConfig;
+import org.finra.herd.dao.config.DaoSpringModuleConfig;
+
+/**
+ * The load test configuration. It imports the same configuration as the web application unit tests, i.e. an embedded database with mock AWS operations, and
+ * counts the database queries of every request.
+ */
+@Configuration
+@Import(AppTestSpringModuleConfig.class)
+public class LoadTestSpringModuleConfig
+{
+    /**
+     * Gets the bean post processor that counts the JDBC statements executed through the herd data source. The method is static, so the bean post processor
+     * is registered before the data source is created.
+     *
+     * @return the statement counting bean post processor
+     */
+    @Bean
+    public static StatementCountingBeanPostProcessor statementCountingBeanPostProcessor()
+    {
+        return new StatementCountingBeanPostProcessor(DaoSpringModuleConfig.HERD_DATA_SOURCE_BEAN_NAME);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics of a load test operation. The latency and the number of database queries of every request are kept, so exact percentiles can be computed at
+ * the end of the load test. The statistics are thread safe.
+ */
+public class OperationStatistics
+{
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LoadTestOperation operation;
+
+    private long[] latenciesNanos = new long[INITIAL_CAPACITY];
+
+    private long[] statementCounts = new long[INITIAL_CAPACITY];
+
+    private int count;
+
+    private long errorCount;
+
+    /**
+     * Constructs the statistics of the specified operation.
+     *
+     * @param operation the operation
+     */
+    public OperationStatistics(LoadTestOperation operation)
+    {
+        this.operation = operation;
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param latencyNanos the latency of the request in nanoseconds, measured from the time the request was scheduled to be sent
+     * @param statementCount the number of database queries of the request
+     * @param succeeded specifies whether the request succeeded
+     */
+    public synchronized void record(long latencyNanos, long statementCount, boolean succeeded)
+    {
+        if (count == latenciesNanos.length)
+        {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+            statementCounts = Arrays.copyOf(statementCounts, count * 2);
+        }
+
+        latenciesNanos[count] = latencyNanos;
+        statementCounts[count] = statementCount;
+        count++;
+
+        if (!succeeded)
+        {
+            errorCount++;
+        }
+    }
+
+    /**
+     * Summarizes the recorded requests.
+     *
+     * @param elapsedNanos the time the requests were sent over in nanoseconds, used to compute the throughput
+     *
+     * @return the operation report
+     */
+    public synchronized LoadTestReport.OperationReport createReport(long elapsedNanos)
+    {
+        LoadTestReport.OperationReport operationReport = new LoadTestReport.OperationReport();
+        operationReport.setOperation(operation.getName());
+        operationReport.setRequestCount(count);
+        operationReport.setErrorCount(errorCount);
+        operationReport.setThroughputPerSecond(count / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+
+        if (count > 0)
+        {
+            long[] sortedLatenciesNanos = Arrays.copyOf(latenciesNanos, count);
+            Arrays.sort(sortedLatenciesNanos);
+            operationReport.setLatencyMeanMillis(toMillis(Arrays.stream(sortedLatenciesNanos).average().getAsDouble()));
+            operationReport.setLatencyP50Millis(toMillis(getPercentile(sortedLatenciesNanos, 50)));
+            operationReport.setLatencyP90Millis(toMillis(getPercentile(sortedLatenciesNanos, 90)));
+            operationReport.setLatencyP99Millis(toMillis(getPercentile(sortedLatenciesNanos, 99)));
+            operationReport.setLatencyP999Millis(toMillis(getPercentile(sortedLatenciesNanos, 99.9)));
+            operationReport.setLatencyMaxMillis(toMillis(sortedLatenciesNanos[count - 1]));
+
+            long[] requestStatementCounts = Arrays.copyOf(statementCounts, count);
+            operationReport.setQueriesPerRequestMean(Arrays.stream(requestStatementCounts).average().getAsDouble());
+            operationReport.setQueriesPerRequestMax(Arrays.stream(requestStatementCounts).max().getAsLong());
+        }
+
+        return operationReport;
+    }
+
+    /**
+     * Gets the nearest-rank percentile of the sorted values.
+     *
+     * @param sortedValues the values in ascending order, must not be empty
+     * @param percentile the percentile between 0 and 100
+     *
+     * @return the value at the percentile
+     */
+    private static long getPercentile(long[] sortedValues, double percentile)
+    {
+        int rank = (int) Math.ceil(percentile / 100 * sortedValues.length);
+        return sortedValues[Math.max(rank, 1) - 1];
+    }
+
+    private static double toMillis(double nanos)
+    {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
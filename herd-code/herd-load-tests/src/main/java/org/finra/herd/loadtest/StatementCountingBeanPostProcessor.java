@@ -0,0 +1,194 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A bean post processor that wraps the specified data source, so the JDBC statements executed through its connections are counted per thread. A prepared
+ * statement that is executed several times is counted once per execution, and a batch is counted as a single execution, since it is sent to the database in
+ * a single round trip. Since the load test executes every request on a single thread, the count of the thread taken before and after a request is the
+ * number of database queries of the request.
+ */
+public class StatementCountingBeanPostProcessor implements BeanPostProcessor
+{
+    /**
+     * The names of the connection methods that create a JDBC statement.
+     */
+    private static final Set<String> STATEMENT_METHOD_NAMES = new HashSet<>(Arrays.asList("createStatement", "prepareStatement", "prepareCall"));
+
+    /**
+     * The names of the statement methods that execute a JDBC statement.
+     */
+    private static final Set<String> EXECUTE_METHOD_NAMES =
+        new HashSet<>(Arrays.asList("execute", "executeQuery", "executeUpdate", "executeBatch", "executeLargeUpdate", "executeLargeBatch"));
+
+    private static final ThreadLocal<AtomicLong> STATEMENT_EXECUTION_COUNT = new ThreadLocal<AtomicLong>()
+    {
+        @Override
+        protected AtomicLong initialValue()
+        {
+            return new AtomicLong();
+        }
+    };
+
+    private final String dataSourceBeanName;
+
+    /**
+     * Constructs the bean post processor.
+     *
+     * @param dataSourceBeanName the name of the data source bean to wrap
+     */
+    public StatementCountingBeanPostProcessor(String dataSourceBeanName)
+    {
+        this.dataSourceBeanName = dataSourceBeanName;
+    }
+
+    /**
+     * Resets the number of statements executed by the current thread.
+     */
+    public static void resetStatementExecutionCount()
+    {
+        STATEMENT_EXECUTION_COUNT.get().set(0);
+    }
+
+    /**
+     * Gets the number of statements executed by the current thread since the count was last reset.
+     *
+     * @return the number of statement executions
+     */
+    public static long getStatementExecutionCount()
+    {
+        return STATEMENT_EXECUTION_COUNT.get().get();
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException
+    {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException
+    {
+        if (dataSourceBeanName.equals(beanName) && bean instanceof DataSource)
+        {
+            return createDataSourceProxy((DataSource) bean);
+        }
+
+        return bean;
+    }
+
+    /**
+     * Creates a proxy of the data source that returns the proxies of its connections.
+     *
+     * @param dataSource the data source
+     *
+     * @return the data source proxy
+     */
+    private DataSource createDataSourceProxy(final DataSource dataSource)
+    {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class}, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                Object result = invokeTarget(dataSource, method, args);
+                return result instanceof Connection ? createConnectionProxy((Connection) result) : result;
+            }
+        });
+    }
+
+    /**
+     * Creates a proxy of the connection that returns the counting proxies of the statements created through it.
+     *
+     * @param connection the connection
+     *
+     * @return the connection proxy
+     */
+    private Connection createConnectionProxy(final Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                Object result = invokeTarget(connection, method, args);
+                return STATEMENT_METHOD_NAMES.contains(method.getName()) ? createStatementProxy((Statement) result, method.getReturnType()) : result;
+            }
+        });
+    }
+
+    /**
+     * Creates a proxy of the statement that counts its executions.
+     *
+     * @param statement the statement
+     * @param statementInterface the statement interface the proxy implements, i.e. the statement, prepared statement or callable statement interface
+     *
+     * @return the statement proxy
+     */
+    private Statement createStatementProxy(final Statement statement, Class<?> statementInterface)
+    {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {statementInterface}, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if (EXECUTE_METHOD_NAMES.contains(method.getName()))
+                {
+                    STATEMENT_EXECUTION_COUNT.get().incrementAndGet();
+                }
+                return invokeTarget(statement, method, args);
+            }
+        });
+    }
+
+    /**
+     * Invokes the method on the target, rethrowing the exception thrown by the method itself rather than the reflection wrapper.
+     *
+     * @param target the target object
+     * @param method the method
+     * @param args the method arguments
+     *
+     * @return the result of the method
+     * @throws Throwable if the method threw an exception
+     */
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getTargetException();
+        }
+    }
+}
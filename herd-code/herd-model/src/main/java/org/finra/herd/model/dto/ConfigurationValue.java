@@ -40,6 +40,12 @@ public enum ConfigurationValue
      */
     SHOW_SQL("hibernate.show_sql", "false"),
 
+    /**
+     * The maximum number of statements Hibernate sends to the database in a single JDBC batch. This applies to every flush of the application, so it is opt-in.
+     * The bulk expected partition value inserts and deletes are flushed together and benefit the most from it. The default is 0, which disables JDBC batching.
+     */
+    HIBERNATE_JDBC_BATCH_SIZE("hibernate.jdbc.batch_size", "0"),
+
     /**
      * The optional herd data source JNDI name. The default is herdDB.
      */
@@ -172,6 +178,12 @@ public enum ConfigurationValue
      */
     JMS_PUBLISHING_JOB_CRON_EXPRESSION("jms.publishing.job.cron.expression", "0 0/5 * * * ?"),
 
+    /**
+     * The maximum number of database queued JMS messages that "jmsPublishing" system job reads and publishes at once. Consecutive messages for the same AWS SQS
+     * queue are sent in batch requests of up to 10 messages each. The default is 100.
+     */
+    JMS_PUBLISHING_JOB_MAX_MESSAGES_PER_BATCH("jms.publishing.job.max.messages.per.batch", 100),
+
     /**
      * The cron expression to schedule "storagePolicySelector" system job.  Default is to run the system job every night at 2 AM.
      */
@@ -258,6 +270,50 @@ public enum ConfigurationValue
      */
     EMR_OOZIE_URL_TEMPLATE("emr.oozie.url.template", "http://%s:11000/oozie/"),
 
+    /**
+     * The time in seconds the polled EMR cluster state (the cluster status, its steps and its master instance) is reused for before AWS is called again. All
+     * the workflows polling the same cluster within this time share a single AWS call. A value of 0 disables the reuse. The default is 15 seconds.
+     */
+    EMR_CLUSTER_STATE_CACHE_TIME_TO_LIVE_SECS("emr.cluster.state.cache.time.to.live.secs", 15),
+
+    /**
+     * The time in seconds the subnets (including their available IP address counts) and their availability zones looked up to find the best EMR cluster price
+     * are reused for before EC2 is called again. A value of 0 disables the reuse. The default is 15 seconds.
+     */
+    EMR_PRICING_SUBNET_CACHE_TIME_TO_LIVE_SECS("emr.pricing.subnet.cache.time.to.live.secs", 15),
+
+    /**
+     * The time in seconds the spot and on-demand prices looked up to find the best EMR cluster price are reused for before they are looked up again. A value of
+     * 0 disables the reuse. The default is 60 seconds.
+     */
+    EMR_PRICING_PRICE_CACHE_TIME_TO_LIVE_SECS("emr.pricing.price.cache.time.to.live.secs", 60),
+
+    /**
+     * The number of threads shared by all the concurrent spot price lookups of the availability zones when finding the best EMR cluster price. A value of 1
+     * looks them up one after another. It is read once, when the first concurrent lookup starts. The default is 10.
+     */
+    EMR_PRICING_MAX_THREADS("emr.pricing.max.threads", 10),
+
+    /**
+     * The time in seconds an in-memory index of the expected partition values of a partition key group is used for offset lookups before it is reloaded.
+     * Changes made on this node drop the index immediately, so this only bounds how long changes made on other nodes can go unnoticed. The default is 0,
+     * which disables the index.
+     */
+    EXPECTED_PARTITION_VALUES_INDEX_TIME_TO_LIVE_SECS("expected.partition.values.index.time.to.live.secs", 0),
+
+    /**
+     * The time in seconds the minimum and maximum partition values looked up for a business object format are kept in the in-memory partition value bounds
+     * index. Registering, changing the status of or deleting business object data on this node drops the bounds of its format immediately, so this only
+     * bounds how long changes made on other nodes can go unnoticed. The default is 0, which disables the index.
+     */
+    BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_TIME_TO_LIVE_SECS("business.object.data.partition.value.bounds.time.to.live.secs", 0),
+
+    /**
+     * The maximum number of business object formats kept in the in-memory partition value bounds index, and the maximum number of bounds kept per format.
+     * When the index holds the maximum number of formats, the bounds of the format that was loaded first are evicted. The default is 10000.
+     */
+    BUSINESS_OBJECT_DATA_PARTITION_VALUE_BOUNDS_MAX_ENTRIES("business.object.data.partition.value.bounds.max.entries", 10000),
+
     /**
      * The number of oozie jobs to return with EMR cluster status.
      */
@@ -358,6 +414,27 @@ public enum ConfigurationValue
      */
     AWS_STS_RETRY_ON_ERROR_CODES("aws.sts.retry.on.error.codes", null),
 
+    /**
+     * Specifies whether temporary security credentials vended by STS for read-only credential requests are cached and reused. The default is true.
+     */
+    AWS_STS_CREDENTIALS_CACHE_ENABLED("aws.sts.credentials.cache.enabled", true),
+
+    /**
+     * The number of seconds before expiration at which cached STS credentials are no longer handed out and are refreshed instead. The default is 600 seconds.
+     */
+    AWS_STS_CREDENTIALS_CACHE_EXPIRATION_SAFETY_MARGIN_SECS("aws.sts.credentials.cache.expiration.safety.margin.secs", 600),
+
+    /**
+     * The maximum number of STS credentials kept in the credentials cache. The default is 1000.
+     */
+    AWS_STS_CREDENTIALS_CACHE_MAX_ENTRIES("aws.sts.credentials.cache.max.entries", 1000),
+
+    /**
+     * The number of seconds a value decrypted by KMS is cached and reused for the same cipher text. A value of 0 disables the cache. The default is 300
+     * seconds.
+     */
+    KMS_DECRYPTED_VALUE_CACHE_TIME_TO_LIVE_SECS("kms.decrypted.value.cache.time.to.live.secs", 300),
+
     /**
      * The error codes in AmazonServiceException that we re-try on for SQS operations.
      */
@@ -373,6 +450,56 @@ public enum ConfigurationValue
      */
     AWS_S3_DEFAULT_DOWNLOAD_SESSION_DURATION_SECS("aws.s3.default.download.session.duration.secs", 3600),
 
+    /**
+     * Specifies whether the "sub-directories" right under an S3 key prefix are listed concurrently. It costs one extra list request per sub-directory, so it
+     * only pays off when the sub-directories hold many S3 objects each. The default is false, i.e. all the S3 objects are listed one page after another.
+     */
+    AWS_S3_LISTING_CONCURRENT_ENABLED("aws.s3.listing.concurrent.enabled", false),
+
+    /**
+     * The number of threads shared by all the concurrent listings of S3 key prefix "sub-directories". It is read once, when the first concurrent listing
+     * starts. The default is 10.
+     */
+    AWS_S3_LISTING_MAX_THREADS("aws.s3.listing.max.threads", 10),
+
+    /**
+     * The maximum number of S3 multi-object delete requests sent concurrently when deleting a list of S3 objects or an S3 directory. The default is 10.
+     */
+    AWS_S3_DELETE_MAX_THREADS("aws.s3.delete.max.threads", 10),
+
+    /**
+     * The maximum number of attempts to delete the S3 objects of a multi-object delete request. Only the S3 objects that failed to get deleted are retried.
+     * The default is 3.
+     */
+    AWS_S3_DELETE_MAX_ATTEMPTS("aws.s3.delete.max.attempts", 3),
+
+    /**
+     * The maximum number of threads used by an S3 file transfer when the transfer request does not specify one. The default is 10.
+     */
+    AWS_S3_TRANSFER_MAX_THREADS("aws.s3.transfer.max.threads", 10),
+
+    /**
+     * Specifies whether the number of threads used by an S3 file transfer is adjusted while the transfer is in progress, based on its throughput and the
+     * number of its retried and failed S3 requests. When disabled, the transfer uses its maximum number of threads. The default is false.
+     */
+    AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_ENABLED("aws.s3.transfer.adaptive.concurrency.enabled", false),
+
+    /**
+     * The number of threads an S3 file transfer starts with when the adaptive concurrency is enabled, capped at the maximum number of threads of the transfer.
+     * It is not used when the transfer request specifies its maximum number of threads, which the transfer then starts with. The default is 10.
+     */
+    AWS_S3_TRANSFER_INITIAL_THREADS("aws.s3.transfer.initial.threads", 10),
+
+    /**
+     * The minimum number of threads the adaptive concurrency lowers an S3 file transfer to. The default is 3.
+     */
+    AWS_S3_TRANSFER_MIN_THREADS("aws.s3.transfer.min.threads", 3),
+
+    /**
+     * The number of seconds between the adjustments of the number of threads of an S3 file transfer by the adaptive concurrency. The default is 5.
+     */
+    AWS_S3_TRANSFER_ADAPTIVE_CONCURRENCY_INTERVAL_SECS("aws.s3.transfer.adaptive.concurrency.interval.secs", 5),
+
     /**
      * The optional maximum number of expected partition values allowed for availability and DDL generation. If not specified, any number of partition values is
      * allowed.
@@ -417,10 +544,37 @@ public enum ConfigurationValue
 
     /**
      * JMS listener concurrency limits for the storage policy processor JMS message listener service via a "lower-upper" String, e.g. "5-10". Refer to
-     * DefaultMessageListenerContainer#setConcurrency for details. Default is "1-1".
+     * DefaultMessageListenerContainer#setConcurrency for details. Each listener thread runs one transition at a time, so the upper limit caps the number of
+     * transitions the storage policy processor scheduling limits below can pick from and run in parallel. A message is acknowledged once its transition is
+     * done, has failed, or has given up waiting to be scheduled. Default is "1-1".
      */
     STORAGE_POLICY_PROCESSOR_JMS_LISTENER_POOL_CONCURRENCY_LIMITS("storage.policy.processor.jms.listener.pool.concurrency.limits", "1-1"),
 
+    /**
+     * The maximum number of storage policy transitions executed at the same time per source storage by this node. A value of 0 means no limit. The default is
+     * 2.
+     */
+    STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_SOURCE_STORAGE("storage.policy.processor.max.transitions.per.source.storage", 2),
+
+    /**
+     * The maximum number of storage policy transitions executed at the same time per destination storage by this node. A value of 0 means no limit. The
+     * default is 2.
+     */
+    STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_DESTINATION_STORAGE("storage.policy.processor.max.transitions.per.destination.storage", 2),
+
+    /**
+     * The maximum local temporary directory space in GB (gigabytes) used by the storage policy transitions executed at the same time by this node. Each
+     * transition needs twice the size of its storage files, for the downloaded files and their TAR archive. A value of 0 means no limit. The default is 50 GB.
+     */
+    STORAGE_POLICY_PROCESSOR_TEMP_DIR_BUDGET_GB("storage.policy.processor.temporary.directory.budget.gigabytes", 50),
+
+    /**
+     * The time in seconds after which a waiting storage policy transition is started ahead of the smaller transitions that would otherwise go first. A
+     * transition that still has not started after twice this time is cancelled and its destination storage unit status goes back to DISABLED, so the storage
+     * policy selector can select the business object data again. The default is 900 seconds.
+     */
+    STORAGE_POLICY_PROCESSOR_MAX_WAIT_TIME_SECS("storage.policy.processor.max.wait.time.seconds", 900),
+
     /**
      * The maximum size in GB (gigabytes) of a business object data instance allowed to be processed (transitioned) by the storage policy processor.  The
      * default is 10 GB.
@@ -458,6 +612,11 @@ public enum ConfigurationValue
      */
     NOT_ALLOWED_HERD_ENDPOINTS("not.allowed.herd.endpoints", null),
 
+    /**
+     * The interval in seconds at which the in-memory list of not allowed herd endpoints is reloaded from the database. The default is 60 seconds.
+     */
+    NOT_ALLOWED_HERD_ENDPOINTS_REFRESH_INTERVAL_SECS("not.allowed.herd.endpoints.refresh.interval.secs", 60),
+
     /**
      * The JAXB XML headers to use when outputting XML from the REST tier. When this isn't set, we use a default of:
      * <p/>
@@ -471,6 +630,12 @@ public enum ConfigurationValue
      */
     JAXB_XML_HEADERS("com.sun.xml.bind.xmlHeaders", "<?xml version=\"1.1\" encoding=\"UTF-8\" standalone=\"yes\"?>"),
 
+    /**
+     * Indicates whether the XML REST responses are validated against the XSD as they are marshalled. The XML REST requests are always validated. Validating
+     * the responses is expensive for large responses, so it can be disabled once a deployment has confirmed that its responses conform to the XSD.
+     */
+    JAXB_RESPONSE_SCHEMA_VALIDATION_ENABLED("jaxb.response.schema.validation.enabled", true),
+
     /**
      * Indicates whether security is enabled. If not enabled, application will create a trusted user.
      */
@@ -545,6 +710,12 @@ public enum ConfigurationValue
     HERD_NOTIFICATION_SQS_BUSINESS_OBJECT_DATA_STATUS_CHANGE_VELOCITY_TEMPLATE("herd.notification.sqs.business.object.data.status.change.velocity.template",
         null),
 
+    /**
+     * The maximum number of parsed velocity templates kept in memory. Templates are cached by their content, so a changed template is parsed again and the
+     * least recently used templates are evicted once the maximum is reached. The default is 100.
+     */
+    VELOCITY_TEMPLATE_CACHE_MAX_SIZE("velocity.template.cache.max.size", 100),
+
     /**
      * The cache time to live in seconds defined in net.sf.ehcache.config.CacheConfiguration.
      */
@@ -0,0 +1,36 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.dto;
+
+/**
+ * A listener of the progress of an S3 file transfer. The listener is called by the thread that performs the transfer, so it should return quickly.
+ */
+public interface S3FileTransferListener
+{
+    /**
+     * Called periodically while the transfer is in progress.
+     *
+     * @param statistics the statistics of the transfer so far
+     */
+    void transferProgressed(S3FileTransferStatisticsDto statistics);
+
+    /**
+     * Called once when the transfer is done, whether it completed or failed.
+     *
+     * @param statistics the final statistics of the transfer
+     */
+    void transferDone(S3FileTransferStatisticsDto statistics);
+}
@@ -105,6 +105,11 @@ public class S3FileTransferRequestParamsDto extends AwsParamsDto
      */
     private List<HerdAWSCredentialsProvider> additionalAwsCredentialsProviders = new ArrayList<>();
 
+    /**
+     * Any listeners to be notified of the progress of the S3 file transfer.
+     */
+    private List<S3FileTransferListener> transferListeners = new ArrayList<>();
+
     public String getS3Endpoint()
     {
         return s3Endpoint;
@@ -235,6 +240,16 @@ public class S3FileTransferRequestParamsDto extends AwsParamsDto
         this.additionalAwsCredentialsProviders = additionalAwsCredentialsProviders;
     }
 
+    public List<S3FileTransferListener> getTransferListeners()
+    {
+        return transferListeners;
+    }
+
+    public void setTransferListeners(List<S3FileTransferListener> transferListeners)
+    {
+        this.transferListeners = transferListeners;
+    }
+
     /**
      * Returns a builder that can easily build this DTO.
      *
@@ -342,6 +357,12 @@ public class S3FileTransferRequestParamsDto extends AwsParamsDto
             return this;
         }
 
+        public Builder transferListeners(List<S3FileTransferListener> transferListeners)
+        {
+            params.setTransferListeners(transferListeners);
+            return this;
+        }
+
         public S3FileTransferRequestParamsDto build()
         {
             return params;
@@ -0,0 +1,202 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.dto;
+
+/**
+ * The statistics of an S3 file transfer, either in progress or done.
+ */
+public class S3FileTransferStatisticsDto
+{
+    /**
+     * The description of the transfer.
+     */
+    private String transferDescription;
+
+    /**
+     * The number of bytes transferred so far.
+     */
+    private long bytesTransferred;
+
+    /**
+     * The total number of bytes to transfer.
+     */
+    private long totalBytesToTransfer;
+
+    /**
+     * The time elapsed since the transfer started, in milliseconds.
+     */
+    private long elapsedTimeMillis;
+
+    /**
+     * The number of bytes transferred per second since the previous statistics were taken.
+     */
+    private long bytesPerSecond;
+
+    /**
+     * The number of bytes transferred per second since the transfer started.
+     */
+    private long averageBytesPerSecond;
+
+    /**
+     * The number of S3 requests (e.g. part uploads) completed by the transfer.
+     */
+    private long requestCount;
+
+    /**
+     * The number of S3 requests of the transfer that failed after all their retries.
+     */
+    private long failedRequestCount;
+
+    /**
+     * The number of times the S3 requests of the transfer were retried.
+     */
+    private long retryCount;
+
+    /**
+     * The average time an S3 request of the transfer took, including its retries, in milliseconds.
+     */
+    private long averageRequestLatencyMillis;
+
+    /**
+     * The longest time an S3 request of the transfer took, including its retries, in milliseconds.
+     */
+    private long maxRequestLatencyMillis;
+
+    /**
+     * The number of threads the transfer currently uses to send S3 requests concurrently.
+     */
+    private int threadCount;
+
+    public String getTransferDescription()
+    {
+        return transferDescription;
+    }
+
+    public void setTransferDescription(String transferDescription)
+    {
+        this.transferDescription = transferDescription;
+    }
+
+    public long getBytesTransferred()
+    {
+        return bytesTransferred;
+    }
+
+    public void setBytesTransferred(long bytesTransferred)
+    {
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    public long getTotalBytesToTransfer()
+    {
+        return totalBytesToTransfer;
+    }
+
+    public void setTotalBytesToTransfer(long totalBytesToTransfer)
+    {
+        this.totalBytesToTransfer = totalBytesToTransfer;
+    }
+
+    public long getElapsedTimeMillis()
+    {
+        return elapsedTimeMillis;
+    }
+
+    public void setElapsedTimeMillis(long elapsedTimeMillis)
+    {
+        this.elapsedTimeMillis = elapsedTimeMillis;
+    }
+
+    public long getBytesPerSecond()
+    {
+        return bytesPerSecond;
+    }
+
+    public void setBytesPerSecond(long bytesPerSecond)
+    {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public long getAverageBytesPerSecond()
+    {
+        return averageBytesPerSecond;
+    }
+
+    public void setAverageBytesPerSecond(long averageBytesPerSecond)
+    {
+        this.averageBytesPerSecond = averageBytesPerSecond;
+    }
+
+    public long getRequestCount()
+    {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount)
+    {
+        this.requestCount = requestCount;
+    }
+
+    public long getFailedRequestCount()
+    {
+        return failedRequestCount;
+    }
+
+    public void setFailedRequestCount(long failedRequestCount)
+    {
+        this.failedRequestCount = failedRequestCount;
+    }
+
+    public long getRetryCount()
+    {
+        return retryCount;
+    }
+
+    public void setRetryCount(long retryCount)
+    {
+        this.retryCount = retryCount;
+    }
+
+    public long getAverageRequestLatencyMillis()
+    {
+        return averageRequestLatencyMillis;
+    }
+
+    public void setAverageRequestLatencyMillis(long averageRequestLatencyMillis)
+    {
+        this.averageRequestLatencyMillis = averageRequestLatencyMillis;
+    }
+
+    public long getMaxRequestLatencyMillis()
+    {
+        return maxRequestLatencyMillis;
+    }
+
+    public void setMaxRequestLatencyMillis(long maxRequestLatencyMillis)
+    {
+        this.maxRequestLatencyMillis = maxRequestLatencyMillis;
+    }
+
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount)
+    {
+        this.threadCount = threadCount;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.model.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A read-only DTO that holds a flat projection of a storage unit along with its business object data and storage values. It is used by the read paths that
+ * only need partition values, versions, statuses and storage information, so they do not have to load and track the full storage unit entity graph.
+ */
+public class StorageUnitAvailabilityDto
+{
+    /**
+     * The storage unit id.
+     */
+    private Integer storageUnitId;
+
+    /**
+     * The business object data id.
+     */
+    private Integer businessObjectDataId;
+
+    /**
+     * The namespace code.
+     */
+    private String namespace;
+
+    /**
+     * The business object definition name.
+     */
+    private String businessObjectDefinitionName;
+
+    /**
+     * The business object format usage.
+     */
+    private String businessObjectFormatUsage;
+
+    /**
+     * The business object format file type.
+     */
+    private String businessObjectFormatFileType;
+
+    /**
+     * The business object format version.
+     */
+    private Integer businessObjectFormatVersion;
+
+    /**
+     * The primary partition value.
+     */
+    private String partitionValue;
+
+    /**
+     * The list of sub-partition values. Trailing not specified sub-partition values are not included.
+     */
+    private List<String> subPartitionValues = Collections.emptyList();
+
+    /**
+     * The business object data version.
+     */
+    private Integer businessObjectDataVersion;
+
+    /**
+     * The business object data status code.
+     */
+    private String businessObjectDataStatus;
+
+    /**
+     * The storage name.
+     */
+    private String storageName;
+
+    /**
+     * The storage platform type.
+     */
+    private String storagePlatformType;
+
+    /**
+     * The storage directory path.
+     */
+    private String storageDirectoryPath;
+
+    /**
+     * Specifies if the storage unit status is "available".
+     */
+    private boolean storageUnitAvailable;
+
+    public Integer getStorageUnitId()
+    {
+        return storageUnitId;
+    }
+
+    public Integer getBusinessObjectDataId()
+    {
+        return businessObjectDataId;
+    }
+
+    public String getNamespace()
+    {
+        return namespace;
+    }
+
+    public String getBusinessObjectDefinitionName()
+    {
+        return businessObjectDefinitionName;
+    }
+
+    public String getBusinessObjectFormatUsage()
+    {
+        return businessObjectFormatUsage;
+    }
+
+    public String getBusinessObjectFormatFileType()
+    {
+        return businessObjectFormatFileType;
+    }
+
+    public Integer getBusinessObjectFormatVersion()
+    {
+        return businessObjectFormatVersion;
+    }
+
+    public String getPartitionValue()
+    {
+        return partitionValue;
+    }
+
+    public List<String> getSubPartitionValues()
+    {
+        return subPartitionValues;
+    }
+
+    public Integer getBusinessObjectDataVersion()
+    {
+        return businessObjectDataVersion;
+    }
+
+    public String getBusinessObjectDataStatus()
+    {
+        return businessObjectDataStatus;
+    }
+
+    public String getStorageName()
+    {
+        return storageName;
+    }
+
+    public String getStoragePlatformType()
+    {
+        return storagePlatformType;
+    }
+
+    public String getStorageDirectoryPath()
+    {
+        return storageDirectoryPath;
+    }
+
+    public boolean isStorageUnitAvailable()
+    {
+        return storageUnitAvailable;
+    }
+
+    /**
+     * Returns a builder that can easily build this DTO.
+     *
+     * @return the builder.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * A builder that makes it easier to construct this DTO. Since the DTO has no setters, the builder is the only way to populate it.
+     */
+    public static class Builder
+    {
+        private StorageUnitAvailabilityDto storageUnitAvailability = new StorageUnitAvailabilityDto();
+
+        public Builder storageUnitId(Integer storageUnitId)
+        {
+            storageUnitAvailability.storageUnitId = storageUnitId;
+            return this;
+        }
+
+        public Builder businessObjectDataId(Integer businessObjectDataId)
+        {
+            storageUnitAvailability.businessObjectDataId = businessObjectDataId;
+            return this;
+        }
+
+        public Builder namespace(String namespace)
+        {
+            storageUnitAvailability.namespace = namespace;
+            return this;
+        }
+
+        public Builder businessObjectDefinitionName(String businessObjectDefinitionName)
+        {
+            storageUnitAvailability.businessObjectDefinitionName = businessObjectDefinitionName;
+            return this;
+        }
+
+        public Builder businessObjectFormatUsage(String businessObjectFormatUsage)
+        {
+            storageUnitAvailability.businessObjectFormatUsage = businessObjectFormatUsage;
+            return this;
+        }
+
+        public Builder businessObjectFormatFileType(String businessObjectFormatFileType)
+        {
+            storageUnitAvailability.businessObjectFormatFileType = businessObjectFormatFileType;
+            return this;
+        }
+
+        public Builder businessObjectFormatVersion(Integer businessObjectFormatVersion)
+        {
+            storageUnitAvailability.businessObjectFormatVersion = businessObjectFormatVersion;
+            return this;
+        }
+
+        public Builder partitionValue(String partitionValue)
+        {
+            storageUnitAvailability.partitionValue = partitionValue;
+            return this;
+        }
+
+        public Builder subPartitionValues(List<String> subPartitionValues)
+        {
+            storageUnitAvailability.subPartitionValues = Collections.unmodifiableList(new ArrayList<>(subPartitionValues));
+            return this;
+        }
+
+        public Builder businessObjectDataVersion(Integer businessObjectDataVersion)
+        {
+            storageUnitAvailability.businessObjectDataVersion = businessObjectDataVersion;
+            return this;
+        }
+
+        public Builder businessObjectDataStatus(String businessObjectDataStatus)
+        {
+            storageUnitAvailability.businessObjectDataStatus = businessObjectDataStatus;
+            return this;
+        }
+
+        public Builder storageName(String storageName)
+        {
+            storageUnitAvailability.storageName = storageName;
+            return this;
+        }
+
+        public Builder storagePlatformType(String storagePlatformType)
+        {
+            storageUnitAvailability.storagePlatformType = storagePlatformType;
+            return this;
+        }
+
+        public Builder storageDirectoryPath(String storageDirectoryPath)
+        {
+            storageUnitAvailability.storageDirectoryPath = storageDirectoryPath;
+            return this;
+        }
+
+        public Builder storageUnitAvailable(boolean storageUnitAvailable)
+        {
+            storageUnitAvailability.storageUnitAvailable = storageUnitAvailable;
+            return this;
+        }
+
+        public StorageUnitAvailabilityDto build()
+        {
+            return storageUnitAvailability;
+        }
+    }
+}
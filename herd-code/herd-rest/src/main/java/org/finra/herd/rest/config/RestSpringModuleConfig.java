@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 import org.eclipse.persistence.jaxb.MarshallerProperties;
@@ -147,7 +148,22 @@ public class RestSpringModuleConfig extends WebMvcConfigurationSupport
         try
         {
             // Create the marshaller that is aware of our Java XSD and it's auto-generated classes.
-            Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+            // The schema validates the requests as they are unmarshalled and, unless response validation is disabled, every response (e.g. business object
+            // data with many storage files, DDL and job listings) as it is marshalled.
+            final boolean responseSchemaValidationEnabled =
+                configurationHelper.getProperty(ConfigurationValue.JAXB_RESPONSE_SCHEMA_VALIDATION_ENABLED, Boolean.class);
+            Jaxb2Marshaller marshaller = new Jaxb2Marshaller()
+            {
+                @Override
+                protected void initJaxbMarshaller(Marshaller marshaller) throws JAXBException
+                {
+                    super.initJaxbMarshaller(marshaller);
+                    if (!responseSchemaValidationEnabled)
+                    {
+                        marshaller.setSchema(null);
+                    }
+                }
+            };
             marshaller.setPackagesToScan("org.finra.herd.model.api.xml");
             marshaller.setSchemas(resourceResolver.getResources("classpath:herd.xsd"));
 
@@ -75,6 +75,7 @@ public class HerdRestControllerAdviceTest extends AbstractRestTest
         configurationEntity.setValueClob("org.finra.herd.rest.HerdRestController.getBuildInfo");
 
         herdDao.saveAndRefresh(configurationEntity);
+        herdDaoHelper.refreshNotAllowedMethods();
 
         try
         {
@@ -85,5 +86,11 @@ public class HerdRestControllerAdviceTest extends AbstractRestTest
         {
             assertEquals("The requested method is not allowed.", ex.getMessage());
         }
+        finally
+        {
+            // Remove the not allowed method, so it does not stay blocked in memory for other tests.
+            herdDao.delete(configurationEntity);
+            herdDaoHelper.refreshNotAllowedMethods();
+        }
     }
 }
@@ -21,9 +21,10 @@ package org.finra.herd.service;
 public interface JmsPublishingService
 {
     /**
-     * Publishes and removes from the database queue the oldest JMS message.
+     * Publishes and removes from the database queue a batch of the oldest JMS messages. The batch consists of the oldest consecutive messages that are posted
+     * to the same queue. The first message that fails to be published and all the messages after it remain in the database queue.
      *
-     * @return true if a message was sent or false if no message was sent (i.e. no message needed to be sent).
+     * @return the number of messages that were sent, zero if no message needed to be sent.
      */
-    public boolean publishOldestJmsMessage();
+    public int publishOldestJmsMessages();
 }
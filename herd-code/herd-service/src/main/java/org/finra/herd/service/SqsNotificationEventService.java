@@ -15,6 +15,8 @@
 */
 package org.finra.herd.service;
 
+import java.util.List;
+
 import org.finra.herd.model.jpa.JmsMessageEntity;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
 
@@ -32,6 +34,19 @@ public interface SqsNotificationEventService
     public JmsMessageEntity processBusinessObjectDataStatusChangeNotificationEvent(BusinessObjectDataKey businessObjectDataKey,
         String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus);
 
+    /**
+     * Handles the notifications for the business object data status changes to the SQS for a list of business object data that changed to the same status.
+     * All the JMS messages are added to the database queue together.
+     *
+     * @param businessObjectDataKeys the list of business object data keys
+     * @param newBusinessObjectDataStatus the new business object data status
+     * @param oldBusinessObjectDataStatus the old business object data status
+     *
+     * @return the list of JMS messages that got queued
+     */
+    public List<JmsMessageEntity> processBusinessObjectDataStatusChangeNotificationEvents(List<BusinessObjectDataKey> businessObjectDataKeys,
+        String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus);
+
     /**
      * Handles the system monitor event notification.
      *
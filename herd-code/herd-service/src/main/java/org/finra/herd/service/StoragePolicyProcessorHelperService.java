@@ -48,6 +48,13 @@ public interface StoragePolicyProcessorHelperService
      */
     public void completeStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto);
 
+    /**
+     * Cancels a storage policy transition that was initiated, but not executed, by setting the destination storage unit status back to DISABLED.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition DTO that contains parameters needed to cancel a storage policy transition
+     */
+    public void cancelStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto);
+
     /**
      * Executes a step after the storage policy transition is completed.
      *
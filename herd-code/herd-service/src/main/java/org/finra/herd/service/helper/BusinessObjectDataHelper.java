@@ -57,7 +57,6 @@ import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusHistoryEntity;
 import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
-import org.finra.herd.model.jpa.ExpectedPartitionValueEntity;
 import org.finra.herd.model.jpa.StorageAttributeEntity;
 import org.finra.herd.model.jpa.StorageEntity;
 import org.finra.herd.model.jpa.StorageFileEntity;
@@ -398,14 +397,12 @@ public class BusinessObjectDataHelper
             .format("A partition key group, which is required to use partition value ranges, is not specified for the business object format {%s}.",
                 herdDaoHelper.businessObjectFormatEntityAltKeyToString(businessObjectFormatEntity)));
 
-        List<ExpectedPartitionValueEntity> expectedPartitionValueEntities = herdDao
-            .getExpectedPartitionValuesByGroupAndRange(businessObjectFormatEntity.getPartitionKeyGroup().getPartitionKeyGroupName(), partitionValueRange);
+        List<String> expectedPartitionValues = herdDao
+            .getExpectedPartitionValueStringsByGroupAndRange(businessObjectFormatEntity.getPartitionKeyGroup().getPartitionKeyGroupName(), partitionValueRange);
 
         // Populate the partition values returned from the range query.
-        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : expectedPartitionValueEntities)
+        for (String partitionValue : expectedPartitionValues)
         {
-            String partitionValue = expectedPartitionValueEntity.getPartitionValue();
-
             // Validate that expected partition value does not match to one of the partition value tokens.
             Assert.isTrue(!partitionValue.equals(BusinessObjectDataService.MAX_PARTITION_VALUE_TOKEN) &&
                 !partitionValue.equals(BusinessObjectDataService.MIN_PARTITION_VALUE_TOKEN),
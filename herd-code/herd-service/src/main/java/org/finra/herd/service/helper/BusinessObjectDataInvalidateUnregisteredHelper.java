@@ -16,8 +16,10 @@
 package org.finra.herd.service.helper;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -140,10 +142,7 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
         }
 
         // Fire notifications on the keys
-        for (BusinessObjectDataKey businessObjectDataKey : registeredBusinessObjectDataKeys)
-        {
-            sqsNotificationEventService.processBusinessObjectDataStatusChangeNotificationEvent(businessObjectDataKey, UNREGISTERED_STATUS, null);
-        }
+        sqsNotificationEventService.processBusinessObjectDataStatusChangeNotificationEvents(registeredBusinessObjectDataKeys, UNREGISTERED_STATUS, null);
     }
 
     /**
@@ -341,7 +340,9 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
                 // Set this data as latest version if this is the end of the loop
                 businessObjectDataEntity.setLatestVersion(!unregisteredBusinessObjectDataKeysIterator.hasNext());
 
-                herdDao.saveAndRefresh(businessObjectDataEntity);
+                // Only persist the entity here, so all the registered data get flushed together. They are inserted in JDBC batches when the Hibernate JDBC
+                // batch size is configured.
+                herdDao.save(businessObjectDataEntity);
 
                 createdBusinessObjectDataEntities.add(businessObjectDataEntity);
             }
@@ -352,7 +353,8 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
 
     /**
      * Returns a list of data keys that are not registered in herd, but exist in S3, for data versions after the latest data in the given request's format and
-     * storage. Incrementally searches S3 for data versions until no results are found.
+     * storage. Incrementally searches S3 for data versions until no results are found. The S3 "directories" of all the data versions are discovered first
+     * using a single delimiter based listing, so S3 only gets searched for the versions that have their directory present.
      *
      * @param request {@link BusinessObjectDataInvalidateUnregisteredRequest}
      * @param storageEntity {@link StorageEntity}
@@ -367,6 +369,9 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
         // The result will be accumulated here
         List<BusinessObjectDataKey> unregisteredBusinessObjectDataKeys = new ArrayList<>();
 
+        // Get the data versions that have their S3 directory present, or null if they can not be discovered for the S3 key prefix template in use.
+        Set<Integer> s3BusinessObjectDataVersions = getS3BusinessObjectDataVersions(request, storageEntity, businessObjectFormatEntity);
+
         // Version offset from the latest version
         int businessObjectDataVersionOffset = 1;
 
@@ -377,6 +382,12 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
             BusinessObjectDataKey businessObjectDataKey = getBusinessObjectDataKey(request);
             businessObjectDataKey.setBusinessObjectDataVersion(latestRegisteredBusinessObjectDataVersion + businessObjectDataVersionOffset);
 
+            // There are no S3 objects for this version if its S3 directory does not exist.
+            if (s3BusinessObjectDataVersions != null && !s3BusinessObjectDataVersions.contains(businessObjectDataKey.getBusinessObjectDataVersion()))
+            {
+                break;
+            }
+
             // Find S3 object keys which match the prefix
             List<String> matchingS3ObjectKeys = getS3ObjectKeys(businessObjectFormatEntity, businessObjectDataKey, storageEntity);
 
@@ -398,6 +409,61 @@ public class BusinessObjectDataInvalidateUnregisteredHelper
         return unregisteredBusinessObjectDataKeys;
     }
 
+    /**
+     * Returns the data versions that have their S3 "directory" present for the given request. The S3 key prefix is built for two different data versions to
+     * find the part of the prefix before the data version and the part after it. All S3 directories under the part before the data version are then listed
+     * at once, and the data version is parsed from each of them.
+     * <p/>
+     * Returns null when the data version can not be isolated in the S3 key prefix (i.e. the S3 key prefix template does not contain the data version token or
+     * contains it more than once). The caller should then search S3 for each data version.
+     *
+     * @param request {@link BusinessObjectDataInvalidateUnregisteredRequest}
+     * @param storageEntity {@link StorageEntity}
+     * @param businessObjectFormatEntity {@link BusinessObjectFormatEntity}
+     *
+     * @return the set of data versions that have their S3 directory present, or null
+     */
+    private Set<Integer> getS3BusinessObjectDataVersions(BusinessObjectDataInvalidateUnregisteredRequest request, StorageEntity storageEntity,
+        BusinessObjectFormatEntity businessObjectFormatEntity)
+    {
+        BusinessObjectDataKey businessObjectDataKey = getBusinessObjectDataKey(request);
+        businessObjectDataKey.setBusinessObjectDataVersion(0);
+        String s3KeyPrefixVersion0 = businessObjectDataHelper.buildS3KeyPrefix(businessObjectFormatEntity, businessObjectDataKey);
+        businessObjectDataKey.setBusinessObjectDataVersion(1);
+        String s3KeyPrefixVersion1 = businessObjectDataHelper.buildS3KeyPrefix(businessObjectFormatEntity, businessObjectDataKey);
+
+        // Find the part of the S3 key prefix before and after the data version.
+        String s3KeyPrefixBeforeVersion = StringUtils.getCommonPrefix(s3KeyPrefixVersion0, s3KeyPrefixVersion1);
+        String s3KeyPrefixAfterVersion =
+            StringUtils.reverse(StringUtils.getCommonPrefix(StringUtils.reverse(s3KeyPrefixVersion0), StringUtils.reverse(s3KeyPrefixVersion1)));
+        if (!s3KeyPrefixVersion0.equals(s3KeyPrefixBeforeVersion + "0" + s3KeyPrefixAfterVersion))
+        {
+            return null;
+        }
+
+        // Each S3 directory right under the part before the data version must end with the S3 key prefix remainder up to and including its first '/'.
+        String s3DirectorySuffix = s3KeyPrefixAfterVersion + '/';
+        s3DirectorySuffix = s3DirectorySuffix.substring(0, s3DirectorySuffix.indexOf('/') + 1);
+
+        S3FileTransferRequestParamsDto s3FileTransferRequestParamsDto = storageDaoHelper.getS3BucketAccessParams(storageEntity);
+        s3FileTransferRequestParamsDto.setS3KeyPrefix(s3KeyPrefixBeforeVersion);
+
+        Set<Integer> businessObjectDataVersions = new HashSet<>();
+        for (String s3Directory : s3Dao.listCommonPrefixes(s3FileTransferRequestParamsDto, "/"))
+        {
+            if (s3Directory.endsWith(s3DirectorySuffix))
+            {
+                String businessObjectDataVersion =
+                    s3Directory.substring(s3KeyPrefixBeforeVersion.length(), s3Directory.length() - s3DirectorySuffix.length());
+                if (StringUtils.isNumeric(businessObjectDataVersion) && businessObjectDataVersion.length() < 10)
+                {
+                    businessObjectDataVersions.add(Integer.valueOf(businessObjectDataVersion));
+                }
+            }
+        }
+        return businessObjectDataVersions;
+    }
+
     /**
      * Returns a list of S3 object keys associated with the given format, data key, and storage. The keys are found by matching the prefix. The result may be
      * empty if there are not matching keys found.
@@ -17,15 +17,21 @@ package org.finra.herd.service.helper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.helper.HerdStringHelper;
 import org.finra.herd.model.MethodNotAllowedException;
@@ -38,6 +44,7 @@ import org.finra.herd.model.api.xml.CustomDdlKey;
 import org.finra.herd.model.api.xml.EmrClusterDefinitionKey;
 import org.finra.herd.model.api.xml.PartitionKeyGroupKey;
 import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
 import org.finra.herd.model.jpa.BusinessObjectDataAttributeDefinitionEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataAttributeEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
@@ -61,6 +68,11 @@ import org.finra.herd.model.jpa.PartitionKeyGroupEntity;
 @Component
 public class HerdDaoHelper
 {
+    private static final Logger LOGGER = Logger.getLogger(HerdDaoHelper.class);
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
     @Autowired
     private HerdDao herdDao;
 
@@ -70,6 +82,21 @@ public class HerdDaoHelper
     @Autowired
     private HerdStringHelper herdStringHelper;
 
+    /**
+     * The immutable set of not allowed method names. It gets replaced as a whole on refresh, so readers never need to lock.
+     */
+    private volatile Set<String> notAllowedMethods;
+
+    /**
+     * The time the not allowed method names were last loaded from the database.
+     */
+    private volatile long notAllowedMethodsRefreshTimeMillis;
+
+    /**
+     * The number of method invocations rejected since startup.
+     */
+    private final AtomicLong notAllowedMethodRejectionCount = new AtomicLong();
+
     /**
      * Gets a namespace entity and ensure it exists.
      *
@@ -402,6 +429,21 @@ public class HerdDaoHelper
         return businessObjectDataKey;
     }
 
+    /**
+     * Returns a business object data key for the business object data selected as part of the storage unit availability DTO.
+     *
+     * @param storageUnitAvailabilityDto the storage unit availability DTO
+     *
+     * @return the business object data key
+     */
+    public BusinessObjectDataKey getBusinessObjectDataKey(StorageUnitAvailabilityDto storageUnitAvailabilityDto)
+    {
+        return new BusinessObjectDataKey(storageUnitAvailabilityDto.getNamespace(), storageUnitAvailabilityDto.getBusinessObjectDefinitionName(),
+            storageUnitAvailabilityDto.getBusinessObjectFormatUsage(), storageUnitAvailabilityDto.getBusinessObjectFormatFileType(),
+            storageUnitAvailabilityDto.getBusinessObjectFormatVersion(), storageUnitAvailabilityDto.getPartitionValue(),
+            new ArrayList<>(storageUnitAvailabilityDto.getSubPartitionValues()), storageUnitAvailabilityDto.getBusinessObjectDataVersion());
+    }
+
     /**
      * Returns primary partition or subpartition value specified by the partition column position.
      *
@@ -442,8 +484,33 @@ public class HerdDaoHelper
      */
     public List<String> getPartitionFilter(BusinessObjectDataEntity businessObjectDataEntity, List<String> samplePartitionFilter)
     {
-        BusinessObjectDataKey businessObjectDataKey = getBusinessObjectDataKey(businessObjectDataEntity);
+        return getPartitionFilter(getBusinessObjectDataKey(businessObjectDataEntity), samplePartitionFilter);
+    }
+
+    /**
+     * Returns a partition filter that the business object data selected as part of the specified storage unit availability DTO would match to. The filter is
+     * build as per specified sample partition filter.
+     *
+     * @param storageUnitAvailabilityDto the storage unit availability DTO
+     * @param samplePartitionFilter the sample partition filter
+     *
+     * @return the partition filter
+     */
+    public List<String> getPartitionFilter(StorageUnitAvailabilityDto storageUnitAvailabilityDto, List<String> samplePartitionFilter)
+    {
+        return getPartitionFilter(getBusinessObjectDataKey(storageUnitAvailabilityDto), samplePartitionFilter);
+    }
 
+    /**
+     * Returns a partition filter that the specified business object data key would match to. The filter is build as per specified sample partition filter.
+     *
+     * @param businessObjectDataKey the business object data key
+     * @param samplePartitionFilter the sample partition filter
+     *
+     * @return the partition filter
+     */
+    private List<String> getPartitionFilter(BusinessObjectDataKey businessObjectDataKey, List<String> samplePartitionFilter)
+    {
         List<String> resultPartitionFilter = new ArrayList<>();
 
         resultPartitionFilter.add(samplePartitionFilter.get(0) != null ? businessObjectDataKey.getPartitionValue() : null);
@@ -594,20 +661,65 @@ public class HerdDaoHelper
      */
     public void checkNotAllowedMethod(String methodName) throws MethodNotAllowedException
     {
-        boolean needToBlock = false;
-        ConfigurationEntity configurationEntity = herdDao.getConfigurationByKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
-        if (configurationEntity != null && StringUtils.isNotBlank(configurationEntity.getValueClob()))
+        long refreshIntervalMillis = 1000L * configurationHelper.getProperty(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS_REFRESH_INTERVAL_SECS, Integer.class);
+        if (isNotAllowedMethodsStale(refreshIntervalMillis))
         {
-            List<String> methodsToBeBlocked = herdStringHelper.splitStringWithDefaultDelimiter(configurationEntity.getValueClob());
-            needToBlock = methodsToBeBlocked.contains(methodName);
+            refreshStaleNotAllowedMethods(refreshIntervalMillis);
         }
 
-        if (needToBlock)
+        if (notAllowedMethods.contains(methodName))
         {
+            LOGGER.info(String.format("Rejected not allowed method \"%s\". notAllowedMethodRejectionCount=%d notAllowedMethodsAgeMillis=%d", methodName,
+                notAllowedMethodRejectionCount.incrementAndGet(), System.currentTimeMillis() - notAllowedMethodsRefreshTimeMillis));
             throw new MethodNotAllowedException("The requested method is not allowed.");
         }
     }
 
+    /**
+     * Reloads the not allowed method names unless another thread has already reloaded them while this thread was waiting for the lock, so only one thread
+     * hits the database once the loaded names go stale.
+     *
+     * @param refreshIntervalMillis the refresh interval in milliseconds
+     */
+    private synchronized void refreshStaleNotAllowedMethods(long refreshIntervalMillis)
+    {
+        if (isNotAllowedMethodsStale(refreshIntervalMillis))
+        {
+            refreshNotAllowedMethods();
+        }
+    }
+
+    /**
+     * Checks whether the not allowed method names need to be (re)loaded.
+     *
+     * @param refreshIntervalMillis the refresh interval in milliseconds
+     *
+     * @return true if the names were never loaded or are older than the refresh interval
+     */
+    private boolean isNotAllowedMethodsStale(long refreshIntervalMillis)
+    {
+        return notAllowedMethods == null || System.currentTimeMillis() - notAllowedMethodsRefreshTimeMillis >= refreshIntervalMillis;
+    }
+
+    /**
+     * Reloads the not allowed method names from the configuration in the database. This is called periodically by checkNotAllowedMethod, but can also be
+     * called directly once the configuration has changed so the change takes effect right away.
+     */
+    public synchronized void refreshNotAllowedMethods()
+    {
+        Set<String> methods = new HashSet<>();
+        ConfigurationEntity configurationEntity = herdDao.getConfigurationByKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
+        if (configurationEntity != null && StringUtils.isNotBlank(configurationEntity.getValueClob()))
+        {
+            methods.addAll(herdStringHelper.splitStringWithDefaultDelimiter(configurationEntity.getValueClob()));
+        }
+
+        notAllowedMethods = Collections.unmodifiableSet(methods);
+        notAllowedMethodsRefreshTimeMillis = System.currentTimeMillis();
+
+        LOGGER.debug(String.format("Loaded %d not allowed method(s).", methods.size()));
+    }
+
     /**
      * Adds the JMS message to the database queue.
      *
@@ -628,4 +740,30 @@ public class HerdDaoHelper
 
         return jmsMessageEntity;
     }
+
+    /**
+     * Adds the JMS messages to the database queue. The messages are only persisted here, so they get flushed together and are inserted in JDBC batches when
+     * the Hibernate JDBC batch size is configured.
+     *
+     * @param jmsQueueName the JMS queue name
+     * @param messageTexts the list of message texts
+     *
+     * @return the list of JMS message entities
+     */
+    public List<JmsMessageEntity> addJmsMessagesToDatabaseQueue(String jmsQueueName, List<String> messageTexts)
+    {
+        List<JmsMessageEntity> jmsMessageEntities = new ArrayList<>();
+        for (String messageText : messageTexts)
+        {
+            JmsMessageEntity jmsMessageEntity = new JmsMessageEntity();
+            jmsMessageEntity.setJmsQueueName(jmsQueueName);
+            jmsMessageEntity.setMessageText(messageText);
+            jmsMessageEntities.add(herdDao.save(jmsMessageEntity));
+        }
+
+        // Set to schedule JMS publishing job.
+        ScheduleJmsPublishingJobAdvice.setScheduleJmsPublishingJob();
+
+        return jmsMessageEntities;
+    }
 }
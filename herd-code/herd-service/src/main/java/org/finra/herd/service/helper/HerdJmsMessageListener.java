@@ -17,6 +17,8 @@ package org.finra.herd.service.helper;
 
 import java.net.URLDecoder;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.amazonaws.services.s3.event.S3EventNotification;
 import org.apache.commons.lang3.CharEncoding;
@@ -33,7 +35,8 @@ import org.finra.herd.service.UploadDownloadService;
 import org.finra.herd.service.impl.UploadDownloadServiceImpl.CompleteUploadSingleMessageResult;
 
 /*
- * herd JMS message listener.
+ * herd JMS message listener. S3 notifications are processed on the listener thread, so a message is only acknowledged once its upload is completed. S3
+ * notifications are processed concurrently by the listener threads of the JMS listener container.
  */
 @Component
 public class HerdJmsMessageListener
@@ -52,6 +55,13 @@ public class HerdJmsMessageListener
     @Autowired
     private NotificationEventService notificationEventService;
 
+    /**
+     * The S3 object keys that are currently being processed by the listener threads. A notification that gets redelivered to another listener thread while
+     * the same object key is still in progress is skipped and acknowledged, so it is dropped and the thread already processing the object key is relied upon
+     * to complete the upload. Failures to complete the upload are only logged, so every message is acknowledged, whether its processing succeeded or not.
+     */
+    private final Set<String> inProgressObjectKeys = ConcurrentHashMap.newKeySet();
+
     /**
      * Processes a JMS message.
      *
@@ -99,6 +109,66 @@ public class HerdJmsMessageListener
             S3EventNotification s3EventNotification = S3EventNotification.parseJson(payload);
             String objectKey = URLDecoder.decode(s3EventNotification.getRecords().get(0).getS3().getObject().getKey(), CharEncoding.UTF_8);
 
+            messageProcessed = true;
+
+            // Skip the notification if the same object key is already being processed (e.g. the message was redelivered).
+            if (!startProcessingObjectKey(objectKey))
+            {
+                LOGGER.info(String.format("Dropping S3 notification for \"%s\" object key since it is already being processed.", objectKey));
+                return messageProcessed;
+            }
+
+            try
+            {
+                completeUploadSingleMessage(objectKey);
+            }
+            finally
+            {
+                finishProcessingObjectKey(objectKey);
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.debug(String.format("Failed to process JMS message from \"%s\" queue. Payload: \"%s\" for an S3 notification.",
+                HerdJmsDestinationResolver.SQS_DESTINATION_HERD_INCOMING, payload), e);
+        }
+
+        return messageProcessed;
+    }
+
+    /**
+     * Marks the specified S3 object key as being processed.
+     *
+     * @param objectKey the S3 object key
+     *
+     * @return true if the object key was marked, false if it is already being processed
+     */
+    boolean startProcessingObjectKey(String objectKey)
+    {
+        return inProgressObjectKeys.add(objectKey);
+    }
+
+    /**
+     * Marks the specified S3 object key as no longer being processed.
+     *
+     * @param objectKey the S3 object key
+     */
+    void finishProcessingObjectKey(String objectKey)
+    {
+        inProgressObjectKeys.remove(objectKey);
+    }
+
+    /**
+     * Completes the single file upload for the specified S3 object key and sends the business object data status change notifications.
+     *
+     * @param objectKey the S3 object key
+     */
+    private void completeUploadSingleMessage(String objectKey)
+    {
+        long startTimeMillis = System.currentTimeMillis();
+
+        try
+        {
             // Perform the complete upload single file.
             CompleteUploadSingleMessageResult returnValues = uploadDownloadService.performCompleteUploadSingleMessage(objectKey);
 
@@ -108,8 +178,6 @@ public class HerdJmsMessageListener
                 returnValues.getSourceNewStatus(), herdHelper.businessObjectDataKeyToString(returnValues.getTargetBusinessObjectDataKey()),
                 returnValues.getTargetOldStatus(), returnValues.getTargetNewStatus()));
 
-            messageProcessed = true;
-
             // Create business object data notification for the source business object data.
             notificationEventService.processBusinessObjectDataNotificationEventAsync(NotificationEventTypeEntity.EventTypesBdata.BUS_OBJCT_DATA_STTS_CHG,
                 returnValues.getSourceBusinessObjectDataKey(), returnValues.getSourceNewStatus(), returnValues.getSourceOldStatus());
@@ -120,11 +188,13 @@ public class HerdJmsMessageListener
         }
         catch (Exception e)
         {
-            LOGGER.debug(String.format("Failed to process JMS message from \"%s\" queue. Payload: \"%s\" for an S3 notification.",
-                HerdJmsDestinationResolver.SQS_DESTINATION_HERD_INCOMING, payload), e);
+            LOGGER.error(String.format("Failed to complete the upload single file for \"%s\" object key.", objectKey), e);
+        }
+        finally
+        {
+            LOGGER.debug(String.format("S3 notification for \"%s\" object key processed. processingTimeMillis=%d", objectKey,
+                System.currentTimeMillis() - startTimeMillis));
         }
-
-        return messageProcessed;
     }
 
     /**
@@ -0,0 +1,447 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.finra.herd.core.HerdFileUtils;
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
+
+/**
+ * Schedules the execution of the storage policy transitions run by the storage policy processor JMS message listener threads. A transition waits until its
+ * source and destination storages are below their concurrency limits and there is enough local temporary directory space for its files and TAR archive. The
+ * waiting transitions are started smallest first, so small transitions do not wait behind huge ones. A transition that has waited longer than the configured
+ * maximum wait time is started ahead of the others and keeps the smaller ones from taking the temporary directory space it needs. A transition that still has
+ * not started after twice the maximum wait time gives up waiting. The JMS message of a transition that gives up is acknowledged like the one of a failed
+ * transition, so it is not redelivered. The transition is cancelled instead, which lets the storage policy selector select its business object data again.
+ */
+@Component
+public class StoragePolicyTransitionScheduler
+{
+    private static final Logger LOGGER = Logger.getLogger(StoragePolicyTransitionScheduler.class);
+
+    /**
+     * The time window the recent transfer rate is computed over, in milliseconds.
+     */
+    private static final long RECENT_TRANSFER_RATE_WINDOW_MILLIS = 60000L;
+
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /*
+     * The scheduler state. All of it is guarded by this scheduler's monitor.
+     */
+    private final List<ScheduledTransition> waitingTransitions = new ArrayList<>();
+
+    private final Map<String, Integer> runningTransitionCountsBySourceStorage = new HashMap<>();
+
+    private final Map<String, Integer> runningTransitionCountsByDestinationStorage = new HashMap<>();
+
+    private int runningTransitionCount;
+
+    private long reservedTemporaryDirectoryBytes;
+
+    private long completedTransitionCount;
+
+    private long failedTransitionCount;
+
+    private long transferredBytes;
+
+    private long sequenceNumber;
+
+    /**
+     * The completion time and the number of bytes transferred of the transitions completed within the recent transfer rate window.
+     */
+    private final Deque<long[]> recentTransfers = new ArrayDeque<>();
+
+    /**
+     * Waits until the specified storage policy transition can be executed, for up to twice the configured maximum wait time. The returned scheduled
+     * transition must be passed to {@link #release} once the transition execution completes.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition parameters
+     *
+     * @return the scheduled transition, or null if the transition could not be started within twice the maximum wait time
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    public synchronized ScheduledTransition acquire(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto) throws InterruptedException
+    {
+        ScheduledTransition scheduledTransition = new ScheduledTransition(storagePolicyTransitionParamsDto, sequenceNumber++);
+        waitingTransitions.add(scheduledTransition);
+        startWaitingTransitions();
+
+        long deadlineMillis = scheduledTransition.scheduleTimeMillis +
+            2000L * configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_WAIT_TIME_SECS, Integer.class);
+        try
+        {
+            while (!scheduledTransition.isStarted())
+            {
+                long remainingMillis = deadlineMillis - System.currentTimeMillis();
+                if (remainingMillis <= 0)
+                {
+                    // Give up waiting and let the transitions this one was holding back start.
+                    waitingTransitions.remove(scheduledTransition);
+                    startWaitingTransitions();
+
+                    LOGGER.warn(String.format(
+                        "Storage policy transition of storage unit %d from \"%s\" storage to \"%s\" storage was not started within %d ms. " +
+                            "waitingTransitionCount=%d runningTransitionCount=%d", scheduledTransition.sourceStorageUnitId,
+                        scheduledTransition.sourceStorageName, scheduledTransition.destinationStorageName,
+                        System.currentTimeMillis() - scheduledTransition.scheduleTimeMillis, waitingTransitions.size(), runningTransitionCount));
+                    return null;
+                }
+
+                LOGGER.debug(String.format(
+                    "Storage policy transition of storage unit %d from \"%s\" storage to \"%s\" storage is waiting. waitingTransitionCount=%d " +
+                        "runningTransitionCount=%d", scheduledTransition.sourceStorageUnitId, scheduledTransition.sourceStorageName,
+                    scheduledTransition.destinationStorageName, waitingTransitions.size(), runningTransitionCount));
+                wait(remainingMillis);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            if (scheduledTransition.isStarted())
+            {
+                release(scheduledTransition, false, 0);
+            }
+            else
+            {
+                waitingTransitions.remove(scheduledTransition);
+                startWaitingTransitions();
+            }
+            throw e;
+        }
+
+        return scheduledTransition;
+    }
+
+    /**
+     * Releases the concurrency and the temporary directory space taken by a scheduled transition, so the waiting transitions can be started.
+     *
+     * @param scheduledTransition the scheduled transition returned by {@link #acquire}
+     * @param succeeded specifies whether the transition was executed successfully
+     * @param bytesTransferred the number of bytes downloaded and uploaded by the transition
+     */
+    public synchronized void release(ScheduledTransition scheduledTransition, boolean succeeded, long bytesTransferred)
+    {
+        if (!scheduledTransition.isStarted() || scheduledTransition.isReleased())
+        {
+            return;
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        scheduledTransition.releaseTimeMillis = nowMillis;
+
+        runningTransitionCount--;
+        reservedTemporaryDirectoryBytes -= scheduledTransition.reservedTemporaryDirectoryBytes;
+        decrement(runningTransitionCountsBySourceStorage, scheduledTransition.sourceStorageName);
+        decrement(runningTransitionCountsByDestinationStorage, scheduledTransition.destinationStorageName);
+
+        long transitionTimeMillis = nowMillis - scheduledTransition.startTimeMillis;
+        if (succeeded)
+        {
+            completedTransitionCount++;
+            transferredBytes += bytesTransferred;
+            recentTransfers.addLast(new long[] {nowMillis, bytesTransferred});
+        }
+        else
+        {
+            failedTransitionCount++;
+        }
+
+        LOGGER.info(String.format("Storage policy transition of storage unit %d from \"%s\" storage to \"%s\" storage %s in %d ms transferring %d bytes " +
+                "(%d bytes/sec). waitingTransitionCount=%d runningTransitionCount=%d completedTransitionCount=%d failedTransitionCount=%d " +
+                "transferredBytes=%d recentBytesPerSecond=%d", scheduledTransition.sourceStorageUnitId, scheduledTransition.sourceStorageName,
+            scheduledTransition.destinationStorageName, succeeded ? "completed" : "failed", transitionTimeMillis, bytesTransferred,
+            transitionTimeMillis > 0 ? 1000L * bytesTransferred / transitionTimeMillis : bytesTransferred, waitingTransitions.size(), runningTransitionCount,
+            completedTransitionCount, failedTransitionCount, transferredBytes, getRecentBytesPerSecond(nowMillis)));
+
+        startWaitingTransitions();
+    }
+
+    /**
+     * Gets the number of transitions waiting to be started.
+     *
+     * @return the number of waiting transitions
+     */
+    synchronized int getWaitingTransitionCount()
+    {
+        return waitingTransitions.size();
+    }
+
+    /**
+     * Gets the number of transitions running.
+     *
+     * @return the number of running transitions
+     */
+    synchronized int getRunningTransitionCount()
+    {
+        return runningTransitionCount;
+    }
+
+    /**
+     * Gets the local temporary directory space reserved by the running transitions.
+     *
+     * @return the reserved temporary directory space in bytes
+     */
+    synchronized long getReservedTemporaryDirectoryBytes()
+    {
+        return reservedTemporaryDirectoryBytes;
+    }
+
+    /**
+     * Gets the number of transitions completed successfully.
+     *
+     * @return the number of completed transitions
+     */
+    synchronized long getCompletedTransitionCount()
+    {
+        return completedTransitionCount;
+    }
+
+    /**
+     * Gets the number of transitions that failed.
+     *
+     * @return the number of failed transitions
+     */
+    synchronized long getFailedTransitionCount()
+    {
+        return failedTransitionCount;
+    }
+
+    /**
+     * Gets the number of bytes transferred by the completed transitions.
+     *
+     * @return the number of transferred bytes
+     */
+    synchronized long getTransferredBytes()
+    {
+        return transferredBytes;
+    }
+
+    /**
+     * Gets the number of bytes transferred per second by the transitions completed within the recent transfer rate window.
+     *
+     * @return the recent transfer rate in bytes per second
+     */
+    synchronized long getRecentBytesPerSecond()
+    {
+        return getRecentBytesPerSecond(System.currentTimeMillis());
+    }
+
+    /**
+     * Starts the waiting transitions that fit within the configured limits, smallest first, and wakes up their threads. Must be called while holding this
+     * scheduler's monitor.
+     */
+    private void startWaitingTransitions()
+    {
+        final long nowMillis = System.currentTimeMillis();
+        final long maxWaitTimeMillis = 1000L * configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_WAIT_TIME_SECS, Integer.class);
+        int maxTransitionsPerSourceStorage =
+            configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_SOURCE_STORAGE, Integer.class);
+        int maxTransitionsPerDestinationStorage =
+            configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_DESTINATION_STORAGE, Integer.class);
+        long temporaryDirectoryBudgetBytes =
+            HerdFileUtils.BYTES_PER_GB * configurationHelper.getProperty(ConfigurationValue.STORAGE_POLICY_PROCESSOR_TEMP_DIR_BUDGET_GB, Integer.class);
+
+        // Order the waiting transitions: the ones that have waited too long first in their arrival order, then the rest smallest first.
+        List<ScheduledTransition> candidates = new ArrayList<>(waitingTransitions);
+        Collections.sort(candidates, new Comparator<ScheduledTransition>()
+        {
+            @Override
+            public int compare(ScheduledTransition o1, ScheduledTransition o2)
+            {
+                boolean starved1 = o1.isStarved(nowMillis, maxWaitTimeMillis);
+                boolean starved2 = o2.isStarved(nowMillis, maxWaitTimeMillis);
+                if (starved1 != starved2)
+                {
+                    return starved1 ? -1 : 1;
+                }
+                if (!starved1 && o1.sizeBytes != o2.sizeBytes)
+                {
+                    return Long.compare(o1.sizeBytes, o2.sizeBytes);
+                }
+                return Long.compare(o1.sequenceNumber, o2.sequenceNumber);
+            }
+        });
+
+        boolean started = false;
+        for (ScheduledTransition candidate : candidates)
+        {
+            boolean storagesAvailable = isBelowLimit(runningTransitionCountsBySourceStorage, candidate.sourceStorageName, maxTransitionsPerSourceStorage) &&
+                isBelowLimit(runningTransitionCountsByDestinationStorage, candidate.destinationStorageName, maxTransitionsPerDestinationStorage);
+
+            // A transition bigger than the whole budget is started once nothing else is running, so it does not wait forever.
+            boolean temporaryDirectorySpaceAvailable = temporaryDirectoryBudgetBytes <= 0 || runningTransitionCount == 0 ||
+                reservedTemporaryDirectoryBytes + candidate.reservedTemporaryDirectoryBytes <= temporaryDirectoryBudgetBytes;
+
+            if (storagesAvailable && temporaryDirectorySpaceAvailable)
+            {
+                start(candidate, nowMillis);
+                started = true;
+            }
+            else if (storagesAvailable && candidate.isStarved(nowMillis, maxWaitTimeMillis))
+            {
+                // Keep the temporary directory space being freed up for the transition that has waited too long.
+                break;
+            }
+        }
+
+        if (started)
+        {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Marks a waiting transition as running and takes its concurrency and temporary directory space.
+     *
+     * @param scheduledTransition the scheduled transition
+     * @param nowMillis the current time in milliseconds
+     */
+    private void start(ScheduledTransition scheduledTransition, long nowMillis)
+    {
+        waitingTransitions.remove(scheduledTransition);
+        scheduledTransition.startTimeMillis = nowMillis;
+
+        runningTransitionCount++;
+        reservedTemporaryDirectoryBytes += scheduledTransition.reservedTemporaryDirectoryBytes;
+        increment(runningTransitionCountsBySourceStorage, scheduledTransition.sourceStorageName);
+        increment(runningTransitionCountsByDestinationStorage, scheduledTransition.destinationStorageName);
+
+        long waitTimeMillis = nowMillis - scheduledTransition.scheduleTimeMillis;
+
+        LOGGER.info(String.format("Starting storage policy transition of storage unit %d (%d bytes) from \"%s\" storage to \"%s\" storage after waiting %d ms. " +
+                "waitingTransitionCount=%d runningTransitionCount=%d reservedTemporaryDirectoryBytes=%d", scheduledTransition.sourceStorageUnitId,
+            scheduledTransition.sizeBytes, scheduledTransition.sourceStorageName, scheduledTransition.destinationStorageName, waitTimeMillis,
+            waitingTransitions.size(), runningTransitionCount, reservedTemporaryDirectoryBytes));
+    }
+
+    /**
+     * Gets the number of bytes transferred per second by the transitions completed within the recent transfer rate window.
+     *
+     * @param nowMillis the current time in milliseconds
+     *
+     * @return the recent transfer rate in bytes per second
+     */
+    private long getRecentBytesPerSecond(long nowMillis)
+    {
+        while (!recentTransfers.isEmpty() && nowMillis - recentTransfers.peekFirst()[0] > RECENT_TRANSFER_RATE_WINDOW_MILLIS)
+        {
+            recentTransfers.removeFirst();
+        }
+
+        long recentBytes = 0;
+        for (long[] recentTransfer : recentTransfers)
+        {
+            recentBytes += recentTransfer[1];
+        }
+
+        return 1000L * recentBytes / RECENT_TRANSFER_RATE_WINDOW_MILLIS;
+    }
+
+    /**
+     * Returns true if the number of running transitions for the specified storage is below the limit. A limit of 0 or less means no limit.
+     */
+    private boolean isBelowLimit(Map<String, Integer> runningTransitionCounts, String storageName, int limit)
+    {
+        Integer count = runningTransitionCounts.get(storageName);
+        return limit <= 0 || count == null || count < limit;
+    }
+
+    private void increment(Map<String, Integer> runningTransitionCounts, String storageName)
+    {
+        Integer count = runningTransitionCounts.get(storageName);
+        runningTransitionCounts.put(storageName, count == null ? 1 : count + 1);
+    }
+
+    private void decrement(Map<String, Integer> runningTransitionCounts, String storageName)
+    {
+        Integer count = runningTransitionCounts.get(storageName);
+        if (count == null || count <= 1)
+        {
+            runningTransitionCounts.remove(storageName);
+        }
+        else
+        {
+            runningTransitionCounts.put(storageName, count - 1);
+        }
+    }
+
+    /**
+     * A storage policy transition scheduled for execution.
+     */
+    public static final class ScheduledTransition
+    {
+        private final Integer sourceStorageUnitId;
+
+        private final String sourceStorageName;
+
+        private final String destinationStorageName;
+
+        private final long sizeBytes;
+
+        /**
+         * The local temporary directory space needed by the transition: the downloaded storage files plus the TAR archive created from them.
+         */
+        private final long reservedTemporaryDirectoryBytes;
+
+        private final long sequenceNumber;
+
+        private final long scheduleTimeMillis = System.currentTimeMillis();
+
+        private long startTimeMillis;
+
+        private long releaseTimeMillis;
+
+        private ScheduledTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto, long sequenceNumber)
+        {
+            this.sourceStorageUnitId = storagePolicyTransitionParamsDto.getSourceStorageUnitId();
+            this.sourceStorageName = storagePolicyTransitionParamsDto.getSourceStorageName();
+            this.destinationStorageName = storagePolicyTransitionParamsDto.getDestinationStorageName();
+            this.sizeBytes = storagePolicyTransitionParamsDto.getSourceStorageFilesSizeBytes();
+            this.reservedTemporaryDirectoryBytes = 2 * sizeBytes;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        private boolean isStarted()
+        {
+            return startTimeMillis > 0;
+        }
+
+        private boolean isReleased()
+        {
+            return releaseTimeMillis > 0;
+        }
+
+        private boolean isStarved(long nowMillis, long maxWaitTimeMillis)
+        {
+            return maxWaitTimeMillis > 0 && nowMillis - scheduleTimeMillis >= maxWaitTimeMillis;
+        }
+    }
+}
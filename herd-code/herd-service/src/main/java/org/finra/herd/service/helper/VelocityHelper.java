@@ -18,18 +18,48 @@ package org.finra.herd.service.helper;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.RuntimeSingleton;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
+
 /**
  * A helper to abstract operations around Apache Velocity.
  */
 @Component
 public class VelocityHelper
 {
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
+    /**
+     * The parsed templates keyed by the log tag and the template content, in the least recently used order. The log tag is part of the key since it is used
+     * as the template name in the errors reported while merging the template. A parsed template holds no per evaluation state, so it can be merged by
+     * multiple threads at the same time.
+     */
+    private final Map<List<String>, Template> templateCache = Collections.synchronizedMap(new LinkedHashMap<List<String>, Template>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, Template> eldest)
+        {
+            return size() > configurationHelper.getProperty(ConfigurationValue.VELOCITY_TEMPLATE_CACHE_MAX_SIZE, Integer.class);
+        }
+    });
+
     /**
      * Initializes the Velocity engine.
      */
@@ -63,7 +93,8 @@ public class VelocityHelper
     }
 
     /**
-     * Wrapper for {@link Velocity#evaluate(org.apache.velocity.context.Context, java.io.Writer, String, java.io.InputStream)}
+     * Evaluates the template {@link String}. The template is parsed once and then reused from the template cache for as long as the same template content is
+     * evaluated.
      * 
      * @param template The template {@link String}
      * @param variables Variables to add to context
@@ -72,7 +103,46 @@ public class VelocityHelper
      */
     public String evaluate(String template, Map<String, Object> variables, String logTag)
     {
-        StringReader templateReader = new StringReader(template);
-        return evaluate(templateReader, variables, logTag);
+        VelocityContext velocityContext = new VelocityContext(variables);
+        StringWriter writer = new StringWriter();
+        getTemplate(template, logTag).merge(velocityContext, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Gets the parsed template for the specified template content and log tag, parsing and caching it if it is not in the template cache yet.
+     *
+     * @param template the template content
+     * @param logTag the log tag used as the template name
+     *
+     * @return the parsed template
+     * @throws ParseErrorException if the template can not be parsed
+     */
+    Template getTemplate(String template, String logTag)
+    {
+        List<String> templateKey = Arrays.asList(logTag, template);
+        Template parsedTemplate = templateCache.get(templateKey);
+
+        if (parsedTemplate == null)
+        {
+            // The same steps as Velocity.evaluate() takes, except that the parsed node tree is kept in a template instead of being discarded.
+            RuntimeServices runtimeServices = RuntimeSingleton.getRuntimeServices();
+            parsedTemplate = new Template();
+            parsedTemplate.setRuntimeServices(runtimeServices);
+            parsedTemplate.setName(logTag);
+            try
+            {
+                parsedTemplate.setData(runtimeServices.parse(new StringReader(template), logTag));
+            }
+            catch (ParseException e)
+            {
+                throw new ParseErrorException(e, logTag);
+            }
+            parsedTemplate.initDocument();
+
+            templateCache.put(templateKey, parsedTemplate);
+        }
+
+        return parsedTemplate;
     }
 }
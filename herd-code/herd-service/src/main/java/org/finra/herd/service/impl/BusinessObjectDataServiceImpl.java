@@ -74,6 +74,7 @@ import org.finra.herd.model.api.xml.PartitionValueRange;
 import org.finra.herd.model.api.xml.S3KeyPrefixInformation;
 import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
+import org.finra.herd.model.dto.StorageUnitAvailabilityDto;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
@@ -490,7 +491,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
      * @return the business object data availability information
      */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataAvailabilityCollectionResponse checkBusinessObjectDataAvailabilityCollection(
         BusinessObjectDataAvailabilityCollectionRequest request)
     {
@@ -520,6 +521,21 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
      */
     protected BusinessObjectDataAvailability checkBusinessObjectDataAvailabilityImpl(BusinessObjectDataAvailabilityRequest request,
         boolean skipRequestValidation)
+    {
+        return checkBusinessObjectDataAvailabilityImpl(request, skipRequestValidation, null);
+    }
+
+    /**
+     * Performs a search and returns a list of business object data key values and relative statuses for a range of requested business object data.
+     *
+     * @param request the business object data availability request
+     * @param skipRequestValidation specifies whether to skip the request validation and trimming
+     * @param collectionRequestLookups the lookups shared by the individual requests of a collection request, may be null
+     *
+     * @return the business object data availability information
+     */
+    private BusinessObjectDataAvailability checkBusinessObjectDataAvailabilityImpl(BusinessObjectDataAvailabilityRequest request,
+        boolean skipRequestValidation, CollectionRequestLookups collectionRequestLookups)
     {
         // Perform the validation.
         if (!skipRequestValidation)
@@ -533,7 +549,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
                 request.getBusinessObjectFormatFileType(), request.getBusinessObjectFormatVersion());
 
         // Make sure that specified business object format exists.
-        BusinessObjectFormatEntity businessObjectFormatEntity = herdDaoHelper.getBusinessObjectFormatEntity(businessObjectFormatKey);
+        BusinessObjectFormatEntity businessObjectFormatEntity = getBusinessObjectFormatEntity(businessObjectFormatKey, collectionRequestLookups);
 
         // Validate that specified storages exist.
         List<String> storageNames = new ArrayList<>();
@@ -547,7 +563,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         }
         for (String storageName : storageNames)
         {
-            storageDaoHelper.getStorageEntity(storageName);
+            getStorageEntity(storageName, collectionRequestLookups);
         }
 
         // Build partition filters based on the specified partition value filters.
@@ -555,13 +571,14 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
             .buildPartitionFilters(request.getPartitionValueFilters(), request.getPartitionValueFilter(), businessObjectFormatKey,
                 request.getBusinessObjectDataVersion(), storageNames, businessObjectFormatEntity);
 
-        // Retrieve a list of storage unit entities for the specified partition values
-        // The entities will be sorted by partition value that is identified by partition column position.
+        // Retrieve a list of storage unit availability DTOs for the specified partition values
+        // The DTOs will be sorted by partition value that is identified by partition column position.
         // If a business object data version isn't specified, the latest VALID business object data version is returned.
         // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
         // We want to select only "available" storage units, so we pass "true" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> availableStorageUnitEntities = herdDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, request.getBusinessObjectDataVersion(),
+        // Please note that the availability check only needs a flat projection of the storage units, so no entities get loaded here.
+        List<StorageUnitAvailabilityDto> availableStorageUnitAvailabilityDtos = herdDao
+            .getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(businessObjectFormatKey, partitionFilters, request.getBusinessObjectDataVersion(),
                 BusinessObjectDataStatusEntity.VALID, storageNames, null, StoragePlatformEntity.GLACIER, true);
 
         // Create business object data availability object instance and initialise it with request field values.
@@ -574,16 +591,14 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         businessObjectDataAvailability.setNotAvailableStatuses(notAvailableStatuses);
 
         // Build a list of matched available partition filters and populate the available statuses list.
-        // Please note that each request partition filter might result in multiple available business object data entities.
+        // Please note that each request partition filter might result in multiple available business object data instances.
         // If storage names are not specified, fail on "duplicate" business object data (same business object data
         // instance registered with multiple storages). Otherwise, remove possible "duplicates".
         List<List<String>> matchedAvailablePartitionFilters = new ArrayList<>();
-        Map<BusinessObjectDataEntity, StorageUnitEntity> businessObjectDataToStorageUnitMap = new HashMap<>();
-        for (StorageUnitEntity storageUnitEntity : availableStorageUnitEntities)
+        Set<Integer> matchedBusinessObjectDataIds = new HashSet<>();
+        for (StorageUnitAvailabilityDto storageUnitAvailabilityDto : availableStorageUnitAvailabilityDtos)
         {
-            BusinessObjectDataEntity businessObjectDataEntity = storageUnitEntity.getBusinessObjectData();
-
-            if (businessObjectDataToStorageUnitMap.containsKey(businessObjectDataEntity))
+            if (matchedBusinessObjectDataIds.contains(storageUnitAvailabilityDto.getBusinessObjectDataId()))
             {
                 // If storage names are not specified, fail on a business object data registered in multiple storages.
                 // Otherwise, ignore that storage unit.
@@ -591,27 +606,27 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
                 {
                     throw new IllegalArgumentException(String.format("Found business object data registered in more than one storage. " +
                         "Please specify storage(s) in the request to resolve this. Business object data {%s}",
-                        herdDaoHelper.businessObjectDataEntityAltKeyToString(businessObjectDataEntity)));
+                        herdHelper.businessObjectDataKeyToString(herdDaoHelper.getBusinessObjectDataKey(storageUnitAvailabilityDto))));
                 }
             }
             else
             {
-                matchedAvailablePartitionFilters.add(herdDaoHelper.getPartitionFilter(storageUnitEntity.getBusinessObjectData(), partitionFilters.get(0)));
+                matchedAvailablePartitionFilters.add(herdDaoHelper.getPartitionFilter(storageUnitAvailabilityDto, partitionFilters.get(0)));
 
-                if (StoragePlatformEntity.GLACIER.equals(storageUnitEntity.getStorage().getStoragePlatform().getName()))
+                if (StoragePlatformEntity.GLACIER.equals(storageUnitAvailabilityDto.getStoragePlatformType()))
                 {
                     // For a Glacier storage, add the storage unit to the "not-available" statuses list with the "ARCHIVED" reason.
-                    BusinessObjectDataStatus businessObjectDataStatus = createAvailableBusinessObjectDataStatus(businessObjectDataEntity);
+                    BusinessObjectDataStatus businessObjectDataStatus = createAvailableBusinessObjectDataStatus(storageUnitAvailabilityDto);
                     businessObjectDataStatus.setReason(REASON_ARCHIVED);
                     notAvailableStatuses.add(businessObjectDataStatus);
                 }
                 else
                 {
                     // For a non-Glacier storage, add the storage unit to the "available" statuses list.
-                    availableStatuses.add(createAvailableBusinessObjectDataStatus(businessObjectDataEntity));
+                    availableStatuses.add(createAvailableBusinessObjectDataStatus(storageUnitAvailabilityDto));
                 }
 
-                businessObjectDataToStorageUnitMap.put(storageUnitEntity.getBusinessObjectData(), storageUnitEntity);
+                matchedBusinessObjectDataIds.add(storageUnitAvailabilityDto.getBusinessObjectDataId());
             }
         }
 
@@ -623,35 +638,32 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         // This is done to populate not-available statuses with legitimate reasons.
         // Business object data availability works across all storage platform types, so the storage platform type is not specified in the herdDao call.
         // We want to select any existing storage units regardless of their status, so we pass "false" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> notAvailableStorageUnitEntities = herdDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters, request.getBusinessObjectDataVersion(), null,
-                storageNames, null, StoragePlatformEntity.GLACIER, false);
+        List<StorageUnitAvailabilityDto> notAvailableStorageUnitAvailabilityDtos = herdDao
+            .getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters,
+                request.getBusinessObjectDataVersion(), null, storageNames, null, StoragePlatformEntity.GLACIER, false);
 
         // For all unmatched filters, select "available" storage units in any storages of the GLACIER storage platform type.
         // This is done to be able to check if business object data with a "non-available" storage unit is actually archived.
         // We want to select only "available" storage units, so we pass "true" for selectOnlyAvailableStorageUnits parameter.
-        List<StorageUnitEntity> archivedStorageUnitEntities = herdDao
-            .getStorageUnitsByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters, request.getBusinessObjectDataVersion(), null,
-                null, StoragePlatformEntity.GLACIER, null, true);
+        List<StorageUnitAvailabilityDto> archivedStorageUnitAvailabilityDtos = herdDao
+            .getStorageUnitAvailabilityDtosByPartitionFiltersAndStorages(businessObjectFormatKey, unmatchedPartitionFilters,
+                request.getBusinessObjectDataVersion(), null, null, StoragePlatformEntity.GLACIER, null, true);
 
-        // Populate a set of archived business object data entities for easy access. Please note that business object data might be archived in more than
+        // Populate a set of archived business object data ids for easy access. Please note that business object data might be archived in more than
         // one Glacier storage.
-        Set<BusinessObjectDataEntity> archivedBusinessObjectDataEntities = new HashSet<>();
-        for (StorageUnitEntity storageUnitEntity : archivedStorageUnitEntities)
+        Set<Integer> archivedBusinessObjectDataIds = new HashSet<>();
+        for (StorageUnitAvailabilityDto storageUnitAvailabilityDto : archivedStorageUnitAvailabilityDtos)
         {
-            if (!archivedBusinessObjectDataEntities.contains(storageUnitEntity.getBusinessObjectData()))
-            {
-                archivedBusinessObjectDataEntities.add(storageUnitEntity.getBusinessObjectData());
-            }
+            archivedBusinessObjectDataIds.add(storageUnitAvailabilityDto.getBusinessObjectDataId());
         }
 
         // Build a list of matched "not-available" partition filters and populate the not-available statuses list.
-        // Please note that each request partition filter might result in multiple available business object data entities.
+        // Please note that each request partition filter might result in multiple available business object data instances.
         List<List<String>> matchedNotAvailablePartitionFilters = new ArrayList<>();
-        for (StorageUnitEntity storageUnitEntity : notAvailableStorageUnitEntities)
+        for (StorageUnitAvailabilityDto storageUnitAvailabilityDto : notAvailableStorageUnitAvailabilityDtos)
         {
-            matchedNotAvailablePartitionFilters.add(herdDaoHelper.getPartitionFilter(storageUnitEntity.getBusinessObjectData(), partitionFilters.get(0)));
-            notAvailableStatuses.add(createNotAvailableBusinessObjectDataStatus(storageUnitEntity, archivedBusinessObjectDataEntities));
+            matchedNotAvailablePartitionFilters.add(herdDaoHelper.getPartitionFilter(storageUnitAvailabilityDto, partitionFilters.get(0)));
+            notAvailableStatuses.add(createNotAvailableBusinessObjectDataStatus(storageUnitAvailabilityDto, archivedBusinessObjectDataIds));
         }
 
         // Update the list of unmatched partition filters.
@@ -686,10 +698,11 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         businessObjectDataAvailabilityCollectionResponse.setBusinessObjectDataAvailabilityResponses(businessObjectDataAvailabilityResponses);
         boolean isAllDataAvailable = true;
         boolean isAllDataNotAvailable = true;
+        CollectionRequestLookups collectionRequestLookups = new CollectionRequestLookups();
         for (BusinessObjectDataAvailabilityRequest request : businessObjectDataAvailabilityCollectionRequest.getBusinessObjectDataAvailabilityRequests())
         {
             // Please note that when calling to process individual availability requests, we ask to skip the request validation and trimming step.
-            BusinessObjectDataAvailability businessObjectDataAvailability = checkBusinessObjectDataAvailabilityImpl(request, true);
+            BusinessObjectDataAvailability businessObjectDataAvailability = checkBusinessObjectDataAvailabilityImpl(request, true, collectionRequestLookups);
             businessObjectDataAvailabilityResponses.add(businessObjectDataAvailability);
             isAllDataAvailable = isAllDataAvailable && businessObjectDataAvailability.getNotAvailableStatuses().isEmpty();
             isAllDataNotAvailable = isAllDataNotAvailable && businessObjectDataAvailability.getAvailableStatuses().isEmpty();
@@ -724,7 +737,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
      * @return the business object data DDL information
      */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectDataDdlCollectionResponse generateBusinessObjectDataDdlCollection(BusinessObjectDataDdlCollectionRequest request)
     {
         return generateBusinessObjectDataDdlCollectionImpl(request);
@@ -740,6 +753,22 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
      * @return the business object data DDL information
      */
     protected BusinessObjectDataDdl generateBusinessObjectDataDdlImpl(BusinessObjectDataDdlRequest request, boolean skipRequestValidation)
+    {
+        return generateBusinessObjectDataDdlImpl(request, skipRequestValidation, null);
+    }
+
+    /**
+     * Retrieves the DDL to initialize the specified type of the database system to perform queries for a range of requested business object data in the
+     * specified storage.
+     *
+     * @param request the business object data DDL request
+     * @param skipRequestValidation specifies whether to skip the request validation and trimming
+     * @param collectionRequestLookups the lookups shared by the individual requests of a collection request, may be null
+     *
+     * @return the business object data DDL information
+     */
+    private BusinessObjectDataDdl generateBusinessObjectDataDdlImpl(BusinessObjectDataDdlRequest request, boolean skipRequestValidation,
+        CollectionRequestLookups collectionRequestLookups)
     {
         // Perform the validation.
         if (!skipRequestValidation)
@@ -749,9 +778,9 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
 
         // Get the business object format entity for the specified parameters and make sure it exists.
         // Please note that when format version is not specified, we should get back the latest format version.
-        BusinessObjectFormatEntity businessObjectFormatEntity = herdDaoHelper.getBusinessObjectFormatEntity(
+        BusinessObjectFormatEntity businessObjectFormatEntity = getBusinessObjectFormatEntity(
             new BusinessObjectFormatKey(request.getNamespace(), request.getBusinessObjectDefinitionName(), request.getBusinessObjectFormatUsage(),
-                request.getBusinessObjectFormatFileType(), request.getBusinessObjectFormatVersion()));
+                request.getBusinessObjectFormatFileType(), request.getBusinessObjectFormatVersion()), collectionRequestLookups);
 
         // Validate that format has schema information.
         Assert.notEmpty(businessObjectFormatEntity.getSchemaColumns(), String.format(
@@ -784,7 +813,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         List<StorageEntity> storageEntities = new ArrayList<>();
         for (String storageName : storageNames)
         {
-            StorageEntity storageEntity = storageDaoHelper.getStorageEntity(storageName);
+            StorageEntity storageEntity = getStorageEntity(storageName, collectionRequestLookups);
 
             // Only S3 storage platform is currently supported.
             Assert.isTrue(storageEntity.getStoragePlatform().getName().equals(StoragePlatformEntity.S3),
@@ -797,10 +826,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         Map<StorageEntity, String> s3BucketNames = new HashMap<>();
         for (StorageEntity storageEntity : storageEntities)
         {
-            // Please note that since S3 bucket name attribute value is required we pass a "true" flag.
-            String s3BucketName = storageDaoHelper
-                .getStorageAttributeValueByName(configurationHelper.getProperty(ConfigurationValue.S3_ATTRIBUTE_NAME_BUCKET_NAME), storageEntity, true);
-            s3BucketNames.put(storageEntity, s3BucketName);
+            s3BucketNames.put(storageEntity, getS3BucketName(storageEntity, collectionRequestLookups));
         }
 
         // Create and initialize a business object data DDL object instance.
@@ -830,10 +856,11 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         List<BusinessObjectDataDdl> businessObjectDataDdlResponses = new ArrayList<>();
         businessObjectDataDdlCollectionResponse.setBusinessObjectDataDdlResponses(businessObjectDataDdlResponses);
         List<String> ddls = new ArrayList<>();
+        CollectionRequestLookups collectionRequestLookups = new CollectionRequestLookups();
         for (BusinessObjectDataDdlRequest request : businessObjectDataDdlCollectionRequest.getBusinessObjectDataDdlRequests())
         {
             // Please note that when calling to process individual ddl requests, we ask to skip the request validation and trimming step.
-            BusinessObjectDataDdl businessObjectDataDdl = generateBusinessObjectDataDdlImpl(request, true);
+            BusinessObjectDataDdl businessObjectDataDdl = generateBusinessObjectDataDdlImpl(request, true, collectionRequestLookups);
             businessObjectDataDdlResponses.add(businessObjectDataDdl);
             ddls.add(businessObjectDataDdl.getDdl());
         }
@@ -842,6 +869,95 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         return businessObjectDataDdlCollectionResponse;
     }
 
+    /**
+     * Gets a business object format entity and makes sure it exists. When collection request lookups are specified, the entity is only looked up once per
+     * collection request.
+     *
+     * @param businessObjectFormatKey the business object format key
+     * @param collectionRequestLookups the lookups shared by the individual requests of a collection request, may be null
+     *
+     * @return the business object format entity
+     */
+    private BusinessObjectFormatEntity getBusinessObjectFormatEntity(BusinessObjectFormatKey businessObjectFormatKey,
+        CollectionRequestLookups collectionRequestLookups)
+    {
+        if (collectionRequestLookups == null)
+        {
+            return herdDaoHelper.getBusinessObjectFormatEntity(businessObjectFormatKey);
+        }
+
+        BusinessObjectFormatEntity businessObjectFormatEntity = collectionRequestLookups.businessObjectFormatEntities.get(businessObjectFormatKey);
+        if (businessObjectFormatEntity == null)
+        {
+            businessObjectFormatEntity = herdDaoHelper.getBusinessObjectFormatEntity(businessObjectFormatKey);
+            collectionRequestLookups.businessObjectFormatEntities.put(businessObjectFormatKey, businessObjectFormatEntity);
+        }
+        return businessObjectFormatEntity;
+    }
+
+    /**
+     * Gets a storage entity and makes sure it exists. When collection request lookups are specified, the entity is only looked up once per collection request.
+     *
+     * @param storageName the storage name (case insensitive)
+     * @param collectionRequestLookups the lookups shared by the individual requests of a collection request, may be null
+     *
+     * @return the storage entity
+     */
+    private StorageEntity getStorageEntity(String storageName, CollectionRequestLookups collectionRequestLookups)
+    {
+        if (collectionRequestLookups == null)
+        {
+            return storageDaoHelper.getStorageEntity(storageName);
+        }
+
+        String storageNameKey = storageName.toUpperCase();
+        StorageEntity storageEntity = collectionRequestLookups.storageEntities.get(storageNameKey);
+        if (storageEntity == null)
+        {
+            storageEntity = storageDaoHelper.getStorageEntity(storageName);
+            collectionRequestLookups.storageEntities.put(storageNameKey, storageEntity);
+        }
+        return storageEntity;
+    }
+
+    /**
+     * Gets the S3 bucket name configured for the storage. When collection request lookups are specified, the bucket name is only resolved once per collection
+     * request.
+     *
+     * @param storageEntity the storage entity
+     * @param collectionRequestLookups the lookups shared by the individual requests of a collection request, may be null
+     *
+     * @return the S3 bucket name
+     */
+    private String getS3BucketName(StorageEntity storageEntity, CollectionRequestLookups collectionRequestLookups)
+    {
+        String s3BucketName = collectionRequestLookups == null ? null : collectionRequestLookups.s3BucketNames.get(storageEntity);
+        if (s3BucketName == null)
+        {
+            // Please note that since S3 bucket name attribute value is required we pass a "true" flag.
+            s3BucketName = storageDaoHelper
+                .getStorageAttributeValueByName(configurationHelper.getProperty(ConfigurationValue.S3_ATTRIBUTE_NAME_BUCKET_NAME), storageEntity, true);
+            if (collectionRequestLookups != null)
+            {
+                collectionRequestLookups.s3BucketNames.put(storageEntity, s3BucketName);
+            }
+        }
+        return s3BucketName;
+    }
+
+    /**
+     * The lookups shared by the individual requests of a collection request. Collection requests usually reference the same storages and often the same
+     * business object formats, so they are only resolved once per collection request.
+     */
+    private static class CollectionRequestLookups
+    {
+        private final Map<BusinessObjectFormatKey, BusinessObjectFormatEntity> businessObjectFormatEntities = new HashMap<>();
+
+        private final Map<String, StorageEntity> storageEntities = new HashMap<>();
+
+        private final Map<StorageEntity, String> s3BucketNames = new HashMap<>();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1213,53 +1329,50 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
     }
 
     /**
-     * Creates a business object data status instance from the business object data entity.
+     * Creates a business object data status instance from the storage unit availability DTO.
      *
-     * @param businessObjectDataEntity the business object data entity
+     * @param storageUnitAvailabilityDto the storage unit availability DTO
      *
      * @return the business object data status instance
      */
-    private BusinessObjectDataStatus createAvailableBusinessObjectDataStatus(BusinessObjectDataEntity businessObjectDataEntity)
+    private BusinessObjectDataStatus createAvailableBusinessObjectDataStatus(StorageUnitAvailabilityDto storageUnitAvailabilityDto)
     {
         BusinessObjectDataStatus businessObjectDataStatus = new BusinessObjectDataStatus();
 
-        businessObjectDataStatus.setBusinessObjectFormatVersion(businessObjectDataEntity.getBusinessObjectFormat().getBusinessObjectFormatVersion());
-        businessObjectDataStatus.setPartitionValue(businessObjectDataEntity.getPartitionValue());
-        businessObjectDataStatus.setSubPartitionValues(herdHelper.getSubPartitionValues(businessObjectDataEntity));
-        businessObjectDataStatus.setBusinessObjectDataVersion(businessObjectDataEntity.getVersion());
-        businessObjectDataStatus.setReason(businessObjectDataEntity.getStatus().getCode());
+        businessObjectDataStatus.setBusinessObjectFormatVersion(storageUnitAvailabilityDto.getBusinessObjectFormatVersion());
+        businessObjectDataStatus.setPartitionValue(storageUnitAvailabilityDto.getPartitionValue());
+        businessObjectDataStatus.setSubPartitionValues(new ArrayList<>(storageUnitAvailabilityDto.getSubPartitionValues()));
+        businessObjectDataStatus.setBusinessObjectDataVersion(storageUnitAvailabilityDto.getBusinessObjectDataVersion());
+        businessObjectDataStatus.setReason(storageUnitAvailabilityDto.getBusinessObjectDataStatus());
 
         return businessObjectDataStatus;
     }
 
     /**
-     * Creates a business object data status instance from the storage unit entity.
+     * Creates a business object data status instance from the storage unit availability DTO.
      *
-     * @param storageUnitEntity the storage unit entity
-     * @param archivedBusinessObjectDataEntities the set of archived business object data entities, not null
+     * @param storageUnitAvailabilityDto the storage unit availability DTO
+     * @param archivedBusinessObjectDataIds the set of archived business object data ids, not null
      *
      * @return the business object data status instance
      */
-    private BusinessObjectDataStatus createNotAvailableBusinessObjectDataStatus(StorageUnitEntity storageUnitEntity,
-        Set<BusinessObjectDataEntity> archivedBusinessObjectDataEntities)
+    private BusinessObjectDataStatus createNotAvailableBusinessObjectDataStatus(StorageUnitAvailabilityDto storageUnitAvailabilityDto,
+        Set<Integer> archivedBusinessObjectDataIds)
     {
-        // Get the business object entity.
-        BusinessObjectDataEntity businessObjectDataEntity = storageUnitEntity.getBusinessObjectData();
-
         // Create and populate the business object data status instance.
         BusinessObjectDataStatus businessObjectDataStatus = new BusinessObjectDataStatus();
 
-        businessObjectDataStatus.setBusinessObjectFormatVersion(businessObjectDataEntity.getBusinessObjectFormat().getBusinessObjectFormatVersion());
-        businessObjectDataStatus.setPartitionValue(businessObjectDataEntity.getPartitionValue());
-        businessObjectDataStatus.setSubPartitionValues(herdHelper.getSubPartitionValues(businessObjectDataEntity));
-        businessObjectDataStatus.setBusinessObjectDataVersion(businessObjectDataEntity.getVersion());
+        businessObjectDataStatus.setBusinessObjectFormatVersion(storageUnitAvailabilityDto.getBusinessObjectFormatVersion());
+        businessObjectDataStatus.setPartitionValue(storageUnitAvailabilityDto.getPartitionValue());
+        businessObjectDataStatus.setSubPartitionValues(new ArrayList<>(storageUnitAvailabilityDto.getSubPartitionValues()));
+        businessObjectDataStatus.setBusinessObjectDataVersion(storageUnitAvailabilityDto.getBusinessObjectDataVersion());
 
-        if (storageUnitEntity.getStatus().getAvailable())
+        if (storageUnitAvailabilityDto.isStorageUnitAvailable())
         {
             // Storage unit is "available", so business object data is selected as "non-available" due to its business object data status.
-            businessObjectDataStatus.setReason(businessObjectDataEntity.getStatus().getCode());
+            businessObjectDataStatus.setReason(storageUnitAvailabilityDto.getBusinessObjectDataStatus());
         }
-        else if (archivedBusinessObjectDataEntities.contains(storageUnitEntity.getBusinessObjectData()))
+        else if (archivedBusinessObjectDataIds.contains(storageUnitAvailabilityDto.getBusinessObjectDataId()))
         {
             // Storage unit is not "available", but business object data is archived.
             businessObjectDataStatus.setReason(BusinessObjectDataServiceImpl.REASON_ARCHIVED);
@@ -1466,7 +1579,7 @@ public class BusinessObjectDataServiceImpl implements BusinessObjectDataService
         }
 
         Credentials credentials = stsDao
-            .getTemporarySecurityCredentials(awsHelper.getAwsParamsDto(), businessObjectDataKey.getNamespace(), roleArn, durationSeconds,
+            .getCachedTemporarySecurityCredentials(awsHelper.getAwsParamsDto(), businessObjectDataKey.getNamespace(), roleArn, durationSeconds,
                 awsPolicyBuilder.build());
 
         AwsCredential awsCredential = new AwsCredential();
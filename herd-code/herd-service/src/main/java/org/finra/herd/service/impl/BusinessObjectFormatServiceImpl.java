@@ -396,7 +396,7 @@ public class BusinessObjectFormatServiceImpl implements BusinessObjectFormatServ
      * @return the business object format DDL information
      */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public BusinessObjectFormatDdlCollectionResponse generateBusinessObjectFormatDdlCollection(BusinessObjectFormatDdlCollectionRequest request)
     {
         return generateBusinessObjectFormatDdlCollectionImpl(request);
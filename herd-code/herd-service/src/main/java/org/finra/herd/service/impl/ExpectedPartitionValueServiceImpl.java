@@ -96,16 +96,8 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
         }
 
         // Create and persist the expected partition value entities.
-        Collection<ExpectedPartitionValueEntity> createdExpectedPartitionValueEntities = new ArrayList<>();
-        for (String expectedPartitionValue : expectedPartitionValuesCreateRequest.getExpectedPartitionValues())
-        {
-            ExpectedPartitionValueEntity expectedPartitionValueEntity = new ExpectedPartitionValueEntity();
-            createdExpectedPartitionValueEntities.add(expectedPartitionValueEntity);
-            expectedPartitionValueEntity.setPartitionKeyGroup(partitionKeyGroupEntity);
-            expectedPartitionValueEntity.setPartitionValue(expectedPartitionValue);
-            herdDao.saveAndRefresh(expectedPartitionValueEntity);
-        }
-        herdDao.saveAndRefresh(partitionKeyGroupEntity);
+        Collection<ExpectedPartitionValueEntity> createdExpectedPartitionValueEntities =
+            herdDao.createExpectedPartitionValues(partitionKeyGroupEntity, expectedPartitionValuesCreateRequest.getExpectedPartitionValues());
 
         return createExpectedPartitionValuesInformationFromEntities(partitionKeyGroupEntity, createdExpectedPartitionValueEntities);
     }
@@ -119,7 +111,7 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
      * @return the expected partition value
      */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public ExpectedPartitionValueInformation getExpectedPartitionValue(ExpectedPartitionValueKey expectedPartitionValueKey, Integer offset)
     {
         return getExpectedPartitionValueImpl(expectedPartitionValueKey, offset);
@@ -175,6 +167,7 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
      * @return the expected partition values
      */
     @Override
+    @Transactional(readOnly = true)
     public ExpectedPartitionValuesInformation getExpectedPartitionValues(PartitionKeyGroupKey partitionKeyGroupKey, PartitionValueRange partitionValueRange)
     {
         // Perform validation and trim of the input parameters.
@@ -211,10 +204,10 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
         PartitionKeyGroupEntity partitionKeyGroupEntity = herdDaoHelper.getPartitionKeyGroupEntity(partitionKeyGroupKey);
 
         // Retrieve a list of expected partition values.
-        Collection<ExpectedPartitionValueEntity> expectedPartitionValueEntities =
-            herdDao.getExpectedPartitionValuesByGroupAndRange(partitionKeyGroupKey.getPartitionKeyGroupName(), partitionValueRange);
+        List<String> expectedPartitionValues =
+            herdDao.getExpectedPartitionValueStringsByGroupAndRange(partitionKeyGroupKey.getPartitionKeyGroupName(), partitionValueRange);
 
-        return createExpectedPartitionValuesInformationFromEntities(partitionKeyGroupEntity, expectedPartitionValueEntities);
+        return createExpectedPartitionValuesInformation(partitionKeyGroupEntity, expectedPartitionValues);
     }
 
     /**
@@ -257,11 +250,7 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
         }
 
         // Perform the actual deletion.
-        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : deletedExpectedPartitionValueEntities)
-        {
-            partitionKeyGroupEntity.getExpectedPartitionValues().remove(expectedPartitionValueEntity);
-        }
-        herdDao.saveAndRefresh(partitionKeyGroupEntity);
+        herdDao.deleteExpectedPartitionValues(partitionKeyGroupEntity, deletedExpectedPartitionValueEntities);
 
         return createExpectedPartitionValuesInformationFromEntities(partitionKeyGroupEntity, deletedExpectedPartitionValueEntities);
     }
@@ -388,6 +377,27 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
      */
     private ExpectedPartitionValuesInformation createExpectedPartitionValuesInformationFromEntities(PartitionKeyGroupEntity partitionKeyGroupEntity,
         Collection<ExpectedPartitionValueEntity> expectedPartitionValueEntities)
+    {
+        // Get the expected partition values.
+        List<String> expectedPartitionValues = new ArrayList<>();
+        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : expectedPartitionValueEntities)
+        {
+            expectedPartitionValues.add(expectedPartitionValueEntity.getPartitionValue());
+        }
+
+        return createExpectedPartitionValuesInformation(partitionKeyGroupEntity, expectedPartitionValues);
+    }
+
+    /**
+     * Creates the expected partition values information from the expected partition values.
+     *
+     * @param partitionKeyGroupEntity the partition key group entity
+     * @param expectedPartitionValues the list of expected partition values
+     *
+     * @return the expected partition values information
+     */
+    private ExpectedPartitionValuesInformation createExpectedPartitionValuesInformation(PartitionKeyGroupEntity partitionKeyGroupEntity,
+        List<String> expectedPartitionValues)
     {
         // Create an expected partition values information instance.
         ExpectedPartitionValuesInformation expectedPartitionValuesInformation = new ExpectedPartitionValuesInformation();
@@ -398,14 +408,8 @@ public class ExpectedPartitionValueServiceImpl implements ExpectedPartitionValue
         partitionKeyGroupKey.setPartitionKeyGroupName(partitionKeyGroupEntity.getPartitionKeyGroupName());
 
         // Add the expected partition values.
-        List<String> expectedPartitionValues = new ArrayList<>();
         expectedPartitionValuesInformation.setExpectedPartitionValues(expectedPartitionValues);
 
-        for (ExpectedPartitionValueEntity expectedPartitionValueEntity : expectedPartitionValueEntities)
-        {
-            expectedPartitionValues.add(expectedPartitionValueEntity.getPartitionValue());
-        }
-
         return expectedPartitionValuesInformation;
     }
 }
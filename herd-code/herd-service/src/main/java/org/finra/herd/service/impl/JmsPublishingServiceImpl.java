@@ -15,15 +15,21 @@
 */
 package org.finra.herd.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.finra.herd.core.helper.ConfigurationHelper;
 import org.finra.herd.dao.HerdDao;
 import org.finra.herd.dao.SqsDao;
 import org.finra.herd.dao.config.DaoSpringModuleConfig;
 import org.finra.herd.dao.helper.AwsHelper;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.jpa.JmsMessageEntity;
 import org.finra.herd.service.JmsPublishingService;
 
@@ -44,39 +50,78 @@ public class JmsPublishingServiceImpl implements JmsPublishingService
     @Autowired
     private AwsHelper awsHelper;
 
+    @Autowired
+    private ConfigurationHelper configurationHelper;
+
     /**
      * {@inheritDoc}
      */
     @Override
     @Transactional(value = DaoSpringModuleConfig.HERD_TRANSACTION_MANAGER_BEAN_NAME)
-    public boolean publishOldestJmsMessage()
+    public int publishOldestJmsMessages()
     {
-        boolean messageSent = false;
+        // Retrieve the oldest JMS messages, unless the queue is empty.
+        int maxResults = configurationHelper.getProperty(ConfigurationValue.JMS_PUBLISHING_JOB_MAX_MESSAGES_PER_BATCH, Integer.class);
+        List<JmsMessageEntity> oldestJmsMessageEntities = herdDao.getOldestJmsMessages(maxResults);
 
-        // Retrieve the oldest JMS message, unless the queue is empty.
-        JmsMessageEntity jmsMessageEntity = herdDao.getOldestJmsMessage();
+        if (oldestJmsMessageEntities.isEmpty())
+        {
+            return 0;
+        }
 
-        if (jmsMessageEntity != null)
+        // Select the oldest consecutive messages that go to the same queue, so the messages are still published in the order they were queued.
+        String jmsQueueName = oldestJmsMessageEntities.get(0).getJmsQueueName();
+        List<JmsMessageEntity> jmsMessageEntities = new ArrayList<>();
+        List<String> messageTexts = new ArrayList<>();
+        for (JmsMessageEntity jmsMessageEntity : oldestJmsMessageEntities)
         {
-            try
+            if (!jmsQueueName.equals(jmsMessageEntity.getJmsQueueName()))
             {
-                // Send a text message to the specified AWS SQS queue.
-                sqsDao.sendSqsTextMessage(awsHelper.getAwsParamsDto(), jmsMessageEntity.getJmsQueueName(), jmsMessageEntity.getMessageText());
-                messageSent = true;
+                break;
             }
-            catch (Exception e)
-            {
-                LOGGER.error(String
-                    .format("Failed to post message on \"%s\" SQS queue. Message: %s", jmsMessageEntity.getJmsQueueName(), jmsMessageEntity.getMessageText()));
+            jmsMessageEntities.add(jmsMessageEntity);
+            messageTexts.add(jmsMessageEntity.getMessageText());
+        }
 
-                // Throw the exception up.
-                throw new IllegalStateException(e.getMessage(), e);
-            }
+        // Send the text messages to the specified AWS SQS queue.
+        List<Integer> failedMessagePositions;
+        try
+        {
+            failedMessagePositions = sqsDao.sendSqsTextMessages(awsHelper.getAwsParamsDto(), jmsQueueName, messageTexts);
+        }
+        catch (Exception e)
+        {
+            LOGGER.error(String.format("Failed to post %d message(s) on \"%s\" SQS queue.", messageTexts.size(), jmsQueueName));
 
-            // Delete this message from the queue.
+            // Throw the exception up.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        // Delete the messages sent before the first failed message from the queue. The first failed message and all the messages queued after it are left in
+        // the queue to be retried by a later run, so the messages are still published in the order they were queued.
+        int sentMessagesCount = failedMessagePositions.isEmpty() ? jmsMessageEntities.size() : Collections.min(failedMessagePositions);
+        for (JmsMessageEntity jmsMessageEntity : jmsMessageEntities.subList(0, sentMessagesCount))
+        {
             herdDao.delete(jmsMessageEntity);
         }
 
-        return messageSent;
+        if (sentMessagesCount < jmsMessageEntities.size())
+        {
+            JmsMessageEntity failedJmsMessageEntity = jmsMessageEntities.get(sentMessagesCount);
+            LOGGER.error(String.format("Failed to post message on \"%s\" SQS queue. Message: %s", failedJmsMessageEntity.getJmsQueueName(),
+                failedJmsMessageEntity.getMessageText()));
+
+            // Fail when the oldest message could not be sent, so the caller stops publishing instead of retrying the same message.
+            if (sentMessagesCount == 0)
+            {
+                throw new IllegalStateException(String.format("Failed to post the oldest message on \"%s\" SQS queue.", jmsQueueName));
+            }
+        }
+
+        // Log the batch size along with the delivery lag of the oldest message in the batch.
+        LOGGER.info(String.format("Published %d of %d JMS message(s) to \"%s\" SQS queue. oldestMessageDeliveryLagMs=%d", sentMessagesCount, messageTexts.size(),
+            jmsQueueName, System.currentTimeMillis() - jmsMessageEntities.get(0).getCreatedOn().getTime()));
+
+        return sentMessagesCount;
     }
 }
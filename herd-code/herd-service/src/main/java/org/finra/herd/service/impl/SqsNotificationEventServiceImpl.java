@@ -15,6 +15,9 @@
 */
 package org.finra.herd.service.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +60,38 @@ public class SqsNotificationEventServiceImpl implements SqsNotificationEventServ
             "business object data status change");
     }
 
+    @Override
+    public List<JmsMessageEntity> processBusinessObjectDataStatusChangeNotificationEvents(List<BusinessObjectDataKey> businessObjectDataKeys,
+        String newBusinessObjectDataStatus, String oldBusinessObjectDataStatus)
+    {
+        List<JmsMessageEntity> jmsMessageEntities = new ArrayList<>();
+
+        // Only process messages if the service is enabled.
+        if (isHerdSqsNotificationEnabled() && !businessObjectDataKeys.isEmpty())
+        {
+            // Build all the messages first, so they can be added to the database queue together.
+            List<String> messageTexts = new ArrayList<>();
+            for (BusinessObjectDataKey businessObjectDataKey : businessObjectDataKeys)
+            {
+                String messageText =
+                    sqsMessageBuilder.buildBusinessObjectDataStatusChangeMessage(businessObjectDataKey, newBusinessObjectDataStatus, oldBusinessObjectDataStatus);
+
+                // The message is not configured, so none of the messages will be.
+                if (messageText == null)
+                {
+                    LOGGER.warn("Not sending \"business object data status change\" messages because it is not configured.");
+                    return jmsMessageEntities;
+                }
+
+                messageTexts.add(messageText);
+            }
+
+            jmsMessageEntities.addAll(herdDaoHelper.addJmsMessagesToDatabaseQueue(getSqsQueueName(), messageTexts));
+        }
+
+        return jmsMessageEntities;
+    }
+
     @Override
     public JmsMessageEntity processSystemMonitorNotificationEvent(String systemMonitorRequestPayload)
     {
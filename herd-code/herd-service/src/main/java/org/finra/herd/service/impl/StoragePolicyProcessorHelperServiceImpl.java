@@ -645,6 +645,40 @@ public class StoragePolicyProcessorHelperServiceImpl implements StoragePolicyPro
         storageUnitHelper.updateStorageUnitStatus(sourceStorageUnitEntity, StorageUnitStatusEntity.DISABLED, reason);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void cancelStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
+        cancelStoragePolicyTransitionImpl(storagePolicyTransitionParamsDto);
+    }
+
+    /**
+     * Cancels a storage policy transition that was initiated, but not executed.
+     *
+     * @param storagePolicyTransitionParamsDto the storage policy transition DTO that contains parameters needed to cancel a storage policy transition
+     */
+    protected void cancelStoragePolicyTransitionImpl(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
+        // Get the business object data key.
+        BusinessObjectDataKey businessObjectDataKey = storagePolicyTransitionParamsDto.getBusinessObjectDataKey();
+
+        // Retrieve the business object data and ensure it exists.
+        BusinessObjectDataEntity businessObjectDataEntity = herdDaoHelper.getBusinessObjectDataEntity(businessObjectDataKey);
+
+        // Retrieve the destination storage unit and ensure it exists.
+        StorageUnitEntity destinationStorageUnitEntity =
+            storageDaoHelper.getStorageUnitEntity(businessObjectDataEntity, storagePolicyTransitionParamsDto.getDestinationStorageName());
+
+        // Change the destination storage unit status back to DISABLED, unless it was changed since the storage policy transition was initiated.
+        if (StorageUnitStatusEntity.ARCHIVING.equals(destinationStorageUnitEntity.getStatus().getCode()))
+        {
+            storageUnitHelper.updateStorageUnitStatus(destinationStorageUnitEntity, StorageUnitStatusEntity.DISABLED, StorageUnitStatusEntity.ARCHIVING);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -24,6 +24,7 @@ import org.finra.herd.model.dto.StoragePolicySelection;
 import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
 import org.finra.herd.service.StoragePolicyProcessorHelperService;
 import org.finra.herd.service.StoragePolicyProcessorService;
+import org.finra.herd.service.helper.StoragePolicyTransitionScheduler;
 
 /**
  * An implementation of the storage policy processor service.
@@ -35,6 +36,9 @@ public class StoragePolicyProcessorServiceImpl implements StoragePolicyProcessor
     @Autowired
     private StoragePolicyProcessorHelperService storagePolicyProcessorHelperService;
 
+    @Autowired
+    private StoragePolicyTransitionScheduler storagePolicyTransitionScheduler;
+
     /**
      * {@inheritDoc}
      */
@@ -45,8 +49,47 @@ public class StoragePolicyProcessorServiceImpl implements StoragePolicyProcessor
         StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto =
             storagePolicyProcessorHelperService.initiateStoragePolicyTransition(storagePolicySelection);
 
+        // Wait for the storage policy transition to be scheduled. If it is not, cancel the storage policy transition, so the business object data
+        // can be selected again.
+        StoragePolicyTransitionScheduler.ScheduledTransition scheduledTransition;
+        try
+        {
+            scheduledTransition = storagePolicyTransitionScheduler.acquire(storagePolicyTransitionParamsDto);
+        }
+        catch (InterruptedException e)
+        {
+            storagePolicyProcessorHelperService.cancelStoragePolicyTransition(storagePolicyTransitionParamsDto);
+            throw e;
+        }
+        if (scheduledTransition == null)
+        {
+            storagePolicyProcessorHelperService.cancelStoragePolicyTransition(storagePolicyTransitionParamsDto);
+            throw new IllegalStateException(String.format(
+                "Storage policy transition of storage unit %d from \"%s\" storage to \"%s\" storage was not started within the maximum wait time " +
+                    "and was cancelled.", storagePolicyTransitionParamsDto.getSourceStorageUnitId(), storagePolicyTransitionParamsDto.getSourceStorageName(),
+                storagePolicyTransitionParamsDto.getDestinationStorageName()));
+        }
+
         // Execute the actual data transfer using the DAO tier.
-        storagePolicyTransitionParamsDto = storagePolicyProcessorHelperService.executeStoragePolicyTransition(storagePolicyTransitionParamsDto);
+        boolean succeeded = false;
+        long bytesTransferred = 0;
+        try
+        {
+            storagePolicyTransitionParamsDto = storagePolicyProcessorHelperService.executeStoragePolicyTransition(storagePolicyTransitionParamsDto);
+            succeeded = true;
+
+            // The storage files are downloaded from the source storage and their TAR archive is uploaded to the destination storage.
+            bytesTransferred = storagePolicyTransitionParamsDto.getSourceStorageFilesSizeBytes();
+            if (storagePolicyTransitionParamsDto.getDestinationStorageFile() != null &&
+                storagePolicyTransitionParamsDto.getDestinationStorageFile().getFileSizeBytes() != null)
+            {
+                bytesTransferred += storagePolicyTransitionParamsDto.getDestinationStorageFile().getFileSizeBytes();
+            }
+        }
+        finally
+        {
+            storagePolicyTransitionScheduler.release(scheduledTransition, succeeded, bytesTransferred);
+        }
 
         // Complete the storage policy transition.
         storagePolicyProcessorHelperService.completeStoragePolicyTransition(storagePolicyTransitionParamsDto);
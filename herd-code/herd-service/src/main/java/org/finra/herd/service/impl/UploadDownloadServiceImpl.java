@@ -647,7 +647,7 @@ public class UploadDownloadServiceImpl implements UploadDownloadService
      */
     private Credentials getExternalDownloaderCredentials(StorageEntity storageEntity, String sessionName, String s3ObjectKey)
     {
-        return stsDao.getTemporarySecurityCredentials(awsHelper.getAwsParamsDto(), sessionName, getStorageDownloadRoleArn(storageEntity),
+        return stsDao.getCachedTemporarySecurityCredentials(awsHelper.getAwsParamsDto(), sessionName, getStorageDownloadRoleArn(storageEntity),
             getStorageDownloadSessionDuration(storageEntity), createDownloaderPolicy(getStorageBucketName(storageEntity), s3ObjectKey, getStorageKmsKeyId(
                 storageEntity)));
     }
@@ -55,9 +55,10 @@ public class JmsPublishingJob extends AbstractSystemJob
         int publishedJmsMessagesCount = 0;
         try
         {
-            while (jmsPublishingService.publishOldestJmsMessage())
+            int batchPublishedJmsMessagesCount;
+            while ((batchPublishedJmsMessagesCount = jmsPublishingService.publishOldestJmsMessages()) > 0)
             {
-                publishedJmsMessagesCount++;
+                publishedJmsMessagesCount += batchPublishedJmsMessagesCount;
             }
         }
         catch (Exception e)
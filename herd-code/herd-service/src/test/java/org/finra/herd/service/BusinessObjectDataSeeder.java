@@ -0,0 +1,188 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.finra.herd.model.api.xml.BusinessObjectDataDdlRequest;
+import org.finra.herd.model.api.xml.BusinessObjectFormatKey;
+import org.finra.herd.model.api.xml.StorageFile;
+import org.finra.herd.model.jpa.BusinessObjectDataEntity;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
+import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
+import org.finra.herd.model.jpa.FileTypeEntity;
+import org.finra.herd.model.jpa.StorageEntity;
+import org.finra.herd.model.jpa.StorageUnitEntity;
+import org.finra.herd.model.jpa.StorageUnitStatusEntity;
+
+/**
+ * Seeds the embedded database of the benchmarks and the load test with a business object format and the business object data registered with it, reusing
+ * the entity helpers of the service unit tests. It is not a unit test itself. The benchmark and load test fixtures create it and autowire it against the
+ * Spring context they start, and they call it within the transactions they commit.
+ */
+public class BusinessObjectDataSeeder extends AbstractServiceTest
+{
+    /**
+     * The first partition value of the seeded business object data. The following partition values are the consecutive days.
+     */
+    private static final LocalDate FIRST_PARTITION_DATE = LocalDate.of(2015, 1, 1);
+
+    /**
+     * Gets the specified number of consecutive daily partition values.
+     *
+     * @param partitionCount the number of partition values
+     *
+     * @return the list of partition values in ascending order
+     */
+    public List<String> getPartitionValues(int partitionCount)
+    {
+        List<String> partitionValues = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++)
+        {
+            partitionValues.add(FIRST_PARTITION_DATE.plusDays(i).toString());
+        }
+        return partitionValues;
+    }
+
+    /**
+     * Creates a business object format with a schema and the specified number of business object data instances registered in S3 storage, each with its own
+     * storage files. It must be called within a transaction.
+     *
+     * @param partitionCount the number of business object data instances
+     *
+     * @return the business object format key of the seeded business object data
+     */
+    public BusinessObjectFormatKey seedBusinessObjectData(int partitionCount)
+    {
+        // Create the business object format and the storages.
+        createDatabaseEntitiesForBusinessObjectDataDdlTesting(FileTypeEntity.TXT_FILE_TYPE, FIRST_PARTITION_COLUMN_NAME, NO_PARTITION_KEY_GROUP,
+            BusinessObjectDataEntity.FIRST_PARTITION_COLUMN_POSITION, new ArrayList<String>(), SUBPARTITION_VALUES, SCHEMA_DELIMITER_PIPE,
+            SCHEMA_ESCAPE_CHARACTER_BACKSLASH, SCHEMA_NULL_VALUE_BACKSLASH_N, getTestSchemaColumns(), getTestPartitionColumns(), false, NO_CUSTOM_DDL_NAME,
+            true, ALLOW_DUPLICATE_BUSINESS_OBJECT_DATA);
+
+        // Register every partition in S3 storage, unlike the DDL unit tests that only register a few hard coded partitions.
+        BusinessObjectFormatEntity businessObjectFormatEntity = getBusinessObjectFormatEntity();
+        StorageEntity storageEntity = herdDao.getStorageByName(STORAGE_NAME);
+        for (String partitionValue : getPartitionValues(partitionCount))
+        {
+            BusinessObjectDataEntity businessObjectDataEntity = createBusinessObjectDataEntity(partitionValue);
+            StorageUnitEntity storageUnitEntity =
+                createStorageUnitEntity(storageEntity, businessObjectDataEntity, StorageUnitStatusEntity.ENABLED, NO_STORAGE_DIRECTORY_PATH);
+            createStorageFiles(storageUnitEntity,
+                businessObjectDataHelper.buildS3KeyPrefix(businessObjectFormatEntity, herdDaoHelper.getBusinessObjectDataKey(businessObjectDataEntity)),
+                getTestPartitionColumns(), SUBPARTITION_VALUES, false);
+        }
+
+        return getBusinessObjectFormatKey();
+    }
+
+    /**
+     * Creates a valid business object data instance of the seeded business object format with the specified partition value. It must be called within a
+     * transaction.
+     *
+     * @param partitionValue the partition value
+     *
+     * @return the business object data entity
+     */
+    public BusinessObjectDataEntity createBusinessObjectDataEntity(String partitionValue)
+    {
+        return createBusinessObjectDataEntity(NAMESPACE_CD, BOD_NAME, FORMAT_USAGE_CODE, FileTypeEntity.TXT_FILE_TYPE, FORMAT_VERSION, partitionValue,
+            SUBPARTITION_VALUES, DATA_VERSION, true, BusinessObjectDataStatusEntity.VALID);
+    }
+
+    /**
+     * Gets the key of the seeded business object format.
+     *
+     * @return the business object format key
+     */
+    public BusinessObjectFormatKey getBusinessObjectFormatKey()
+    {
+        return new BusinessObjectFormatKey(NAMESPACE_CD, BOD_NAME, FORMAT_USAGE_CODE, FileTypeEntity.TXT_FILE_TYPE, FORMAT_VERSION);
+    }
+
+    /**
+     * Gets the seeded business object format entity. It must be called within a transaction if the lazily loaded associations of the entity are used.
+     *
+     * @return the business object format entity
+     */
+    public BusinessObjectFormatEntity getBusinessObjectFormatEntity()
+    {
+        return herdDao.getBusinessObjectFormatByAltKey(getBusinessObjectFormatKey());
+    }
+
+    /**
+     * Gets the version of the seeded business object data.
+     *
+     * @return the business object data version
+     */
+    public Integer getBusinessObjectDataVersion()
+    {
+        return DATA_VERSION;
+    }
+
+    /**
+     * Gets the name of the S3 storage the seeded business object data is registered in.
+     *
+     * @return the storage name
+     */
+    public String getStorageName()
+    {
+        return STORAGE_NAME;
+    }
+
+    /**
+     * Gets the names of the storages the seeded business object data is registered in.
+     *
+     * @return the list of storage names
+     */
+    public List<String> getStorageNames()
+    {
+        return Arrays.asList(STORAGE_NAME);
+    }
+
+    /**
+     * Creates a Hive 13 DDL request for the specified partition values of the seeded business object data.
+     *
+     * @param partitionValues the list of partition values
+     *
+     * @return the business object data DDL request
+     */
+    public BusinessObjectDataDdlRequest createBusinessObjectDataDdlRequest(List<String> partitionValues)
+    {
+        return getTestBusinessObjectDataDdlRequest(partitionValues);
+    }
+
+    /**
+     * Creates the specified number of storage files located under the specified S3 key prefix.
+     *
+     * @param s3KeyPrefix the S3 key prefix
+     * @param fileCount the number of storage files
+     *
+     * @return the list of storage files
+     */
+    public List<StorageFile> createStorageFiles(String s3KeyPrefix, int fileCount)
+    {
+        List<StorageFile> storageFiles = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++)
+        {
+            storageFiles.add(new StorageFile(String.format("%s/%06d.dat", s3KeyPrefix, i), FILE_SIZE_1_KB, ROW_COUNT_1000, null));
+        }
+        return storageFiles;
+    }
+}
@@ -23,10 +23,16 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import org.finra.herd.model.ObjectNotFoundException;
+import org.finra.herd.model.api.xml.BusinessObjectDataDdl;
 import org.finra.herd.model.api.xml.BusinessObjectDataDdlCollectionRequest;
 import org.finra.herd.model.api.xml.BusinessObjectDataDdlCollectionResponse;
 import org.finra.herd.model.api.xml.BusinessObjectDataDdlRequest;
+import org.finra.herd.model.jpa.StorageEntity;
+import org.finra.herd.service.helper.StorageDaoHelper;
 
 /**
  * This class tests generateBusinessObjectDataDdlCollection functionality within the business object data service.
@@ -47,6 +53,56 @@ public class BusinessObjectDataServiceGenerateBusinessObjectDataDllCollectionTes
         assertEquals(getExpectedBusinessObjectDataDdlCollectionResponse(), resultBusinessObjectDataDdlCollectionResponse);
     }
 
+    @Test
+    public void testGenerateBusinessObjectDataDdlCollectionSharedLookups()
+    {
+        // Prepare database entities required for testing.
+        createDatabaseEntitiesForBusinessObjectDataDdlCollectionTesting();
+
+        // Create a collection request where the second DDL request references the same storage using a different case.
+        BusinessObjectDataDdlCollectionRequest request = getTestBusinessObjectDataDdlCollectionRequest();
+        BusinessObjectDataDdlRequest businessObjectDataDdlRequest = request.getBusinessObjectDataDdlRequests().get(0);
+        request.getBusinessObjectDataDdlRequests().set(1,
+            new BusinessObjectDataDdlRequest(businessObjectDataDdlRequest.getNamespace(), businessObjectDataDdlRequest.getBusinessObjectDefinitionName(),
+                businessObjectDataDdlRequest.getBusinessObjectFormatUsage(), businessObjectDataDdlRequest.getBusinessObjectFormatFileType(),
+                businessObjectDataDdlRequest.getBusinessObjectFormatVersion(), businessObjectDataDdlRequest.getPartitionValueFilters(),
+                businessObjectDataDdlRequest.getPartitionValueFilter(), businessObjectDataDdlRequest.getBusinessObjectDataVersion(),
+                businessObjectDataDdlRequest.getStorageNames(), STORAGE_NAME.toLowerCase(), businessObjectDataDdlRequest.getOutputFormat(),
+                businessObjectDataDdlRequest.getTableName(), businessObjectDataDdlRequest.getCustomDdlName(),
+                businessObjectDataDdlRequest.isIncludeDropTableStatement(), businessObjectDataDdlRequest.isIncludeIfNotExistsOption(),
+                businessObjectDataDdlRequest.isIncludeDropPartitions(), businessObjectDataDdlRequest.isAllowMissingData()));
+
+        // Generate DDL for a collection of business object data, counting the storage lookups made by the business object data service.
+        Object businessObjectDataServiceImpl = AopTestUtils.getUltimateTargetObject(businessObjectDataService);
+        CountingStorageDaoHelper countingStorageDaoHelper = new CountingStorageDaoHelper(storageDaoHelper);
+        ReflectionTestUtils.setField(businessObjectDataServiceImpl, "storageDaoHelper", countingStorageDaoHelper);
+        BusinessObjectDataDdlCollectionResponse resultBusinessObjectDataDdlCollectionResponse;
+        try
+        {
+            resultBusinessObjectDataDdlCollectionResponse = businessObjectDataService.generateBusinessObjectDataDdlCollection(request);
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(businessObjectDataServiceImpl, "storageDaoHelper", storageDaoHelper);
+        }
+
+        // The storage and its S3 bucket name were only looked up for the first DDL request.
+        assertEquals(1, countingStorageDaoHelper.storageEntityLookupCount);
+        assertEquals(1, countingStorageDaoHelper.storageAttributeLookupCount);
+
+        // The storage and format resolved for the first DDL request are shared with the second one, which still gets its own response in request order.
+        BusinessObjectDataDdlCollectionResponse expectedBusinessObjectDataDdlCollectionResponse = getExpectedBusinessObjectDataDdlCollectionResponse();
+        BusinessObjectDataDdl expectedBusinessObjectDataDdl = expectedBusinessObjectDataDdlCollectionResponse.getBusinessObjectDataDdlResponses().get(0);
+        expectedBusinessObjectDataDdlCollectionResponse.getBusinessObjectDataDdlResponses().set(1,
+            new BusinessObjectDataDdl(expectedBusinessObjectDataDdl.getNamespace(), expectedBusinessObjectDataDdl.getBusinessObjectDefinitionName(),
+                expectedBusinessObjectDataDdl.getBusinessObjectFormatUsage(), expectedBusinessObjectDataDdl.getBusinessObjectFormatFileType(),
+                expectedBusinessObjectDataDdl.getBusinessObjectFormatVersion(), expectedBusinessObjectDataDdl.getPartitionValueFilters(),
+                expectedBusinessObjectDataDdl.getPartitionValueFilter(), expectedBusinessObjectDataDdl.getBusinessObjectDataVersion(),
+                expectedBusinessObjectDataDdl.getStorageNames(), STORAGE_NAME.toLowerCase(), expectedBusinessObjectDataDdl.getOutputFormat(),
+                expectedBusinessObjectDataDdl.getTableName(), expectedBusinessObjectDataDdl.getCustomDdlName(), expectedBusinessObjectDataDdl.getDdl()));
+        assertEquals(expectedBusinessObjectDataDdlCollectionResponse, resultBusinessObjectDataDdlCollectionResponse);
+    }
+
     @Test
     public void testGenerateBusinessObjectDataDdlCollectionMissingRequiredParameters()
     {
@@ -92,4 +148,36 @@ public class BusinessObjectDataServiceGenerateBusinessObjectDataDllCollectionTes
             assertEquals("A business object data DDL request must be specified.", e.getMessage());
         }
     }
+
+    /**
+     * A storage DAO helper that counts the storage entity and storage attribute lookups before passing them to the actual storage DAO helper.
+     */
+    private static class CountingStorageDaoHelper extends StorageDaoHelper
+    {
+        private final StorageDaoHelper storageDaoHelper;
+
+        private int storageEntityLookupCount;
+
+        private int storageAttributeLookupCount;
+
+        private CountingStorageDaoHelper(StorageDaoHelper storageDaoHelper)
+        {
+            this.storageDaoHelper = storageDaoHelper;
+        }
+
+        @Override
+        public StorageEntity getStorageEntity(String storageName) throws ObjectNotFoundException
+        {
+            storageEntityLookupCount++;
+            return storageDaoHelper.getStorageEntity(storageName);
+        }
+
+        @Override
+        public String getStorageAttributeValueByName(String attributeName, StorageEntity storageEntity, boolean attributeValueRequired)
+            throws IllegalArgumentException
+        {
+            storageAttributeLookupCount++;
+            return storageDaoHelper.getStorageAttributeValueByName(attributeName, storageEntity, attributeValueRequired);
+        }
+    }
 }
@@ -16,11 +16,11 @@
 package org.finra.herd.service;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.util.List;
+
 import org.junit.Test;
 
 import org.finra.herd.dao.impl.MockSqsOperationsImpl;
@@ -32,38 +32,69 @@ import org.finra.herd.model.jpa.JmsMessageEntity;
 public class JmsPublishingServiceTest extends AbstractServiceTest
 {
     @Test
-    public void testPublishOldestJmsMessage() throws Exception
+    public void testPublishOldestJmsMessages() throws Exception
+    {
+        // Create messages for two queues, where the second queue's message is queued between the first queue's messages.
+        createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2);
+        createJmsMessageEntity(JMS_QUEUE_NAME_2, MESSAGE_TEXT);
+        createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+
+        // Validate that each batch only publishes the oldest consecutive messages posted to the same queue.
+        assertEquals(2, jmsPublishingService.publishOldestJmsMessages());
+        assertEquals(JMS_QUEUE_NAME_2, herdDao.getOldestJmsMessage().getJmsQueueName());
+        assertEquals(1, jmsPublishingService.publishOldestJmsMessages());
+        assertEquals(1, jmsPublishingService.publishOldestJmsMessages());
+        assertEquals(0, jmsPublishingService.publishOldestJmsMessages());
+        assertNull(herdDao.getOldestJmsMessage());
+    }
+
+    @Test
+    public void testPublishOldestJmsMessagesPartialFailure() throws Exception
     {
-        // Create only 1 message to be sent in the database.
+        // Create a batch of messages where one of the messages fails to be sent.
         createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT);
+        createJmsMessageEntity(JMS_QUEUE_NAME, MockSqsOperationsImpl.MOCK_SQS_MESSAGE_TEXT_FAILED);
+        createJmsMessageEntity(JMS_QUEUE_NAME, MESSAGE_TEXT_2);
 
-        // Validate the results by ensuring there is only 1 message that got published (i.e. true for the first message and false for the second one since
-        // only 1 exists).
-        assertTrue(jmsPublishingService.publishOldestJmsMessage());
-        assertFalse(jmsPublishingService.publishOldestJmsMessage());
+        // Validate that only the message sent before the failed message got removed from the database queue, so the remaining messages keep their order.
+        assertEquals(1, jmsPublishingService.publishOldestJmsMessages());
+        List<JmsMessageEntity> jmsMessageEntities = herdDao.getOldestJmsMessages(10);
+        assertEquals(2, jmsMessageEntities.size());
+        assertEquals(MockSqsOperationsImpl.MOCK_SQS_MESSAGE_TEXT_FAILED, jmsMessageEntities.get(0).getMessageText());
+        assertEquals(MESSAGE_TEXT_2, jmsMessageEntities.get(1).getMessageText());
+
+        // Try to publish the remaining messages that should fail again, since the oldest one can not be sent.
+        try
+        {
+            jmsPublishingService.publishOldestJmsMessages();
+            fail("Should throw an IllegalStateException when the oldest message could not be sent.");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals(String.format("Failed to post the oldest message on \"%s\" SQS queue.", JMS_QUEUE_NAME), e.getMessage());
+        }
+        assertEquals(2, herdDao.getOldestJmsMessages(10).size());
     }
 
     @Test
-    public void testPublishOldestJmsMessageRuntimeException() throws Exception
+    public void testPublishOldestJmsMessagesQueueNotFound() throws Exception
     {
         // Prepare database entries required for testing.
         createJmsMessageEntity(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, MESSAGE_TEXT);
 
-        // Try to publish a JMS message which should fail since the database message has an invalid queue name.
+        // Try to publish JMS messages which should fail since the database message has an invalid queue name.
         try
         {
-            jmsPublishingService.publishOldestJmsMessage();
-            fail("Should throw a RuntimeException when AWS SQS queue does not exist.");
+            jmsPublishingService.publishOldestJmsMessages();
+            fail("Should throw an IllegalStateException when AWS SQS queue does not exist.");
         }
         catch (IllegalStateException e)
         {
             assertEquals(String.format("AWS SQS queue with \"%s\" name not found.", MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME), e.getMessage());
         }
 
-        // Check that the test JMS message is still the oldest message in the database queue.
-        JmsMessageEntity jmsMessageEntity = herdDao.getOldestJmsMessage();
-        assertNotNull(jmsMessageEntity);
-        assertEquals(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, jmsMessageEntity.getJmsQueueName());
-        assertEquals(MESSAGE_TEXT, jmsMessageEntity.getMessageText());
+        // Check that the test JMS message is still in the database queue.
+        assertEquals(MockSqsOperationsImpl.MOCK_SQS_QUEUE_NOT_FOUND_NAME, herdDao.getOldestJmsMessage().getJmsQueueName());
     }
 }
@@ -20,7 +20,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.log4j.Level;
@@ -73,6 +75,27 @@ public class SqsNotificationEventServiceTest extends AbstractServiceTest
             HerdDaoSecurityHelper.SYSTEM_USER, BusinessObjectDataStatusEntity.VALID, null);
     }
 
+    @Test
+    public void testSqsBusinessObjectDataStatusChangeNotificationEvents() throws Exception
+    {
+        // Create a business object data entity.
+        BusinessObjectDataEntity businessObjectDataEntity = createTestValidBusinessObjectData();
+        BusinessObjectDataKey businessObjectDataKey = herdDaoHelper.getBusinessObjectDataKey(businessObjectDataEntity);
+
+        // Trigger the notifications for the same business object data twice.
+        List<JmsMessageEntity> jmsMessageEntities = sqsNotificationEventService
+            .processBusinessObjectDataStatusChangeNotificationEvents(Arrays.asList(businessObjectDataKey, businessObjectDataKey),
+                BusinessObjectDataStatusEntity.VALID, BusinessObjectDataStatusEntity.INVALID);
+
+        // Validate the messages.
+        assertEquals(2, jmsMessageEntities.size());
+        for (JmsMessageEntity jmsMessageEntity : jmsMessageEntities)
+        {
+            validateBusinessObjectDataStatusChangeMessage(jmsMessageEntity.getMessageText(), businessObjectDataKey, businessObjectDataEntity.getId(),
+                HerdDaoSecurityHelper.SYSTEM_USER, BusinessObjectDataStatusEntity.VALID, BusinessObjectDataStatusEntity.INVALID);
+        }
+    }
+
     @Test
     public void testSqsBusinessObjectDataStatusChangeNotificationEventHerdSqsNotificationNotEnabled() throws Exception
     {
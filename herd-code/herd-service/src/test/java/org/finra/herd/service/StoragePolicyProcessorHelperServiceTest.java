@@ -1236,6 +1236,39 @@ public class StoragePolicyProcessorHelperServiceTest extends AbstractServiceTest
         }
     }
 
+    @Test
+    public void testCancelStoragePolicyTransition()
+    {
+        // Create and persist the relative database entities.
+        createDatabaseEntitiesForStoragePolicyTesting(STORAGE_POLICY_NAMESPACE_CD, Arrays.asList(STORAGE_POLICY_RULE_TYPE), BOD_NAMESPACE, BOD_NAME,
+            Arrays.asList(FORMAT_FILE_TYPE_CODE), Arrays.asList(STORAGE_NAME), Arrays.asList(STORAGE_NAME_2));
+
+        // Create a business object data key.
+        BusinessObjectDataKey businessObjectDataKey =
+            new BusinessObjectDataKey(BOD_NAMESPACE, BOD_NAME, FORMAT_USAGE_CODE, FORMAT_FILE_TYPE_CODE, FORMAT_VERSION, PARTITION_VALUE,
+                NO_SUBPARTITION_VALUES, DATA_VERSION);
+
+        // Create and persist a storage unit in the source storage.
+        StorageUnitEntity sourceStorageUnitEntity =
+            createStorageUnitEntity(STORAGE_NAME, businessObjectDataKey, LATEST_VERSION_FLAG_SET, BusinessObjectDataStatusEntity.VALID,
+                StorageUnitStatusEntity.ENABLED, NO_STORAGE_DIRECTORY_PATH);
+
+        // Create and persist a storage unit in the destination storage.
+        StorageUnitEntity destinationStorageUnitEntity =
+            createStorageUnitEntity(herdDao.getStorageByName(STORAGE_NAME_2), sourceStorageUnitEntity.getBusinessObjectData(),
+                StorageUnitStatusEntity.ARCHIVING, NO_STORAGE_DIRECTORY_PATH);
+
+        // Cancel a storage policy transition.
+        StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto =
+            new StoragePolicyTransitionParamsDto(businessObjectDataKey, STORAGE_NAME, S3_BUCKET_NAME, STORAGE_UNIT_ID, TEST_S3_KEY_PREFIX, NO_STORAGE_FILES,
+                FILE_SIZE, STORAGE_NAME_2, GLACIER_VAULT_NAME, null);
+        storagePolicyProcessorHelperService.cancelStoragePolicyTransition(storagePolicyTransitionParamsDto);
+
+        // Validate the results.
+        assertEquals(StorageUnitStatusEntity.ENABLED, sourceStorageUnitEntity.getStatus().getCode());
+        assertEquals(StorageUnitStatusEntity.DISABLED, destinationStorageUnitEntity.getStatus().getCode());
+    }
+
     /**
      * This method is to get the coverage for the storage policy processor helper service methods that start new transactions.
      */
@@ -1272,6 +1305,16 @@ public class StoragePolicyProcessorHelperServiceTest extends AbstractServiceTest
             assertNull(e.getMessage());
         }
 
+        try
+        {
+            storagePolicyProcessorHelperServiceImpl.cancelStoragePolicyTransition(null);
+            fail("Should throw an NullPointerException.");
+        }
+        catch (NullPointerException e)
+        {
+            assertNull(e.getMessage());
+        }
+
         try
         {
             storagePolicyProcessorHelperServiceImpl.executeStoragePolicyTransitionAfterStep(null);
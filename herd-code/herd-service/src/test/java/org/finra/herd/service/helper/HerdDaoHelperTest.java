@@ -23,17 +23,22 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import org.finra.herd.model.MethodNotAllowedException;
 import org.finra.herd.model.ObjectNotFoundException;
 import org.finra.herd.model.api.xml.Attribute;
 import org.finra.herd.model.api.xml.BusinessObjectDataKey;
+import org.finra.herd.model.dto.ConfigurationValue;
 import org.finra.herd.model.jpa.BusinessObjectDataEntity;
 import org.finra.herd.model.jpa.BusinessObjectFormatEntity;
+import org.finra.herd.model.jpa.ConfigurationEntity;
 import org.finra.herd.model.jpa.StorageEntity;
 import org.finra.herd.model.jpa.StoragePlatformEntity;
 import org.finra.herd.model.jpa.StorageUnitEntity;
@@ -164,4 +169,91 @@ public class HerdDaoHelperTest extends AbstractServiceTest
         }
         assertEquals(null, herdDaoHelper.getPartitionValue(businessObjectDataEntity, BusinessObjectDataEntity.MAX_SUBPARTITIONS + 2));
     }
+
+    @Test
+    public void testCheckNotAllowedMethod()
+    {
+        // Block a test method.
+        ConfigurationEntity configurationEntity = herdDao.getConfigurationByKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
+        if (configurationEntity == null)
+        {
+            configurationEntity = new ConfigurationEntity();
+            configurationEntity.setKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
+        }
+        configurationEntity.setValue("");
+        configurationEntity.setValueClob("org.finra.herd.TestClass.method1|org.finra.herd.TestClass.method2");
+        herdDao.saveAndRefresh(configurationEntity);
+        herdDaoHelper.refreshNotAllowedMethods();
+
+        try
+        {
+            // A method that is not in the list is allowed.
+            herdDaoHelper.checkNotAllowedMethod("org.finra.herd.TestClass.method3");
+
+            // A method that is in the list is not allowed.
+            try
+            {
+                herdDaoHelper.checkNotAllowedMethod("org.finra.herd.TestClass.method2");
+                fail("Should throw a MethodNotAllowedException.");
+            }
+            catch (MethodNotAllowedException e)
+            {
+                assertEquals("The requested method is not allowed.", e.getMessage());
+            }
+        }
+        finally
+        {
+            // Remove the not allowed methods, so they do not stay blocked in memory for other tests.
+            herdDao.delete(configurationEntity);
+            herdDaoHelper.refreshNotAllowedMethods();
+        }
+
+        // The method is allowed once the configuration is removed.
+        herdDaoHelper.checkNotAllowedMethod("org.finra.herd.TestClass.method2");
+    }
+
+    @Test
+    public void testCheckNotAllowedMethodNotStale() throws Exception
+    {
+        // Load an empty list of not allowed methods.
+        herdDaoHelper.refreshNotAllowedMethods();
+
+        ConfigurationEntity configurationEntity = herdDao.getConfigurationByKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
+        if (configurationEntity == null)
+        {
+            configurationEntity = new ConfigurationEntity();
+            configurationEntity.setKey(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS.getKey());
+        }
+        configurationEntity.setValue("");
+        configurationEntity.setValueClob("org.finra.herd.TestClass.method1");
+        herdDao.saveAndRefresh(configurationEntity);
+
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.NOT_ALLOWED_HERD_ENDPOINTS_REFRESH_INTERVAL_SECS.getKey(), 3600);
+        modifyPropertySourceInEnvironment(overrideMap);
+        try
+        {
+            // The loaded list is not stale yet, so the configuration change is not seen until the list gets refreshed.
+            herdDaoHelper.checkNotAllowedMethod("org.finra.herd.TestClass.method1");
+
+            herdDaoHelper.refreshNotAllowedMethods();
+            try
+            {
+                herdDaoHelper.checkNotAllowedMethod("org.finra.herd.TestClass.method1");
+                fail("Should throw a MethodNotAllowedException.");
+            }
+            catch (MethodNotAllowedException e)
+            {
+                assertEquals("The requested method is not allowed.", e.getMessage());
+            }
+        }
+        finally
+        {
+            restorePropertySourceInEnvironment();
+
+            // Remove the not allowed methods, so they do not stay blocked in memory for other tests.
+            herdDao.delete(configurationEntity);
+            herdDaoHelper.refreshNotAllowedMethods();
+        }
+    }
 }
@@ -15,6 +15,11 @@
 */
 package org.finra.herd.service.helper;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +34,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import org.finra.herd.dao.helper.JsonHelper;
 import org.finra.herd.dao.impl.MockS3OperationsImpl;
+import org.finra.herd.model.api.xml.BusinessObjectData;
 import org.finra.herd.model.api.xml.UploadSingleInitiationResponse;
+import org.finra.herd.model.jpa.BusinessObjectDataStatusEntity;
 import org.finra.herd.service.AbstractServiceTest;
 import org.finra.herd.service.UploadDownloadService;
 import org.finra.herd.service.impl.UploadDownloadHelperServiceImpl;
@@ -69,17 +76,51 @@ public class HerdJmsMessageListenerTest extends AbstractServiceTest
 
         String filePath = resultUploadSingleInitiationResponse.getSourceBusinessObjectData().getStorageUnits().get(0).getStorageFiles().get(0).getFilePath();
 
-        S3Entity s3Entity = new S3Entity(null, null, new S3ObjectEntity(filePath, 0L, null, null), null);
+        Logger.getLogger(UploadDownloadServiceImpl.class).setLevel(Level.OFF);
+        Logger.getLogger(HerdJmsMessageListener.class).setLevel(Level.OFF);
 
-        List<S3EventNotificationRecord> records = new ArrayList<>();
-        records.add(new S3EventNotificationRecord(null, null, null, null, null, null, null, s3Entity, null));
+        herdJmsMessageListener.processMessage(getTestS3Message(filePath), null);
 
-        S3EventNotification s3EventNotification = new S3EventNotification(records);
+        // The upload is completed by the time the message is processed, so the message is only acknowledged after the upload completion.
+        assertNotEquals(BusinessObjectDataStatusEntity.UPLOADING, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getSourceBusinessObjectData()));
+        assertNotEquals(BusinessObjectDataStatusEntity.UPLOADING, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getTargetBusinessObjectData()));
+    }
+
+    @Test
+    public void testS3MessageObjectKeyInProgress() throws Exception
+    {
+        Logger.getLogger(UploadDownloadHelperServiceImpl.class).setLevel(Level.OFF);
+
+        createDatabaseEntitiesForUploadDownloadTesting();
+
+        UploadSingleInitiationResponse resultUploadSingleInitiationResponse = uploadDownloadService.initiateUploadSingle(createUploadSingleInitiationRequest());
+
+        String filePath = resultUploadSingleInitiationResponse.getSourceBusinessObjectData().getStorageUnits().get(0).getStorageFiles().get(0).getFilePath();
 
         Logger.getLogger(UploadDownloadServiceImpl.class).setLevel(Level.OFF);
         Logger.getLogger(HerdJmsMessageListener.class).setLevel(Level.OFF);
 
-        herdJmsMessageListener.processMessage(jsonHelper.objectToJson(s3EventNotification), null);
+        // Simulate another listener thread processing the same object key.
+        assertTrue(herdJmsMessageListener.startProcessingObjectKey(filePath));
+        try
+        {
+            assertFalse(herdJmsMessageListener.startProcessingObjectKey(filePath));
+
+            // The redelivered message is skipped, so the upload is left alone.
+            herdJmsMessageListener.processMessage(getTestS3Message(filePath), null);
+            assertEquals(BusinessObjectDataStatusEntity.UPLOADING, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getSourceBusinessObjectData()));
+            assertEquals(BusinessObjectDataStatusEntity.UPLOADING, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getTargetBusinessObjectData()));
+        }
+        finally
+        {
+            herdJmsMessageListener.finishProcessingObjectKey(filePath);
+        }
+
+        // Once the object key is no longer in progress, the message is processed and the object key is released afterwards.
+        herdJmsMessageListener.processMessage(getTestS3Message(filePath), null);
+        assertNotEquals(BusinessObjectDataStatusEntity.UPLOADING, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getSourceBusinessObjectData()));
+        assertTrue(herdJmsMessageListener.startProcessingObjectKey(filePath));
+        herdJmsMessageListener.finishProcessingObjectKey(filePath);
     }
 
     @Test
@@ -95,32 +136,27 @@ public class HerdJmsMessageListenerTest extends AbstractServiceTest
 
         String filePath = resultUploadSingleInitiationResponse.getSourceBusinessObjectData().getStorageUnits().get(0).getStorageFiles().get(0).getFilePath();
 
-        S3Entity s3Entity = new S3Entity(null, null, new S3ObjectEntity(filePath, 0L, null, null), null);
-
-        List<S3EventNotificationRecord> records = new ArrayList<>();
-        records.add(new S3EventNotificationRecord(null, null, null, null, null, null, null, s3Entity, null));
-
-        S3EventNotification s3EventNotification = new S3EventNotification(records);
-
         Logger.getLogger(UploadDownloadServiceImpl.class).setLevel(Level.OFF);
         Logger.getLogger(HerdJmsMessageListener.class).setLevel(Level.OFF);
 
-        herdJmsMessageListener.processMessage(jsonHelper.objectToJson(s3EventNotification), null);
+        herdJmsMessageListener.processMessage(getTestS3Message(filePath), null);
+
+        // The S3 file size does not match, so the upload is completed as failed.
+        assertEquals(BusinessObjectDataStatusEntity.DELETED, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getSourceBusinessObjectData()));
+        assertEquals(BusinessObjectDataStatusEntity.INVALID, getBusinessObjectDataStatus(resultUploadSingleInitiationResponse.getTargetBusinessObjectData()));
     }
 
     @Test
     public void testS3MessageNoKey() throws Exception
     {
-        S3Entity s3Entity = new S3Entity(null, null, new S3ObjectEntity("key_does_not_exist", 0L, null, null), null);
-        List<S3EventNotificationRecord> records = new ArrayList<>();
-        records.add(new S3EventNotificationRecord(null, null, null, null, null, null, null, s3Entity, null));
-
-        S3EventNotification s3EventNotification = new S3EventNotification(records);
-
         Logger.getLogger(UploadDownloadServiceImpl.class).setLevel(Level.OFF);
         Logger.getLogger(HerdJmsMessageListener.class).setLevel(Level.OFF);
 
-        herdJmsMessageListener.processMessage(jsonHelper.objectToJson(s3EventNotification), null);
+        herdJmsMessageListener.processMessage(getTestS3Message("key_does_not_exist"), null);
+
+        // The object key is released even though there was no upload to complete for it.
+        assertTrue(herdJmsMessageListener.startProcessingObjectKey("key_does_not_exist"));
+        herdJmsMessageListener.finishProcessingObjectKey("key_does_not_exist");
     }
 
     @Test
@@ -131,4 +167,33 @@ public class HerdJmsMessageListenerTest extends AbstractServiceTest
 
         herdJmsMessageListener.processMessage("WRONG_MESSAGE", null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets an S3 event notification message for the specified S3 object key.
+     *
+     * @param objectKey the S3 object key
+     *
+     * @return the S3 event notification message
+     */
+    private String getTestS3Message(String objectKey) throws Exception
+    {
+        S3Entity s3Entity = new S3Entity(null, null, new S3ObjectEntity(objectKey, 0L, null, null), null);
+
+        List<S3EventNotificationRecord> records = new ArrayList<>();
+        records.add(new S3EventNotificationRecord(null, null, null, null, null, null, null, s3Entity, null));
+
+        return jsonHelper.objectToJson(new S3EventNotification(records));
+    }
+
+    /**
+     * Gets the current status of the specified business object data from the database.
+     *
+     * @param businessObjectData the business object data
+     *
+     * @return the business object data status code
+     */
+    private String getBusinessObjectDataStatus(BusinessObjectData businessObjectData)
+    {
+        return herdDao.getBusinessObjectDataByAltKey(herdHelper.getBusinessObjectDataKey(businessObjectData)).getStatus().getCode();
+    }
+}
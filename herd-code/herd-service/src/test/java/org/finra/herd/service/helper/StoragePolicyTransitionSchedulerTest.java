@@ -0,0 +1,201 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.service.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.model.dto.StoragePolicyTransitionParamsDto;
+import org.finra.herd.service.AbstractServiceTest;
+
+/**
+ * This class tests functionality within the StoragePolicyTransitionScheduler class.
+ */
+public class StoragePolicyTransitionSchedulerTest extends AbstractServiceTest
+{
+    @Autowired
+    private StoragePolicyTransitionScheduler storagePolicyTransitionScheduler;
+
+    @Test
+    public void testAcquireRelease() throws Exception
+    {
+        int runningTransitionCount = storagePolicyTransitionScheduler.getRunningTransitionCount();
+        long reservedTemporaryDirectoryBytes = storagePolicyTransitionScheduler.getReservedTemporaryDirectoryBytes();
+        long completedTransitionCount = storagePolicyTransitionScheduler.getCompletedTransitionCount();
+        long failedTransitionCount = storagePolicyTransitionScheduler.getFailedTransitionCount();
+        long transferredBytes = storagePolicyTransitionScheduler.getTransferredBytes();
+
+        // Schedule a transition, which starts right away.
+        StoragePolicyTransitionScheduler.ScheduledTransition scheduledTransition =
+            storagePolicyTransitionScheduler.acquire(createStoragePolicyTransitionParamsDto(STORAGE_NAME, FILE_SIZE_1_KB));
+
+        assertEquals(runningTransitionCount + 1, storagePolicyTransitionScheduler.getRunningTransitionCount());
+        assertEquals(reservedTemporaryDirectoryBytes + 2 * FILE_SIZE_1_KB, storagePolicyTransitionScheduler.getReservedTemporaryDirectoryBytes());
+
+        // Release the transition. Releasing it again has no effect.
+        storagePolicyTransitionScheduler.release(scheduledTransition, true, FILE_SIZE_2_KB);
+        storagePolicyTransitionScheduler.release(scheduledTransition, true, FILE_SIZE_2_KB);
+
+        assertEquals(runningTransitionCount, storagePolicyTransitionScheduler.getRunningTransitionCount());
+        assertEquals(reservedTemporaryDirectoryBytes, storagePolicyTransitionScheduler.getReservedTemporaryDirectoryBytes());
+        assertEquals(completedTransitionCount + 1, storagePolicyTransitionScheduler.getCompletedTransitionCount());
+        assertEquals(failedTransitionCount, storagePolicyTransitionScheduler.getFailedTransitionCount());
+        assertEquals(transferredBytes + FILE_SIZE_2_KB, storagePolicyTransitionScheduler.getTransferredBytes());
+        assertTrue(storagePolicyTransitionScheduler.getRecentBytesPerSecond() > 0);
+    }
+
+    @Test
+    public void testAcquireSmallestTransitionStartedFirst() throws Exception
+    {
+        // Override configuration to allow a single transition per source storage.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_SOURCE_STORAGE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        StoragePolicyTransitionScheduler.ScheduledTransition runningTransition = null;
+        try
+        {
+            // Start a transition that keeps the source storage busy.
+            runningTransition = storagePolicyTransitionScheduler.acquire(createStoragePolicyTransitionParamsDto(STORAGE_NAME, FILE_SIZE_1_KB));
+            int initialWaitingTransitionCount = storagePolicyTransitionScheduler.getWaitingTransitionCount();
+
+            // Schedule a big and then a small transition from the same source storage. Both of them have to wait.
+            final List<Long> startedTransitionSizes = Collections.synchronizedList(new ArrayList<Long>());
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final long sizeBytes : Arrays.asList(10 * FILE_SIZE_1_KB, FILE_SIZE_1_KB))
+            {
+                futures.add(executorService.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        StoragePolicyTransitionScheduler.ScheduledTransition scheduledTransition =
+                            storagePolicyTransitionScheduler.acquire(createStoragePolicyTransitionParamsDto(STORAGE_NAME, sizeBytes));
+                        startedTransitionSizes.add(sizeBytes);
+                        storagePolicyTransitionScheduler.release(scheduledTransition, true, sizeBytes);
+                        return null;
+                    }
+                }));
+                waitForWaitingTransitionCount(initialWaitingTransitionCount + futures.size());
+            }
+            assertTrue(startedTransitionSizes.isEmpty());
+
+            // Complete the running transition. The small transition is started before the big one.
+            storagePolicyTransitionScheduler.release(runningTransition, true, FILE_SIZE_1_KB);
+            for (Future<Void> future : futures)
+            {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(Arrays.asList(FILE_SIZE_1_KB, 10 * FILE_SIZE_1_KB), startedTransitionSizes);
+        }
+        finally
+        {
+            // Make sure the source storage is not left busy if an assertion failed. Releasing a transition again has no effect.
+            if (runningTransition != null)
+            {
+                storagePolicyTransitionScheduler.release(runningTransition, true, FILE_SIZE_1_KB);
+            }
+            executorService.shutdownNow();
+
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test
+    public void testAcquireMaxWaitTimeExceeded() throws Exception
+    {
+        // Override configuration to allow a single transition per source storage and give up waiting after two seconds.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_TRANSITIONS_PER_SOURCE_STORAGE.getKey(), 1);
+        overrideMap.put(ConfigurationValue.STORAGE_POLICY_PROCESSOR_MAX_WAIT_TIME_SECS.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        StoragePolicyTransitionScheduler.ScheduledTransition runningTransition = null;
+        try
+        {
+            // Start a transition that keeps the source storage busy.
+            runningTransition = storagePolicyTransitionScheduler.acquire(createStoragePolicyTransitionParamsDto(STORAGE_NAME, FILE_SIZE_1_KB));
+            int waitingTransitionCount = storagePolicyTransitionScheduler.getWaitingTransitionCount();
+
+            // Schedule another transition from the same source storage. It gives up waiting and is no longer scheduled.
+            assertNull(storagePolicyTransitionScheduler.acquire(createStoragePolicyTransitionParamsDto(STORAGE_NAME, FILE_SIZE_1_KB)));
+            assertEquals(waitingTransitionCount, storagePolicyTransitionScheduler.getWaitingTransitionCount());
+        }
+        finally
+        {
+            if (runningTransition != null)
+            {
+                storagePolicyTransitionScheduler.release(runningTransition, true, FILE_SIZE_1_KB);
+            }
+
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    /**
+     * Waits until the scheduler has the specified number of waiting transitions.
+     *
+     * @param waitingTransitionCount the expected number of waiting transitions
+     */
+    private void waitForWaitingTransitionCount(int waitingTransitionCount) throws InterruptedException
+    {
+        long deadlineMillis = System.currentTimeMillis() + 10000;
+        while (storagePolicyTransitionScheduler.getWaitingTransitionCount() < waitingTransitionCount &&
+            System.currentTimeMillis() < deadlineMillis)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(waitingTransitionCount, storagePolicyTransitionScheduler.getWaitingTransitionCount());
+    }
+
+    /**
+     * Creates a storage policy transition parameters DTO for the specified source storage and storage files size.
+     *
+     * @param sourceStorageName the source storage name
+     * @param sizeBytes the total size of the storage files in bytes
+     *
+     * @return the storage policy transition parameters DTO
+     */
+    private StoragePolicyTransitionParamsDto createStoragePolicyTransitionParamsDto(String sourceStorageName, long sizeBytes)
+    {
+        StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto = new StoragePolicyTransitionParamsDto();
+        storagePolicyTransitionParamsDto.setSourceStorageName(sourceStorageName);
+        storagePolicyTransitionParamsDto.setSourceStorageUnitId(STORAGE_UNIT_ID);
+        storagePolicyTransitionParamsDto.setSourceStorageFilesSizeBytes(sizeBytes);
+        storagePolicyTransitionParamsDto.setDestinationStorageName(STORAGE_NAME_2);
+        return storagePolicyTransitionParamsDto;
+    }
+}
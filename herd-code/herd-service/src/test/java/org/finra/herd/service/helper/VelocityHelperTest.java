@@ -18,11 +18,14 @@ package org.finra.herd.service.helper;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.finra.herd.service.AbstractServiceTest;
-
+import org.apache.velocity.Template;
+import org.apache.velocity.exception.ParseErrorException;
 import org.junit.Assert;
 import org.junit.Test;
 
+import org.finra.herd.model.dto.ConfigurationValue;
+import org.finra.herd.service.AbstractServiceTest;
+
 public class VelocityHelperTest extends AbstractServiceTest
 {
     @Test
@@ -35,4 +38,68 @@ public class VelocityHelperTest extends AbstractServiceTest
         String result = velocityHelper.evaluate(template, variables, logTag);
         Assert.assertEquals("result", "bar", result);
     }
+
+    @Test
+    public void testEvaluateCachedTemplate()
+    {
+        // Evaluate the same template with different variables to make sure the parsed template does not keep any evaluation state.
+        String template = "${foo}-#if($bar)yes#{else}no#end";
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("foo", "first");
+        variables.put("bar", true);
+        Assert.assertEquals("result", "first-yes", velocityHelper.evaluate(template, variables, "test"));
+
+        variables.put("foo", "second");
+        variables.put("bar", false);
+        Assert.assertEquals("result", "second-no", velocityHelper.evaluate(template, variables, "test"));
+
+        // A changed template content gets evaluated as the new template.
+        Assert.assertEquals("result", "changed second", velocityHelper.evaluate("changed ${foo}", variables, "test"));
+
+        // The parsed template is reused for the same template content and log tag only, so the template name always matches the caller's log tag.
+        Template parsedTemplate = velocityHelper.getTemplate(template, "test");
+        Assert.assertSame(parsedTemplate, velocityHelper.getTemplate(template, "test"));
+        Template otherLogTagParsedTemplate = velocityHelper.getTemplate(template, "otherTest");
+        Assert.assertNotSame(parsedTemplate, otherLogTagParsedTemplate);
+        Assert.assertEquals("test", parsedTemplate.getName());
+        Assert.assertEquals("otherTest", otherLogTagParsedTemplate.getName());
+    }
+
+    @Test
+    public void testEvaluateTemplateCacheMaxSize() throws Exception
+    {
+        // Override the configuration to keep only one parsed template in memory.
+        Map<String, Object> overrideMap = new HashMap<>();
+        overrideMap.put(ConfigurationValue.VELOCITY_TEMPLATE_CACHE_MAX_SIZE.getKey(), 1);
+        modifyPropertySourceInEnvironment(overrideMap);
+
+        try
+        {
+            // Evaluate templates alternately, so they get evicted and parsed again.
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("foo", "bar");
+            for (int i = 0; i < 3; i++)
+            {
+                Assert.assertEquals("result", "1 bar", velocityHelper.evaluate("1 ${foo}", variables, "test"));
+                Assert.assertEquals("result", "2 bar", velocityHelper.evaluate("2 ${foo}", variables, "test"));
+            }
+
+            // The first template stays cached until another template gets parsed, which evicts it.
+            Template parsedTemplate = velocityHelper.getTemplate("1 ${foo}", "test");
+            Assert.assertSame(parsedTemplate, velocityHelper.getTemplate("1 ${foo}", "test"));
+            velocityHelper.getTemplate("2 ${foo}", "test");
+            Assert.assertNotSame(parsedTemplate, velocityHelper.getTemplate("1 ${foo}", "test"));
+        }
+        finally
+        {
+            // Restore the property sources so we don't affect other tests.
+            restorePropertySourceInEnvironment();
+        }
+    }
+
+    @Test(expected = ParseErrorException.class)
+    public void testEvaluateInvalidTemplate()
+    {
+        velocityHelper.evaluate("#if($missingEndOfIfStatement", new HashMap<String, Object>(), "test");
+    }
 }
@@ -58,6 +58,15 @@ public class TestStoragePolicyProcessorHelperServiceImpl extends StoragePolicyPr
         completeStoragePolicyTransitionImpl(storagePolicyTransitionParamsDto);
     }
 
+    /**
+     * Overwrites the base class method to change transactional attributes.
+     */
+    @Override
+    public void cancelStoragePolicyTransition(StoragePolicyTransitionParamsDto storagePolicyTransitionParamsDto)
+    {
+        cancelStoragePolicyTransitionImpl(storagePolicyTransitionParamsDto);
+    }
+
     /**
      * Overwrites the base class method to change transactional attributes.
      */
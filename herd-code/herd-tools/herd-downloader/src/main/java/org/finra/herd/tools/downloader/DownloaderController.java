@@ -51,6 +51,7 @@ import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.service.helper.StorageFileHelper;
 import org.finra.herd.tools.common.databridge.AutoRefreshCredentialProvider;
 import org.finra.herd.tools.common.databridge.DataBridgeController;
+import org.finra.herd.tools.common.databridge.S3FileTransferProgressLogger;
 
 /**
  * Executes the DownloaderApp workflow.
@@ -170,6 +171,8 @@ public class DownloaderController extends DataBridgeController
             // Download S3 files to the target local directory.
             s3FileTransferRequestParamsDto.setRecursive(true);
             cleanUpTargetLocalDirectoryOnFailure = true;
+            // Log the throughput and the threads of the download as it progresses.
+            s3FileTransferRequestParamsDto.getTransferListeners().add(new S3FileTransferProgressLogger());
             s3Service.downloadDirectory(s3FileTransferRequestParamsDto);
 
             // Validate the downloaded files.
@@ -22,6 +22,7 @@ import java.util.Arrays;
 
 import javax.xml.bind.JAXBException;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
@@ -109,7 +110,7 @@ public class DownloaderWebClient extends DataBridgeWebClient
 
         CloseableHttpClient client = HttpClientBuilder.create().build();
         HttpGet request = new HttpGet(uri);
-        request.addHeader("Accepts", "application/xml");
+        request.addHeader(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
 
         // If SSL is enabled, set the client authentication header.
         if (regServerAccessParamsDto.getUseSsl())
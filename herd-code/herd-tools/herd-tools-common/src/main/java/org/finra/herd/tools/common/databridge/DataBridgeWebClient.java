@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -37,6 +39,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -78,6 +81,12 @@ public abstract class DataBridgeWebClient
     protected static final String DEFAULT_CONTENT_TYPE = ContentType.APPLICATION_XML.withCharset(StandardCharsets.UTF_8).toString();
     protected static final String DEFAULT_ACCEPT = ContentType.APPLICATION_XML.withCharset(StandardCharsets.UTF_8).toString();
 
+    /**
+     * The JAXB contexts per list of bound classes. A JAXB context is thread safe and expensive to create, since it introspects all the bound classes, so it is
+     * created once rather than for every request and response.
+     */
+    private static final ConcurrentMap<List<Class<?>>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+
     /**
      * The DTO for the parameters required to communicate with the registration server.
      */
@@ -132,7 +141,7 @@ public abstract class DataBridgeWebClient
         try (CloseableHttpClient client = HttpClientBuilder.create().build())
         {
             HttpGet request = new HttpGet(uriBuilder.build());
-            request.addHeader("Accepts", DEFAULT_ACCEPT);
+            request.addHeader(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
 
             // If SSL is enabled, set the client authentication header.
             if (regServerAccessParamsDto.getUseSsl())
@@ -230,8 +239,8 @@ public abstract class DataBridgeWebClient
         // Add business object data parents, if any.
         request.setBusinessObjectDataParents(manifest.getBusinessObjectDataParents());
 
-        // Create a JAXB context and marshaller
-        JAXBContext requestContext = JAXBContext.newInstance(BusinessObjectDataCreateRequest.class);
+        // Get the JAXB context and create a marshaller
+        JAXBContext requestContext = getJaxbContext(BusinessObjectDataCreateRequest.class);
         Marshaller requestMarshaller = requestContext.createMarshaller();
         requestMarshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
         requestMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
@@ -247,7 +256,7 @@ public abstract class DataBridgeWebClient
             HttpPost post = new HttpPost(uri);
 
             post.addHeader("Content-Type", DEFAULT_CONTENT_TYPE);
-            post.addHeader("Accepts", DEFAULT_ACCEPT);
+            post.addHeader(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
 
             // If SSL is enabled, set the client authentication header.
             if (regServerAccessParamsDto.getUseSsl())
@@ -329,7 +338,7 @@ public abstract class DataBridgeWebClient
         try (CloseableHttpClient client = HttpClientBuilder.create().build())
         {
             HttpGet request = new HttpGet(uriBuilder.build());
-            request.addHeader("Accepts", DEFAULT_ACCEPT);
+            request.addHeader(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
 
             // If SSL is enabled, set the client authentication header.
             if (regServerAccessParamsDto.getUseSsl())
@@ -423,6 +432,30 @@ public abstract class DataBridgeWebClient
         }
     }
 
+    /**
+     * Gets the JAXB context for the specified classes, creating it on the first call.
+     *
+     * @param classesToBeBound the classes to be bound
+     *
+     * @return the JAXB context
+     * @throws JAXBException if the JAXB context could not be created
+     */
+    protected static JAXBContext getJaxbContext(Class<?>... classesToBeBound) throws JAXBException
+    {
+        List<Class<?>> key = Arrays.asList(classesToBeBound);
+        JAXBContext jaxbContext = JAXB_CONTEXTS.get(key);
+        if (jaxbContext == null)
+        {
+            jaxbContext = JAXBContext.newInstance(classesToBeBound);
+            JAXBContext existingJaxbContext = JAXB_CONTEXTS.putIfAbsent(key, jaxbContext);
+            if (existingJaxbContext != null)
+            {
+                jaxbContext = existingJaxbContext;
+            }
+        }
+        return jaxbContext;
+    }
+
     /**
      * Extracts an instance of the specified object class from the registration server response.
      *
@@ -448,7 +481,7 @@ public abstract class DataBridgeWebClient
                 InputStream inputStream = new ByteArrayInputStream(xmlResponse.getBytes(StandardCharsets.UTF_8));
 
                 // Un-marshall the response to the specified object class.
-                JAXBContext responseContext = JAXBContext.newInstance(responseClass);
+                JAXBContext responseContext = getJaxbContext(responseClass);
                 Unmarshaller responseUnmarshaller = responseContext.createUnmarshaller();
                 responseObject = responseUnmarshaller.unmarshal(inputStream);
             }
@@ -459,7 +492,7 @@ public abstract class DataBridgeWebClient
                 InputStream inputStream = new ByteArrayInputStream(xmlResponse.getBytes(StandardCharsets.UTF_8));
 
                 // Un-marshall response to the ErrorInformation object.
-                JAXBContext responseContext = JAXBContext.newInstance(ErrorInformation.class);
+                JAXBContext responseContext = getJaxbContext(ErrorInformation.class);
                 Unmarshaller responseUnmarshaller = responseContext.createUnmarshaller();
                 ErrorInformation errorInfo = (ErrorInformation) responseUnmarshaller.unmarshal(inputStream);
 
@@ -0,0 +1,106 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.tools.common.databridge;
+
+import org.apache.log4j.Logger;
+
+import org.finra.herd.model.dto.S3FileTransferListener;
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
+
+/**
+ * An S3 file transfer listener that logs the throughput, the number of threads and the retries of the transfers of the uploader and the downloader, so the
+ * effect of the max threads option can be followed while a transfer runs.
+ */
+public class S3FileTransferProgressLogger implements S3FileTransferListener
+{
+    private static final Logger LOGGER = Logger.getLogger(S3FileTransferProgressLogger.class);
+
+    /**
+     * The default interval between two logged progress statistics in milliseconds.
+     */
+    public static final long DEFAULT_LOG_INTERVAL_MILLIS = 10000;
+
+    private final long logIntervalMillis;
+
+    /**
+     * The elapsed time of the transfer when its progress was last logged. The listener is only called by the thread that performs the transfer.
+     */
+    private long lastLoggedElapsedTimeMillis;
+
+    private long loggedProgressCount;
+
+    /**
+     * Creates a logger that logs the progress of the transfers at the default interval.
+     */
+    public S3FileTransferProgressLogger()
+    {
+        this(DEFAULT_LOG_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Creates a logger that logs the progress of the transfers at the specified interval.
+     *
+     * @param logIntervalMillis the interval between two logged progress statistics in milliseconds
+     */
+    public S3FileTransferProgressLogger(long logIntervalMillis)
+    {
+        this.logIntervalMillis = logIntervalMillis;
+    }
+
+    @Override
+    public void transferProgressed(S3FileTransferStatisticsDto statistics)
+    {
+        if (statistics.getElapsedTimeMillis() - lastLoggedElapsedTimeMillis >= logIntervalMillis)
+        {
+            lastLoggedElapsedTimeMillis = statistics.getElapsedTimeMillis();
+            loggedProgressCount++;
+            LOGGER.info("Transfer progress: " + formatStatistics(statistics));
+        }
+    }
+
+    @Override
+    public void transferDone(S3FileTransferStatisticsDto statistics)
+    {
+        lastLoggedElapsedTimeMillis = 0;
+        LOGGER.info("Transfer statistics: " + formatStatistics(statistics));
+    }
+
+    /**
+     * Gets the number of times the progress of a transfer was logged.
+     *
+     * @return the number of logged progress statistics
+     */
+    public long getLoggedProgressCount()
+    {
+        return loggedProgressCount;
+    }
+
+    /**
+     * Formats the specified transfer statistics.
+     *
+     * @param statistics the transfer statistics
+     *
+     * @return the formatted statistics
+     */
+    protected String formatStatistics(S3FileTransferStatisticsDto statistics)
+    {
+        return String.format("%d bytes transferred out of %d in %d ms, %.2f kBytes/s (%.2f kBytes/s overall), threads=%d, requests=%d, " +
+            "failedRequests=%d, retries=%d, averageRequestLatencyMillis=%d, maxRequestLatencyMillis=%d", statistics.getBytesTransferred(),
+            statistics.getTotalBytesToTransfer(), statistics.getElapsedTimeMillis(), statistics.getBytesPerSecond() / 1024.0,
+            statistics.getAverageBytesPerSecond() / 1024.0, statistics.getThreadCount(), statistics.getRequestCount(), statistics.getFailedRequestCount(),
+            statistics.getRetryCount(), statistics.getAverageRequestLatencyMillis(), statistics.getMaxRequestLatencyMillis());
+    }
+}
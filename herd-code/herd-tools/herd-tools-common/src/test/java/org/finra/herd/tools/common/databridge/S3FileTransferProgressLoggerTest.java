@@ -0,0 +1,77 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.tools.common.databridge;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import org.finra.herd.model.dto.S3FileTransferStatisticsDto;
+
+/**
+ * Tests the S3 file transfer progress logger.
+ */
+public class S3FileTransferProgressLoggerTest
+{
+    @Test
+    public void testTransferProgressed()
+    {
+        S3FileTransferProgressLogger progressLogger = new S3FileTransferProgressLogger(10000);
+
+        // The progress is logged once per log interval.
+        progressLogger.transferProgressed(getStatistics(1000));
+        assertEquals(0, progressLogger.getLoggedProgressCount());
+        progressLogger.transferProgressed(getStatistics(10000));
+        assertEquals(1, progressLogger.getLoggedProgressCount());
+        progressLogger.transferProgressed(getStatistics(15000));
+        assertEquals(1, progressLogger.getLoggedProgressCount());
+        progressLogger.transferProgressed(getStatistics(20000));
+        assertEquals(2, progressLogger.getLoggedProgressCount());
+
+        // The interval starts over with the next transfer.
+        progressLogger.transferDone(getStatistics(25000));
+        progressLogger.transferProgressed(getStatistics(5000));
+        assertEquals(2, progressLogger.getLoggedProgressCount());
+        progressLogger.transferProgressed(getStatistics(10000));
+        assertEquals(3, progressLogger.getLoggedProgressCount());
+    }
+
+    @Test
+    public void testFormatStatistics()
+    {
+        S3FileTransferStatisticsDto statistics = getStatistics(2000);
+        statistics.setBytesTransferred(2048);
+        statistics.setTotalBytesToTransfer(4096);
+        statistics.setBytesPerSecond(1024);
+        statistics.setAverageBytesPerSecond(2048);
+        statistics.setThreadCount(3);
+        statistics.setRequestCount(4);
+        statistics.setFailedRequestCount(1);
+        statistics.setRetryCount(2);
+        statistics.setAverageRequestLatencyMillis(50);
+        statistics.setMaxRequestLatencyMillis(100);
+
+        assertEquals("2048 bytes transferred out of 4096 in 2000 ms, 1.00 kBytes/s (2.00 kBytes/s overall), threads=3, requests=4, failedRequests=1, " +
+            "retries=2, averageRequestLatencyMillis=50, maxRequestLatencyMillis=100", new S3FileTransferProgressLogger().formatStatistics(statistics));
+    }
+
+    private S3FileTransferStatisticsDto getStatistics(long elapsedTimeMillis)
+    {
+        S3FileTransferStatisticsDto statistics = new S3FileTransferStatisticsDto();
+        statistics.setElapsedTimeMillis(elapsedTimeMillis);
+        return statistics;
+    }
+}
@@ -45,6 +45,7 @@ import org.finra.herd.model.dto.S3FileTransferRequestParamsDto;
 import org.finra.herd.model.dto.UploaderInputManifestDto;
 import org.finra.herd.tools.common.databridge.AutoRefreshCredentialProvider;
 import org.finra.herd.tools.common.databridge.DataBridgeController;
+import org.finra.herd.tools.common.databridge.S3FileTransferProgressLogger;
 
 /**
  * Executes the UploaderApp workflow.
@@ -158,7 +159,8 @@ public class UploaderController extends DataBridgeController
                         params.getS3KeyPrefix()));
             }
 
-            // Upload files.
+            // Upload files, logging the throughput and the threads of the upload as it progresses.
+            params.getTransferListeners().add(new S3FileTransferProgressLogger());
             s3Service.uploadFileList(params);
 
             // Get the list of files uploaded to S3 key prefix.
@@ -20,6 +20,7 @@ import java.net.URISyntaxException;
 
 import javax.xml.bind.JAXBException;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
@@ -85,7 +86,7 @@ public class UploaderWebClient extends DataBridgeWebClient
             uriBuilder.setParameter("createNewVersion", createNewVersion.toString());
         }
         HttpGet httpGet = new HttpGet(uriBuilder.build());
-        httpGet.addHeader("Accepts", DEFAULT_ACCEPT);
+        httpGet.addHeader(HttpHeaders.ACCEPT, DEFAULT_ACCEPT);
         if (regServerAccessParamsDto.getUseSsl())
         {
             httpGet.addHeader(getAuthorizationHeader());
@@ -16,9 +16,8 @@
 package org.finra.herd.ui;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.regex.Pattern;
@@ -31,15 +30,15 @@ import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.WebUtils;
 
 /**
- * A servlet filter that logs incoming HTTP requests. This approach is similar to the Spring CommonsRequestLoggingFilter, but is customized to ensure that the
- * full request body is always read and logged. In addition, this filter only has the concept of "before" request logging.
+ * A servlet filter that logs incoming HTTP requests. This approach is similar to the Spring CommonsRequestLoggingFilter, but is customized to log the request
+ * body as it is read by the application. The request body is not pre-read or copied. Instead, the request input stream is teed so that at most the maximum
+ * payload length bytes are captured while the application reads the original stream. The request is logged once the filter chain has completed.
  */
 public class RequestLoggingFilter extends OncePerRequestFilter
 {
@@ -139,26 +138,39 @@ public class RequestLoggingFilter extends OncePerRequestFilter
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException
     {
-        HttpServletRequest requestLocal = request;
-
         // Determine if this is the first request or not. We only want to wrap the request to log on the first request.
-        boolean isFirstRequest = !isAsyncDispatch(requestLocal);
+        boolean isFirstRequest = !isAsyncDispatch(request);
         if (isFirstRequest)
         {
-            requestLocal = new RequestLoggingFilterWrapper(requestLocal);
-            ((RequestLoggingFilterWrapper) requestLocal).logRequest(request);
+            // Move onto the next filter while wrapping the request with our own custom logging class.
+            RequestLoggingFilterWrapper requestLoggingFilterWrapper = new RequestLoggingFilterWrapper(request);
+            try
+            {
+                filterChain.doFilter(requestLoggingFilterWrapper, response);
+            }
+            finally
+            {
+                requestLoggingFilterWrapper.logRequest(request);
+            }
+        }
+        else
+        {
+            filterChain.doFilter(request, response);
         }
-
-        // Move onto the next filter while wrapping the request with our own custom logging class.
-        filterChain.doFilter(requestLocal, response);
     }
 
     /**
-     * A request wrapper that logs incoming requests.
+     * A request wrapper that captures the request payload as it is read and logs incoming requests.
      */
     public class RequestLoggingFilterWrapper extends HttpServletRequestWrapper
     {
-        private byte[] payload = null;
+        /**
+         * The initial size of the payload capture buffer. The buffer only grows as the payload is actually read.
+         */
+        private static final int INITIAL_CAPTURE_BUFFER_SIZE = 256;
+
+        private ByteArrayOutputStream capturedPayload = null;
+        private ServletInputStream inputStream;
         private BufferedReader reader;
 
         /**
@@ -173,36 +185,10 @@ public class RequestLoggingFilter extends OncePerRequestFilter
             // Perform super class processing.
             super(request);
 
-            // Only grab the payload if debugging is enabled. Otherwise, we'd always be pre-reading the entire payload for no reason which cause a slight
-            // performance degradation for no reason.
-            if (LOGGER.isDebugEnabled())
+            // Only capture the payload if debugging is enabled. Otherwise, we'd always be copying the payload for no reason.
+            if (LOGGER.isDebugEnabled() && isIncludePayload())
             {
-                // Read the original payload into the payload variable.
-                InputStream inputStream = null;
-                try
-                {
-                    // Get the input stream.
-                    inputStream = request.getInputStream();
-                    if (inputStream != null)
-                    {
-                        // Read the payload from the input stream.
-                        payload = IOUtils.toByteArray(request.getInputStream());
-                    }
-                }
-                finally
-                {
-                    if (inputStream != null)
-                    {
-                        try
-                        {
-                            inputStream.close();
-                        }
-                        catch (IOException iox)
-                        {
-                            LOGGER.warn("Unable to close request input stream.", iox);
-                        }
-                    }
-                }
+                capturedPayload = new ByteArrayOutputStream(INITIAL_CAPTURE_BUFFER_SIZE);
             }
         }
 
@@ -213,6 +199,12 @@ public class RequestLoggingFilter extends OncePerRequestFilter
          */
         public void logRequest(HttpServletRequest request)
         {
+            // Do not build the message at all if it will not be logged.
+            if (!LOGGER.isDebugEnabled())
+            {
+                return;
+            }
+
             StringBuilder message = new StringBuilder();
 
             // Append the log message prefix.
@@ -255,13 +247,13 @@ public class RequestLoggingFilter extends OncePerRequestFilter
                 }
             }
 
-            // Get the request payload.
+            // Get the request payload that was captured while the request was read.
             String payloadString = "";
             try
             {
-                if (payload != null && payload.length > 0)
+                if (capturedPayload != null && capturedPayload.size() > 0)
                 {
-                    payloadString = new String(payload, 0, payload.length, getCharacterEncoding());
+                    payloadString = capturedPayload.toString(getCharacterEncoding());
                 }
             }
             catch (UnsupportedEncodingException e)
@@ -286,14 +278,9 @@ public class RequestLoggingFilter extends OncePerRequestFilter
                         sanitizedPayloadString = "<hidden because it may contain sensitive information>";
                     }
                 }
-                /*
-                 * Limit logged payload length if max length is set
-                 */
-                else if (getMaxPayloadLength() != null)
-                {
-                    sanitizedPayloadString = payloadString.substring(0, Math.min(payloadString.length(), getMaxPayloadLength()));
-                }
 
+                // The payload needs no truncation here. At most the max payload length of bytes was captured and every character is decoded from at least
+                // one byte, so the payload string is never longer than the max payload length.
                 message.append(";payload=").append(sanitizedPayloadString);
             }
 
@@ -307,37 +294,18 @@ public class RequestLoggingFilter extends OncePerRequestFilter
         @Override
         public ServletInputStream getInputStream() throws IOException
         {
-            if (payload == null)
+            if (capturedPayload == null)
             {
-                // If no payload is present (i.e. debug logging isn't enabled), then perform the standard super class functionality.
+                // If the payload is not captured (i.e. debug logging isn't enabled), then perform the standard super class functionality.
                 return super.getInputStream();
             }
-            else
-            {
-                return new ServletInputStream()
-                {
-                    final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(payload);
-
-                    public int read() throws IOException
-                    {
-                        // Read bytes from the previously read payload.
-                        return byteArrayInputStream.read();
-                    }
-                };
-            }
-        }
 
-        @Override
-        public int getContentLength()
-        {
-            if (payload == null)
-            {
-                return super.getContentLength();
-            }
-            else
+            if (inputStream == null)
             {
-                return payload.length;
+                ServletInputStream originalInputStream = super.getInputStream();
+                inputStream = originalInputStream == null ? null : new PayloadCapturingInputStream(originalInputStream);
             }
+            return inputStream;
         }
 
         @Override
@@ -350,17 +318,79 @@ public class RequestLoggingFilter extends OncePerRequestFilter
         @Override
         public BufferedReader getReader() throws IOException
         {
-            if (payload == null)
+            if (capturedPayload == null)
             {
                 return super.getReader();
             }
-            else
+
+            if (reader == null)
+            {
+                ServletInputStream servletInputStream = getInputStream();
+                this.reader = servletInputStream == null ? null : new BufferedReader(new InputStreamReader(servletInputStream, getCharacterEncoding()));
+            }
+            return reader;
+        }
+
+        /**
+         * Copies the specified bytes into the captured payload, up to the maximum payload length.
+         *
+         * @param bytes the bytes that were read from the request
+         * @param offset the offset of the first byte that was read
+         * @param length the number of bytes that were read
+         */
+        private void capture(byte[] bytes, int offset, int length)
+        {
+            int remaining = getMaxPayloadLength() == null ? length : getMaxPayloadLength() - capturedPayload.size();
+            if (remaining > 0)
+            {
+                capturedPayload.write(bytes, offset, Math.min(length, remaining));
+            }
+        }
+
+        /**
+         * A servlet input stream that passes all reads through to the original request input stream while capturing the bytes read.
+         */
+        private class PayloadCapturingInputStream extends ServletInputStream
+        {
+            private final ServletInputStream originalInputStream;
+
+            private PayloadCapturingInputStream(ServletInputStream originalInputStream)
+            {
+                this.originalInputStream = originalInputStream;
+            }
+
+            @Override
+            public int read() throws IOException
             {
-                if (reader == null)
+                int value = originalInputStream.read();
+                if (value != -1 && (getMaxPayloadLength() == null || capturedPayload.size() < getMaxPayloadLength()))
                 {
-                    this.reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload), getCharacterEncoding()));
+                    capturedPayload.write(value);
                 }
-                return reader;
+                return value;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException
+            {
+                int count = originalInputStream.read(bytes, offset, length);
+                if (count > 0)
+                {
+                    capture(bytes, offset, count);
+                }
+                return count;
+            }
+
+            @Override
+            public int available() throws IOException
+            {
+                return originalInputStream.available();
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                originalInputStream.close();
             }
         }
     }
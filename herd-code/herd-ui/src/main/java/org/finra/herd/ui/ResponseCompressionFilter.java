@@ -0,0 +1,476 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A servlet filter that compresses responses with the gzip or deflate content encoding negotiated through the "Accept-Encoding" request header. The response
+ * is not buffered in full. Only the first bytes, up to the minimum compression size, are held back to decide whether the response is worth compressing. Larger
+ * responses are then compressed as they are written and sent without a content length, i.e. with chunked transfer encoding, while smaller ones are sent as is.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter
+{
+    public static final String GZIP_ENCODING = "gzip";
+    public static final String DEFLATE_ENCODING = "deflate";
+    private static final int DEFAULT_MIN_COMPRESSION_SIZE = 2048;
+
+    private int minCompressionSize = DEFAULT_MIN_COMPRESSION_SIZE;
+
+    /**
+     * Set the minimum number of response bytes for the response to get compressed. Smaller responses are sent uncompressed, since compressing them costs more
+     * than it saves.
+     */
+    public void setMinCompressionSize(int minCompressionSize)
+    {
+        this.minCompressionSize = minCompressionSize;
+    }
+
+    /**
+     * Return the minimum number of response bytes for the response to get compressed.
+     */
+    protected int getMinCompressionSize()
+    {
+        return minCompressionSize;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException
+    {
+        String contentEncoding = selectContentEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        // Pass the request through if the client doesn't accept a supported content encoding or the response has no body.
+        if (contentEncoding == null || "HEAD".equals(request.getMethod()))
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Caches must not serve the compressed response to the clients that don't accept it.
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Finish the response even if the request failed, so the native resources of the compressor are always released.
+        CompressingResponseWrapper compressingResponseWrapper = new CompressingResponseWrapper(response, contentEncoding);
+        try
+        {
+            filterChain.doFilter(request, compressingResponseWrapper);
+        }
+        finally
+        {
+            compressingResponseWrapper.finish();
+        }
+    }
+
+    /**
+     * Selects the content encoding of the response. The gzip encoding is preferred over the deflate one when both are accepted. Quality values are only
+     * checked for being zero, i.e. for the encoding being explicitly refused.
+     *
+     * @param acceptEncoding the value of the "Accept-Encoding" request header, may be null
+     *
+     * @return the content encoding or null if the client doesn't accept any supported content encoding
+     */
+    protected String selectContentEncoding(String acceptEncoding)
+    {
+        if (!StringUtils.hasText(acceptEncoding))
+        {
+            return null;
+        }
+
+        boolean gzipAccepted = false;
+        boolean deflateAccepted = false;
+        for (String element : StringUtils.tokenizeToStringArray(acceptEncoding, ","))
+        {
+            String[] parts = StringUtils.tokenizeToStringArray(element, ";");
+            String encoding = parts[0].toLowerCase();
+            boolean refused = parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (GZIP_ENCODING.equals(encoding) || "x-gzip".equals(encoding))
+            {
+                gzipAccepted = !refused;
+            }
+            else if (DEFLATE_ENCODING.equals(encoding))
+            {
+                deflateAccepted = !refused;
+            }
+        }
+
+        return gzipAccepted ? GZIP_ENCODING : (deflateAccepted ? DEFLATE_ENCODING : null);
+    }
+
+    /**
+     * Checks whether a response of the specified content type is worth compressing, i.e. whether it is textual.
+     *
+     * @param contentType the content type of the response, may be null
+     *
+     * @return true if the response should be compressed
+     */
+    protected boolean isCompressible(String contentType)
+    {
+        if (contentType == null)
+        {
+            return false;
+        }
+
+        String mediaType = contentType.toLowerCase();
+        return mediaType.startsWith("text/") || mediaType.startsWith("application/xml") || mediaType.startsWith("application/json") ||
+            mediaType.startsWith("application/javascript") || mediaType.contains("+xml") || mediaType.contains("+json");
+    }
+
+    /**
+     * A response wrapper that holds back the first bytes of the response until it is known whether the response should be compressed and then either
+     * compresses the rest of the response as it is written or passes it through.
+     */
+    public class CompressingResponseWrapper extends HttpServletResponseWrapper
+    {
+        private final String contentEncoding;
+
+        private final ByteArrayOutputStream heldBackBytes = new ByteArrayOutputStream();
+
+        private final CompressingServletOutputStream outputStream = new CompressingServletOutputStream();
+
+        private PrintWriter writer;
+
+        /**
+         * The stream the response is written to once it is known whether the response should be compressed. It is null while the first bytes are held back.
+         */
+        private OutputStream targetStream;
+
+        /**
+         * The compressor of the compressing stream, so it can be released when the response is reset before the compression is finished.
+         */
+        private Deflater compressor;
+
+        /**
+         * Whether the response has been given the content encoding header, i.e. whether its body must be compressed.
+         */
+        private boolean compressing;
+
+        private Long contentLength;
+
+        /**
+         * Constructs a compressing response wrapper.
+         *
+         * @param response the response to wrap
+         * @param contentEncoding the content encoding to compress the response with
+         */
+        public CompressingResponseWrapper(HttpServletResponse response, String contentEncoding)
+        {
+            super(response);
+            this.contentEncoding = contentEncoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException
+        {
+            if (writer != null)
+            {
+                throw new IllegalStateException("getWriter() has already been called for this response.");
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException
+        {
+            if (writer == null)
+            {
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len)
+        {
+            setContentLengthValue(len);
+        }
+
+        @Override
+        public void setHeader(String name, String value)
+        {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+            {
+                setContentLengthValue(value == null ? null : Long.valueOf(value));
+            }
+            else
+            {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value)
+        {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+            {
+                setContentLengthValue(value == null ? null : Long.valueOf(value));
+            }
+            else
+            {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value)
+        {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+            {
+                setContentLengthValue((long) value);
+            }
+            else
+            {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException
+        {
+            if (writer != null)
+            {
+                writer.flush();
+            }
+            outputStream.flush();
+        }
+
+        @Override
+        public void resetBuffer()
+        {
+            // The headers are kept, so a response that is being compressed is compressed again from the start of the new body.
+            super.resetBuffer();
+            heldBackBytes.reset();
+            discardTarget();
+        }
+
+        @Override
+        public void reset()
+        {
+            // The headers are cleared along with the content encoding, so it is decided again whether the new body should be compressed.
+            super.reset();
+            heldBackBytes.reset();
+            discardTarget();
+            compressing = false;
+            contentLength = null;
+            addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        /**
+         * Completes the response. A response that is still held back, i.e. that is smaller than the minimum compression size, is sent uncompressed with its
+         * content length. Otherwise, the compression is finished.
+         *
+         * @throws IOException if an I/O error occurred
+         */
+        public void finish() throws IOException
+        {
+            if (writer != null)
+            {
+                writer.flush();
+            }
+
+            // The buffer of a compressed response was reset, so whatever was written since then must be compressed too, however small it is.
+            if (targetStream == null && compressing)
+            {
+                startTarget();
+            }
+
+            if (targetStream == null)
+            {
+                if (heldBackBytes.size() > 0)
+                {
+                    getResponse().setContentLength(heldBackBytes.size());
+                    heldBackBytes.writeTo(getResponse().getOutputStream());
+                }
+                else if (contentLength != null)
+                {
+                    getResponse().setContentLength(contentLength.intValue());
+                }
+            }
+            else if (targetStream instanceof DeflaterOutputStream)
+            {
+                ((DeflaterOutputStream) targetStream).finish();
+            }
+        }
+
+        /**
+         * Records the content length set by the application. It is only passed on to the wrapped response when the response is not compressed.
+         *
+         * @param value the content length
+         */
+        private void setContentLengthValue(Long value)
+        {
+            contentLength = value;
+            if (targetStream != null && !(targetStream instanceof DeflaterOutputStream) && value != null)
+            {
+                getResponse().setContentLength(value.intValue());
+            }
+        }
+
+        /**
+         * Decides whether the response should be compressed and writes the held back bytes to the stream the rest of the response will be written to.
+         *
+         * @throws IOException if an I/O error occurred
+         */
+        private void startTarget() throws IOException
+        {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!compressing && isCompressible(response.getContentType()) && !response.containsHeader(HttpHeaders.CONTENT_ENCODING))
+            {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+                compressing = true;
+            }
+
+            if (compressing)
+            {
+                targetStream = createCompressingStream(response.getOutputStream());
+            }
+            else
+            {
+                if (contentLength != null)
+                {
+                    response.setContentLength(contentLength.intValue());
+                }
+                targetStream = response.getOutputStream();
+            }
+
+            heldBackBytes.writeTo(targetStream);
+            heldBackBytes.reset();
+        }
+
+        /**
+         * Drops the stream the response was written to, since its bytes were cleared by a reset of the wrapped response. The compressor is released without
+         * finishing the compression, so no trailer gets written into the new body.
+         */
+        private void discardTarget()
+        {
+            if (compressor != null)
+            {
+                compressor.end();
+                compressor = null;
+            }
+            targetStream = null;
+        }
+
+        /**
+         * Creates the stream that compresses the response with the negotiated content encoding. The native resources of the compressor are released as soon
+         * as the compression is finished, since the servlet output stream itself is never closed by the filter.
+         *
+         * @param outputStream the output stream of the wrapped response
+         *
+         * @return the compressing stream
+         * @throws IOException if an I/O error occurred
+         */
+        private DeflaterOutputStream createCompressingStream(OutputStream outputStream) throws IOException
+        {
+            if (GZIP_ENCODING.equals(contentEncoding))
+            {
+                return new GZIPOutputStream(outputStream, true)
+                {
+                    {
+                        compressor = def;
+                    }
+
+                    @Override
+                    public void finish() throws IOException
+                    {
+                        try
+                        {
+                            super.finish();
+                        }
+                        finally
+                        {
+                            def.end();
+                        }
+                    }
+                };
+            }
+
+            return new DeflaterOutputStream(outputStream, true)
+            {
+                {
+                    compressor = def;
+                }
+
+                @Override
+                public void finish() throws IOException
+                {
+                    try
+                    {
+                        super.finish();
+                    }
+                    finally
+                    {
+                        def.end();
+                    }
+                }
+            };
+        }
+
+        /**
+         * The output stream of the wrapped response.
+         */
+        private class CompressingServletOutputStream extends ServletOutputStream
+        {
+            @Override
+            public void write(int b) throws IOException
+            {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException
+            {
+                if (targetStream == null)
+                {
+                    if (heldBackBytes.size() + len < getMinCompressionSize())
+                    {
+                        heldBackBytes.write(b, off, len);
+                        return;
+                    }
+                    startTarget();
+                }
+                targetStream.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException
+            {
+                // Held back bytes are not flushed, since that would commit the response before it is known whether it should be compressed.
+                if (targetStream != null)
+                {
+                    targetStream.flush();
+                }
+            }
+        }
+    }
+}
@@ -16,8 +16,10 @@
 package org.finra.herd.ui;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -29,6 +31,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.WriterAppender;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.mock.web.MockFilterChain;
@@ -122,6 +126,58 @@ public class RequestLoggingFilterTest extends AbstractUiTest
         createFilter().doFilter(createServletRequest(), createServletResponse(), filterChain);
     }
 
+    @Test
+    public void testDoFilterReadInputStreamFromFilterChainWithMaxPayloadLength() throws Exception
+    {
+        FilterChain filterChain = new MockFilterChain()
+        {
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException
+            {
+                // The full payload must be passed through even though only part of it gets captured for logging.
+                String payload = IOUtils.toString(request.getInputStream());
+                assertEquals(PAYLOAD_CONTENT, payload);
+            }
+        };
+
+        RequestLoggingFilter requestLoggingFilter = createFilter();
+        requestLoggingFilter.setMaxPayloadLength(4);
+
+        // Capture the messages logged by the filter.
+        StringWriter logWriter = new StringWriter();
+        WriterAppender writerAppender = new WriterAppender(new PatternLayout("%m%n"), logWriter);
+        Logger logger = Logger.getLogger(RequestLoggingFilter.class);
+        logger.addAppender(writerAppender);
+
+        try
+        {
+            // Run the filter.
+            requestLoggingFilter.doFilter(createServletRequest(), createServletResponse(), filterChain);
+        }
+        finally
+        {
+            logger.removeAppender(writerAppender);
+        }
+
+        // Validate that the logged payload was truncated to the max payload length.
+        assertTrue(logWriter.toString().contains(";payload=" + PAYLOAD_CONTENT.substring(0, 4) + "]"));
+    }
+
+    @Test
+    public void testDoFilterReadReaderFromFilterChainWithPayload() throws Exception
+    {
+        FilterChain filterChain = new MockFilterChain()
+        {
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException
+            {
+                String payload = IOUtils.toString(request.getReader());
+                assertEquals(PAYLOAD_CONTENT, payload);
+            }
+        };
+
+        // Run the filter.
+        createFilter().doFilter(createServletRequest(), createServletResponse(), filterChain);
+    }
+
     @Test
     public void testDoFilterReadInputStreamFromFilterChainWithNoPayload() throws Exception
     {
@@ -0,0 +1,232 @@
+/*
+* Copyright 2015 herd contributors
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.finra.herd.ui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test driver for the ResponseCompressionFilter class.
+ */
+public class ResponseCompressionFilterTest extends AbstractUiTest
+{
+    private static final int MIN_COMPRESSION_SIZE = 1024;
+
+    private static final byte[] LARGE_XML_CONTENT =
+        ("<businessObjectData>" + StringUtils.repeat("<storageFile><filePath>path/to/file</filePath></storageFile>", 100) + "</businessObjectData>")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SMALL_XML_CONTENT = "<businessObjectData></businessObjectData>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testDoFilterGzip() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip, deflate"), response, createFilterChain("application/xml", LARGE_XML_CONTENT));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertArrayEquals(LARGE_XML_CONTENT, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+    }
+
+    @Test
+    public void testDoFilterDeflate() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip;q=0, deflate"), response, createFilterChain("application/json", LARGE_XML_CONTENT));
+
+        assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(LARGE_XML_CONTENT, IOUtils.toByteArray(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+    }
+
+    @Test
+    public void testDoFilterWriter() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        final String content = new String(LARGE_XML_CONTENT, StandardCharsets.UTF_8);
+
+        createFilter().doFilter(createServletRequest("gzip"), response, new FilterChain()
+        {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) throws IOException, ServletException
+            {
+                servletResponse.setContentType("application/xml");
+                servletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                servletResponse.getWriter().write(content);
+            }
+        });
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
+        assertEquals(content, IOUtils.toString(inputStream, StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void testDoFilterBelowMinCompressionSize() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip"), response, createFilterChain("application/xml", SMALL_XML_CONTENT));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(SMALL_XML_CONTENT.length, response.getContentLength());
+        assertArrayEquals(SMALL_XML_CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testDoFilterNotCompressibleContentType() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip"), response, createFilterChain("image/png", LARGE_XML_CONTENT));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(LARGE_XML_CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testDoFilterCompressionNotAccepted() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest(null), response, createFilterChain("application/xml", LARGE_XML_CONTENT));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(LARGE_XML_CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testDoFilterResetAfterCompressionStarted() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip"), response, new FilterChain()
+        {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) throws IOException, ServletException
+            {
+                // Start a compressed response, then reset it and send a small uncompressible one instead.
+                servletResponse.setContentType("application/xml");
+                servletResponse.getOutputStream().write(LARGE_XML_CONTENT);
+                servletResponse.reset();
+                servletResponse.setContentType("image/png");
+                servletResponse.getOutputStream().write(SMALL_XML_CONTENT);
+            }
+        });
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(SMALL_XML_CONTENT.length, response.getContentLength());
+        assertArrayEquals(SMALL_XML_CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testDoFilterResetBufferAfterCompressionStarted() throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        createFilter().doFilter(createServletRequest("gzip"), response, new FilterChain()
+        {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) throws IOException, ServletException
+            {
+                // Start a compressed response, then reset its buffer and send a small body with the same headers.
+                servletResponse.setContentType("application/xml");
+                servletResponse.getOutputStream().write(LARGE_XML_CONTENT);
+                servletResponse.resetBuffer();
+                servletResponse.getOutputStream().write(SMALL_XML_CONTENT);
+            }
+        });
+
+        // The content encoding header is kept, so the small body is compressed as well.
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(SMALL_XML_CONTENT, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+    }
+
+    @Test
+    public void testSelectContentEncoding()
+    {
+        ResponseCompressionFilter responseCompressionFilter = createFilter();
+
+        assertEquals("gzip", responseCompressionFilter.selectContentEncoding("gzip,deflate"));
+        assertEquals("gzip", responseCompressionFilter.selectContentEncoding("deflate, x-gzip"));
+        assertEquals("deflate", responseCompressionFilter.selectContentEncoding("deflate"));
+        assertEquals("deflate", responseCompressionFilter.selectContentEncoding("gzip; q=0.0, deflate; q=0.5"));
+        assertNull(responseCompressionFilter.selectContentEncoding("identity"));
+        assertNull(responseCompressionFilter.selectContentEncoding(" "));
+        assertNull(responseCompressionFilter.selectContentEncoding(null));
+    }
+
+    private ResponseCompressionFilter createFilter()
+    {
+        ResponseCompressionFilter responseCompressionFilter = new ResponseCompressionFilter();
+        responseCompressionFilter.setMinCompressionSize(MIN_COMPRESSION_SIZE);
+        return responseCompressionFilter;
+    }
+
+    private MockHttpServletRequest createServletRequest(String acceptEncoding)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/businessObjectData");
+        if (acceptEncoding != null)
+        {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private FilterChain createFilterChain(final String contentType, final byte[] content)
+    {
+        return new FilterChain()
+        {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) throws IOException, ServletException
+            {
+                servletResponse.setContentType(contentType);
+                servletResponse.setContentLength(content.length);
+                // Write the content in small chunks, the way a streaming message converter does.
+                for (int offset = 0; offset < content.length; offset += 100)
+                {
+                    servletResponse.getOutputStream().write(content, offset, Math.min(100, content.length - offset));
+                }
+                servletResponse.getOutputStream().flush();
+            }
+        };
+    }
+}